@@ -1,6 +1,8 @@
 package com.knight.contexts.approvalworkflows.engine.api.commands;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Command interface for Approval Engine bounded context.
@@ -24,6 +26,17 @@ public interface ApprovalEngineCommands {
      */
     void rejectWorkflow(RejectWorkflowCmd cmd);
 
+    /**
+     * Approve many pending workflows as one approver.
+     * Each workflow succeeds or fails on its own; the result reports every one, in request order.
+     */
+    BatchDecisionResult approveWorkflows(BatchApproveWorkflowsCmd cmd);
+
+    /**
+     * Reject many pending workflows as one approver, reporting each as approveWorkflows does.
+     */
+    BatchDecisionResult rejectWorkflows(BatchRejectWorkflowsCmd cmd);
+
     /**
      * Cancel a workflow (called by requester or admin).
      */
@@ -35,8 +48,14 @@ public interface ApprovalEngineCommands {
         String requesterId,           // User initiating the request
         String action,                // Action requiring approval (e.g., "SUBMIT_RECEIVABLE")
         String resource,              // Resource URN being acted upon
-        BigDecimal amount             // Amount if applicable (for threshold rules)
-    ) {}
+        BigDecimal amount,            // Amount if applicable (for threshold rules)
+        Duration timeToLive           // Expires if still pending after this long; null for the configured default
+    ) {
+        public StartApprovalWorkflowCmd(String statementId, String profileId, String requesterId,
+                                        String action, String resource, BigDecimal amount) {
+            this(statementId, profileId, requesterId, action, resource, amount, null);
+        }
+    }
 
     record ApproveWorkflowCmd(
         String workflowId,
@@ -50,6 +69,45 @@ public interface ApprovalEngineCommands {
         String reason
     ) {}
 
+    record BatchApproveWorkflowsCmd(
+        String approverId,
+        List<String> workflowIds,     // At most 1000
+        String comment                // Recorded on every approval
+    ) {}
+
+    record BatchRejectWorkflowsCmd(
+        String approverId,
+        List<String> workflowIds,     // At most 1000
+        String reason                 // Recorded on every rejection
+    ) {}
+
+    record BatchDecisionResult(
+        List<WorkflowDecisionResult> results
+    ) {
+        public long succeeded() {
+            return results.stream().filter(WorkflowDecisionResult::succeeded).count();
+        }
+
+        public long failed() {
+            return results.size() - succeeded();
+        }
+    }
+
+    record WorkflowDecisionResult(
+        String workflowId,
+        boolean succeeded,
+        String status,                // Workflow status after the decision; null if it failed
+        String error                  // Why the decision was refused; null if it succeeded
+    ) {
+        public static WorkflowDecisionResult succeeded(String workflowId, String status) {
+            return new WorkflowDecisionResult(workflowId, true, status, null);
+        }
+
+        public static WorkflowDecisionResult failed(String workflowId, String error) {
+            return new WorkflowDecisionResult(workflowId, false, null, error);
+        }
+    }
+
     record CancelWorkflowCmd(
         String workflowId,
         String cancelledBy,
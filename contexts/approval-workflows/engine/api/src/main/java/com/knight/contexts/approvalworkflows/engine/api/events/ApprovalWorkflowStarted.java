@@ -2,6 +2,7 @@ package com.knight.contexts.approvalworkflows.engine.api.events;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 
 /**
  * Domain event published when an approval workflow is started.
@@ -15,5 +16,21 @@ public record ApprovalWorkflowStarted(
     String resource,
     BigDecimal amount,
     int requiredApprovals,
-    Instant startedAt
-) {}
+    Instant startedAt,
+    Instant expiresAt,          // null when the workflow never expires
+    List<String> eligibleApprovers
+) {
+    public ApprovalWorkflowStarted(String workflowId, String statementId, String profileId, String requesterId,
+                                   String action, String resource, BigDecimal amount, int requiredApprovals,
+                                   Instant startedAt, Instant expiresAt) {
+        this(workflowId, statementId, profileId, requesterId, action, resource, amount, requiredApprovals,
+            startedAt, expiresAt, List.of());
+    }
+
+    public ApprovalWorkflowStarted(String workflowId, String statementId, String profileId, String requesterId,
+                                   String action, String resource, BigDecimal amount, int requiredApprovals,
+                                   Instant startedAt) {
+        this(workflowId, statementId, profileId, requesterId, action, resource, amount, requiredApprovals,
+            startedAt, null);
+    }
+}
@@ -0,0 +1,194 @@
+package com.knight.contexts.approvalworkflows.engine.app.expiry;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timer wheel holding deadlines at tick resolution.
+ *
+ * Four levels of 256 slots each; level L covers deadlines fewer than 256^(L+1) ticks away, and a
+ * slot is a doubly linked list, so scheduling and cancelling are O(1) whatever the number of
+ * outstanding deadlines. When level 0 wraps, the next slot of the level above is cascaded: its
+ * entries are placed again relative to the current tick and move down a level. Deadlines beyond
+ * the top level's span are parked in its furthest slot and placed again when it cascades.
+ *
+ * A value is passed on no earlier than its deadline and at most one tick after it.
+ * Not thread-safe: callers serialize access.
+ */
+final class HierarchicalTimerWheel<T> {
+
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final long SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final Timeout<T>[][] levels;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    HierarchicalTimerWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be > 0");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+        this.levels = new Timeout[LEVELS][SLOTS];
+        for (Timeout<T>[] level : levels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = Timeout.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Schedule value for deadlineMillis; a deadline already passed fires on the next tick.
+     */
+    Timeout<T> schedule(T value, long deadlineMillis) {
+        // Round up so a value never fires before its deadline
+        Timeout<T> timeout = new Timeout<>(value, Math.floorDiv(deadlineMillis - 1, tickMillis) + 1);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancel a scheduled timeout; returns false if it already fired or was cancelled.
+     */
+    boolean cancel(Timeout<T> timeout) {
+        if (timeout.prev == null) {
+            return false;
+        }
+        timeout.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Advance to nowMillis, passing every value whose deadline has been reached to expired.
+     */
+    void advance(long nowMillis, Consumer<T> expired) {
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < target) {
+            if (size == 0) {
+                currentTick = target;
+                return;
+            }
+            currentTick++;
+            if ((currentTick & SLOT_MASK) == 0) {
+                cascade();
+            }
+            fire(levels[0][(int) (currentTick & SLOT_MASK)], expired);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Timeout<T> timeout = levels[level][slot].detachAll();
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                timeout.next = null;
+                place(timeout);
+                timeout = next;
+            }
+            if (slot != 0) {
+                return;
+            }
+        }
+    }
+
+    private void fire(Timeout<T> head, Consumer<T> expired) {
+        Timeout<T> timeout = head.detachAll();
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.next = null;
+            if (timeout.deadlineTick <= currentTick) {
+                size--;
+                expired.accept(timeout.value);
+            } else {
+                place(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        if (delta <= 0) {
+            levels[0][(int) ((currentTick + 1) & SLOT_MASK)].append(timeout);
+            return;
+        }
+        long tick = delta < SPAN ? timeout.deadlineTick : currentTick + SPAN - 1;
+        delta = tick - currentTick;
+        int level = 0;
+        while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        levels[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)].append(timeout);
+    }
+
+    /**
+     * A scheduled value, linked into the slot that currently holds it.
+     */
+    static final class Timeout<T> {
+
+        private final T value;
+        private final long deadlineTick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+
+        private static <T> Timeout<T> sentinel() {
+            Timeout<T> head = new Timeout<>(null, Long.MIN_VALUE);
+            head.prev = head;
+            head.next = head;
+            return head;
+        }
+
+        T value() {
+            return value;
+        }
+
+        private void append(Timeout<T> timeout) {
+            timeout.prev = prev;
+            timeout.next = this;
+            prev.next = timeout;
+            prev = timeout;
+        }
+
+        /**
+         * Empty this slot, returning its entries as a chain linked through next (null-terminated)
+         * and marked as unlinked, so entries placed again while walking it cannot rejoin the walk.
+         */
+        private Timeout<T> detachAll() {
+            if (next == this) {
+                return null;
+            }
+            Timeout<T> first = next;
+            prev.next = null;
+            next = this;
+            prev = this;
+            for (Timeout<T> timeout = first; timeout != null; timeout = timeout.next) {
+                timeout.prev = null;
+            }
+            return first;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
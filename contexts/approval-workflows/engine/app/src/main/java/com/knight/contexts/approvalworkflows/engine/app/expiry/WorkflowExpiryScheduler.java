@@ -0,0 +1,160 @@
+package com.knight.contexts.approvalworkflows.engine.app.expiry;
+
+import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalWorkflowCompleted;
+import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalWorkflowStarted;
+import com.knight.contexts.approvalworkflows.engine.app.repository.ApprovalWorkflowRepository;
+import com.knight.contexts.approvalworkflows.engine.app.service.ApprovalEngineApplicationService;
+import com.knight.contexts.approvalworkflows.engine.domain.aggregate.ApprovalWorkflow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires PENDING workflows when their deadline passes.
+ *
+ * Deadlines live in a {@link HierarchicalTimerWheel}: a started workflow with a deadline is
+ * scheduled, and a completed one is cancelled, both in O(1). A single thread advances the
+ * wheel every tick and expires what fell due through the application service, which publishes
+ * ApprovalWorkflowCompleted with outcome EXPIRED. The wheel is in memory only; on start it is
+ * rebuilt from the pending workflows in the repository, and those already overdue expire on
+ * the first tick.
+ */
+@Component
+public class WorkflowExpiryScheduler implements SmartLifecycle {
+
+    private final ApprovalWorkflowRepository repository;
+    private final ApprovalEngineApplicationService service;
+    private final Clock clock;
+    private final long tickMillis;
+
+    // Guarded by this
+    private final HierarchicalTimerWheel<String> wheel;
+    private final Map<String, HierarchicalTimerWheel.Timeout<String>> timeouts = new HashMap<>();
+
+    private ScheduledExecutorService ticker;
+
+    @Autowired
+    public WorkflowExpiryScheduler(ApprovalWorkflowRepository repository,
+                                   ApprovalEngineApplicationService service,
+                                   @Value("${knight.approval.workflow.expiry-tick-millis:100}") long tickMillis) {
+        this(repository, service, Clock.systemUTC(), tickMillis);
+    }
+
+    public WorkflowExpiryScheduler(ApprovalWorkflowRepository repository,
+                                   ApprovalEngineApplicationService service,
+                                   Clock clock,
+                                   long tickMillis) {
+        this.repository = repository;
+        this.service = service;
+        this.clock = clock;
+        this.tickMillis = tickMillis;
+        this.wheel = new HierarchicalTimerWheel<>(tickMillis, clock.millis());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(ApprovalWorkflowStarted event) {
+        if (event.expiresAt() != null) {
+            schedule(event.workflowId(), event.expiresAt());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(ApprovalWorkflowCompleted event) {
+        cancel(event.workflowId());
+    }
+
+    public synchronized void schedule(String workflowId, Instant expiresAt) {
+        HierarchicalTimerWheel.Timeout<String> previous =
+            timeouts.put(workflowId, wheel.schedule(workflowId, expiresAt.toEpochMilli()));
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+    }
+
+    public synchronized void cancel(String workflowId) {
+        HierarchicalTimerWheel.Timeout<String> timeout = timeouts.remove(workflowId);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    /**
+     * Number of deadlines currently scheduled.
+     */
+    public synchronized int scheduled() {
+        return wheel.size();
+    }
+
+    /**
+     * Advance to the current time and expire every workflow that fell due, returning how many
+     * were expired. Called by the ticker; workflows are expired outside the wheel's lock, and one
+     * that fails to expire is retried on the next tick.
+     */
+    public int expireDue() {
+        Instant now = clock.instant();
+        List<String> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(now.toEpochMilli(), due::add);
+            due.forEach(timeouts::remove);
+        }
+        int expired = 0;
+        for (String workflowId : due) {
+            try {
+                if (service.expireWorkflow(workflowId, now)) {
+                    expired++;
+                }
+            } catch (RuntimeException e) {
+                schedule(workflowId, now.plusMillis(tickMillis));
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Schedule the deadline of every pending workflow in the repository.
+     */
+    public void rebuild() {
+        for (ApprovalWorkflow workflow : repository.findPendingWithDeadline()) {
+            schedule(workflow.workflowId(), workflow.expiresAt());
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        rebuild();
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "approval-workflow-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::expireDue, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return ticker != null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.knight.contexts.approvalworkflows.engine.app.projection;
+
+import com.knight.contexts.approvalworkflows.engine.app.repository.ApprovalWorkflowRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the read model from the repository once all beans exist and before the web server takes
+ * traffic, so workflows persisted before a restart are served again. Only pending workflows are
+ * loaded: completed ones are read from the repository when asked for, as are completed rows the
+ * read model has paged out. A no-op for the in-memory repository, which starts empty.
+ */
+@Component
+public class WorkflowReadModelLoader implements SmartInitializingSingleton {
+
+    private final ApprovalWorkflowRepository repository;
+    private final WorkflowReadModelProjection readModel;
+
+    public WorkflowReadModelLoader(ApprovalWorkflowRepository repository, WorkflowReadModelProjection readModel) {
+        this.repository = repository;
+        this.readModel = readModel;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        repository.findPending().forEach(readModel::load);
+    }
+}
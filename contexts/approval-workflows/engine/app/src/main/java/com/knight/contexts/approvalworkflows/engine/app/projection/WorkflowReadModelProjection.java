@@ -0,0 +1,249 @@
+package com.knight.contexts.approvalworkflows.engine.app.projection;
+
+import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalReceived;
+import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalWorkflowCompleted;
+import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalWorkflowStarted;
+import com.knight.contexts.approvalworkflows.engine.api.queries.ApprovalEngineQueries.ApprovalDecision;
+import com.knight.contexts.approvalworkflows.engine.api.queries.ApprovalEngineQueries.PendingApprovalSummary;
+import com.knight.contexts.approvalworkflows.engine.api.queries.ApprovalEngineQueries.WorkflowHistory;
+import com.knight.contexts.approvalworkflows.engine.api.queries.ApprovalEngineQueries.WorkflowStatus;
+import com.knight.contexts.approvalworkflows.engine.domain.aggregate.ApprovalWorkflow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read side of the approval engine: ready-to-serve status, inbox and history rows per workflow.
+ *
+ * Rows are built from ApprovalWorkflowStarted, ApprovalReceived and ApprovalWorkflowCompleted
+ * after commit and replaced whole on every event, so a lookup returns a finished record without
+ * touching the aggregate or taking a lock. Each workflow's row is updated atomically; decisions
+ * are kept in decision order and a completed workflow stays completed, so events of one workflow
+ * published out of order by concurrent batches still converge on the same row.
+ *
+ * The order of after-commit listeners is unspecified, so decisions and the completion of a
+ * workflow may arrive before its start, for instance when a short TTL lets the expiry scheduler
+ * expire it first. They are kept on a row that is not served until the start arrives and is
+ * merged into it; a start never resets a row that has already started.
+ *
+ * Completed rows are paged out oldest completion first beyond
+ * knight.approval.read-model.max-completed; lookups of those fall back to the repository.
+ *
+ * Which workflows are in an approver's inbox is not decided here but by the repository's
+ * approver index, which changes with the save itself; the read model supplies their rows.
+ */
+@Component
+public class WorkflowReadModelProjection {
+
+    private static final String PENDING = "PENDING";
+
+    private final int maxCompleted;
+    private final Map<String, WorkflowRow> rows = new ConcurrentHashMap<>();
+    // Workflows in the order their rows completed, oldest first, for paging them out
+    private final Queue<String> completedOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completedCount = new AtomicInteger();
+
+    public WorkflowReadModelProjection(@Value("${knight.approval.read-model.max-completed:100000}") int maxCompleted) {
+        if (maxCompleted < 0) {
+            throw new IllegalArgumentException("maxCompleted must be >= 0");
+        }
+        this.maxCompleted = maxCompleted;
+    }
+
+    /**
+     * Status of the workflow if its row is held; empty for unknown and paged-out workflows.
+     */
+    public Optional<WorkflowStatus> findStatus(String workflowId) {
+        WorkflowRow row = rows.get(workflowId);
+        return row != null && row.started() ? Optional.of(row.status()) : Optional.empty();
+    }
+
+    /**
+     * History of the workflow if its row is held; empty for unknown and paged-out workflows.
+     */
+    public Optional<WorkflowHistory> findHistory(String workflowId) {
+        WorkflowRow row = rows.get(workflowId);
+        return row != null && row.started() ? Optional.of(row.history()) : Optional.empty();
+    }
+
+    /**
+     * Inbox rows of the given workflows, which the repository's approver index lists as pending
+     * for the approver, oldest request first. Workflows the approver requested, and those whose
+     * row is not pending (yet), are left out.
+     */
+    public List<PendingApprovalSummary> findPending(String approverId, Collection<String> workflowIds) {
+        List<PendingApprovalSummary> pending = new ArrayList<>(workflowIds.size());
+        for (String id : workflowIds) {
+            WorkflowRow row = rows.get(id);
+            if (row != null && row.started() && row.isPending() && !approverId.equals(row.pending().requesterId())) {
+                pending.add(row.pending());
+            }
+        }
+        pending.sort(Comparator.comparing(PendingApprovalSummary::requestedAt));
+        return pending;
+    }
+
+    /**
+     * Status of a stored workflow, as its row would show it.
+     */
+    public static WorkflowStatus statusOf(ApprovalWorkflow workflow) {
+        return WorkflowRow.of(workflow).status();
+    }
+
+    /**
+     * History of a stored workflow, as its row would show it.
+     */
+    public static WorkflowHistory historyOf(ApprovalWorkflow workflow) {
+        return WorkflowRow.of(workflow).history();
+    }
+
+    /**
+     * Install the row of a stored workflow as if its events had been received, replacing any
+     * row it had. Used to rebuild the read model from the repository on start.
+     */
+    public void load(ApprovalWorkflow workflow) {
+        WorkflowRow row = WorkflowRow.of(workflow);
+        rows.put(workflow.workflowId(), row);
+        if (!row.isPending()) {
+            pageOut(workflow.workflowId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(ApprovalWorkflowStarted event) {
+        rows.compute(event.workflowId(), (id, current) -> {
+            if (current == null) {
+                return WorkflowRow.started(event);
+            }
+            return current.started() ? current : WorkflowRow.started(event).merge(current);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(ApprovalReceived event) {
+        ApprovalDecision decision =
+            new ApprovalDecision(event.approverId(), event.decision(), event.comment(), event.approvedAt());
+        rows.compute(event.workflowId(), (id, current) ->
+            (current != null ? current : WorkflowRow.awaitingStart(id)).withDecision(decision));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(ApprovalWorkflowCompleted event) {
+        rows.compute(event.workflowId(), (id, current) ->
+            (current != null ? current : WorkflowRow.awaitingStart(id)).completed(event.outcome(), event.completedAt()));
+        pageOut(event.workflowId());
+    }
+
+    private void pageOut(String completedWorkflowId) {
+        completedOrder.add(completedWorkflowId);
+        completedCount.incrementAndGet();
+        while (completedCount.get() > maxCompleted) {
+            String oldest = completedOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            completedCount.decrementAndGet();
+            rows.computeIfPresent(oldest, (id, row) -> row.isPending() ? row : null);
+        }
+    }
+
+    /**
+     * Everything served about one workflow; immutable.
+     */
+    private record WorkflowRow(
+        WorkflowStatus status,
+        PendingApprovalSummary pending,
+        WorkflowHistory history,
+        // False while only decisions or the completion have arrived; such a row is not served
+        boolean started
+    ) {
+
+        static WorkflowRow started(ApprovalWorkflowStarted event) {
+            WorkflowStatus status = new WorkflowStatus(event.workflowId(), event.statementId(), event.profileId(),
+                PENDING, event.requiredApprovals(), 0, event.startedAt(), null);
+            PendingApprovalSummary pending = new PendingApprovalSummary(event.workflowId(), event.statementId(),
+                event.profileId(), event.requesterId(), event.action(), event.resource(), event.startedAt(),
+                event.requiredApprovals(), 0);
+            WorkflowHistory history = new WorkflowHistory(event.workflowId(), event.statementId(), PENDING,
+                List.of(), event.startedAt(), null);
+            return new WorkflowRow(status, pending, history, true);
+        }
+
+        static WorkflowRow awaitingStart(String workflowId) {
+            return new WorkflowRow(
+                new WorkflowStatus(workflowId, null, null, PENDING, 0, 0, null, null),
+                new PendingApprovalSummary(workflowId, null, null, null, null, null, null, 0, 0),
+                new WorkflowHistory(workflowId, null, PENDING, List.of(), null, null),
+                false);
+        }
+
+        static WorkflowRow of(ApprovalWorkflow workflow) {
+            WorkflowRow row = started(new ApprovalWorkflowStarted(workflow.workflowId(), workflow.statementId(),
+                workflow.profileId(), workflow.requesterId(), workflow.action(), workflow.resource(),
+                workflow.amount(), workflow.requiredApprovals(), workflow.createdAt(), workflow.expiresAt(),
+                workflow.eligibleApprovers()));
+            for (ApprovalWorkflow.Approval approval : workflow.receivedApprovals()) {
+                row = row.withDecision(new ApprovalDecision(approval.approverId(), approval.decision(),
+                    approval.comment(), approval.approvedAt()));
+            }
+            if (workflow.status() != ApprovalWorkflow.Status.PENDING) {
+                row = row.completed(workflow.status().name(), workflow.completedAt());
+            }
+            return row;
+        }
+
+        /**
+         * This started row with the decisions and completion that arrived before the start.
+         */
+        WorkflowRow merge(WorkflowRow early) {
+            WorkflowRow row = this;
+            for (ApprovalDecision decision : early.history().decisions()) {
+                row = row.withDecision(decision);
+            }
+            return early.isPending() ? row : row.completed(early.status().status(), early.status().completedAt());
+        }
+
+        boolean isPending() {
+            return PENDING.equals(status.status());
+        }
+
+        WorkflowRow withDecision(ApprovalDecision decision) {
+            List<ApprovalDecision> decisions = new ArrayList<>(history.decisions().size() + 1);
+            decisions.addAll(history.decisions());
+            decisions.add(decision);
+            decisions.sort(Comparator.comparing(ApprovalDecision::decidedAt));
+            int approvals = (int) decisions.stream().filter(d -> "APPROVED".equals(d.decision())).count();
+            return new WorkflowRow(
+                new WorkflowStatus(status.workflowId(), status.statementId(), status.profileId(), status.status(),
+                    status.requiredApprovals(), approvals, status.createdAt(), status.completedAt()),
+                new PendingApprovalSummary(pending.workflowId(), pending.statementId(), pending.profileId(),
+                    pending.requesterId(), pending.action(), pending.resource(), pending.requestedAt(),
+                    pending.requiredApprovals(), approvals),
+                new WorkflowHistory(history.workflowId(), history.statementId(), history.status(),
+                    List.copyOf(decisions), history.createdAt(), history.completedAt()),
+                started);
+        }
+
+        WorkflowRow completed(String outcome, Instant completedAt) {
+            return new WorkflowRow(
+                new WorkflowStatus(status.workflowId(), status.statementId(), status.profileId(), outcome,
+                    status.requiredApprovals(), status.receivedApprovals(), status.createdAt(), completedAt),
+                pending,
+                new WorkflowHistory(history.workflowId(), history.statementId(), outcome,
+                    history.decisions(), history.createdAt(), completedAt),
+                started);
+        }
+    }
+}
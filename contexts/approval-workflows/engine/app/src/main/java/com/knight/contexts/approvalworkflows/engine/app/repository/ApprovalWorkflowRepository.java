@@ -11,13 +11,37 @@ import java.util.Optional;
  */
 public interface ApprovalWorkflowRepository {
 
+    /**
+     * Persist the workflow. Saves of one workflow are serialized by the caller, as the
+     * application service does with its per-workflow locks.
+     */
     void save(ApprovalWorkflow workflow);
 
     Optional<ApprovalWorkflow> findById(String workflowId);
 
     List<ApprovalWorkflow> findByStatementId(String statementId);
 
-    List<ApprovalWorkflow> findPendingForApprover(String approverId);
+    /**
+     * Ids of the PENDING workflows the approver is eligible to decide. Implementations answer
+     * from an index by approver that changes in the same step as the save or delete that starts,
+     * decides, cancels, expires or removes a workflow, rather than scanning every workflow.
+     */
+    List<String> findPendingIdsForApprover(String approverId);
+
+    /**
+     * PENDING workflows that have an expiry deadline, used to rebuild the expiry schedule on start.
+     */
+    List<ApprovalWorkflow> findPendingWithDeadline();
+
+    /**
+     * PENDING workflows, used to rebuild the read model on start.
+     */
+    List<ApprovalWorkflow> findPending();
+
+    /**
+     * Every stored workflow.
+     */
+    List<ApprovalWorkflow> findAll();
 
     void delete(String workflowId);
 }
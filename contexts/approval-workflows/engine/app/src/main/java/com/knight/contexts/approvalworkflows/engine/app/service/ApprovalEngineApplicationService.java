@@ -4,31 +4,51 @@ import com.knight.contexts.approvalworkflows.engine.api.commands.ApprovalEngineC
 import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalReceived;
 import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalWorkflowCompleted;
 import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalWorkflowStarted;
-import com.knight.contexts.approvalworkflows.engine.api.queries.ApprovalEngineQueries;
 import com.knight.contexts.approvalworkflows.engine.app.repository.ApprovalWorkflowRepository;
 import com.knight.contexts.approvalworkflows.engine.domain.aggregate.ApprovalWorkflow;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 /**
- * Application service implementing commands and queries for Approval Engine.
+ * Application service implementing commands for Approval Engine.
  * Orchestrates domain operations, repository access, and event publishing.
+ * Queries are served from the read model by {@link ApprovalEngineQueryService}.
+ *
+ * Commands that change an existing workflow hold its stripe of {@link WorkflowLocks} from load
+ * to publish, so concurrent decisions on one workflow are applied and announced one at a time
+ * while other workflows proceed in parallel.
  */
 @Service
-public class ApprovalEngineApplicationService implements ApprovalEngineCommands, ApprovalEngineQueries {
+public class ApprovalEngineApplicationService implements ApprovalEngineCommands {
+
+    // completedBy of workflows the engine completes itself
+    private static final String SYSTEM = "system";
+
+    private static final int LOCK_STRIPES = 1024;
+    private static final int MAX_BATCH_SIZE = 1000;
 
     private final ApprovalWorkflowRepository repository;
     private final ApplicationEventPublisher eventPublisher;
+    private final Duration defaultTimeToLive;
+    private final WorkflowLocks locks = new WorkflowLocks(LOCK_STRIPES);
 
     public ApprovalEngineApplicationService(ApprovalWorkflowRepository repository,
-                                           ApplicationEventPublisher eventPublisher) {
+                                           ApplicationEventPublisher eventPublisher,
+                                           @Value("${knight.approval.workflow.default-ttl:#{null}}")
+                                           Duration defaultTimeToLive) {
         this.repository = repository;
         this.eventPublisher = eventPublisher;
+        this.defaultTimeToLive = defaultTimeToLive;
     }
 
     @Override
@@ -54,7 +74,8 @@ public class ApprovalEngineApplicationService implements ApprovalEngineCommands,
             cmd.resource(),
             cmd.amount(),
             requiredApprovals,
-            eligibleApprovers
+            eligibleApprovers,
+            cmd.timeToLive() != null ? cmd.timeToLive() : defaultTimeToLive
         );
 
         // Save
@@ -70,7 +91,9 @@ public class ApprovalEngineApplicationService implements ApprovalEngineCommands,
             cmd.resource(),
             cmd.amount(),
             requiredApprovals,
-            workflow.createdAt()
+            workflow.createdAt(),
+            workflow.expiresAt(),
+            workflow.eligibleApprovers()
         );
         eventPublisher.publishEvent(event);
 
@@ -80,167 +103,198 @@ public class ApprovalEngineApplicationService implements ApprovalEngineCommands,
     @Override
     @Transactional
     public void approveWorkflow(ApproveWorkflowCmd cmd) {
-        ApprovalWorkflow workflow = repository.findById(cmd.workflowId())
-            .orElseThrow(() -> new IllegalArgumentException("Workflow not found: " + cmd.workflowId()));
+        approve(cmd);
+    }
+
+    @Override
+    @Transactional
+    public void rejectWorkflow(RejectWorkflowCmd cmd) {
+        reject(cmd);
+    }
 
-        ApprovalWorkflow.Status previousStatus = workflow.status();
+    @Override
+    @Transactional
+    public BatchDecisionResult approveWorkflows(BatchApproveWorkflowsCmd cmd) {
+        return decideAll(cmd.workflowIds(), workflowId ->
+            approve(new ApproveWorkflowCmd(workflowId, cmd.approverId(), cmd.comment())));
+    }
 
-        workflow.approve(cmd.approverId(), cmd.comment());
+    @Override
+    @Transactional
+    public BatchDecisionResult rejectWorkflows(BatchRejectWorkflowsCmd cmd) {
+        return decideAll(cmd.workflowIds(), workflowId ->
+            reject(new RejectWorkflowCmd(workflowId, cmd.approverId(), cmd.reason())));
+    }
 
-        repository.save(workflow);
+    /**
+     * Apply decision to every workflow in request order, on the calling thread and so inside the
+     * caller's transaction: a transactional repository writes the whole batch in it, and the
+     * after-commit listeners receive the batch's events together when it commits. Each workflow
+     * is decided and its events published under its own lock, exactly as a single decision is,
+     * and a workflow that fails publishes nothing and does not stop the others.
+     */
+    private BatchDecisionResult decideAll(List<String> workflowIds, Function<String, ApprovalWorkflow.Status> decision) {
+        if (workflowIds == null || workflowIds.isEmpty()) {
+            throw new IllegalArgumentException("workflowIds cannot be null or empty");
+        }
+        if (workflowIds.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                "A batch holds at most " + MAX_BATCH_SIZE + " workflows, got " + workflowIds.size());
+        }
 
-        // Publish approval received event
-        ApprovalReceived approvalEvent = new ApprovalReceived(
-            cmd.workflowId(),
-            cmd.approverId(),
-            "APPROVED",
-            cmd.comment(),
-            workflow.receivedApprovals().get(workflow.receivedApprovals().size() - 1).approvedAt()
-        );
-        eventPublisher.publishEvent(approvalEvent);
+        List<WorkflowDecisionResult> results = new ArrayList<>(workflowIds.size());
+        for (String workflowId : workflowIds) {
+            try {
+                ApprovalWorkflow.Status status = decision.apply(workflowId);
+                results.add(WorkflowDecisionResult.succeeded(workflowId, status.name()));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                results.add(WorkflowDecisionResult.failed(workflowId, e.getMessage()));
+            }
+        }
+        return new BatchDecisionResult(results);
+    }
+
+    // Decide under the workflow's lock and publish its events while still holding it
+
+    private ApprovalWorkflow.Status approve(ApproveWorkflowCmd cmd) {
+        ReentrantLock lock = locks.lockFor(cmd.workflowId());
+        lock.lock();
+        try {
+            ApprovalWorkflow workflow = repository.findById(cmd.workflowId())
+                .orElseThrow(() -> new IllegalArgumentException("Workflow not found: " + cmd.workflowId()));
+
+            ApprovalWorkflow.Status previousStatus = workflow.status();
+
+            workflow.approve(cmd.approverId(), cmd.comment());
+
+            repository.save(workflow);
+
+            // Publish approval received event
+            ApprovalReceived approvalEvent = new ApprovalReceived(
+                cmd.workflowId(),
+                cmd.approverId(),
+                "APPROVED",
+                cmd.comment(),
+                workflow.receivedApprovals().get(workflow.receivedApprovals().size() - 1).approvedAt()
+            );
+            eventPublisher.publishEvent(approvalEvent);
+
+            // If workflow completed, publish completion event
+            if (previousStatus == ApprovalWorkflow.Status.PENDING &&
+                workflow.status() == ApprovalWorkflow.Status.APPROVED) {
+                ApprovalWorkflowCompleted completedEvent = new ApprovalWorkflowCompleted(
+                    workflow.workflowId(),
+                    workflow.statementId(),
+                    workflow.profileId(),
+                    "APPROVED",
+                    cmd.approverId(),
+                    workflow.completedAt()
+                );
+                eventPublisher.publishEvent(completedEvent);
+            }
+            return workflow.status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ApprovalWorkflow.Status reject(RejectWorkflowCmd cmd) {
+        ReentrantLock lock = locks.lockFor(cmd.workflowId());
+        lock.lock();
+        try {
+            ApprovalWorkflow workflow = repository.findById(cmd.workflowId())
+                .orElseThrow(() -> new IllegalArgumentException("Workflow not found: " + cmd.workflowId()));
+
+            workflow.reject(cmd.approverId(), cmd.reason());
 
-        // If workflow completed, publish completion event
-        if (previousStatus == ApprovalWorkflow.Status.PENDING &&
-            workflow.status() == ApprovalWorkflow.Status.APPROVED) {
+            repository.save(workflow);
+
+            // Publish rejection event
+            ApprovalReceived rejectionEvent = new ApprovalReceived(
+                cmd.workflowId(),
+                cmd.approverId(),
+                "REJECTED",
+                cmd.reason(),
+                workflow.receivedApprovals().get(workflow.receivedApprovals().size() - 1).approvedAt()
+            );
+            eventPublisher.publishEvent(rejectionEvent);
+
+            // Publish workflow completed event (rejection completes immediately)
             ApprovalWorkflowCompleted completedEvent = new ApprovalWorkflowCompleted(
                 workflow.workflowId(),
                 workflow.statementId(),
                 workflow.profileId(),
-                "APPROVED",
+                "REJECTED",
                 cmd.approverId(),
                 workflow.completedAt()
             );
             eventPublisher.publishEvent(completedEvent);
+            return workflow.status();
+        } finally {
+            lock.unlock();
         }
     }
 
-    @Override
-    @Transactional
-    public void rejectWorkflow(RejectWorkflowCmd cmd) {
-        ApprovalWorkflow workflow = repository.findById(cmd.workflowId())
-            .orElseThrow(() -> new IllegalArgumentException("Workflow not found: " + cmd.workflowId()));
-
-        workflow.reject(cmd.approverId(), cmd.reason());
-
-        repository.save(workflow);
-
-        // Publish rejection event
-        ApprovalReceived rejectionEvent = new ApprovalReceived(
-            cmd.workflowId(),
-            cmd.approverId(),
-            "REJECTED",
-            cmd.reason(),
-            workflow.receivedApprovals().get(workflow.receivedApprovals().size() - 1).approvedAt()
-        );
-        eventPublisher.publishEvent(rejectionEvent);
-
-        // Publish workflow completed event (rejection completes immediately)
-        ApprovalWorkflowCompleted completedEvent = new ApprovalWorkflowCompleted(
-            workflow.workflowId(),
-            workflow.statementId(),
-            workflow.profileId(),
-            "REJECTED",
-            cmd.approverId(),
-            workflow.completedAt()
-        );
-        eventPublisher.publishEvent(completedEvent);
-    }
 
     @Override
     @Transactional
     public void cancelWorkflow(CancelWorkflowCmd cmd) {
-        ApprovalWorkflow workflow = repository.findById(cmd.workflowId())
-            .orElseThrow(() -> new IllegalArgumentException("Workflow not found: " + cmd.workflowId()));
+        ReentrantLock lock = locks.lockFor(cmd.workflowId());
+        lock.lock();
+        try {
+            ApprovalWorkflow workflow = repository.findById(cmd.workflowId())
+                .orElseThrow(() -> new IllegalArgumentException("Workflow not found: " + cmd.workflowId()));
 
-        workflow.cancel(cmd.cancelledBy(), cmd.reason());
+            workflow.cancel(cmd.cancelledBy(), cmd.reason());
 
-        repository.save(workflow);
+            repository.save(workflow);
 
-        // Publish workflow completed event
-        ApprovalWorkflowCompleted completedEvent = new ApprovalWorkflowCompleted(
-            workflow.workflowId(),
-            workflow.statementId(),
-            workflow.profileId(),
-            "CANCELLED",
-            cmd.cancelledBy(),
-            workflow.completedAt()
-        );
-        eventPublisher.publishEvent(completedEvent);
+            // Publish workflow completed event
+            ApprovalWorkflowCompleted completedEvent = new ApprovalWorkflowCompleted(
+                workflow.workflowId(),
+                workflow.statementId(),
+                workflow.profileId(),
+                "CANCELLED",
+                cmd.cancelledBy(),
+                workflow.completedAt()
+            );
+            eventPublisher.publishEvent(completedEvent);
+        } finally {
+            lock.unlock();
+        }
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public WorkflowStatus getWorkflowStatus(String workflowId) {
-        ApprovalWorkflow workflow = repository.findById(workflowId)
-            .orElseThrow(() -> new IllegalArgumentException("Workflow not found: " + workflowId));
-
-        long approvalCount = workflow.receivedApprovals().stream()
-            .filter(a -> "APPROVED".equals(a.decision()))
-            .count();
-
-        return new WorkflowStatus(
-            workflow.workflowId(),
-            workflow.statementId(),
-            workflow.profileId(),
-            workflow.status().name(),
-            workflow.requiredApprovals(),
-            (int) approvalCount,
-            workflow.createdAt(),
-            workflow.completedAt()
-        );
-    }
+    /**
+     * Expire a workflow whose deadline has passed. Returns false, changing nothing, when the
+     * workflow is gone, already completed or not yet due, as a decision may race the expiry.
+     */
+    @Transactional
+    public boolean expireWorkflow(String workflowId, Instant now) {
+        ReentrantLock lock = locks.lockFor(workflowId);
+        lock.lock();
+        try {
+            ApprovalWorkflow workflow = repository.findById(workflowId).orElse(null);
+            if (workflow == null || workflow.status() != ApprovalWorkflow.Status.PENDING
+                || workflow.expiresAt() == null || now.isBefore(workflow.expiresAt())) {
+                return false;
+            }
 
-    @Override
-    @Transactional(readOnly = true)
-    public List<PendingApprovalSummary> getPendingApprovals(String approverId) {
-        List<ApprovalWorkflow> workflows = repository.findPendingForApprover(approverId);
-
-        return workflows.stream()
-            .filter(w -> w.status() == ApprovalWorkflow.Status.PENDING)
-            .filter(w -> w.eligibleApprovers().contains(approverId))
-            .filter(w -> !w.requesterId().equals(approverId)) // Can't approve own request
-            .map(w -> {
-                long approvalCount = w.receivedApprovals().stream()
-                    .filter(a -> "APPROVED".equals(a.decision()))
-                    .count();
-
-                return new PendingApprovalSummary(
-                    w.workflowId(),
-                    w.statementId(),
-                    w.profileId(),
-                    w.requesterId(),
-                    w.action(),
-                    w.resource(),
-                    w.createdAt(),
-                    w.requiredApprovals(),
-                    (int) approvalCount
-                );
-            })
-            .collect(Collectors.toList());
-    }
+            workflow.expire(now);
 
-    @Override
-    @Transactional(readOnly = true)
-    public WorkflowHistory getWorkflowHistory(String workflowId) {
-        ApprovalWorkflow workflow = repository.findById(workflowId)
-            .orElseThrow(() -> new IllegalArgumentException("Workflow not found: " + workflowId));
-
-        List<ApprovalDecision> decisions = workflow.receivedApprovals().stream()
-            .map(a -> new ApprovalDecision(
-                a.approverId(),
-                a.decision(),
-                a.comment(),
-                a.approvedAt()
-            ))
-            .collect(Collectors.toList());
-
-        return new WorkflowHistory(
-            workflow.workflowId(),
-            workflow.statementId(),
-            workflow.status().name(),
-            decisions,
-            workflow.createdAt(),
-            workflow.completedAt()
-        );
+            repository.save(workflow);
+
+            ApprovalWorkflowCompleted completedEvent = new ApprovalWorkflowCompleted(
+                workflow.workflowId(),
+                workflow.statementId(),
+                workflow.profileId(),
+                "EXPIRED",
+                SYSTEM,
+                workflow.completedAt()
+            );
+            eventPublisher.publishEvent(completedEvent);
+            return true;
+        } finally {
+            lock.unlock();
+        }
     }
 }
@@ -0,0 +1,47 @@
+package com.knight.contexts.approvalworkflows.engine.app.service;
+
+import com.knight.contexts.approvalworkflows.engine.api.queries.ApprovalEngineQueries;
+import com.knight.contexts.approvalworkflows.engine.app.projection.WorkflowReadModelProjection;
+import com.knight.contexts.approvalworkflows.engine.app.repository.ApprovalWorkflowRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Application service implementing queries for Approval Engine.
+ * Serves rows of the {@link WorkflowReadModelProjection}, so reads never load an aggregate or
+ * contend with commands; they reflect every command whose events have been published. An
+ * approver's inbox is the repository's approver index, read without loading aggregates, so a
+ * decided, cancelled or expired workflow leaves it as soon as it is saved. Completed workflows
+ * whose rows were paged out are read from the repository.
+ */
+@Service
+public class ApprovalEngineQueryService implements ApprovalEngineQueries {
+
+    private final ApprovalWorkflowRepository repository;
+    private final WorkflowReadModelProjection readModel;
+
+    public ApprovalEngineQueryService(ApprovalWorkflowRepository repository, WorkflowReadModelProjection readModel) {
+        this.repository = repository;
+        this.readModel = readModel;
+    }
+
+    @Override
+    public WorkflowStatus getWorkflowStatus(String workflowId) {
+        return readModel.findStatus(workflowId)
+            .or(() -> repository.findById(workflowId).map(WorkflowReadModelProjection::statusOf))
+            .orElseThrow(() -> new IllegalArgumentException("Workflow not found: " + workflowId));
+    }
+
+    @Override
+    public List<PendingApprovalSummary> getPendingApprovals(String approverId) {
+        return readModel.findPending(approverId, repository.findPendingIdsForApprover(approverId));
+    }
+
+    @Override
+    public WorkflowHistory getWorkflowHistory(String workflowId) {
+        return readModel.findHistory(workflowId)
+            .or(() -> repository.findById(workflowId).map(WorkflowReadModelProjection::historyOf))
+            .orElseThrow(() -> new IllegalArgumentException("Workflow not found: " + workflowId));
+    }
+}
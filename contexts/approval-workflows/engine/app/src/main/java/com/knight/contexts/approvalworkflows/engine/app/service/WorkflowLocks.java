@@ -0,0 +1,33 @@
+package com.knight.contexts.approvalworkflows.engine.app.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks striped by workflow id.
+ *
+ * Commands on the same workflow always take the same lock, so they run one at a time; commands
+ * on different workflows rarely share one, and the stripes cost the same however many workflows
+ * exist.
+ */
+final class WorkflowLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    WorkflowLocks(int stripes) {
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two");
+        }
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = stripes - 1;
+    }
+
+    ReentrantLock lockFor(String workflowId) {
+        int hash = workflowId.hashCode();
+        // Spread the high bits, as ids may differ only there
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+}
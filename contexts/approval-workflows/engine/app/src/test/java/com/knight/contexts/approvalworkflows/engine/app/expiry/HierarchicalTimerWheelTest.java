@@ -0,0 +1,73 @@
+package com.knight.contexts.approvalworkflows.engine.app.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies every deadline fires exactly once, never early and on the first advance past it,
+ * across all wheel levels and with cancellations.
+ */
+class HierarchicalTimerWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void firesEachDeadlineOnceOnTheFirstAdvancePastIt() {
+        Random random = new Random(3);
+        HierarchicalTimerWheel<Integer> wheel = new HierarchicalTimerWheel<>(1, START);
+
+        int count = 100_000;
+        long[] deadlines = new long[count];
+        List<HierarchicalTimerWheel.Timeout<Integer>> timeouts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Overdue ones, then spread over the first three levels
+            deadlines[i] = START - 1_000 + (long) (Math.pow(random.nextDouble(), 3) * 20_000_000L);
+            timeouts.add(wheel.schedule(i, deadlines[i]));
+        }
+        for (int i = 0; i < count; i += 3) {
+            assertThat(wheel.cancel(timeouts.get(i))).isTrue();
+            assertThat(wheel.cancel(timeouts.get(i))).isFalse();
+        }
+        assertThat(wheel.size()).isEqualTo(count - (count + 2) / 3);
+
+        Map<Integer, Long> firedAt = new HashMap<>();
+        long previous = START;
+        long now = START;
+        while (wheel.size() > 0) {
+            now += 1 + random.nextInt(50_000);
+            long at = now;
+            long before = previous;
+            wheel.advance(now, value -> {
+                assertThat(firedAt.put(value, at)).as("fired twice: %s", value).isNull();
+                assertThat(deadlines[value]).isLessThanOrEqualTo(at);
+                if (deadlines[value] > START) {
+                    assertThat(deadlines[value]).isGreaterThan(before);
+                }
+            });
+            previous = now;
+        }
+
+        for (int i = 0; i < count; i++) {
+            assertThat(firedAt.containsKey(i)).as("deadline %s", i).isEqualTo(i % 3 != 0);
+        }
+    }
+
+    @Test
+    void roundsDeadlinesUpToTheTick() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(100, START);
+        wheel.schedule("due", START + 150);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(START + 199, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(START + 200, fired::add);
+        assertThat(fired).containsExactly("due");
+    }
+}
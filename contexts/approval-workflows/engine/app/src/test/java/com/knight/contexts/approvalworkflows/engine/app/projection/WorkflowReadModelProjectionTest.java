@@ -0,0 +1,133 @@
+package com.knight.contexts.approvalworkflows.engine.app.projection;
+
+import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalReceived;
+import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalWorkflowCompleted;
+import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalWorkflowStarted;
+import com.knight.contexts.approvalworkflows.engine.api.queries.ApprovalEngineQueries.ApprovalDecision;
+import com.knight.contexts.approvalworkflows.engine.api.queries.ApprovalEngineQueries.PendingApprovalSummary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the read model follows workflow events, including events of one workflow delivered
+ * out of order, and pages out completed rows.
+ */
+class WorkflowReadModelProjectionTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-05T09:00:00Z");
+
+    private static final int MAX_COMPLETED = 2;
+
+    private final WorkflowReadModelProjection readModel = new WorkflowReadModelProjection(MAX_COMPLETED);
+
+    @Test
+    void servesStatusInboxAndHistoryFromEvents() {
+        readModel.on(started("wf-2", T0.plusSeconds(60), List.of("alice", "bob")));
+        readModel.on(started("wf-1", T0, List.of("alice")));
+
+        assertThat(readModel.findPending("alice", List.of("wf-2", "wf-1"))).extracting(PendingApprovalSummary::workflowId)
+            .containsExactly("wf-1", "wf-2");
+        assertThat(readModel.findPending("requester", List.of("wf-2", "wf-1"))).isEmpty();
+
+        readModel.on(new ApprovalReceived("wf-2", "alice", "APPROVED", "ok", T0.plusSeconds(120)));
+        assertThat(readModel.findStatus("wf-2").orElseThrow().receivedApprovals()).isEqualTo(1);
+        assertThat(readModel.findPending("bob", List.of("wf-2")).get(0).receivedApprovals()).isEqualTo(1);
+
+        readModel.on(new ApprovalReceived("wf-1", "alice", "REJECTED", "no", T0.plusSeconds(180)));
+        readModel.on(new ApprovalWorkflowCompleted("wf-1", "statement-wf-1", "profile-1", "REJECTED", "alice",
+            T0.plusSeconds(180)));
+
+        assertThat(readModel.findStatus("wf-1").orElseThrow().status()).isEqualTo("REJECTED");
+        assertThat(readModel.findHistory("wf-1").orElseThrow().decisions())
+            .extracting(ApprovalDecision::decision).containsExactly("REJECTED");
+        assertThat(readModel.findPending("alice", List.of("wf-1", "wf-2", "wf-unknown")))
+            .extracting(PendingApprovalSummary::workflowId).containsExactly("wf-2");
+        assertThat(readModel.findStatus("wf-unknown")).isEmpty();
+    }
+
+    @Test
+    void convergesWhenDecisionsArriveAfterCompletion() {
+        readModel.on(started("wf-1", T0, List.of("alice", "bob")));
+
+        // bob's approval completed the workflow, but alice's earlier one is delivered last
+        readModel.on(new ApprovalReceived("wf-1", "bob", "APPROVED", null, T0.plusSeconds(2)));
+        readModel.on(new ApprovalWorkflowCompleted("wf-1", "statement-wf-1", "profile-1", "APPROVED", "bob",
+            T0.plusSeconds(2)));
+        readModel.on(new ApprovalReceived("wf-1", "alice", "APPROVED", null, T0.plusSeconds(1)));
+
+        assertThat(readModel.findStatus("wf-1").orElseThrow().status()).isEqualTo("APPROVED");
+        assertThat(readModel.findStatus("wf-1").orElseThrow().receivedApprovals()).isEqualTo(2);
+        assertThat(readModel.findHistory("wf-1").orElseThrow().decisions())
+            .extracting(ApprovalDecision::approverId).containsExactly("alice", "bob");
+        assertThat(readModel.findPending("alice", List.of("wf-1"))).isEmpty();
+    }
+
+    @Test
+    void cancelledAndExpiredWorkflowsLeaveTheInbox() {
+        readModel.on(started("wf-1", T0, List.of("alice")));
+        readModel.on(started("wf-2", T0.plusSeconds(1), List.of("alice")));
+        readModel.on(started("wf-3", T0.plusSeconds(2), List.of("alice")));
+
+        readModel.on(completed("wf-1", "CANCELLED", T0.plusSeconds(10)));
+        readModel.on(completed("wf-2", "EXPIRED", T0.plusSeconds(11)));
+
+        assertThat(readModel.findStatus("wf-1").orElseThrow().status()).isEqualTo("CANCELLED");
+        assertThat(readModel.findHistory("wf-2").orElseThrow().status()).isEqualTo("EXPIRED");
+        assertThat(readModel.findPending("alice", List.of("wf-1", "wf-2", "wf-3")))
+            .extracting(PendingApprovalSummary::workflowId).containsExactly("wf-3");
+    }
+
+    @Test
+    void completionDeliveredBeforeTheStartIsNotResurrected() {
+        readModel.on(new ApprovalReceived("wf-1", "bob", "APPROVED", null, T0.plusSeconds(1)));
+        readModel.on(completed("wf-1", "EXPIRED", T0.plusSeconds(2)));
+
+        // Nothing is served before the start arrives
+        assertThat(readModel.findStatus("wf-1")).isEmpty();
+        assertThat(readModel.findHistory("wf-1")).isEmpty();
+
+        readModel.on(started("wf-1", T0, List.of("alice", "bob")));
+        assertThat(readModel.findStatus("wf-1").orElseThrow().status()).isEqualTo("EXPIRED");
+        assertThat(readModel.findStatus("wf-1").orElseThrow().receivedApprovals()).isEqualTo(1);
+        assertThat(readModel.findStatus("wf-1").orElseThrow().statementId()).isEqualTo("statement-wf-1");
+        assertThat(readModel.findHistory("wf-1").orElseThrow().decisions())
+            .extracting(ApprovalDecision::approverId).containsExactly("bob");
+        assertThat(readModel.findPending("alice", List.of("wf-1"))).isEmpty();
+
+        // A repeated start does not reset the row either
+        readModel.on(started("wf-1", T0, List.of("alice", "bob")));
+        assertThat(readModel.findStatus("wf-1").orElseThrow().status()).isEqualTo("EXPIRED");
+    }
+
+    @Test
+    void completedRowsArePagedOutOldestFirst() {
+        for (int i = 1; i <= 4; i++) {
+            readModel.on(started("wf-" + i, T0.plusSeconds(i), List.of("alice")));
+        }
+        readModel.on(started("wf-pending", T0, List.of("alice")));
+        for (int i = 1; i <= 4; i++) {
+            readModel.on(completed("wf-" + i, "APPROVED", T0.plusSeconds(10 + i)));
+        }
+
+        assertThat(readModel.findStatus("wf-1")).isEmpty();
+        assertThat(readModel.findStatus("wf-2")).isEmpty();
+        assertThat(readModel.findStatus("wf-3").orElseThrow().status()).isEqualTo("APPROVED");
+        assertThat(readModel.findStatus("wf-4").orElseThrow().status()).isEqualTo("APPROVED");
+        assertThat(readModel.findPending("alice", List.of("wf-pending")))
+            .extracting(PendingApprovalSummary::workflowId).containsExactly("wf-pending");
+    }
+
+    private static ApprovalWorkflowCompleted completed(String workflowId, String outcome, Instant at) {
+        return new ApprovalWorkflowCompleted(workflowId, "statement-" + workflowId, "profile-1", outcome, null, at);
+    }
+
+    private static ApprovalWorkflowStarted started(String workflowId, Instant at, List<String> approvers) {
+        return new ApprovalWorkflowStarted(workflowId, "statement-" + workflowId, "profile-1", "requester",
+            "SUBMIT_RECEIVABLE", "urn:knight:receivable:1", BigDecimal.TEN, 2, at, null, approvers);
+    }
+}
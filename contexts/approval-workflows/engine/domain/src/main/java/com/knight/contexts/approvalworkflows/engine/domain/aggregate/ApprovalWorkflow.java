@@ -1,9 +1,11 @@
 package com.knight.contexts.approvalworkflows.engine.domain.aggregate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * ApprovalWorkflow aggregate root.
@@ -15,6 +17,10 @@ import java.util.List;
  * - workflow must be PENDING to receive approvals
  * - workflow completes when requiredApprovals count is reached (parallel approval)
  * - any rejection immediately completes workflow with REJECTED status
+ * - a workflow still PENDING at its expiresAt deadline (if any) can be EXPIRED
+ *
+ * Commands must be serialized per workflow by the caller; getters may be read concurrently
+ * with a command and see either the state before it or after it.
  */
 public class ApprovalWorkflow {
 
@@ -30,14 +36,15 @@ public class ApprovalWorkflow {
     private final int requiredApprovals;    // Number of approvals needed
     private final List<String> eligibleApprovers; // Who can approve
     private final List<Approval> receivedApprovals;
-    private Status status;
+    private volatile Status status;
     private final Instant createdAt;
-    private Instant completedAt;
+    private final Instant expiresAt;        // null: never expires
+    private volatile Instant completedAt;
 
     private ApprovalWorkflow(String workflowId, String statementId, String profileId,
                             String requesterId, String action, String resource,
                             BigDecimal amount, int requiredApprovals,
-                            List<String> eligibleApprovers) {
+                            List<String> eligibleApprovers, Instant createdAt, Instant expiresAt) {
         if (workflowId == null || workflowId.isBlank()) {
             throw new IllegalArgumentException("workflowId cannot be null or blank");
         }
@@ -72,9 +79,13 @@ public class ApprovalWorkflow {
         this.amount = amount;
         this.requiredApprovals = requiredApprovals;
         this.eligibleApprovers = new ArrayList<>(eligibleApprovers);
-        this.receivedApprovals = new ArrayList<>();
+        this.receivedApprovals = new CopyOnWriteArrayList<>();
+        if (expiresAt != null && !expiresAt.isAfter(createdAt)) {
+            throw new IllegalArgumentException("expiresAt must be after createdAt");
+        }
         this.status = Status.PENDING;
-        this.createdAt = Instant.now();
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
         this.completedAt = null;
     }
 
@@ -85,8 +96,39 @@ public class ApprovalWorkflow {
                                         String requesterId, String action, String resource,
                                         BigDecimal amount, int requiredApprovals,
                                         List<String> eligibleApprovers) {
+        return start(workflowId, statementId, profileId, requesterId, action, resource, amount,
+                     requiredApprovals, eligibleApprovers, null);
+    }
+
+    /**
+     * Factory method to create a new approval workflow that expires after timeToLive (null: never).
+     */
+    public static ApprovalWorkflow start(String workflowId, String statementId, String profileId,
+                                        String requesterId, String action, String resource,
+                                        BigDecimal amount, int requiredApprovals,
+                                        List<String> eligibleApprovers, Duration timeToLive) {
+        Instant createdAt = Instant.now();
         return new ApprovalWorkflow(workflowId, statementId, profileId, requesterId,
-                                   action, resource, amount, requiredApprovals, eligibleApprovers);
+                                   action, resource, amount, requiredApprovals, eligibleApprovers,
+                                   createdAt, timeToLive == null ? null : createdAt.plus(timeToLive));
+    }
+
+    /**
+     * Reconstruct from persistence, with the decisions received and the status reached so far.
+     */
+    public static ApprovalWorkflow reconstruct(String workflowId, String statementId, String profileId,
+                                               String requesterId, String action, String resource,
+                                               BigDecimal amount, int requiredApprovals,
+                                               List<String> eligibleApprovers, Instant createdAt,
+                                               Instant expiresAt, List<Approval> receivedApprovals,
+                                               Status status, Instant completedAt) {
+        ApprovalWorkflow workflow = new ApprovalWorkflow(workflowId, statementId, profileId, requesterId,
+                                                         action, resource, amount, requiredApprovals,
+                                                         eligibleApprovers, createdAt, expiresAt);
+        workflow.receivedApprovals.addAll(receivedApprovals);
+        workflow.completedAt = completedAt;
+        workflow.status = status;
+        return workflow;
     }
 
     /**
@@ -113,8 +155,8 @@ public class ApprovalWorkflow {
         receivedApprovals.add(approval);
 
         // Any rejection completes the workflow immediately
-        this.status = Status.REJECTED;
         this.completedAt = Instant.now();
+        this.status = Status.REJECTED;
     }
 
     /**
@@ -127,8 +169,25 @@ public class ApprovalWorkflow {
             );
         }
 
-        this.status = Status.CANCELLED;
         this.completedAt = Instant.now();
+        this.status = Status.CANCELLED;
+    }
+
+    /**
+     * Expire the workflow once its deadline has passed without a decision.
+     */
+    public void expire(Instant now) {
+        if (status != Status.PENDING) {
+            throw new IllegalStateException(
+                "Cannot expire workflow. Workflow must be PENDING. Current status: " + status
+            );
+        }
+        if (expiresAt == null || now.isBefore(expiresAt)) {
+            throw new IllegalStateException("Workflow " + workflowId + " has not reached its deadline");
+        }
+
+        this.completedAt = now;
+        this.status = Status.EXPIRED;
     }
 
     /**
@@ -174,8 +233,8 @@ public class ApprovalWorkflow {
             .count();
 
         if (approvalCount >= requiredApprovals) {
-            this.status = Status.APPROVED;
             this.completedAt = Instant.now();
+            this.status = Status.APPROVED;
         }
     }
 
@@ -192,6 +251,7 @@ public class ApprovalWorkflow {
     public List<Approval> receivedApprovals() { return List.copyOf(receivedApprovals); }
     public Status status() { return status; }
     public Instant createdAt() { return createdAt; }
+    public Instant expiresAt() { return expiresAt; }
     public Instant completedAt() { return completedAt; }
 
     /**
@@ -2,26 +2,48 @@ package com.knight.contexts.approvalworkflows.engine.infra.persistence;
 
 import com.knight.contexts.approvalworkflows.engine.app.repository.ApprovalWorkflowRepository;
 import com.knight.contexts.approvalworkflows.engine.domain.aggregate.ApprovalWorkflow;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
  * In-memory implementation of ApprovalWorkflowRepository.
  * For MVP/testing. Replace with JPA implementation for production.
+ *
+ * Pending workflows are indexed by eligible approver, so an inbox lookup costs the size of the
+ * inbox rather than every workflow ever started. The index is updated under the store's
+ * per-workflow lock whenever a workflow is saved or deleted: started workflows enter it, and
+ * approved, rejected, cancelled or expired ones leave it.
  */
 @Repository
+@ConditionalOnProperty(name = "knight.approval.workflow.persistence", havingValue = "memory", matchIfMissing = true)
 public class InMemoryApprovalWorkflowRepository implements ApprovalWorkflowRepository {
 
     private final Map<String, ApprovalWorkflow> store = new ConcurrentHashMap<>();
 
+    // Secondary index: approver id -> ids of the PENDING workflows they may decide
+    private final Map<String, Set<String>> pendingByApprover = new ConcurrentHashMap<>();
+
     @Override
     public void save(ApprovalWorkflow workflow) {
-        store.put(workflow.workflowId(), workflow);
+        store.compute(workflow.workflowId(), (id, previous) -> {
+            if (previous != null && previous != workflow) {
+                unindex(previous);
+            }
+            if (workflow.status() == ApprovalWorkflow.Status.PENDING) {
+                index(workflow);
+            } else {
+                unindex(workflow);
+            }
+            return workflow;
+        });
     }
 
     @Override
@@ -37,15 +59,54 @@ public class InMemoryApprovalWorkflowRepository implements ApprovalWorkflowRepos
     }
 
     @Override
-    public List<ApprovalWorkflow> findPendingForApprover(String approverId) {
+    public List<String> findPendingIdsForApprover(String approverId) {
+        Set<String> ids = pendingByApprover.get(approverId);
+        return ids == null ? List.of() : List.copyOf(ids);
+    }
+
+    @Override
+    public List<ApprovalWorkflow> findPendingWithDeadline() {
+        return store.values().stream()
+            .filter(w -> w.status() == ApprovalWorkflow.Status.PENDING && w.expiresAt() != null)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ApprovalWorkflow> findPending() {
         return store.values().stream()
             .filter(w -> w.status() == ApprovalWorkflow.Status.PENDING)
-            .filter(w -> w.eligibleApprovers().contains(approverId))
             .collect(Collectors.toList());
     }
 
+    @Override
+    public List<ApprovalWorkflow> findAll() {
+        return new ArrayList<>(store.values());
+    }
+
     @Override
     public void delete(String workflowId) {
-        store.remove(workflowId);
+        store.computeIfPresent(workflowId, (id, previous) -> {
+            unindex(previous);
+            return null;
+        });
+    }
+
+    private void index(ApprovalWorkflow workflow) {
+        for (String approverId : workflow.eligibleApprovers()) {
+            pendingByApprover.compute(approverId, (approver, ids) -> {
+                Set<String> updated = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                updated.add(workflow.workflowId());
+                return updated;
+            });
+        }
+    }
+
+    private void unindex(ApprovalWorkflow workflow) {
+        for (String approverId : workflow.eligibleApprovers()) {
+            pendingByApprover.computeIfPresent(approverId, (approver, ids) -> {
+                ids.remove(workflow.workflowId());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
     }
 }
@@ -0,0 +1,371 @@
+package com.knight.contexts.approvalworkflows.engine.infra.persistence.eventlog;
+
+import com.knight.contexts.approvalworkflows.engine.app.repository.ApprovalWorkflowRepository;
+import com.knight.contexts.approvalworkflows.engine.domain.aggregate.ApprovalWorkflow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Event-sourced implementation of ApprovalWorkflowRepository on a {@link SegmentedLog}.
+ *
+ * A save appends one record holding the events the workflow gained since it was last stored
+ * (its start, new decisions, its completion) and returns once a group commit has forced it to
+ * disk. Every snapshotEvery records a workflow's record also carries a snapshot of its whole
+ * state, so loading it replays at most that many records. Only a head per workflow is kept in
+ * memory, with the same approver index as the in-memory repository and one by statement; both
+ * are rebuilt by replaying the log on start, which also cuts off a torn tail left by a crash.
+ *
+ * Workflows completed longer than retain-completed ago are deleted, and the oldest sealed segment
+ * is compacted once at most half of its records are still part of a workflow's replay: the
+ * workflows still replaying from it get a snapshot at the end of the log and the segment is
+ * dropped. Both run every compact-interval on a background thread. Records that continue a
+ * workflow whose start was in a dropped segment are skipped on replay; its snapshot follows them.
+ */
+@Repository
+@ConditionalOnProperty(name = "knight.approval.workflow.persistence", havingValue = "event-log")
+public class EventSourcedApprovalWorkflowRepository implements ApprovalWorkflowRepository, AutoCloseable {
+
+    private static final int STRIPES = 64;
+
+    private final int segmentBytes;
+    private final int snapshotEvery;
+    private final Duration retainCompleted;
+    private final Map<String, WorkflowHead> heads = new ConcurrentHashMap<>();
+
+    // Serialize each workflow's saves and deletes with its compaction
+    private final Object[] stripes = new Object[STRIPES];
+
+    // Per segment, the records it holds and how many of them some workflow still replays
+    private final Map<Integer, AtomicInteger> recordsBySegment = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> liveBySegment = new ConcurrentHashMap<>();
+    // Segment replay on open started at, -1 before the first record
+    private int replayedFrom = -1;
+
+    // Secondary indexes: approver id -> ids of the PENDING workflows they may decide, and
+    // statement id -> ids of its workflows
+    private final Map<String, Set<String>> pendingByApprover = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> byStatement = new ConcurrentHashMap<>();
+
+    private final SegmentedLog log;
+    private final ScheduledExecutorService compactor;
+
+    @Autowired
+    public EventSourcedApprovalWorkflowRepository(
+        @Value("${knight.approval.workflow.event-log.directory:data/approval-workflows}") Path directory,
+        @Value("${knight.approval.workflow.event-log.segment-bytes:67108864}") int segmentBytes,
+        @Value("${knight.approval.workflow.event-log.snapshot-every:16}") int snapshotEvery,
+        @Value("${knight.approval.workflow.event-log.retain-completed:#{null}}") Duration retainCompleted,
+        @Value("${knight.approval.workflow.event-log.compact-interval:1m}") Duration compactInterval
+    ) throws IOException {
+        if (snapshotEvery < 1) {
+            throw new IllegalArgumentException("snapshotEvery must be at least 1");
+        }
+        this.segmentBytes = segmentBytes;
+        this.snapshotEvery = snapshotEvery;
+        this.retainCompleted = retainCompleted;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        this.log = SegmentedLog.open(directory, segmentBytes, this::replay);
+        if (compactInterval == null || compactInterval.isZero()) {
+            this.compactor = null;
+        } else {
+            this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "approval-workflow-compaction");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = compactInterval.toMillis();
+            compactor.scheduleWithFixedDelay(this::compactQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * A repository that keeps completed workflows and compacts only when asked to.
+     */
+    public EventSourcedApprovalWorkflowRepository(Path directory, int segmentBytes, int snapshotEvery)
+        throws IOException {
+        this(directory, segmentBytes, snapshotEvery, null, Duration.ZERO);
+    }
+
+    @Override
+    public void save(ApprovalWorkflow workflow) {
+        String workflowId = workflow.workflowId();
+        synchronized (stripe(workflowId)) {
+            WorkflowHead stored = heads.get(workflowId);
+            List<WorkflowEvents.Event> events = WorkflowEvents.changes(stored, workflow);
+            if (events.isEmpty()) {
+                return;
+            }
+            if (stored != null && stored.positions().length >= snapshotEvery) {
+                events.add(WorkflowEvents.snapshot(workflow));
+            }
+            append(workflowId, events);
+        }
+    }
+
+    @Override
+    public Optional<ApprovalWorkflow> findById(String workflowId) {
+        WorkflowHead head = heads.get(workflowId);
+        return head == null ? Optional.empty() : Optional.ofNullable(load(workflowId, head));
+    }
+
+    @Override
+    public List<ApprovalWorkflow> findByStatementId(String statementId) {
+        return loadAll(byStatement.getOrDefault(statementId, Set.of()), false);
+    }
+
+    @Override
+    public List<String> findPendingIdsForApprover(String approverId) {
+        return List.copyOf(pendingByApprover.getOrDefault(approverId, Set.of()));
+    }
+
+    @Override
+    public List<ApprovalWorkflow> findPendingWithDeadline() {
+        List<String> ids = new ArrayList<>();
+        heads.forEach((id, head) -> {
+            if (head.isPending() && head.expiresAt() != null) {
+                ids.add(id);
+            }
+        });
+        return loadAll(ids, true);
+    }
+
+    @Override
+    public List<ApprovalWorkflow> findPending() {
+        List<String> ids = new ArrayList<>();
+        heads.forEach((id, head) -> {
+            if (head.isPending()) {
+                ids.add(id);
+            }
+        });
+        return loadAll(ids, true);
+    }
+
+    @Override
+    public List<ApprovalWorkflow> findAll() {
+        return loadAll(heads.keySet(), false);
+    }
+
+    @Override
+    public void delete(String workflowId) {
+        synchronized (stripe(workflowId)) {
+            if (heads.containsKey(workflowId)) {
+                append(workflowId, List.of(new WorkflowEvents.Deleted()));
+            }
+        }
+    }
+
+    /**
+     * Delete the workflows completed before completedBefore, if given, then compact and drop the
+     * oldest sealed segments while at most half of their records are still replayed. Returns the
+     * number of segments dropped.
+     */
+    int compact(Instant completedBefore) throws IOException {
+        if (completedBefore != null) {
+            List<String> expired = new ArrayList<>();
+            heads.forEach((id, head) -> {
+                if (!head.isPending() && head.completedAt() != null && head.completedAt().isBefore(completedBefore)) {
+                    expired.add(id);
+                }
+            });
+            expired.forEach(this::delete);
+        }
+        int dropped = 0;
+        while (log.firstSegment() < log.currentSegment()) {
+            int segment = log.firstSegment();
+            if (2 * count(liveBySegment, segment) > count(recordsBySegment, segment)) {
+                break;
+            }
+            List<String> replaying = new ArrayList<>();
+            heads.forEach((id, head) -> {
+                if (segmentOf(head.positions()[0]) == segment) {
+                    replaying.add(id);
+                }
+            });
+            for (String workflowId : replaying) {
+                rewrite(workflowId, segment);
+            }
+            if (count(liveBySegment, segment) > 0) {
+                break;
+            }
+            log.dropFirstSegment();
+            recordsBySegment.remove(segment);
+            liveBySegment.remove(segment);
+            dropped++;
+        }
+        return dropped;
+    }
+
+    /**
+     * Stop compacting and force every appended record to disk; the mappings stay valid until
+     * collected.
+     */
+    @Override
+    public void close() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+            try {
+                compactor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.close();
+    }
+
+    private void replay(long position, byte[] payload) throws IOException {
+        WorkflowEvents record = WorkflowEvents.decode(payload);
+        if (replayedFrom < 0) {
+            replayedFrom = segmentOf(position);
+        }
+        if (replayedFrom > 0 && !heads.containsKey(record.workflowId())
+            && !WorkflowEvents.startsWorkflow(record.events())) {
+            // Its start was compacted away with an earlier segment; a later snapshot restarts it
+            increment(recordsBySegment, segmentOf(position), 1);
+            return;
+        }
+        apply(record.workflowId(), position, record.events());
+    }
+
+    // Move a workflow still replaying from the segment onto a snapshot at the end of the log
+    private void rewrite(String workflowId, int segment) {
+        synchronized (stripe(workflowId)) {
+            WorkflowHead head = heads.get(workflowId);
+            if (head == null || segmentOf(head.positions()[0]) != segment) {
+                return;
+            }
+            ApprovalWorkflow workflow = load(workflowId, head);
+            append(workflowId, List.of(WorkflowEvents.snapshot(workflow)));
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact(retainCompleted == null ? null : Instant.now().minus(retainCompleted));
+        } catch (IOException | RuntimeException e) {
+            // Retried on the next run; nothing is dropped before its workflows were rewritten
+        }
+    }
+
+    private void append(String workflowId, List<WorkflowEvents.Event> events) {
+        long position = log.append(new WorkflowEvents(workflowId, events).encode());
+        log.awaitDurable(position);
+        apply(workflowId, position, events);
+    }
+
+    private void apply(String workflowId, long position, List<WorkflowEvents.Event> events) {
+        increment(recordsBySegment, segmentOf(position), 1);
+        heads.compute(workflowId, (id, previous) -> {
+            WorkflowHead next = WorkflowHead.append(previous, position, events);
+            if (previous != null) {
+                unindex(id, previous);
+                for (long replayed : previous.positions()) {
+                    increment(liveBySegment, segmentOf(replayed), -1);
+                }
+            }
+            if (next != null) {
+                index(id, next);
+                for (long replayed : next.positions()) {
+                    increment(liveBySegment, segmentOf(replayed), 1);
+                }
+            }
+            return next;
+        });
+    }
+
+    private int segmentOf(long position) {
+        return (int) (position / segmentBytes);
+    }
+
+    private Object stripe(String workflowId) {
+        int h = workflowId.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static void increment(Map<Integer, AtomicInteger> counts, int segment, int delta) {
+        counts.computeIfAbsent(segment, s -> new AtomicInteger()).addAndGet(delta);
+    }
+
+    private static int count(Map<Integer, AtomicInteger> counts, int segment) {
+        AtomicInteger count = counts.get(segment);
+        return count == null ? 0 : count.get();
+    }
+
+    private ApprovalWorkflow load(String workflowId, WorkflowHead head) {
+        List<WorkflowEvents.Event> events = new ArrayList<>();
+        try {
+            for (long position : head.positions()) {
+                events.addAll(WorkflowEvents.decode(log.read(position)).events());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load workflow " + workflowId, e);
+        }
+        return WorkflowEvents.replay(workflowId, events);
+    }
+
+    private List<ApprovalWorkflow> loadAll(Collection<String> ids, boolean pendingOnly) {
+        List<ApprovalWorkflow> workflows = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            WorkflowHead head = heads.get(id);
+            // A workflow may have been completed or deleted since the ids were read
+            if (head != null && (!pendingOnly || head.isPending())) {
+                ApprovalWorkflow workflow = load(id, head);
+                if (workflow != null) {
+                    workflows.add(workflow);
+                }
+            }
+        }
+        return workflows;
+    }
+
+    private void index(String workflowId, WorkflowHead head) {
+        add(byStatement, head.statementId(), workflowId);
+        if (head.isPending()) {
+            for (String approverId : head.eligibleApprovers()) {
+                add(pendingByApprover, approverId, workflowId);
+            }
+        }
+    }
+
+    private void unindex(String workflowId, WorkflowHead head) {
+        remove(byStatement, head.statementId(), workflowId);
+        for (String approverId : head.eligibleApprovers()) {
+            remove(pendingByApprover, approverId, workflowId);
+        }
+    }
+
+    private static void add(Map<String, Set<String>> index, String key, String workflowId) {
+        index.compute(key, (k, ids) -> {
+            Set<String> updated = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+            updated.add(workflowId);
+            return updated;
+        });
+    }
+
+    private static void remove(Map<String, Set<String>> index, String key, String workflowId) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(workflowId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
@@ -0,0 +1,335 @@
+package com.knight.contexts.approvalworkflows.engine.infra.persistence.eventlog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of opaque records in fixed-size, memory-mapped segment files.
+ *
+ * Segment n is the file segment-{n}.log, mapped whole, and a record's position is
+ * n * segmentBytes + its offset in the segment. A record is its payload length, a CRC32C of the
+ * payload, then the payload; a zero length marks the end of the data in a segment. A segment is
+ * forced to disk before the next one is created, so only the last segment can hold a torn tail.
+ *
+ * Appends copy into the mapping under one lock and return at memory speed. Durability is a
+ * group commit: the first caller of {@link #awaitDurable} forces everything appended so far, and
+ * the callers queued behind it usually find their records already covered when they get the lock,
+ * so one force serves every append that arrived while the previous force ran.
+ *
+ * On open, every record is checked. A torn or corrupt tail in the last segment is cut off and
+ * the rest of that segment zeroed, so appends continue from the last good record; corruption in
+ * an earlier segment fails the open.
+ *
+ * Sealed segments are dropped oldest first, once nothing in them is needed any more: the file is
+ * deleted and its mapping released when collected. The log then starts at a later segment, and
+ * positions keep their meaning.
+ */
+final class SegmentedLog implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentBytes;
+    // Appended to on roll while readers look records up; null for dropped segments
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private volatile int firstSegment;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Written under appendLock
+    private volatile int currentSegment;
+    private int writeOffset;
+    // End of the appended and of the forced records, as positions
+    private volatile long written;
+    private volatile long durable;
+
+    private SegmentedLog(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Open the log in directory, creating it if needed, and pass every intact record to replay in
+     * order as (position, payload) before any append is possible.
+     */
+    static SegmentedLog open(Path directory, int segmentBytes, RecordConsumer replay) throws IOException {
+        if (segmentBytes < 4096) {
+            throw new IllegalArgumentException("segmentBytes must be at least 4096");
+        }
+        Files.createDirectories(directory);
+        SegmentedLog log = new SegmentedLog(directory, segmentBytes);
+        log.recover(replay);
+        return log;
+    }
+
+    /**
+     * Largest payload a record can carry.
+     */
+    int maxPayload() {
+        return segmentBytes - 2 * HEADER_BYTES;
+    }
+
+    /**
+     * Append a record and return its position. The record is readable at once and durable once
+     * {@link #awaitDurable} returns for its position.
+     */
+    long append(byte[] payload) {
+        if (payload.length == 0 || payload.length > maxPayload()) {
+            throw new IllegalArgumentException("Record payload must be 1 to " + maxPayload() + " bytes, got "
+                + payload.length);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        int checksum = (int) crc.getValue();
+
+        appendLock.lock();
+        try {
+            // Keep room for the end marker after the record
+            if (writeOffset + HEADER_BYTES + payload.length + Integer.BYTES > segmentBytes) {
+                roll();
+            }
+            MappedByteBuffer segment = segments.get(currentSegment);
+            int offset = writeOffset;
+            segment.put(offset + HEADER_BYTES, payload);
+            segment.putInt(offset + Integer.BYTES, checksum);
+            // A record only partly written back before a crash fails its checksum on recovery
+            segment.putInt(offset, payload.length);
+            writeOffset = offset + HEADER_BYTES + payload.length;
+            long position = (long) currentSegment * segmentBytes + offset;
+            written = (long) currentSegment * segmentBytes + writeOffset;
+            return position;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Block until the record at position, and every record before it, is forced to disk.
+     */
+    void awaitDurable(long position) {
+        if (durable > position) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (durable > position) {
+                return;
+            }
+            long target = written;
+            force(durable, target);
+            durable = target;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Payload of the record at position.
+     */
+    byte[] read(long position) {
+        MappedByteBuffer segment = segments.get(segmentOf(position));
+        if (segment == null) {
+            throw new IllegalStateException("Log segment " + segmentOf(position) + " holding " + position
+                + " was dropped");
+        }
+        int offset = (int) (position % segmentBytes);
+        byte[] payload = new byte[segment.getInt(offset)];
+        segment.get(offset + HEADER_BYTES, payload);
+        return payload;
+    }
+
+    /**
+     * Segment holding the record at position.
+     */
+    int segmentOf(long position) {
+        return (int) (position / segmentBytes);
+    }
+
+    /**
+     * Oldest segment still in the log.
+     */
+    int firstSegment() {
+        return firstSegment;
+    }
+
+    /**
+     * Segment appends currently go to; every segment before it is sealed.
+     */
+    int currentSegment() {
+        return currentSegment;
+    }
+
+    /**
+     * Delete the oldest segment, which must be sealed. Records in it can no longer be read.
+     */
+    void dropFirstSegment() throws IOException {
+        appendLock.lock();
+        try {
+            int index = firstSegment;
+            if (index >= currentSegment) {
+                throw new IllegalStateException("Log segment " + index + " is not sealed");
+            }
+            segments.set(index, null);
+            firstSegment = index + 1;
+            Files.deleteIfExists(segmentFile(index));
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Position just past the last appended record.
+     */
+    long end() {
+        return written;
+    }
+
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            awaitDurable(written - 1);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Called with appendLock held
+    private void roll() {
+        MappedByteBuffer segment = segments.get(currentSegment);
+        if (writeOffset + Integer.BYTES <= segmentBytes) {
+            segment.putInt(writeOffset, 0);
+        }
+        // Seal the segment before its successor exists
+        flushLock.lock();
+        try {
+            long end = (long) currentSegment * segmentBytes + writeOffset;
+            force(durable, end);
+            durable = end;
+        } finally {
+            flushLock.unlock();
+        }
+        try {
+            segments.add(map(currentSegment + 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create log segment " + (currentSegment + 1), e);
+        }
+        currentSegment++;
+        writeOffset = 0;
+        written = (long) currentSegment * segmentBytes;
+    }
+
+    // Called with flushLock held
+    private void force(long from, long to) {
+        if (to <= from) {
+            return;
+        }
+        int first = (int) (from / segmentBytes);
+        int last = (int) ((to - 1) / segmentBytes);
+        for (int index = first; index <= last; index++) {
+            long base = (long) index * segmentBytes;
+            int start = index == first ? (int) (from - base) : 0;
+            int end = index == last ? (int) (to - base) : segmentBytes;
+            segments.get(index).force(start, end - start);
+        }
+    }
+
+    private void recover(RecordConsumer replay) throws IOException {
+        TreeMap<Integer, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                files.put(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                    name.length() - SEGMENT_SUFFIX.length())), file);
+            }
+        }
+        if (!files.isEmpty() && files.lastKey() - files.firstKey() != files.size() - 1) {
+            throw new IOException("Log segments in " + directory + " are not contiguous: " + files.keySet());
+        }
+
+        // Segments before the first file were dropped
+        int first = files.isEmpty() ? 0 : files.firstKey();
+        int lastIndex = files.isEmpty() ? 0 : files.lastKey();
+        for (int index = 0; index < first; index++) {
+            segments.add(null);
+        }
+        firstSegment = first;
+        for (int index = first; index <= lastIndex; index++) {
+            MappedByteBuffer segment = map(index);
+            segments.add(segment);
+            boolean last = index == lastIndex;
+            int end = scan(index, segment, last, replay);
+            if (last) {
+                // Cut off a torn tail so that stale bytes behind it can never pass for a record
+                byte[] zeros = new byte[8192];
+                for (int offset = end; offset < segmentBytes; offset += zeros.length) {
+                    segment.put(offset, zeros, 0, Math.min(zeros.length, segmentBytes - offset));
+                }
+                segment.force();
+                currentSegment = index;
+                writeOffset = end;
+            }
+        }
+        written = (long) currentSegment * segmentBytes + writeOffset;
+        durable = written;
+    }
+
+    private int scan(int index, MappedByteBuffer segment, boolean last, RecordConsumer replay) throws IOException {
+        int offset = 0;
+        CRC32C crc = new CRC32C();
+        while (offset + HEADER_BYTES <= segmentBytes) {
+            int length = segment.getInt(offset);
+            if (length == 0) {
+                return offset;
+            }
+            boolean intact = length > 0 && length <= segmentBytes - offset - HEADER_BYTES;
+            if (intact) {
+                crc.reset();
+                crc.update(segment.slice(offset + HEADER_BYTES, length));
+                intact = (int) crc.getValue() == segment.getInt(offset + Integer.BYTES);
+            }
+            if (!intact) {
+                if (last) {
+                    return offset;
+                }
+                throw new IOException("Corrupt record in sealed log segment " + index + " at offset " + offset);
+            }
+            byte[] payload = new byte[length];
+            segment.get(offset + HEADER_BYTES, payload);
+            replay.accept((long) index * segmentBytes + offset, payload);
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    private Path segmentFile(int index) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%010d", index) + SEGMENT_SUFFIX);
+    }
+
+    private MappedByteBuffer map(int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile(index), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // Mapping past the end grows a new or truncated file to full size, zero-filled
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(long position, byte[] payload) throws IOException;
+    }
+}
@@ -0,0 +1,323 @@
+package com.knight.contexts.approvalworkflows.engine.infra.persistence.eventlog;
+
+import com.knight.contexts.approvalworkflows.engine.domain.aggregate.ApprovalWorkflow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The events of one workflow saved together, as stored in one log record, and their binary form.
+ *
+ * Layout (big-endian): format version, workflow id, event count, then each event as a kind byte
+ * and its fields. Strings are modified UTF-8, and optional values are preceded by a presence byte.
+ * Statuses are stored as fixed codes, independent of the order of the Status constants. A
+ * Snapshot carries the workflow's whole state; replay restarts from the last one.
+ */
+record WorkflowEvents(String workflowId, List<Event> events) {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte STARTED = 1;
+    private static final byte DECIDED = 2;
+    private static final byte COMPLETED = 3;
+    private static final byte SNAPSHOT = 4;
+    private static final byte DELETED = 5;
+
+    sealed interface Event permits Started, Decided, Completed, Snapshot, Deleted {}
+
+    record Started(String statementId, String profileId, String requesterId, String action, String resource,
+                   BigDecimal amount, int requiredApprovals, List<String> eligibleApprovers,
+                   Instant createdAt, Instant expiresAt) implements Event {}
+
+    record Decided(String approverId, String decision, String comment, Instant decidedAt) implements Event {}
+
+    record Completed(ApprovalWorkflow.Status status, Instant completedAt) implements Event {}
+
+    record Snapshot(Started started, List<Decided> decisions, ApprovalWorkflow.Status status,
+                    Instant completedAt) implements Event {}
+
+    record Deleted() implements Event {}
+
+    /**
+     * Events that bring a workflow from what was stored before (null: nothing) to its state now.
+     * The aggregate only ever adds decisions and moves out of PENDING once, so the difference is
+     * the decisions past the stored count and the completion, if it is new.
+     */
+    static List<Event> changes(WorkflowHead stored, ApprovalWorkflow workflow) {
+        List<Event> events = new ArrayList<>(2);
+        if (stored == null) {
+            events.add(started(workflow));
+        }
+        List<ApprovalWorkflow.Approval> approvals = workflow.receivedApprovals();
+        for (int i = stored == null ? 0 : stored.decisions(); i < approvals.size(); i++) {
+            events.add(decided(approvals.get(i)));
+        }
+        boolean wasPending = stored == null || stored.status() == ApprovalWorkflow.Status.PENDING;
+        if (wasPending && workflow.status() != ApprovalWorkflow.Status.PENDING) {
+            events.add(new Completed(workflow.status(), workflow.completedAt()));
+        }
+        return events;
+    }
+
+    /**
+     * True if a workflow's replay can begin at these events: they hold its start or a snapshot,
+     * which a save adds after the decisions it appends.
+     */
+    static boolean startsWorkflow(List<Event> events) {
+        return events.stream().anyMatch(event -> event instanceof Started || event instanceof Snapshot);
+    }
+
+    static Snapshot snapshot(ApprovalWorkflow workflow) {
+        List<Decided> decisions = workflow.receivedApprovals().stream().map(WorkflowEvents::decided).toList();
+        return new Snapshot(started(workflow), decisions, workflow.status(), workflow.completedAt());
+    }
+
+    /**
+     * Replay a workflow's events, in log order, into its aggregate; null if it was deleted.
+     * A snapshot holds everything before it, so replay starts at the last one.
+     */
+    static ApprovalWorkflow replay(String workflowId, List<Event> events) {
+        int from = 0;
+        for (int i = events.size() - 1; i > 0; i--) {
+            if (events.get(i) instanceof Snapshot) {
+                from = i;
+                break;
+            }
+        }
+        Started started = null;
+        List<Decided> decisions = new ArrayList<>();
+        ApprovalWorkflow.Status status = ApprovalWorkflow.Status.PENDING;
+        Instant completedAt = null;
+        for (Event event : events.subList(from, events.size())) {
+            if (event instanceof Snapshot snapshot) {
+                started = snapshot.started();
+                decisions = new ArrayList<>(snapshot.decisions());
+                status = snapshot.status();
+                completedAt = snapshot.completedAt();
+            } else if (event instanceof Started start) {
+                started = start;
+                decisions.clear();
+                status = ApprovalWorkflow.Status.PENDING;
+                completedAt = null;
+            } else if (event instanceof Deleted) {
+                started = null;
+            } else if (started == null) {
+                throw new IllegalStateException("Event " + event + " of workflow " + workflowId + " precedes its start");
+            } else if (event instanceof Decided decided) {
+                decisions.add(decided);
+            } else if (event instanceof Completed completed) {
+                status = completed.status();
+                completedAt = completed.completedAt();
+            }
+        }
+        return started == null ? null : restore(workflowId, started, decisions, status, completedAt);
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(workflowId);
+            out.writeShort(events.size());
+            for (Event event : events) {
+                writeEvent(out, event);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static WorkflowEvents decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported workflow event format " + version + ", expected " + FORMAT_VERSION);
+        }
+        String workflowId = in.readUTF();
+        int count = in.readUnsignedShort();
+        List<Event> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(readEvent(in));
+        }
+        return new WorkflowEvents(workflowId, events);
+    }
+
+    private static ApprovalWorkflow restore(String workflowId, Started started, List<Decided> decisions,
+                                            ApprovalWorkflow.Status status, Instant completedAt) {
+        List<ApprovalWorkflow.Approval> approvals = decisions.stream()
+            .map(d -> new ApprovalWorkflow.Approval(d.approverId(), d.decision(), d.comment(), d.decidedAt()))
+            .toList();
+        return ApprovalWorkflow.reconstruct(workflowId, started.statementId(), started.profileId(),
+            started.requesterId(), started.action(), started.resource(), started.amount(),
+            started.requiredApprovals(), started.eligibleApprovers(), started.createdAt(), started.expiresAt(),
+            approvals, status, completedAt);
+    }
+
+    private static Started started(ApprovalWorkflow workflow) {
+        return new Started(workflow.statementId(), workflow.profileId(), workflow.requesterId(), workflow.action(),
+            workflow.resource(), workflow.amount(), workflow.requiredApprovals(), workflow.eligibleApprovers(),
+            workflow.createdAt(), workflow.expiresAt());
+    }
+
+    private static Decided decided(ApprovalWorkflow.Approval approval) {
+        return new Decided(approval.approverId(), approval.decision(), approval.comment(), approval.approvedAt());
+    }
+
+    private static void writeEvent(DataOutputStream out, Event event) throws IOException {
+        if (event instanceof Started started) {
+            out.writeByte(STARTED);
+            writeStarted(out, started);
+        } else if (event instanceof Decided decided) {
+            out.writeByte(DECIDED);
+            writeDecided(out, decided);
+        } else if (event instanceof Completed completed) {
+            out.writeByte(COMPLETED);
+            out.writeByte(statusCode(completed.status()));
+            writeInstant(out, completed.completedAt());
+        } else if (event instanceof Snapshot snapshot) {
+            out.writeByte(SNAPSHOT);
+            writeStarted(out, snapshot.started());
+            out.writeShort(snapshot.decisions().size());
+            for (Decided decided : snapshot.decisions()) {
+                writeDecided(out, decided);
+            }
+            out.writeByte(statusCode(snapshot.status()));
+            writeOptionalInstant(out, snapshot.completedAt());
+        } else {
+            out.writeByte(DELETED);
+        }
+    }
+
+    private static Event readEvent(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        switch (kind) {
+            case STARTED:
+                return readStarted(in);
+            case DECIDED:
+                return readDecided(in);
+            case COMPLETED:
+                return new Completed(status(in.readByte()), readInstant(in));
+            case SNAPSHOT:
+                Started started = readStarted(in);
+                int count = in.readUnsignedShort();
+                List<Decided> decisions = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    decisions.add(readDecided(in));
+                }
+                return new Snapshot(started, decisions, status(in.readByte()),
+                    readOptionalInstant(in));
+            case DELETED:
+                return new Deleted();
+            default:
+                throw new IOException("Unknown workflow event kind " + kind);
+        }
+    }
+
+    // The codes of the first format, which stored the constants' ordinals, and must never change
+    private static byte statusCode(ApprovalWorkflow.Status status) {
+        return switch (status) {
+            case PENDING -> 0;
+            case APPROVED -> 1;
+            case REJECTED -> 2;
+            case EXPIRED -> 3;
+            case CANCELLED -> 4;
+        };
+    }
+
+    private static ApprovalWorkflow.Status status(byte code) throws IOException {
+        return switch (code) {
+            case 0 -> ApprovalWorkflow.Status.PENDING;
+            case 1 -> ApprovalWorkflow.Status.APPROVED;
+            case 2 -> ApprovalWorkflow.Status.REJECTED;
+            case 3 -> ApprovalWorkflow.Status.EXPIRED;
+            case 4 -> ApprovalWorkflow.Status.CANCELLED;
+            default -> throw new IOException("Unknown workflow status code " + code);
+        };
+    }
+
+    private static void writeStarted(DataOutputStream out, Started started) throws IOException {
+        out.writeUTF(started.statementId());
+        out.writeUTF(started.profileId());
+        out.writeUTF(started.requesterId());
+        writeOptionalString(out, started.action());
+        writeOptionalString(out, started.resource());
+        writeOptionalString(out, started.amount() == null ? null : started.amount().toPlainString());
+        out.writeInt(started.requiredApprovals());
+        out.writeShort(started.eligibleApprovers().size());
+        for (String approver : started.eligibleApprovers()) {
+            out.writeUTF(approver);
+        }
+        writeInstant(out, started.createdAt());
+        writeOptionalInstant(out, started.expiresAt());
+    }
+
+    private static Started readStarted(DataInputStream in) throws IOException {
+        String statementId = in.readUTF();
+        String profileId = in.readUTF();
+        String requesterId = in.readUTF();
+        String action = readOptionalString(in);
+        String resource = readOptionalString(in);
+        String amount = readOptionalString(in);
+        int requiredApprovals = in.readInt();
+        int approverCount = in.readUnsignedShort();
+        List<String> approvers = new ArrayList<>(approverCount);
+        for (int i = 0; i < approverCount; i++) {
+            approvers.add(in.readUTF());
+        }
+        return new Started(statementId, profileId, requesterId, action, resource,
+            amount == null ? null : new BigDecimal(amount), requiredApprovals, approvers,
+            readInstant(in), readOptionalInstant(in));
+    }
+
+    private static void writeDecided(DataOutputStream out, Decided decided) throws IOException {
+        out.writeUTF(decided.approverId());
+        out.writeUTF(decided.decision());
+        writeOptionalString(out, decided.comment());
+        writeInstant(out, decided.decidedAt());
+    }
+
+    private static Decided readDecided(DataInputStream in) throws IOException {
+        return new Decided(in.readUTF(), in.readUTF(), readOptionalString(in), readInstant(in));
+    }
+
+    private static void writeOptionalString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readOptionalString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return Instant.ofEpochSecond(in.readLong(), in.readInt());
+    }
+
+    private static void writeOptionalInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeBoolean(instant != null);
+        if (instant != null) {
+            writeInstant(out, instant);
+        }
+    }
+
+    private static Instant readOptionalInstant(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readInstant(in) : null;
+    }
+}
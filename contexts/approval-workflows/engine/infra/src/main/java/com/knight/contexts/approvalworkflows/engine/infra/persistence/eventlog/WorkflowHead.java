@@ -0,0 +1,76 @@
+package com.knight.contexts.approvalworkflows.engine.infra.persistence.eventlog;
+
+import com.knight.contexts.approvalworkflows.engine.domain.aggregate.ApprovalWorkflow;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What the repository keeps in memory per stored workflow: enough to index it and to tell which
+ * events a save adds, and the positions of the log records to replay to load it. Those start at
+ * the record holding the workflow's last snapshot, or its first record if it has none.
+ */
+record WorkflowHead(
+    String statementId,
+    List<String> eligibleApprovers,
+    Instant expiresAt,
+    ApprovalWorkflow.Status status,
+    Instant completedAt,
+    int decisions,
+    long[] positions
+) {
+
+    /**
+     * The head after the record at position, holding events, was appended to the log; null when
+     * the record deletes the workflow.
+     */
+    static WorkflowHead append(WorkflowHead head, long position, List<WorkflowEvents.Event> events) {
+        String statementId = head == null ? null : head.statementId();
+        List<String> approvers = head == null ? List.of() : head.eligibleApprovers();
+        Instant expiresAt = head == null ? null : head.expiresAt();
+        ApprovalWorkflow.Status status = head == null ? ApprovalWorkflow.Status.PENDING : head.status();
+        Instant completedAt = head == null ? null : head.completedAt();
+        int decisions = head == null ? 0 : head.decisions();
+        boolean restart = head == null;
+
+        for (WorkflowEvents.Event event : events) {
+            if (event instanceof WorkflowEvents.Started started) {
+                statementId = started.statementId();
+                approvers = List.copyOf(started.eligibleApprovers());
+                expiresAt = started.expiresAt();
+            } else if (event instanceof WorkflowEvents.Decided) {
+                decisions++;
+            } else if (event instanceof WorkflowEvents.Completed completed) {
+                status = completed.status();
+                completedAt = completed.completedAt();
+            } else if (event instanceof WorkflowEvents.Snapshot snapshot) {
+                statementId = snapshot.started().statementId();
+                approvers = List.copyOf(snapshot.started().eligibleApprovers());
+                expiresAt = snapshot.started().expiresAt();
+                status = snapshot.status();
+                completedAt = snapshot.completedAt();
+                decisions = snapshot.decisions().size();
+                restart = true;
+            } else {
+                return null;
+            }
+        }
+        if (statementId == null) {
+            throw new IllegalStateException("Log record at " + position + " continues a workflow that never started");
+        }
+
+        long[] positions;
+        if (restart) {
+            positions = new long[] {position};
+        } else {
+            positions = Arrays.copyOf(head.positions(), head.positions().length + 1);
+            positions[positions.length - 1] = position;
+        }
+        return new WorkflowHead(statementId, approvers, expiresAt, status, completedAt, decisions, positions);
+    }
+
+    boolean isPending() {
+        return status == ApprovalWorkflow.Status.PENDING;
+    }
+}
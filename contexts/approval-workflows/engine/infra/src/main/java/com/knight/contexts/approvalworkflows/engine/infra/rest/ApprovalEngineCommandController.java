@@ -5,6 +5,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * REST controller exposing command endpoints for Approval Engine.
@@ -27,7 +29,8 @@ public class ApprovalEngineCommandController {
             request.requesterId(),
             request.action(),
             request.resource(),
-            request.amount()
+            request.amount(),
+            request.timeToLive()
         );
 
         String workflowId = commands.startApprovalWorkflow(cmd);
@@ -61,6 +64,30 @@ public class ApprovalEngineCommandController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/approve/batch")
+    public ResponseEntity<ApprovalEngineCommands.BatchDecisionResult> approveWorkflows(
+            @RequestBody BatchApproveWorkflowsRequest request) {
+        ApprovalEngineCommands.BatchApproveWorkflowsCmd cmd = new ApprovalEngineCommands.BatchApproveWorkflowsCmd(
+            request.approverId(),
+            request.workflowIds(),
+            request.comment()
+        );
+
+        return ResponseEntity.ok(commands.approveWorkflows(cmd));
+    }
+
+    @PostMapping("/reject/batch")
+    public ResponseEntity<ApprovalEngineCommands.BatchDecisionResult> rejectWorkflows(
+            @RequestBody BatchRejectWorkflowsRequest request) {
+        ApprovalEngineCommands.BatchRejectWorkflowsCmd cmd = new ApprovalEngineCommands.BatchRejectWorkflowsCmd(
+            request.approverId(),
+            request.workflowIds(),
+            request.reason()
+        );
+
+        return ResponseEntity.ok(commands.rejectWorkflows(cmd));
+    }
+
     @PostMapping("/cancel")
     public ResponseEntity<Void> cancelWorkflow(@RequestBody CancelWorkflowRequest request) {
         ApprovalEngineCommands.CancelWorkflowCmd cmd = new ApprovalEngineCommands.CancelWorkflowCmd(
@@ -80,7 +107,8 @@ public class ApprovalEngineCommandController {
         String requesterId,
         String action,
         String resource,
-        BigDecimal amount
+        BigDecimal amount,
+        Duration timeToLive         // ISO-8601, e.g. PT72H; omitted for the configured default
     ) {}
 
     record StartWorkflowResult(String workflowId) {}
@@ -97,6 +125,18 @@ public class ApprovalEngineCommandController {
         String reason
     ) {}
 
+    record BatchApproveWorkflowsRequest(
+        String approverId,
+        List<String> workflowIds,
+        String comment
+    ) {}
+
+    record BatchRejectWorkflowsRequest(
+        String approverId,
+        List<String> workflowIds,
+        String reason
+    ) {}
+
     record CancelWorkflowRequest(
         String workflowId,
         String cancelledBy,
@@ -0,0 +1,169 @@
+package com.knight.contexts.approvalworkflows.engine.infra.concurrency;
+
+import com.knight.contexts.approvalworkflows.engine.api.commands.ApprovalEngineCommands.ApproveWorkflowCmd;
+import com.knight.contexts.approvalworkflows.engine.api.commands.ApprovalEngineCommands.BatchApproveWorkflowsCmd;
+import com.knight.contexts.approvalworkflows.engine.api.commands.ApprovalEngineCommands.BatchDecisionResult;
+import com.knight.contexts.approvalworkflows.engine.api.commands.ApprovalEngineCommands.WorkflowDecisionResult;
+import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalReceived;
+import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalWorkflowCompleted;
+import com.knight.contexts.approvalworkflows.engine.app.service.ApprovalEngineApplicationService;
+import com.knight.contexts.approvalworkflows.engine.domain.aggregate.ApprovalWorkflow;
+import com.knight.contexts.approvalworkflows.engine.infra.persistence.InMemoryApprovalWorkflowRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Races every approver of every workflow against each other, one command or one batch at a
+ * time, and verifies no vote is lost and no workflow completes twice.
+ */
+class ConcurrentApprovalStressTest {
+
+    private static final int WORKFLOWS = 500;
+    private static final int APPROVERS = 16;
+    private static final int REQUIRED = 10;
+
+    private final InMemoryApprovalWorkflowRepository repository = new InMemoryApprovalWorkflowRepository();
+    private final Queue<Object> events = new ConcurrentLinkedQueue<>();
+    private final ApprovalEngineApplicationService service =
+        new ApprovalEngineApplicationService(repository, events::add, null);
+
+    private final List<String> approvers = IntStream.range(0, APPROVERS).mapToObj(i -> "approver-" + i).toList();
+
+    @Test
+    void concurrentApprovalsAreCountedExactlyOnce() throws Exception {
+        List<String> workflowIds = startWorkflows();
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(APPROVERS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int a = 0; a < APPROVERS; a++) {
+                String approverId = approvers.get(a);
+                List<String> order = new ArrayList<>(workflowIds);
+                Collections.shuffle(order, new Random(a));
+                futures.add(pool.submit(() -> {
+                    go.await();
+                    for (String workflowId : order) {
+                        try {
+                            service.approveWorkflow(new ApproveWorkflowCmd(workflowId, approverId, "ok"));
+                            accepted.incrementAndGet();
+                        } catch (IllegalStateException completed) {
+                            refused.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(accepted.get()).isEqualTo(WORKFLOWS * REQUIRED);
+        assertThat(refused.get()).isEqualTo(WORKFLOWS * (APPROVERS - REQUIRED));
+        assertExactlyApproved(workflowIds);
+    }
+
+    @Test
+    void concurrentBatchesReportEveryWorkflow() throws Exception {
+        List<String> workflowIds = startWorkflows();
+        List<String> requested = new ArrayList<>(workflowIds);
+        requested.add("wf-missing");
+
+        List<BatchDecisionResult> batches = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(APPROVERS);
+        try {
+            List<Future<BatchDecisionResult>> futures = new ArrayList<>();
+            for (String approverId : approvers) {
+                futures.add(pool.submit(() ->
+                    service.approveWorkflows(new BatchApproveWorkflowsCmd(approverId, requested, "ok"))));
+            }
+            for (Future<BatchDecisionResult> future : futures) {
+                batches.add(future.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (BatchDecisionResult batch : batches) {
+            assertThat(batch.results()).extracting(WorkflowDecisionResult::workflowId).containsExactlyElementsOf(requested);
+            assertThat(batch.results().get(WORKFLOWS).succeeded()).isFalse();
+            assertThat(batch.results().get(WORKFLOWS).error()).contains("wf-missing");
+        }
+        assertThat(batches.stream().mapToLong(BatchDecisionResult::succeeded).sum()).isEqualTo(WORKFLOWS * REQUIRED);
+        assertExactlyApproved(workflowIds);
+    }
+
+    @Test
+    void batchesAreDecidedAndPublishedOnTheCallingThread() {
+        List<Thread> publishers = new ArrayList<>();
+        ApprovalEngineApplicationService recording = new ApprovalEngineApplicationService(
+            repository, event -> publishers.add(Thread.currentThread()), null);
+        List<String> requested = new ArrayList<>(startWorkflows());
+        requested.add(0, "wf-missing");
+
+        BatchDecisionResult batch = recording.approveWorkflows(new BatchApproveWorkflowsCmd("approver-0", requested, "ok"));
+
+        assertThat(batch.succeeded()).isEqualTo(WORKFLOWS);
+        assertThat(batch.results().get(0).succeeded()).isFalse();
+        // One ApprovalReceived per decided workflow, none for the missing one
+        assertThat(publishers).hasSize(WORKFLOWS).containsOnly(Thread.currentThread());
+    }
+
+    private List<String> startWorkflows() {
+        List<String> workflowIds = new ArrayList<>();
+        for (int i = 0; i < WORKFLOWS; i++) {
+            ApprovalWorkflow workflow = ApprovalWorkflow.start("wf-" + i, "statement-" + i, "profile-1",
+                "requester", "SUBMIT_RECEIVABLE", "urn:knight:receivable:" + i, BigDecimal.TEN,
+                REQUIRED, approvers);
+            repository.save(workflow);
+            workflowIds.add(workflow.workflowId());
+        }
+        return workflowIds;
+    }
+
+    private void assertExactlyApproved(List<String> workflowIds) {
+        for (String workflowId : workflowIds) {
+            ApprovalWorkflow workflow = repository.findById(workflowId).orElseThrow();
+            assertThat(workflow.status()).isEqualTo(ApprovalWorkflow.Status.APPROVED);
+            assertThat(workflow.receivedApprovals()).hasSize(REQUIRED);
+        }
+
+        Map<String, Long> received = countBy(ApprovalReceived.class, ApprovalReceived::workflowId);
+        Map<String, Long> completed = countBy(ApprovalWorkflowCompleted.class, ApprovalWorkflowCompleted::workflowId);
+        assertThat(received).hasSize(WORKFLOWS).allSatisfy((id, count) -> assertThat(count).isEqualTo(REQUIRED));
+        assertThat(completed).hasSize(WORKFLOWS).allSatisfy((id, count) -> assertThat(count).isEqualTo(1L));
+        assertThat(repository.findPendingIdsForApprover("approver-0")).isEmpty();
+    }
+
+    private <E> Map<String, Long> countBy(Class<E> type, Function<E, String> workflowId) {
+        return events.stream()
+            .filter(type::isInstance)
+            .map(type::cast)
+            .collect(Collectors.groupingBy(workflowId, Collectors.counting()));
+    }
+}
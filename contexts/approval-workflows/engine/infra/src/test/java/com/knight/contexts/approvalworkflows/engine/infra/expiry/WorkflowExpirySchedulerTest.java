@@ -0,0 +1,153 @@
+package com.knight.contexts.approvalworkflows.engine.infra.expiry;
+
+import com.knight.contexts.approvalworkflows.engine.api.commands.ApprovalEngineCommands.ApproveWorkflowCmd;
+import com.knight.contexts.approvalworkflows.engine.api.commands.ApprovalEngineCommands.StartApprovalWorkflowCmd;
+import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalReceived;
+import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalWorkflowCompleted;
+import com.knight.contexts.approvalworkflows.engine.api.events.ApprovalWorkflowStarted;
+import com.knight.contexts.approvalworkflows.engine.app.expiry.WorkflowExpiryScheduler;
+import com.knight.contexts.approvalworkflows.engine.app.projection.WorkflowReadModelProjection;
+import com.knight.contexts.approvalworkflows.engine.app.service.ApprovalEngineQueryService;
+import com.knight.contexts.approvalworkflows.engine.app.service.ApprovalEngineApplicationService;
+import com.knight.contexts.approvalworkflows.engine.infra.persistence.InMemoryApprovalWorkflowRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies pending workflows expire once their deadline passes, and only then.
+ */
+class WorkflowExpirySchedulerTest {
+
+    private final MutableClock clock = new MutableClock(Instant.now());
+    private final InMemoryApprovalWorkflowRepository repository = new InMemoryApprovalWorkflowRepository();
+    private final List<Object> events = new ArrayList<>();
+    // Keeps a single completed row, so older completed workflows are served from the repository
+    private final WorkflowReadModelProjection readModel = new WorkflowReadModelProjection(1);
+    private final List<ApprovalWorkflowStarted> heldStarts = new ArrayList<>();
+    private boolean holdStarts;
+    private final ApprovalEngineQueryService queries = new ApprovalEngineQueryService(repository, readModel);
+    private WorkflowExpiryScheduler scheduler;
+    private final ApprovalEngineApplicationService service = new ApprovalEngineApplicationService(
+        repository, this::publish, Duration.ofHours(72));
+
+    @Test
+    void expiresPendingWorkflowsWhenTheirDeadlinePasses() {
+        scheduler = new WorkflowExpiryScheduler(repository, service, clock, 1_000);
+        String shortLived = start(Duration.ofHours(1));
+        String defaulted = start(null);
+        String decided = start(Duration.ofHours(1));
+        service.approveWorkflow(new ApproveWorkflowCmd(decided, "approver-1", "ok"));
+        assertThat(scheduler.scheduled()).isEqualTo(2);
+
+        clock.advance(Duration.ofMinutes(30));
+        assertThat(scheduler.expireDue()).isZero();
+
+        clock.advance(Duration.ofMinutes(31));
+        assertThat(scheduler.expireDue()).isEqualTo(1);
+        assertThat(queries.getWorkflowStatus(shortLived).status()).isEqualTo("EXPIRED");
+        assertThat(queries.getWorkflowStatus(defaulted).status()).isEqualTo("PENDING");
+        assertThat(queries.getWorkflowStatus(decided).status()).isEqualTo("APPROVED");
+        assertThat(queries.getWorkflowHistory(decided).decisions()).hasSize(1);
+        assertThat(events).filteredOn(ApprovalWorkflowCompleted.class::isInstance)
+            .map(ApprovalWorkflowCompleted.class::cast)
+            .anySatisfy(event -> {
+                assertThat(event.workflowId()).isEqualTo(shortLived);
+                assertThat(event.outcome()).isEqualTo("EXPIRED");
+            });
+        assertThat(scheduler.scheduled()).isEqualTo(1);
+        assertThat(queries.getPendingApprovals("approver-1"))
+            .extracting(summary -> summary.workflowId()).containsExactly(defaulted);
+    }
+
+    @Test
+    void rebuildsDeadlinesFromTheRepository() {
+        scheduler = new WorkflowExpiryScheduler(repository, service, clock, 1_000);
+        String workflowId = start(Duration.ofMinutes(10));
+
+        // A restarted node knows deadlines only from the repository
+        scheduler = new WorkflowExpiryScheduler(repository, service, clock, 1_000);
+        scheduler.rebuild();
+        assertThat(scheduler.scheduled()).isEqualTo(1);
+
+        clock.advance(Duration.ofMinutes(11));
+        assertThat(scheduler.expireDue()).isEqualTo(1);
+        assertThat(queries.getWorkflowStatus(workflowId).status()).isEqualTo("EXPIRED");
+        assertThat(scheduler.scheduled()).isZero();
+    }
+
+    @Test
+    void expiryHandledBeforeTheStartDoesNotResurrectTheWorkflow() {
+        scheduler = new WorkflowExpiryScheduler(repository, service, clock, 1_000);
+        holdStarts = true;
+        String workflowId = start(Duration.ofMillis(1));
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(scheduler.expireDue()).isEqualTo(1);
+
+        // The read model's start listener runs after the expiry's
+        heldStarts.forEach(readModel::on);
+        assertThat(queries.getWorkflowStatus(workflowId).status()).isEqualTo("EXPIRED");
+        assertThat(queries.getPendingApprovals("approver-1")).isEmpty();
+    }
+
+    private String start(Duration timeToLive) {
+        return service.startApprovalWorkflow(new StartApprovalWorkflowCmd("statement-1", "profile-1",
+            "requester", "SUBMIT_RECEIVABLE", "urn:knight:receivable:1", BigDecimal.TEN, timeToLive));
+    }
+
+    // Stands in for the after-commit listeners
+    private void publish(Object event) {
+        events.add(event);
+        if (event instanceof ApprovalWorkflowStarted started) {
+            if (holdStarts) {
+                heldStarts.add(started);
+            } else {
+                readModel.on(started);
+            }
+            scheduler.on(started);
+        } else if (event instanceof ApprovalReceived received) {
+            readModel.on(received);
+        } else if (event instanceof ApprovalWorkflowCompleted completed) {
+            readModel.on(completed);
+            scheduler.on(completed);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.knight.contexts.approvalworkflows.engine.infra.persistence;
+
+import com.knight.contexts.approvalworkflows.engine.domain.aggregate.ApprovalWorkflow;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the approver index follows workflows through their lifecycle.
+ */
+class InMemoryApprovalWorkflowRepositoryTest {
+
+    private final InMemoryApprovalWorkflowRepository repository = new InMemoryApprovalWorkflowRepository();
+
+    @Test
+    void inboxHoldsOnlyPendingWorkflowsOfTheApprover() {
+        ApprovalWorkflow approved = start("wf-1", List.of("alice", "bob"), 2, null);
+        ApprovalWorkflow rejected = start("wf-2", List.of("alice"), 1, null);
+        ApprovalWorkflow cancelled = start("wf-3", List.of("bob"), 1, null);
+        start("wf-4", List.of("alice", "carol"), 1, null);
+        ApprovalWorkflow expired = start("wf-5", List.of("carol"), 1, Duration.ofMinutes(5));
+
+        assertThat(inbox("alice")).containsExactlyInAnyOrder("wf-1", "wf-2", "wf-4");
+        assertThat(inbox("bob")).containsExactlyInAnyOrder("wf-1", "wf-3");
+        assertThat(inbox("carol")).containsExactlyInAnyOrder("wf-4", "wf-5");
+
+        // One approval of two keeps the workflow pending for both approvers
+        approved.approve("alice", "ok");
+        repository.save(approved);
+        assertThat(inbox("bob")).contains("wf-1");
+        approved.approve("bob", "ok");
+        repository.save(approved);
+        assertThat(inbox("alice")).doesNotContain("wf-1");
+
+        rejected.reject("alice", "no");
+        repository.save(rejected);
+        assertThat(inbox("alice")).containsExactly("wf-4");
+
+        cancelled.cancel("requester", "withdrawn");
+        repository.save(cancelled);
+        assertThat(inbox("bob")).isEmpty();
+
+        expired.expire(Instant.now().plus(Duration.ofMinutes(10)));
+        repository.save(expired);
+        assertThat(inbox("carol")).containsExactly("wf-4");
+
+        repository.delete("wf-4");
+
+        assertThat(inbox("alice")).isEmpty();
+        assertThat(inbox("bob")).isEmpty();
+        assertThat(inbox("carol")).isEmpty();
+        assertThat(inbox("nobody")).isEmpty();
+    }
+
+    private ApprovalWorkflow start(String workflowId, List<String> approvers, int requiredApprovals,
+                                   Duration timeToLive) {
+        ApprovalWorkflow workflow = ApprovalWorkflow.start(workflowId, "statement-" + workflowId, "profile-1",
+            "requester", "SUBMIT_RECEIVABLE", "urn:knight:receivable:1", BigDecimal.TEN, requiredApprovals, approvers,
+            timeToLive);
+        repository.save(workflow);
+        return workflow;
+    }
+
+    private List<String> inbox(String approverId) {
+        return repository.findPendingIdsForApprover(approverId);
+    }
+}
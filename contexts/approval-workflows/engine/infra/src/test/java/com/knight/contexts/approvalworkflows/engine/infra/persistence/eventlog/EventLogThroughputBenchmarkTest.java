@@ -0,0 +1,98 @@
+package com.knight.contexts.approvalworkflows.engine.infra.persistence.eventlog;
+
+import com.knight.contexts.approvalworkflows.engine.domain.aggregate.ApprovalWorkflow;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput benchmark of durable saves through the event-sourced repository: concurrent writers
+ * start workflows and decide them, each save waiting for its group commit, and the rate of
+ * events made durable is reported per writer count. Tagged benchmark, so it runs only with
+ * -Pbenchmark.
+ */
+@Tag("benchmark")
+class EventLogThroughputBenchmarkTest {
+
+    private static final int SEGMENT_BYTES = 64 * 1024 * 1024;
+    private static final int WORKFLOWS_PER_WRITER = 1_000;
+
+    private final List<String> approvers = IntStream.range(0, 8).mapToObj(i -> "approver-" + i).toList();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void groupCommitScalesWithConcurrentWriters() throws Exception {
+        // Warm up on a log of its own
+        measure(directory.resolve("warm-up"), 8, WORKFLOWS_PER_WRITER / 4);
+
+        double single = measure(directory.resolve("writers-1"), 1, WORKFLOWS_PER_WRITER / 4);
+        System.out.printf("1 writer: %,.0f durable events/s%n", single);
+        double concurrent = 0;
+        for (int writers : new int[] {8, 32, 64}) {
+            double eventsPerSecond = measure(directory.resolve("writers-" + writers), writers, WORKFLOWS_PER_WRITER);
+            System.out.printf("%d writers: %,.0f durable events/s%n", writers, eventsPerSecond);
+            concurrent = Math.max(concurrent, eventsPerSecond);
+        }
+
+        // Writers waiting on one force share it, so concurrency must raise the rate
+        assertThat(concurrent).isGreaterThan(single);
+    }
+
+    /**
+     * Events per second made durable by writers, each starting and then approving its workflows:
+     * a start record (one event) and a decision record (decision and completion) per workflow.
+     */
+    private double measure(Path log, int writers, int workflowsPerWriter) throws Exception {
+        try (EventSourcedApprovalWorkflowRepository repository =
+                 new EventSourcedApprovalWorkflowRepository(log, SEGMENT_BYTES, 16)) {
+            ExecutorService pool = Executors.newFixedThreadPool(writers);
+            try {
+                long start = System.nanoTime();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int w = 0; w < writers; w++) {
+                    int writer = w;
+                    futures.add(pool.submit(() -> {
+                        for (int i = 0; i < workflowsPerWriter; i++) {
+                            ApprovalWorkflow workflow = start("wf-" + writer + "-" + i);
+                            repository.save(workflow);
+                            workflow.approve(approvers.get(i % approvers.size()), null);
+                            repository.save(workflow);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get(10, TimeUnit.MINUTES);
+                }
+                long events = 3L * writers * workflowsPerWriter;
+                return events / ((System.nanoTime() - start) / 1e9);
+            } finally {
+                pool.shutdownNow();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open benchmark log " + log, e);
+        }
+    }
+
+    private ApprovalWorkflow start(String workflowId) {
+        return ApprovalWorkflow.start(workflowId, "statement-" + workflowId, "profile-1", "requester",
+            "SUBMIT_RECEIVABLE", "urn:knight:receivable:" + workflowId, new BigDecimal("1250.50"), 1,
+            approvers, Duration.ofHours(1));
+    }
+}
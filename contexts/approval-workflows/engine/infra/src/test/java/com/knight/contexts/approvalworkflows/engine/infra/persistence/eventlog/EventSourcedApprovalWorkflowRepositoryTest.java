@@ -0,0 +1,391 @@
+package com.knight.contexts.approvalworkflows.engine.infra.persistence.eventlog;
+
+import com.knight.contexts.approvalworkflows.engine.domain.aggregate.ApprovalWorkflow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies workflows survive a reopen through replay and snapshots, and compaction of old
+ * segments, and that a crash that tears the last log segment loses only a suffix of the saves.
+ */
+class EventSourcedApprovalWorkflowRepositoryTest {
+
+    private static final int SEGMENT_BYTES = 8192;
+    private static final int SNAPSHOT_EVERY = 3;
+
+    private final List<String> approvers = IntStream.range(0, 8).mapToObj(i -> "approver-" + i).toList();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenReplaysSnapshotsAndTails() throws IOException {
+        Map<String, String> expected = new TreeMap<>();
+        try (EventSourcedApprovalWorkflowRepository repository = open(directory)) {
+            runWorkload(repository, new Random(7), "wf-", 60, expected, null);
+            assertThat(describeAll(repository)).isEqualTo(expected);
+            assertThat(repository.findPendingIdsForApprover("approver-3")).allSatisfy(workflowId ->
+                assertThat(expected.get(workflowId)).startsWith("PENDING"));
+        }
+        // Small segments: the workload spans many of them
+        try (Stream<Path> segments = Files.list(directory)) {
+            assertThat(segments.count()).isGreaterThan(3);
+        }
+
+        try (EventSourcedApprovalWorkflowRepository reopened = open(directory)) {
+            assertThat(describeAll(reopened)).isEqualTo(expected);
+            assertThat(reopened.findPendingIdsForApprover("approver-3").stream().sorted().toList())
+                .isEqualTo(expected.entrySet().stream()
+                    .filter(e -> e.getValue().startsWith("PENDING"))
+                    .map(Map.Entry::getKey).collect(Collectors.toList()));
+            String first = expected.keySet().iterator().next();
+            assertThat(ids(reopened.findByStatementId("statement-" + first))).containsExactly(first);
+        }
+    }
+
+    @Test
+    void recoversAPrefixOfTheSavesWhenTheLastSegmentIsTorn() throws IOException {
+        Path original = directory.resolve("original");
+        List<Map<String, String>> history = new ArrayList<>();
+        try (EventSourcedApprovalWorkflowRepository repository = open(original)) {
+            runWorkload(repository, new Random(11), "wf-", 40, new TreeMap<>(), history);
+        }
+        Path lastSegment = lastSegment(original);
+        int used = usedBytes(lastSegment);
+        int completeSaves = savesBeforeLastSegment(history, original);
+
+        Random random = new Random(5);
+        int previous = -1;
+        for (int cut : List.of(0, 1, 7, used / 3, used / 2, used - 1, used)) {
+            Path crashed = copy(original, directory.resolve("cut-" + cut));
+            try (FileChannel channel = FileChannel.open(lastSegment(crashed), StandardOpenOption.WRITE)) {
+                channel.truncate(cut);
+            }
+
+            int recovered;
+            try (EventSourcedApprovalWorkflowRepository repository = open(crashed)) {
+                recovered = history.lastIndexOf(describeAll(repository));
+                assertThat(recovered).as("state after cutting at %s is a prefix of the saves", cut)
+                    .isGreaterThanOrEqualTo(completeSaves);
+                assertThat(recovered).isGreaterThanOrEqualTo(previous);
+
+                // The log accepts appends after the cut, and they survive the next reopen
+                runWorkload(repository, random, "after-" + cut + "-", 5, new TreeMap<>(describeAll(repository)), null);
+                Map<String, String> continued = describeAll(repository);
+                repository.close();
+                try (EventSourcedApprovalWorkflowRepository again = open(crashed)) {
+                    assertThat(describeAll(again)).isEqualTo(continued);
+                }
+            }
+            previous = recovered;
+        }
+        assertThat(previous).isEqualTo(history.size() - 1);
+    }
+
+    @Test
+    void recoversAPrefixWhenARecordInTheLastSegmentIsCorrupt() throws IOException {
+        List<Map<String, String>> history = new ArrayList<>();
+        try (EventSourcedApprovalWorkflowRepository repository = open(directory)) {
+            runWorkload(repository, new Random(13), "wf-", 40, new TreeMap<>(), history);
+        }
+        Path lastSegment = lastSegment(directory);
+        int used = usedBytes(lastSegment);
+        try (FileChannel channel = FileChannel.open(lastSegment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer flipped = ByteBuffer.allocate(1);
+            channel.read(flipped, used / 2);
+            flipped.put(0, (byte) ~flipped.get(0)).rewind();
+            channel.write(flipped, used / 2);
+        }
+
+        try (EventSourcedApprovalWorkflowRepository repository = open(directory)) {
+            int recovered = history.lastIndexOf(describeAll(repository));
+            assertThat(recovered).isBetween(savesBeforeLastSegment(history, directory), history.size() - 2);
+        }
+    }
+
+    @Test
+    void concurrentSavesShareGroupCommits() throws Exception {
+        int threads = 8;
+        int perThread = 300;
+        try (EventSourcedApprovalWorkflowRepository repository = open(directory)) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    futures.add(pool.submit(() -> {
+                        for (int i = 0; i < perThread; i++) {
+                            ApprovalWorkflow workflow = start("wf-" + thread + "-" + i);
+                            repository.save(workflow);
+                            workflow.approve("approver-" + (i % approvers.size()), "ok");
+                            repository.save(workflow);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+            assertThat(repository.findAll()).hasSize(threads * perThread);
+        }
+
+        try (EventSourcedApprovalWorkflowRepository reopened = open(directory)) {
+            assertThat(reopened.findAll()).hasSize(threads * perThread)
+                .allSatisfy(workflow -> assertThat(workflow.receivedApprovals()).hasSize(1));
+        }
+    }
+
+    @Test
+    void compactionDropsOldSegmentsAndKeepsLiveWorkflows() throws IOException {
+        Map<String, String> expected = new TreeMap<>();
+        try (EventSourcedApprovalWorkflowRepository repository = open(directory)) {
+            runWorkload(repository, new Random(13), "wf-", 60, expected, null);
+            int segmentsBefore = segmentCount(directory);
+
+            // Everything completed so far is past its retention
+            assertThat(repository.compact(Instant.now().plusSeconds(60))).isPositive();
+            expected.values().removeIf(state -> !state.startsWith("PENDING"));
+            assertThat(describeAll(repository)).isEqualTo(expected);
+            assertThat(segmentCount(directory)).isLessThan(segmentsBefore);
+            assertThat(Files.exists(directory.resolve("segment-0000000000.log"))).isFalse();
+
+            // Compacted workflows keep being decided
+            runWorkload(repository, new Random(17), "wf-next-", 20, expected, null);
+            assertThat(describeAll(repository)).isEqualTo(expected);
+        }
+
+        try (EventSourcedApprovalWorkflowRepository reopened = open(directory)) {
+            assertThat(describeAll(reopened)).isEqualTo(expected);
+            assertThat(reopened.findPendingIdsForApprover("approver-3").stream().sorted().toList())
+                .isEqualTo(expected.entrySet().stream()
+                    .filter(e -> e.getValue().startsWith("PENDING"))
+                    .map(Map.Entry::getKey).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void compactionRunsAlongsideConcurrentSaves() throws Exception {
+        int threads = 4;
+        int perThread = 400;
+        try (EventSourcedApprovalWorkflowRepository repository = open(directory)) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    futures.add(pool.submit(() -> {
+                        for (int i = 0; i < perThread; i++) {
+                            ApprovalWorkflow workflow = start("wf-" + thread + "-" + i);
+                            repository.save(workflow);
+                            workflow.approve("approver-" + (i % approvers.size()), "ok");
+                            repository.save(workflow);
+                            if (i % 2 == 0) {
+                                repository.delete(workflow.workflowId());
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                int dropped = 0;
+                while (!futures.stream().allMatch(Future::isDone)) {
+                    dropped += repository.compact(null);
+                }
+                for (Future<?> future : futures) {
+                    future.get(60, TimeUnit.SECONDS);
+                }
+                assertThat(dropped + repository.compact(null)).isPositive();
+            } finally {
+                pool.shutdownNow();
+            }
+            assertThat(repository.findAll()).hasSize(threads * perThread / 2);
+        }
+
+        try (EventSourcedApprovalWorkflowRepository reopened = open(directory)) {
+            assertThat(reopened.findAll()).hasSize(threads * perThread / 2)
+                .allSatisfy(workflow -> assertThat(workflow.receivedApprovals()).hasSize(1));
+        }
+    }
+
+    @Test
+    void findPendingLoadsOnlyPendingWorkflows() throws IOException {
+        try (EventSourcedApprovalWorkflowRepository repository = open(directory)) {
+            for (int i = 0; i < 6; i++) {
+                ApprovalWorkflow workflow = start("wf-" + i);
+                if (i % 3 == 1) {
+                    workflow.cancel("requester", "withdrawn");
+                } else if (i % 3 == 2) {
+                    workflow.reject("approver-1", "no");
+                }
+                repository.save(workflow);
+            }
+        }
+        try (EventSourcedApprovalWorkflowRepository reopened = open(directory)) {
+            assertThat(ids(reopened.findPending())).containsExactly("wf-0", "wf-3");
+            assertThat(reopened.findAll()).hasSize(6);
+        }
+    }
+
+    @Test
+    void statusesAreStoredAsFixedCodes() throws IOException {
+        Instant completedAt = Instant.parse("2026-01-05T09:00:00Z");
+        byte[] payload = new WorkflowEvents("wf", List.of(
+            new WorkflowEvents.Completed(ApprovalWorkflow.Status.CANCELLED, completedAt))).encode();
+
+        // Format, workflow id, event count and kind precede the status code
+        assertThat(payload[1 + 2 + "wf".length() + 2 + 1]).isEqualTo((byte) 4);
+        assertThat(WorkflowEvents.decode(payload).events())
+            .containsExactly(new WorkflowEvents.Completed(ApprovalWorkflow.Status.CANCELLED, completedAt));
+    }
+
+    /**
+     * Start (as prefix + n), decide, cancel and delete workflows at random, recording the expected
+     * state in expected and, if history is given, the whole state after every save.
+     */
+    private void runWorkload(EventSourcedApprovalWorkflowRepository repository, Random random, String prefix,
+                             int workflows, Map<String, String> expected, List<Map<String, String>> history) {
+        if (history != null) {
+            history.add(Map.copyOf(expected));
+        }
+        List<ApprovalWorkflow> live = new ArrayList<>();
+        int next = 0;
+        for (int step = 0; step < workflows * 6; step++) {
+            ApprovalWorkflow workflow;
+            if (live.isEmpty() || (next < workflows && random.nextInt(3) == 0)) {
+                workflow = start(prefix + next++);
+                live.add(workflow);
+            } else {
+                workflow = live.get(random.nextInt(live.size()));
+                String approver = approvers.get(random.nextInt(approvers.size()));
+                boolean decided = workflow.receivedApprovals().stream().anyMatch(a -> a.approverId().equals(approver));
+                int action = random.nextInt(20);
+                if (workflow.status() != ApprovalWorkflow.Status.PENDING || action == 0) {
+                    repository.delete(workflow.workflowId());
+                    live.remove(workflow);
+                    expected.remove(workflow.workflowId());
+                    if (history != null) {
+                        history.add(Map.copyOf(expected));
+                    }
+                    continue;
+                } else if (action == 1) {
+                    workflow.cancel("requester", "withdrawn");
+                } else if (action == 2 && !decided) {
+                    workflow.reject(approver, "no");
+                } else if (!decided) {
+                    workflow.approve(approver, random.nextBoolean() ? "ok" : null);
+                } else {
+                    continue;
+                }
+            }
+            repository.save(workflow);
+            expected.put(workflow.workflowId(), describe(workflow));
+            if (history != null) {
+                history.add(Map.copyOf(expected));
+            }
+        }
+    }
+
+    private ApprovalWorkflow start(String workflowId) {
+        return ApprovalWorkflow.start(workflowId, "statement-" + workflowId, "profile-1", "requester",
+            "SUBMIT_RECEIVABLE", "urn:knight:receivable:" + workflowId, new BigDecimal("1250.50"), 5,
+            approvers, Duration.ofHours(1));
+    }
+
+    private static String describe(ApprovalWorkflow workflow) {
+        return workflow.status() + " " + workflow.createdAt() + " " + workflow.expiresAt() + " "
+            + workflow.completedAt() + " " + workflow.amount() + " " + workflow.eligibleApprovers() + " "
+            + workflow.receivedApprovals().stream()
+                .map(a -> a.approverId() + ":" + a.decision() + ":" + a.comment() + ":" + a.approvedAt())
+                .collect(Collectors.joining(","));
+    }
+
+    private static Map<String, String> describeAll(EventSourcedApprovalWorkflowRepository repository) {
+        return repository.findAll().stream().collect(Collectors.toMap(ApprovalWorkflow::workflowId,
+            EventSourcedApprovalWorkflowRepositoryTest::describe, (a, b) -> a, TreeMap::new));
+    }
+
+    private static List<String> ids(List<ApprovalWorkflow> workflows) {
+        return workflows.stream().map(ApprovalWorkflow::workflowId).sorted().toList();
+    }
+
+    private static EventSourcedApprovalWorkflowRepository open(Path directory) throws IOException {
+        return new EventSourcedApprovalWorkflowRepository(directory, SEGMENT_BYTES, SNAPSHOT_EVERY);
+    }
+
+    private static int segmentCount(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return (int) files.count();
+        }
+    }
+
+    private static Path lastSegment(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.max(Path::compareTo).orElseThrow();
+        }
+    }
+
+    // Records run back to back from the start of a segment until a zero length
+    private static int usedBytes(Path segment) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int offset = 0;
+        while (offset + 8 <= bytes.limit() && bytes.getInt(offset) > 0) {
+            offset += 8 + bytes.getInt(offset);
+        }
+        return offset;
+    }
+
+    /**
+     * Number of saves whose records all lie in sealed segments: the state replayed from those
+     * segments alone.
+     */
+    private static int savesBeforeLastSegment(List<Map<String, String>> history, Path directory) throws IOException {
+        Path sealedOnly = Files.createTempDirectory(directory.getParent(), "sealed");
+        try (Stream<Path> files = Files.list(directory)) {
+            Path last = lastSegment(directory);
+            for (Path file : files.filter(file -> !file.equals(last)).toList()) {
+                Files.copy(file, sealedOnly.resolve(file.getFileName()));
+            }
+        }
+        try (EventSourcedApprovalWorkflowRepository repository = open(sealedOnly)) {
+            int saves = history.lastIndexOf(describeAll(repository));
+            assertThat(saves).isNotNegative();
+            return saves;
+        }
+    }
+
+    private static Path copy(Path from, Path to) throws IOException {
+        Files.createDirectories(to);
+        try (Stream<Path> files = Files.list(from)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, to.resolve(file.getFileName()));
+            }
+        }
+        return to;
+    }
+}
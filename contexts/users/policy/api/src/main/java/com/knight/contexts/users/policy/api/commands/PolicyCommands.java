@@ -41,20 +41,44 @@ public interface PolicyCommands {
      */
     void deleteApprovalStatement(DeleteStatementCmd cmd);
 
+    /**
+     * Create many statements for one profile in a single transaction.
+     * The whole batch is validated before anything is written, and one
+     * PolicyStatementsImported event is published for the batch.
+     */
+    BulkImportResult bulkCreateStatements(BulkStatementsCmd cmd);
+
+    /**
+     * Replace every statement of a profile with the batch, in a single transaction.
+     * Validation and eventing are the same as for bulkCreateStatements.
+     */
+    BulkImportResult replaceStatements(BulkStatementsCmd cmd);
+
     record CreatePermissionStatementCmd(
         String profileUrn,
         String subject,       // e.g., "user:john.doe@example.com"
         String action,        // e.g., "receivables:view", "receivables:approve"
         String resource,      // e.g., "urn:knight:receivable:*"
-        Effect effect         // ALLOW or DENY
-    ) {}
+        Effect effect,        // ALLOW or DENY
+        String conditions     // optional, e.g., "amount ..5000; hours MON-FRI 09:00-17:00 Europe/London"
+    ) {
+        public CreatePermissionStatementCmd(String profileUrn, String subject, String action, String resource,
+                                            Effect effect) {
+            this(profileUrn, subject, action, resource, effect, null);
+        }
+    }
 
     record UpdatePermissionStatementCmd(
         String statementId,
         String action,
         String resource,
-        Effect effect
-    ) {}
+        Effect effect,
+        String conditions     // replaces the current conditions; null removes them
+    ) {
+        public UpdatePermissionStatementCmd(String statementId, String action, String resource, Effect effect) {
+            this(statementId, action, resource, effect, null);
+        }
+    }
 
     record CreateApprovalStatementCmd(
         String profileUrn,
@@ -63,14 +87,40 @@ public interface PolicyCommands {
         String resource,
         int approverCount,            // 1 for single, 2 for dual
         List<String> approvers,       // List of user URNs
-        BigDecimal amountThreshold    // Optional threshold (null means any amount)
-    ) {}
+        BigDecimal amountThreshold,   // Optional threshold (null means any amount)
+        String conditions             // Optional, e.g., "currency USD,CAD; account 1001"
+    ) {
+        public CreateApprovalStatementCmd(String profileUrn, String subject, String action, String resource,
+                                          int approverCount, List<String> approvers, BigDecimal amountThreshold) {
+            this(profileUrn, subject, action, resource, approverCount, approvers, amountThreshold, null);
+        }
+    }
 
     record UpdateApprovalStatementCmd(
         String statementId,
         int approverCount,
         List<String> approvers,
-        BigDecimal amountThreshold
+        BigDecimal amountThreshold,
+        String conditions             // replaces the current conditions; null removes them
+    ) {
+        public UpdateApprovalStatementCmd(String statementId, int approverCount, List<String> approvers,
+                                          BigDecimal amountThreshold) {
+            this(statementId, approverCount, approvers, amountThreshold, null);
+        }
+    }
+
+    record BulkStatementsCmd(
+        String profileUrn,
+        List<CreatePermissionStatementCmd> permissions,   // profileUrn of each entry may be null
+        List<CreateApprovalStatementCmd> approvals
+    ) {}
+
+    record BulkImportResult(
+        String profileUrn,
+        int permissionsCreated,
+        int approvalsCreated,
+        int permissionsDeleted,   // non-zero only for a replace
+        int approvalsDeleted
     ) {}
 
     record DeleteStatementCmd(
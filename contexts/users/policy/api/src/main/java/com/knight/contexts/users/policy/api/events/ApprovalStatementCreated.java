@@ -16,5 +16,6 @@ public record ApprovalStatementCreated(
     int approverCount,
     List<String> approvers,
     BigDecimal amountThreshold,
+    String conditions,
     Instant createdAt
 ) {}
@@ -7,5 +7,6 @@ import java.time.Instant;
  */
 public record ApprovalStatementDeleted(
     String statementId,
+    String profileUrn,
     Instant deletedAt
 ) {}
@@ -9,8 +9,10 @@ import java.util.List;
  */
 public record ApprovalStatementUpdated(
     String statementId,
+    String profileUrn,
     int approverCount,
     List<String> approvers,
     BigDecimal amountThreshold,
+    String conditions,
     Instant updatedAt
 ) {}
@@ -14,5 +14,6 @@ public record PermissionStatementCreated(
     String action,
     String resource,
     Effect effect,
+    String conditions,
     Instant createdAt
 ) {}
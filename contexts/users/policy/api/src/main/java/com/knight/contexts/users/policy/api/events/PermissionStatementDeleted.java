@@ -7,5 +7,6 @@ import java.time.Instant;
  */
 public record PermissionStatementDeleted(
     String statementId,
+    String profileUrn,
     Instant deletedAt
 ) {}
@@ -9,8 +9,10 @@ import java.time.Instant;
  */
 public record PermissionStatementUpdated(
     String statementId,
+    String profileUrn,
     String action,
     String resource,
     Effect effect,
+    String conditions,
     Instant updatedAt
 ) {}
@@ -0,0 +1,17 @@
+package com.knight.contexts.users.policy.api.events;
+
+import java.time.Instant;
+
+/**
+ * Domain event published once for a bulk create or replace of a profile's statements,
+ * instead of one created/deleted event per statement.
+ */
+public record PolicyStatementsImported(
+    String profileUrn,
+    boolean replaced,
+    int permissionsCreated,
+    int approvalsCreated,
+    int permissionsDeleted,
+    int approvalsDeleted,
+    Instant importedAt
+) {}
@@ -1,9 +1,15 @@
 package com.knight.contexts.users.policy.api.queries;
 
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.CreateApprovalStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.CreatePermissionStatementCmd;
 import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.UpdateApprovalStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.UpdatePermissionStatementCmd;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Query interface for Policy bounded context.
@@ -16,18 +22,107 @@ public interface PolicyQueries {
      */
     PermissionResult evaluatePermission(EvaluatePermissionQuery query);
 
+    /**
+     * Evaluate several permission checks against one profile.
+     * Results are returned in the order of the checks; a batch holds at most 1000 checks.
+     */
+    List<PermissionResult> evaluatePermissions(EvaluatePermissionsQuery query);
+
+    /**
+     * Decide permission without building a reason unless explain is set.
+     * Decision-only calls are served from precomputed results and allocate nothing.
+     */
+    PermissionDecision decidePermission(EvaluatePermissionQuery query, boolean explain);
+
     /**
      * Evaluate approval requirement for a subject on action + resource + amount
      */
     ApprovalRequirement evaluateApprovalRequirement(EvaluateApprovalQuery query);
 
+    /**
+     * Decide approval requirement without building a reason unless explain is set.
+     */
+    ApprovalDecision decideApproval(EvaluateApprovalQuery query, boolean explain);
+
+    /**
+     * Everything a subject may and may not do on a profile, after DENY-overrides-ALLOW resolution.
+     * Served from a materialized projection kept up to date by the statement events.
+     */
+    EffectivePermissions getEffectivePermissions(String profileUrn, String subject);
+
+    /**
+     * Action patterns a subject may perform on a resource, answered in a single pass over the
+     * profile's statements. An action is allowed when it matches an allowed pattern and no
+     * denied pattern.
+     */
+    AllowedActions allowedActions(String profileUrn, String subject, String resource);
+
+    /**
+     * Permission statements left out of evaluation because another statement always decides
+     * first, as found when the profile's policy was last compiled.
+     */
+    StatementCompaction getStatementCompaction(String profileUrn);
+
+    /**
+     * What-if access review: evaluate every subject against every catalogue entry under the
+     * current statements and under the candidate changes, and pass each decision that differs
+     * to the sink. Nothing is persisted. Changes are delivered from the calling thread in
+     * subject order.
+     */
+    void simulate(SimulationQuery query, Consumer<DecisionChange> sink);
+
     /**
      * Get all statements for a profile
      */
     List<StatementSummary> getStatementsForProfile(String profileUrn);
 
+    /**
+     * One page of a profile's statements: permissions, then approvals, each in statementId order.
+     * Pass nextCursor back to read the following page; it is null after the last page.
+     */
+    StatementPage getStatementsPage(StatementPageQuery query);
+
+    /**
+     * Every statement matching the query, from its cursor on, passed to the sink page by page so
+     * memory stays bounded by the page size. Each page is a separate read; a statement changed
+     * while streaming is seen as of the page that reads it.
+     */
+    void streamStatements(StatementPageQuery query, Consumer<StatementSummary> sink);
+
     record EvaluatePermissionQuery(
         String profileUrn,
+        String subject,
+        String action,
+        String resource,
+        RequestContext context    // optional; needed by statements with conditions
+    ) {
+        public EvaluatePermissionQuery(String profileUrn, String subject, String action, String resource) {
+            this(profileUrn, subject, action, resource, null);
+        }
+    }
+
+    record EvaluatePermissionsQuery(
+        String profileUrn,
+        List<PermissionCheck> checks,
+        RequestContext context    // optional; shared by every check
+    ) {
+        public EvaluatePermissionsQuery(String profileUrn, List<PermissionCheck> checks) {
+            this(profileUrn, checks, null);
+        }
+    }
+
+    /**
+     * Request attributes that statement conditions are evaluated against. Every field is
+     * optional; a condition on a missing attribute is not met. The time defaults to now.
+     */
+    record RequestContext(
+        BigDecimal amount,
+        String currency,      // e.g., "USD"
+        String account,       // account identifier
+        Instant at
+    ) {}
+
+    record PermissionCheck(
         String subject,
         String action,
         String resource
@@ -38,13 +133,35 @@ public interface PolicyQueries {
         String reason
     ) {}
 
+    record PermissionDecision(
+        Decision decision,
+        String statementId,   // null for DEFAULT_DENY
+        String reason         // null unless explain was requested
+    ) {
+        public boolean allowed() {
+            return decision == Decision.ALLOW;
+        }
+    }
+
+    enum Decision {
+        ALLOW,
+        DENY,
+        DEFAULT_DENY
+    }
+
     record EvaluateApprovalQuery(
         String profileUrn,
         String subject,
         String action,
         String resource,
-        BigDecimal amount
-    ) {}
+        BigDecimal amount,
+        RequestContext context    // optional; its amount is ignored in favour of the query's
+    ) {
+        public EvaluateApprovalQuery(String profileUrn, String subject, String action, String resource,
+                                     BigDecimal amount) {
+            this(profileUrn, subject, action, resource, amount, null);
+        }
+    }
 
     record ApprovalRequirement(
         boolean approvalRequired,
@@ -53,6 +170,96 @@ public interface PolicyQueries {
         String reason
     ) {}
 
+    record ApprovalDecision(
+        boolean approvalRequired,
+        int approverCount,
+        String statementId,   // null when no approval is required
+        String reason         // null unless explain was requested
+    ) {}
+
+    record EffectivePermissions(
+        String profileUrn,
+        String subject,
+        List<Grant> allowed,  // ALLOW patterns not fully covered by a DENY
+        List<Grant> denied    // DENY patterns; these override any overlapping allowed grant
+    ) {}
+
+    record Grant(
+        String action,
+        String resource,
+        String statementId
+    ) {}
+
+    record AllowedActions(
+        String profileUrn,
+        String subject,
+        String resource,
+        List<String> allowed, // ALLOW action patterns not fully covered by a DENY
+        List<String> denied   // DENY action patterns; these override any overlapping allowed pattern
+    ) {}
+
+    record StatementCompaction(
+        String profileUrn,
+        int evaluated,                     // statements kept for evaluation
+        List<RedundantStatement> redundant
+    ) {}
+
+    record RedundantStatement(
+        String statementId,
+        String reason,   // SHADOWED, DUPLICATE or SUBSUMED
+        String coveredBy // statement that always decides in its place
+    ) {}
+
+    record SimulationQuery(
+        String profileUrn,
+        List<String> subjects,            // empty: every concrete subject named by a statement
+        List<CatalogueEntry> catalogue,
+        StatementChanges changes
+    ) {}
+
+    record CatalogueEntry(
+        String action,
+        String resource,
+        BigDecimal amount     // optional, used for the approval requirement
+    ) {}
+
+    /**
+     * Candidate statement set, expressed as the commands that would produce it.
+     * The profileUrn of create commands is ignored; statements are added to the simulated profile.
+     */
+    record StatementChanges(
+        List<CreatePermissionStatementCmd> createPermissions,
+        List<UpdatePermissionStatementCmd> updatePermissions,
+        List<String> deletePermissions,
+        List<CreateApprovalStatementCmd> createApprovals,
+        List<UpdateApprovalStatementCmd> updateApprovals,
+        List<String> deleteApprovals
+    ) {}
+
+    record DecisionChange(
+        String subject,
+        String action,
+        String resource,
+        BigDecimal amount,
+        PermissionDecision permissionBefore,  // null when the permission decision is unchanged
+        PermissionDecision permissionAfter,
+        ApprovalDecision approvalBefore,      // null when the approval requirement is unchanged
+        ApprovalDecision approvalAfter
+    ) {}
+
+    record StatementPageQuery(
+        String profileUrn,
+        String type,          // optional: "PERMISSION" or "APPROVAL"
+        Effect effect,        // optional; approvals carry no effect and are skipped when set
+        String cursor,        // null for the first page
+        int limit             // page size; 0 for the default, capped by the service
+    ) {}
+
+    record StatementPage(
+        List<StatementSummary> statements,
+        String nextCursor     // null after the last page
+    ) {}
+
     record StatementSummary(
         String statementId,
         String type,          // "PERMISSION" or "APPROVAL"
@@ -61,6 +268,7 @@ public interface PolicyQueries {
         String resource,
         Effect effect,
         Integer approverCount,
-        BigDecimal amountThreshold
+        BigDecimal amountThreshold,
+        String conditions     // null when unconditional
     ) {}
 }
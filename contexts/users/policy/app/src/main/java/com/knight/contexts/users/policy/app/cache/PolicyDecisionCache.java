@@ -0,0 +1,147 @@
+package com.knight.contexts.users.policy.app.cache;
+
+import com.knight.contexts.users.policy.domain.service.PolicyEvaluatorService.ApprovalEvaluation;
+import com.knight.contexts.users.policy.domain.service.PolicyEvaluatorService.PermissionEvaluation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of policy decisions, versioned by policy snapshot.
+ *
+ * Entries remember the version of the profile snapshot they were computed from and are only
+ * served to readers holding that same snapshot version. An entry older than the reader's
+ * snapshot is dropped, so publishing a new snapshot invalidates all decisions of its profile
+ * without any explicit invalidation step.
+ *
+ * Snapshot versions only move on the statement events of this instance, see {@link
+ * com.knight.contexts.users.policy.app.snapshot.PolicySnapshots}. With several instances on one
+ * statement store, a change made through one instance never reaches the versions of the others,
+ * which would keep serving their cached decisions, including ALLOWs that a new DENY overrides.
+ * The cache is therefore only correct while the policy service runs as a single instance.
+ *
+ * Entries are spread over lock-striped LRU segments; eviction is least-recently-used per segment.
+ */
+@Component
+public class PolicyDecisionCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PolicyDecisionCache(@Value("${knight.policy.decision-cache.max-entries:100000}") int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be > 0");
+        }
+        int perSegment = Math.max(1, maxEntries / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    public PermissionEvaluation getPermission(long version, String profileUrn, String subject, String action,
+                                              String resource) {
+        return (PermissionEvaluation) get(version, new PermissionKey(profileUrn, subject, action, resource));
+    }
+
+    public void putPermission(long version, String profileUrn, String subject, String action, String resource,
+                              PermissionEvaluation result) {
+        put(version, new PermissionKey(profileUrn, subject, action, resource), result);
+    }
+
+    /**
+     * Approval decisions are cached per amount band; bands are only meaningful within one snapshot version.
+     */
+    public ApprovalEvaluation getApproval(long version, String profileUrn, String subject, String action,
+                                          String resource, int amountBand) {
+        return (ApprovalEvaluation) get(version, new ApprovalKey(profileUrn, subject, action, resource, amountBand));
+    }
+
+    public void putApproval(long version, String profileUrn, String subject, String action, String resource,
+                            int amountBand, ApprovalEvaluation requirement) {
+        put(version, new ApprovalKey(profileUrn, subject, action, resource, amountBand), requirement);
+    }
+
+    public CacheStats stats() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private Object get(long version, Object key) {
+        Segment segment = segmentFor(key);
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+            if (entry != null && entry.version < version) {
+                // Computed from a superseded snapshot; never serve it again
+                segment.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null && entry.version == version) {
+            hits.increment();
+            return entry.value;
+        }
+        misses.increment();
+        return null;
+    }
+
+    private void put(long version, Object key, Object value) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            // A reader still holding an older snapshot must not overwrite a newer entry
+            Entry existing = segment.get(key);
+            if (existing == null || existing.version <= version) {
+                segment.put(key, new Entry(version, value));
+            }
+        }
+    }
+
+    private Segment segmentFor(Object key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    public record CacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        long size
+    ) {}
+
+    private record PermissionKey(String profileUrn, String subject, String action, String resource) {}
+
+    private record ApprovalKey(String profileUrn, String subject, String action, String resource, int amountBand) {}
+
+    private record Entry(long version, Object value) {}
+
+    private final class Segment extends LinkedHashMap<Object, Entry> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.knight.contexts.users.policy.app.decisionlog;
+
+/**
+ * Audit log of policy decisions.
+ * To be implemented by infra layer; implementations must not block the caller on I/O.
+ */
+public interface PolicyDecisionLog {
+
+    /**
+     * Log that does not record anything, used when the decision log is disabled.
+     */
+    PolicyDecisionLog DISABLED = new PolicyDecisionLog() {
+        @Override
+        public void record(String profileUrn, String subject, String action, String resource,
+                           DecisionOutcome outcome, String statementId) {
+        }
+
+        @Override
+        public DecisionLogStats stats() {
+            return new DecisionLogStats(0, 0, 0, 0, 0);
+        }
+    };
+
+    /**
+     * Record one decision. statementId is null when no statement matched.
+     */
+    void record(String profileUrn, String subject, String action, String resource,
+                DecisionOutcome outcome, String statementId);
+
+    DecisionLogStats stats();
+
+    enum DecisionOutcome {
+        ALLOW,
+        DENY,
+        DEFAULT_DENY,
+        APPROVAL_REQUIRED,
+        NO_APPROVAL_REQUIRED
+    }
+
+    record DecisionLogStats(
+        long recorded,        // entries accepted into the log
+        long dropped,         // entries discarded because the log was full
+        long backpressured,   // records that had to wait for free space
+        long written,         // entries written to storage
+        long failed           // entries lost to write errors
+    ) {}
+}
@@ -0,0 +1,242 @@
+package com.knight.contexts.users.policy.app.projection;
+
+import com.knight.contexts.users.policy.api.events.PermissionStatementCreated;
+import com.knight.contexts.users.policy.api.events.PermissionStatementDeleted;
+import com.knight.contexts.users.policy.api.events.PermissionStatementUpdated;
+import com.knight.contexts.users.policy.api.events.PolicyStatementsImported;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.EffectivePermissions;
+import com.knight.contexts.users.policy.app.repository.PermissionStatementRepository;
+import com.knight.contexts.users.policy.app.service.ProfileUrns;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.condition.Conditions;
+import com.knight.contexts.users.policy.domain.service.PolicyEvaluatorService;
+import com.knight.platform.sharedkernel.ProfileId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Materialized effective permissions per (profile, subject).
+ *
+ * A profile is loaded from the repository the first time it is asked for and from then on
+ * follows the PermissionStatement events after commit. Each subject's resolved set is
+ * computed once and recomputed only when a statement that applies to that subject changes,
+ * so a lookup is two hash-map reads.
+ *
+ * Both levels are bounded: at most maxProfiles profiles and maxSubjectsPerProfile subjects per
+ * profile are kept. A lookup stamps its entry with the time; when a level outgrows its limit
+ * the least recently used eighth is dropped, to be loaded or resolved again on its next lookup.
+ * A profile without statements gets no view, and a view emptied by deletes is dropped.
+ */
+@Component
+public class EffectivePermissionProjection {
+
+    private final PermissionStatementRepository permissionRepository;
+    private final int maxProfiles;
+    private final int maxSubjectsPerProfile;
+    private final Map<String, ProfileView> profiles = new ConcurrentHashMap<>();
+
+    public EffectivePermissionProjection(
+        PermissionStatementRepository permissionRepository,
+        @Value("${knight.policy.effective-permissions.max-profiles:10000}") int maxProfiles,
+        @Value("${knight.policy.effective-permissions.max-subjects-per-profile:1000}") int maxSubjectsPerProfile
+    ) {
+        if (maxProfiles <= 0 || maxSubjectsPerProfile <= 0) {
+            throw new IllegalArgumentException("maxProfiles and maxSubjectsPerProfile must be > 0");
+        }
+        this.permissionRepository = permissionRepository;
+        this.maxProfiles = maxProfiles;
+        this.maxSubjectsPerProfile = maxSubjectsPerProfile;
+    }
+
+    public EffectivePermissions get(String profileUrn, String subject) {
+        ProfileView view = profiles.get(profileUrn);
+        if (view == null) {
+            view = profiles.computeIfAbsent(profileUrn, this::load);
+            if (view == null) {
+                return PolicyEvaluatorService.resolveEffectivePermissions(profileUrn, subject, List.of());
+            }
+            if (profiles.size() > maxProfiles) {
+                evictLeastRecentlyUsed(profiles, maxProfiles, v -> v.lastUsed);
+            }
+        }
+        view.lastUsed = System.nanoTime();
+        Resolved resolved = view.bySubject.get(subject);
+        if (resolved == null) {
+            return view.materialize(subject);
+        }
+        resolved.lastUsed = view.lastUsed;
+        return resolved.permissions;
+    }
+
+    public ProjectionStats stats() {
+        long subjects = 0;
+        for (ProfileView view : profiles.values()) {
+            subjects += view.bySubject.size();
+        }
+        return new ProjectionStats(profiles.size(), subjects);
+    }
+
+    // Profiles that were never loaded are skipped: their first lookup reads the committed state.
+    // computeIfPresent waits for a load in progress, so no event is lost between load and apply.
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(PermissionStatementCreated event) {
+        profiles.computeIfPresent(event.profileUrn(), (urn, view) -> {
+            view.put(PermissionStatement.reconstruct(
+                event.statementId(), view.profileId, event.subject(), event.action(), event.resource(),
+                event.effect(), Conditions.parse(event.conditions()), event.createdAt(), event.createdAt()));
+            return view;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(PermissionStatementUpdated event) {
+        profiles.computeIfPresent(event.profileUrn(), (urn, view) -> {
+            view.update(event);
+            return view;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(PermissionStatementDeleted event) {
+        profiles.computeIfPresent(event.profileUrn(), (urn, view) -> view.remove(event.statementId()) ? view : null);
+    }
+
+    /**
+     * A bulk import changes too much to patch subject by subject; the profile is dropped and
+     * reloaded from the committed state on its next lookup.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(PolicyStatementsImported event) {
+        profiles.remove(event.profileUrn());
+    }
+
+    private ProfileView load(String profileUrn) {
+        ProfileId profileId = ProfileUrns.parse(profileUrn);
+        List<PermissionStatement> statements = permissionRepository.findByProfileId(profileId);
+        if (statements.isEmpty()) {
+            return null;
+        }
+        ProfileView view = new ProfileView(profileUrn, profileId, maxSubjectsPerProfile);
+        for (PermissionStatement statement : statements) {
+            view.statements.put(statement.statementId(), statement);
+        }
+        return view;
+    }
+
+    /**
+     * Drop the least recently used entries until an eighth of the limit is free. Entries used
+     * while this runs may be dropped too; they are rebuilt on their next lookup.
+     */
+    private static <V> void evictLeastRecentlyUsed(Map<String, V> entries, int limit, ToLongFunction<V> lastUsed) {
+        int excess = entries.size() - (limit - limit / 8);
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<String, V>> snapshot = new ArrayList<>(entries.entrySet());
+        snapshot.sort(Comparator.comparingLong(e -> lastUsed.applyAsLong(e.getValue())));
+        for (int i = 0; i < Math.min(excess, snapshot.size()); i++) {
+            entries.remove(snapshot.get(i).getKey(), snapshot.get(i).getValue());
+        }
+    }
+
+    public record ProjectionStats(
+        int profiles,
+        long subjects
+    ) {}
+
+    /**
+     * A subject's resolved set and when it was last looked up.
+     */
+    private static final class Resolved {
+        private final EffectivePermissions permissions;
+        private volatile long lastUsed;
+
+        private Resolved(EffectivePermissions permissions, long lastUsed) {
+            this.permissions = permissions;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    /**
+     * Statements of one profile and the subjects resolved from them so far.
+     * Mutations are synchronized; resolved sets are immutable and read without locking.
+     */
+    private static final class ProfileView {
+
+        private final String profileUrn;
+        private final ProfileId profileId;
+        private final int maxSubjects;
+        private final Map<String, PermissionStatement> statements = new HashMap<>();
+        private final Map<String, Resolved> bySubject = new ConcurrentHashMap<>();
+        private volatile long lastUsed = System.nanoTime();
+
+        private ProfileView(String profileUrn, ProfileId profileId, int maxSubjects) {
+            this.profileUrn = profileUrn;
+            this.profileId = profileId;
+            this.maxSubjects = maxSubjects;
+        }
+
+        synchronized EffectivePermissions materialize(String subject) {
+            Resolved resolved = bySubject.computeIfAbsent(subject, s -> new Resolved(resolve(s), System.nanoTime()));
+            if (bySubject.size() > maxSubjects) {
+                evictLeastRecentlyUsed(bySubject, maxSubjects, r -> r.lastUsed);
+            }
+            return resolved.permissions;
+        }
+
+        synchronized void put(PermissionStatement statement) {
+            PermissionStatement previous = statements.put(statement.statementId(), statement);
+            refresh(previous, statement);
+        }
+
+        synchronized void update(PermissionStatementUpdated event) {
+            PermissionStatement previous = statements.get(event.statementId());
+            if (previous == null) {
+                return;
+            }
+            // The subject of a statement never changes, so it is taken from the stored version
+            PermissionStatement statement = PermissionStatement.reconstruct(
+                event.statementId(), profileId, previous.subject(), event.action(), event.resource(),
+                event.effect(), Conditions.parse(event.conditions()), previous.createdAt(), event.updatedAt());
+            statements.put(statement.statementId(), statement);
+            refresh(previous, statement);
+        }
+
+        /**
+         * Remove a statement; false if the profile has none left.
+         */
+        synchronized boolean remove(String statementId) {
+            PermissionStatement previous = statements.remove(statementId);
+            if (previous != null) {
+                refresh(previous, null);
+            }
+            return !statements.isEmpty();
+        }
+
+        /**
+         * Recompute the resolved subjects the changed statement applies to, before or after the change.
+         */
+        private void refresh(PermissionStatement before, PermissionStatement after) {
+            for (Map.Entry<String, Resolved> entry : bySubject.entrySet()) {
+                String subject = entry.getKey();
+                if ((before != null && before.appliesTo(subject)) || (after != null && after.appliesTo(subject))) {
+                    entry.setValue(new Resolved(resolve(subject), entry.getValue().lastUsed));
+                }
+            }
+        }
+
+        private EffectivePermissions resolve(String subject) {
+            return PolicyEvaluatorService.resolveEffectivePermissions(profileUrn, subject, statements.values());
+        }
+    }
+}
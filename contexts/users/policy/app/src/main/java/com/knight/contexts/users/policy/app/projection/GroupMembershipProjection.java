@@ -0,0 +1,142 @@
+package com.knight.contexts.users.policy.app.projection;
+
+import com.knight.contexts.users.policy.app.repository.GroupMembershipRepository;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.users.api.events.UserAddedToGroup;
+import com.knight.contexts.users.users.api.events.UserRemovedFromGroup;
+import com.knight.platform.sharedkernel.UserGroupId;
+import com.knight.platform.sharedkernel.UserId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Group subjects of each user, as the policy context evaluates them.
+ *
+ * Memberships are followed from the users context's UserAddedToGroup / UserRemovedFromGroup
+ * events after commit and written to a local repository, so evaluation never calls the users
+ * context. Those are in-process Spring events: they only reach this listener when the users and
+ * policy contexts run in the same application. There is no broker between the separately
+ * deployed users (:8084) and policy (:8083) services and no initial load, so there the repository
+ * would stay empty and every group: ALLOW would fall through to default deny. Group subjects are
+ * therefore refused when statements are created or imported unless
+ * knight.policy.group-membership.feed-enabled says that the events do arrive.
+ *
+ * A user's group subjects are loaded from the repository on lookup, outside any lock, and kept
+ * in a bounded LRU cache. An event writes the repository first and then drops the user's entry;
+ * a load that overlapped an event in its segment is not cached, so a stale set is never kept.
+ */
+@Component
+public class GroupMembershipProjection {
+
+    private static final String USER_PREFIX = "user:";
+    private static final int SEGMENTS = 16;
+
+    private final GroupMembershipRepository membershipRepository;
+    private final boolean feedEnabled;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public GroupMembershipProjection(
+        GroupMembershipRepository membershipRepository,
+        @Value("${knight.policy.group-membership.max-cached-users:100000}") int maxCachedUsers,
+        @Value("${knight.policy.group-membership.feed-enabled:false}") boolean feedEnabled
+    ) {
+        if (maxCachedUsers <= 0) {
+            throw new IllegalArgumentException("maxCachedUsers must be > 0");
+        }
+        this.membershipRepository = membershipRepository;
+        this.feedEnabled = feedEnabled;
+        int perSegment = Math.max(1, maxCachedUsers / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * True if membership events reach this projection, so that group: statements can match.
+     */
+    public boolean acceptsGroupSubjects() {
+        return feedEnabled;
+    }
+
+    /**
+     * Group subjects (group:{groupId}) of the subject; empty for subjects that are not users.
+     */
+    public Set<String> groupSubjectsOf(String subject) {
+        if (!subject.startsWith(USER_PREFIX) || subject.substring(USER_PREFIX.length()).isBlank()) {
+            return Set.of();
+        }
+        Segment segment = segmentFor(subject);
+        long generation;
+        synchronized (segment) {
+            Set<String> groups = segment.get(subject);
+            if (groups != null) {
+                return groups;
+            }
+            generation = segment.generation;
+        }
+        Set<String> groups = load(subject);
+        synchronized (segment) {
+            if (segment.generation == generation) {
+                segment.put(subject, groups);
+            }
+        }
+        return groups;
+    }
+
+    public static String groupSubject(UserGroupId groupId) {
+        return PermissionStatement.GROUP_SUBJECT_PREFIX + groupId.uuid();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(UserAddedToGroup event) {
+        membershipRepository.add(event.userId(), event.groupId());
+        invalidate(event.userId().urn());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(UserRemovedFromGroup event) {
+        membershipRepository.remove(event.userId(), event.groupId());
+        invalidate(event.userId().urn());
+    }
+
+    private void invalidate(String userUrn) {
+        Segment segment = segmentFor(userUrn);
+        synchronized (segment) {
+            segment.remove(userUrn);
+            segment.generation++;
+        }
+    }
+
+    private Set<String> load(String userUrn) {
+        return membershipRepository.findGroupsOf(UserId.fromUrn(userUrn)).stream()
+            .map(GroupMembershipProjection::groupSubject)
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private Segment segmentFor(String userUrn) {
+        int h = userUrn.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static final class Segment extends LinkedHashMap<String, Set<String>> {
+        private final int capacity;
+        // Bumped on every invalidation in the segment; guarded by the segment's monitor
+        private long generation;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.knight.contexts.users.policy.app.repository;
 import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
 import com.knight.platform.sharedkernel.ProfileId;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -14,9 +16,36 @@ public interface ApprovalStatementRepository {
 
     void save(ApprovalStatement statement);
 
+    /**
+     * Save several statements at once; implementations should write them in one batch.
+     */
+    void saveAll(Collection<ApprovalStatement> statements);
+
     Optional<ApprovalStatement> findById(String statementId);
 
     List<ApprovalStatement> findByProfileId(ProfileId profileId);
 
+    /**
+     * Every statement keyed by profile URN, each profile's in statementId order, read in one
+     * pass over the store rather than one query per profile.
+     */
+    Map<String, List<ApprovalStatement>> findAllByProfile();
+
+    /**
+     * One page of a profile's statements in statementId order, starting after afterStatementId
+     * (null for the first page).
+     */
+    List<ApprovalStatement> findPageByProfileId(ProfileId profileId, String afterStatementId, int limit);
+
+    /**
+     * Watermark of every profile that has statements, keyed by profile URN, in one aggregate pass.
+     */
+    Map<String, StatementWatermark> findWatermarks();
+
     void delete(String statementId);
+
+    /**
+     * Delete every statement of a profile, returning how many were removed.
+     */
+    int deleteByProfileId(ProfileId profileId);
 }
@@ -0,0 +1,22 @@
+package com.knight.contexts.users.policy.app.repository;
+
+import com.knight.platform.sharedkernel.UserGroupId;
+import com.knight.platform.sharedkernel.UserId;
+
+import java.util.Set;
+
+/**
+ * Local copy of user group memberships, kept by the policy context from the users context's events.
+ * To be implemented by infra layer.
+ */
+public interface GroupMembershipRepository {
+
+    /**
+     * Record a membership; recording one that already exists is a no-op.
+     */
+    void add(UserId userId, UserGroupId groupId);
+
+    void remove(UserId userId, UserGroupId groupId);
+
+    Set<UserGroupId> findGroupsOf(UserId userId);
+}
@@ -1,9 +1,12 @@
 package com.knight.contexts.users.policy.app.repository;
 
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
 import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
 import com.knight.platform.sharedkernel.ProfileId;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -14,9 +17,36 @@ public interface PermissionStatementRepository {
 
     void save(PermissionStatement statement);
 
+    /**
+     * Save several statements at once; implementations should write them in one batch.
+     */
+    void saveAll(Collection<PermissionStatement> statements);
+
     Optional<PermissionStatement> findById(String statementId);
 
     List<PermissionStatement> findByProfileId(ProfileId profileId);
 
+    /**
+     * Every statement keyed by profile URN, each profile's in statementId order, read in one
+     * pass over the store rather than one query per profile.
+     */
+    Map<String, List<PermissionStatement>> findAllByProfile();
+
+    /**
+     * One page of a profile's statements in statementId order, starting after afterStatementId
+     * (null for the first page) and optionally restricted to one effect.
+     */
+    List<PermissionStatement> findPageByProfileId(ProfileId profileId, Effect effect, String afterStatementId, int limit);
+
+    /**
+     * Watermark of every profile that has statements, keyed by profile URN, in one aggregate pass.
+     */
+    Map<String, StatementWatermark> findWatermarks();
+
     void delete(String statementId);
+
+    /**
+     * Delete every statement of a profile, returning how many were removed.
+     */
+    int deleteByProfileId(ProfileId profileId);
 }
@@ -0,0 +1,13 @@
+package com.knight.contexts.users.policy.app.repository;
+
+import java.time.Instant;
+
+/**
+ * How many statements of one kind a profile has and when the latest of them was written.
+ * Any create, update or delete moves at least one of the two, so an equal watermark means
+ * the statements are unchanged.
+ */
+public record StatementWatermark(long count, Instant lastUpdatedAt) {
+
+    public static final StatementWatermark NONE = new StatementWatermark(0, Instant.EPOCH);
+}
@@ -3,22 +3,36 @@ package com.knight.contexts.users.policy.app.service;
 import com.knight.contexts.users.policy.api.commands.PolicyCommands;
 import com.knight.contexts.users.policy.api.events.*;
 import com.knight.contexts.users.policy.api.queries.PolicyQueries;
+import com.knight.contexts.users.policy.app.cache.PolicyDecisionCache;
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog;
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog.DecisionOutcome;
+import com.knight.contexts.users.policy.app.projection.EffectivePermissionProjection;
+import com.knight.contexts.users.policy.app.projection.GroupMembershipProjection;
 import com.knight.contexts.users.policy.app.repository.ApprovalStatementRepository;
 import com.knight.contexts.users.policy.app.repository.PermissionStatementRepository;
+import com.knight.contexts.users.policy.app.simulation.AccessReviewSimulator;
+import com.knight.contexts.users.policy.app.snapshot.PolicySnapshot;
+import com.knight.contexts.users.policy.app.snapshot.PolicySnapshots;
 import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
 import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.condition.ConditionContext;
+import com.knight.contexts.users.policy.domain.condition.Conditions;
+import com.knight.contexts.users.policy.domain.index.ApprovalPolicyIndex;
+import com.knight.contexts.users.policy.domain.index.PermissionPolicyIndex;
 import com.knight.contexts.users.policy.domain.service.PolicyEvaluatorService;
 import com.knight.platform.sharedkernel.ProfileId;
-import com.knight.platform.sharedkernel.ServicingProfileId;
-import com.knight.platform.sharedkernel.OnlineProfileId;
-import com.knight.platform.sharedkernel.IndirectProfileId;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Application service implementing commands and queries for Policy management.
@@ -27,18 +41,45 @@ import java.util.List;
 @Service
 public class PolicyApplicationService implements PolicyCommands, PolicyQueries {
 
+    // Enough to fix a file without echoing every row of a badly broken one
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private static final String PERMISSION = "PERMISSION";
+    private static final String APPROVAL = "APPROVAL";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1_000;
+    private static final int MAX_BATCH_SIZE = 1_000;
+
     private final PermissionStatementRepository permissionRepository;
     private final ApprovalStatementRepository approvalRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final PolicySnapshots snapshots;
+    private final PolicyDecisionCache decisionCache;
+    private final PolicyDecisionLog decisionLog;
+    private final EffectivePermissionProjection effectivePermissions;
+    private final AccessReviewSimulator simulator;
+    private final GroupMembershipProjection groupMemberships;
 
     public PolicyApplicationService(
         PermissionStatementRepository permissionRepository,
         ApprovalStatementRepository approvalRepository,
-        ApplicationEventPublisher eventPublisher
+        ApplicationEventPublisher eventPublisher,
+        PolicySnapshots snapshots,
+        PolicyDecisionCache decisionCache,
+        PolicyDecisionLog decisionLog,
+        EffectivePermissionProjection effectivePermissions,
+        AccessReviewSimulator simulator,
+        GroupMembershipProjection groupMemberships
     ) {
         this.permissionRepository = permissionRepository;
         this.approvalRepository = approvalRepository;
         this.eventPublisher = eventPublisher;
+        this.snapshots = snapshots;
+        this.decisionCache = decisionCache;
+        this.decisionLog = decisionLog;
+        this.effectivePermissions = effectivePermissions;
+        this.simulator = simulator;
+        this.groupMemberships = groupMemberships;
     }
 
     @Override
@@ -51,8 +92,10 @@ public class PolicyApplicationService implements PolicyCommands, PolicyQueries {
             cmd.subject(),
             cmd.action(),
             cmd.resource(),
-            cmd.effect()
+            cmd.effect(),
+            Conditions.parse(cmd.conditions())
         );
+        checkGroupSubject(statement);
 
         permissionRepository.save(statement);
 
@@ -63,6 +106,7 @@ public class PolicyApplicationService implements PolicyCommands, PolicyQueries {
             cmd.action(),
             cmd.resource(),
             cmd.effect(),
+            statement.conditions().format(),
             statement.createdAt()
         );
         eventPublisher.publishEvent(event);
@@ -79,14 +123,17 @@ public class PolicyApplicationService implements PolicyCommands, PolicyQueries {
         statement.updateAction(cmd.action());
         statement.updateResource(cmd.resource());
         statement.updateEffect(cmd.effect());
+        statement.updateConditions(Conditions.parse(cmd.conditions()));
 
         permissionRepository.save(statement);
 
         PermissionStatementUpdated event = new PermissionStatementUpdated(
             statement.statementId(),
+            statement.profileId().urn(),
             cmd.action(),
             cmd.resource(),
             cmd.effect(),
+            statement.conditions().format(),
             Instant.now()
         );
         eventPublisher.publishEvent(event);
@@ -95,13 +142,16 @@ public class PolicyApplicationService implements PolicyCommands, PolicyQueries {
     @Override
     @Transactional
     public void deletePermissionStatement(DeleteStatementCmd cmd) {
-        permissionRepository.delete(cmd.statementId());
+        permissionRepository.findById(cmd.statementId()).ifPresent(statement -> {
+            permissionRepository.delete(cmd.statementId());
 
-        PermissionStatementDeleted event = new PermissionStatementDeleted(
-            cmd.statementId(),
-            Instant.now()
-        );
-        eventPublisher.publishEvent(event);
+            PermissionStatementDeleted event = new PermissionStatementDeleted(
+                cmd.statementId(),
+                statement.profileId().urn(),
+                Instant.now()
+            );
+            eventPublisher.publishEvent(event);
+        });
     }
 
     @Override
@@ -116,7 +166,8 @@ public class PolicyApplicationService implements PolicyCommands, PolicyQueries {
             cmd.resource(),
             cmd.approverCount(),
             cmd.approvers(),
-            cmd.amountThreshold()
+            cmd.amountThreshold(),
+            Conditions.parse(cmd.conditions())
         );
 
         approvalRepository.save(statement);
@@ -130,6 +181,7 @@ public class PolicyApplicationService implements PolicyCommands, PolicyQueries {
             cmd.approverCount(),
             cmd.approvers(),
             cmd.amountThreshold(),
+            statement.conditions().format(),
             statement.createdAt()
         );
         eventPublisher.publishEvent(event);
@@ -145,14 +197,17 @@ public class PolicyApplicationService implements PolicyCommands, PolicyQueries {
 
         statement.updateApprovers(cmd.approverCount(), cmd.approvers());
         statement.updateThreshold(cmd.amountThreshold());
+        statement.updateConditions(Conditions.parse(cmd.conditions()));
 
         approvalRepository.save(statement);
 
         ApprovalStatementUpdated event = new ApprovalStatementUpdated(
             statement.statementId(),
+            statement.profileId().urn(),
             cmd.approverCount(),
             cmd.approvers(),
             cmd.amountThreshold(),
+            statement.conditions().format(),
             Instant.now()
         );
         eventPublisher.publishEvent(event);
@@ -161,49 +216,191 @@ public class PolicyApplicationService implements PolicyCommands, PolicyQueries {
     @Override
     @Transactional
     public void deleteApprovalStatement(DeleteStatementCmd cmd) {
-        approvalRepository.delete(cmd.statementId());
+        approvalRepository.findById(cmd.statementId()).ifPresent(statement -> {
+            approvalRepository.delete(cmd.statementId());
+
+            ApprovalStatementDeleted event = new ApprovalStatementDeleted(
+                cmd.statementId(),
+                statement.profileId().urn(),
+                Instant.now()
+            );
+            eventPublisher.publishEvent(event);
+        });
+    }
+
+    @Override
+    @Transactional
+    public BulkImportResult bulkCreateStatements(BulkStatementsCmd cmd) {
+        return importStatements(cmd, false);
+    }
 
-        ApprovalStatementDeleted event = new ApprovalStatementDeleted(
-            cmd.statementId(),
+    @Override
+    @Transactional
+    public BulkImportResult replaceStatements(BulkStatementsCmd cmd) {
+        return importStatements(cmd, true);
+    }
+
+    /**
+     * Build every aggregate first so one bad entry rejects the batch before anything is written,
+     * then persist with batched saves and publish a single event.
+     */
+    private BulkImportResult importStatements(BulkStatementsCmd cmd, boolean replace) {
+        ProfileId profileId = parseProfileId(cmd.profileUrn());
+        List<String> errors = new ArrayList<>();
+
+        List<PermissionStatement> permissions = new ArrayList<>(cmd.permissions().size());
+        for (int i = 0; i < cmd.permissions().size(); i++) {
+            CreatePermissionStatementCmd entry = cmd.permissions().get(i);
+            try {
+                checkProfile(profileId, entry.profileUrn());
+                PermissionStatement statement = PermissionStatement.create(
+                    profileId, entry.subject(), entry.action(), entry.resource(), entry.effect(),
+                    Conditions.parse(entry.conditions()));
+                checkGroupSubject(statement);
+                permissions.add(statement);
+            } catch (IllegalArgumentException e) {
+                errors.add("permissions[" + i + "]: " + e.getMessage());
+            }
+        }
+
+        List<ApprovalStatement> approvals = new ArrayList<>(cmd.approvals().size());
+        for (int i = 0; i < cmd.approvals().size(); i++) {
+            CreateApprovalStatementCmd entry = cmd.approvals().get(i);
+            try {
+                checkProfile(profileId, entry.profileUrn());
+                approvals.add(ApprovalStatement.create(
+                    profileId, entry.subject(), entry.action(), entry.resource(),
+                    entry.approverCount(), entry.approvers(), entry.amountThreshold(),
+                    Conditions.parse(entry.conditions())));
+            } catch (IllegalArgumentException e) {
+                errors.add("approvals[" + i + "]: " + e.getMessage());
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Batch rejected, " + errors.size() + " invalid statements: "
+                + String.join("; ", errors.subList(0, Math.min(errors.size(), MAX_REPORTED_ERRORS))));
+        }
+
+        int permissionsDeleted = replace ? permissionRepository.deleteByProfileId(profileId) : 0;
+        int approvalsDeleted = replace ? approvalRepository.deleteByProfileId(profileId) : 0;
+        permissionRepository.saveAll(permissions);
+        approvalRepository.saveAll(approvals);
+
+        PolicyStatementsImported event = new PolicyStatementsImported(
+            profileId.urn(),
+            replace,
+            permissions.size(),
+            approvals.size(),
+            permissionsDeleted,
+            approvalsDeleted,
             Instant.now()
         );
         eventPublisher.publishEvent(event);
+
+        return new BulkImportResult(
+            profileId.urn(), permissions.size(), approvals.size(), permissionsDeleted, approvalsDeleted);
+    }
+
+    private static void checkProfile(ProfileId profileId, String entryProfileUrn) {
+        if (entryProfileUrn != null && !entryProfileUrn.equals(profileId.urn())) {
+            throw new IllegalArgumentException("statement belongs to another profile: " + entryProfileUrn);
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
     public PermissionResult evaluatePermission(EvaluatePermissionQuery query) {
-        ProfileId profileId = parseProfileId(query.profileUrn());
+        PolicySnapshot snapshot = snapshots.current(query.profileUrn());
+        PermissionPolicyIndex index = snapshot.permissions();
+        if (index.hasConditions() || index.hasGroupSubjects()) {
+            // Decisions depend on request attributes or group memberships, so they are not cached
+            PolicyEvaluatorService.PermissionEvaluation eval = PolicyEvaluatorService.evaluatePermission(
+                index, query.subject(), groupSubjects(index, query.subject()), query.action(), query.resource(),
+                index.hasConditions() ? conditionContext(query.context()) : ConditionContext.EMPTY);
+            logPermission(query.profileUrn(), query.subject(), query.action(), query.resource(), eval);
+            return new PermissionResult(eval.allowed(), eval.reason());
+        }
 
-        List<PermissionStatement> statements = permissionRepository.findByProfileId(profileId);
+        PolicyEvaluatorService.PermissionEvaluation eval = decisionCache.getPermission(
+            snapshot.version(), query.profileUrn(), query.subject(), query.action(), query.resource());
 
-        PolicyEvaluatorService.PermissionEvaluation eval =
-            PolicyEvaluatorService.evaluatePermission(
-                statements,
-                query.subject(),
-                query.action(),
-                query.resource()
-            );
+        if (eval == null) {
+            eval = PolicyEvaluatorService.evaluatePermission(index, query.subject(), query.action(), query.resource());
+            decisionCache.putPermission(
+                snapshot.version(), query.profileUrn(), query.subject(), query.action(), query.resource(), eval);
+        }
 
+        logPermission(query.profileUrn(), query.subject(), query.action(), query.resource(), eval);
         return new PermissionResult(eval.allowed(), eval.reason());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public ApprovalRequirement evaluateApprovalRequirement(EvaluateApprovalQuery query) {
-        ProfileId profileId = parseProfileId(query.profileUrn());
+    public List<PermissionResult> evaluatePermissions(EvaluatePermissionsQuery query) {
+        if (query.checks().size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                "A batch holds at most " + MAX_BATCH_SIZE + " checks, got " + query.checks().size());
+        }
+        // The whole batch is evaluated against one snapshot
+        PermissionPolicyIndex index = snapshots.current(query.profileUrn()).permissions();
+        ConditionContext context = index.hasConditions() ? conditionContext(query.context()) : ConditionContext.EMPTY;
+
+        List<PermissionResult> results = new ArrayList<>(query.checks().size());
+        for (PermissionCheck check : query.checks()) {
+            PolicyEvaluatorService.PermissionEvaluation eval = PolicyEvaluatorService.evaluatePermission(
+                index, check.subject(), groupSubjects(index, check.subject()), check.action(), check.resource(),
+                context);
+
+            logPermission(query.profileUrn(), check.subject(), check.action(), check.resource(), eval);
+            results.add(new PermissionResult(eval.allowed(), eval.reason()));
+        }
+        return results;
+    }
 
-        List<ApprovalStatement> statements = approvalRepository.findByProfileId(profileId);
+    /**
+     * Not transactional: once the profile's snapshot is published this path touches no repository,
+     * and skipping the transaction interceptor keeps it allocation-free for profiles without
+     * conditional statements.
+     */
+    @Override
+    public PermissionDecision decidePermission(EvaluatePermissionQuery query, boolean explain) {
+        PermissionPolicyIndex index = snapshots.current(query.profileUrn()).permissions();
+        PermissionDecision decision = index.decide(query.subject(), groupSubjects(index, query.subject()),
+            query.action(), query.resource(),
+            index.hasConditions() ? conditionContext(query.context()) : ConditionContext.EMPTY);
+
+        DecisionOutcome outcome = switch (decision.decision()) {
+            case ALLOW -> DecisionOutcome.ALLOW;
+            case DENY -> DecisionOutcome.DENY;
+            case DEFAULT_DENY -> DecisionOutcome.DEFAULT_DENY;
+        };
+        decisionLog.record(query.profileUrn(), query.subject(), query.action(), query.resource(),
+            outcome, decision.statementId());
+        return explain ? PolicyEvaluatorService.explain(decision) : decision;
+    }
 
-        PolicyEvaluatorService.ApprovalEvaluation eval =
-            PolicyEvaluatorService.evaluateApprovalRequirement(
-                statements,
+    @Override
+    @Transactional(readOnly = true)
+    public ApprovalRequirement evaluateApprovalRequirement(EvaluateApprovalQuery query) {
+        PolicySnapshot snapshot = snapshots.current(query.profileUrn());
+        PolicyEvaluatorService.ApprovalEvaluation eval;
+        if (snapshot.approvals().hasConditions()) {
+            // Amount bands no longer capture everything the decision depends on, so skip the cache
+            eval = PolicyEvaluatorService.evaluateApprovalRequirement(
+                snapshot.approvals(),
                 query.subject(),
                 query.action(),
                 query.resource(),
-                query.amount()
+                conditionContext(query.context(), query.amount())
             );
+        } else {
+            eval = cachedApprovalRequirement(snapshot, query);
+        }
 
+        decisionLog.record(query.profileUrn(), query.subject(), query.action(), query.resource(),
+            eval.approvalRequired() ? DecisionOutcome.APPROVAL_REQUIRED : DecisionOutcome.NO_APPROVAL_REQUIRED,
+            eval.statementId());
         return new ApprovalRequirement(
             eval.approvalRequired(),
             eval.approverCount(),
@@ -212,55 +409,254 @@ public class PolicyApplicationService implements PolicyCommands, PolicyQueries {
         );
     }
 
+    private PolicyEvaluatorService.ApprovalEvaluation cachedApprovalRequirement(
+        PolicySnapshot snapshot, EvaluateApprovalQuery query
+    ) {
+        int band = snapshot.approvals().bands().bandOf(query.amount());
+        PolicyEvaluatorService.ApprovalEvaluation eval = decisionCache.getApproval(
+            snapshot.version(), query.profileUrn(), query.subject(), query.action(), query.resource(), band);
+
+        if (eval == null) {
+            eval = PolicyEvaluatorService.evaluateApprovalRequirement(
+                snapshot.approvals(),
+                query.subject(),
+                query.action(),
+                query.resource(),
+                query.amount()
+            );
+            decisionCache.putApproval(
+                snapshot.version(), query.profileUrn(), query.subject(), query.action(), query.resource(),
+                band, eval);
+        }
+        return eval;
+    }
+
+    @Override
+    public ApprovalDecision decideApproval(EvaluateApprovalQuery query, boolean explain) {
+        ApprovalPolicyIndex index = snapshots.current(query.profileUrn()).approvals();
+        ApprovalDecision decision = index.hasConditions()
+            ? index.decide(query.subject(), query.action(), query.resource(),
+                conditionContext(query.context(), query.amount()))
+            : index.decide(query.subject(), query.action(), query.resource(), query.amount());
+
+        decisionLog.record(query.profileUrn(), query.subject(), query.action(), query.resource(),
+            decision.approvalRequired() ? DecisionOutcome.APPROVAL_REQUIRED : DecisionOutcome.NO_APPROVAL_REQUIRED,
+            decision.statementId());
+        return explain ? PolicyEvaluatorService.explain(decision) : decision;
+    }
+
+    @Override
+    public EffectivePermissions getEffectivePermissions(String profileUrn, String subject) {
+        return effectivePermissions.get(profileUrn, subject);
+    }
+
+    @Override
+    public AllowedActions allowedActions(String profileUrn, String subject, String resource) {
+        PermissionPolicyIndex index = snapshots.current(profileUrn).permissions();
+        PermissionPolicyIndex.ActionPatterns actions = index.actionsFor(subject, groupSubjects(index, subject), resource);
+        return new AllowedActions(profileUrn, subject, resource, actions.allowed(), actions.denied());
+    }
+
+    @Override
+    public StatementCompaction getStatementCompaction(String profileUrn) {
+        PermissionPolicyIndex index = snapshots.current(profileUrn).permissions();
+        List<RedundantStatement> redundant = index.redundant().stream()
+            .map(r -> new RedundantStatement(r.statementId(), r.redundancy().name(), r.coveredBy()))
+            .toList();
+        return new StatementCompaction(profileUrn, index.size(), redundant);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void simulate(SimulationQuery query, Consumer<DecisionChange> sink) {
+        ProfileId profileId = parseProfileId(query.profileUrn());
+
+        simulator.simulate(
+            profileId,
+            permissionRepository.findByProfileId(profileId),
+            approvalRepository.findByProfileId(profileId),
+            query.subjects(),
+            query.catalogue(),
+            query.changes(),
+            sink
+        );
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<StatementSummary> getStatementsForProfile(String profileUrn) {
         ProfileId profileId = parseProfileId(profileUrn);
 
         List<StatementSummary> summaries = new ArrayList<>();
+        for (PermissionStatement p : permissionRepository.findByProfileId(profileId)) {
+            summaries.add(summarize(p));
+        }
+        for (ApprovalStatement a : approvalRepository.findByProfileId(profileId)) {
+            summaries.add(summarize(a));
+        }
+        return summaries;
+    }
+
+    /**
+     * Keyset pagination: the cursor names the statement type and the last id returned, so each
+     * page is an indexed range read whatever the page number.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public StatementPage getStatementsPage(StatementPageQuery query) {
+        ProfileId profileId = parseProfileId(query.profileUrn());
+        if (query.type() != null && !query.type().equals(PERMISSION) && !query.type().equals(APPROVAL)) {
+            throw new IllegalArgumentException("Unknown statement type: " + query.type());
+        }
+        int limit = query.limit() <= 0 ? DEFAULT_PAGE_SIZE : Math.min(query.limit(), MAX_PAGE_SIZE);
+        boolean permissions = query.type() == null || query.type().equals(PERMISSION);
+        boolean approvals = (query.type() == null || query.type().equals(APPROVAL)) && query.effect() == null;
+
+        String[] cursor = decodeCursor(query.cursor());
+        boolean cursorMatchesFilters = cursor == null || (cursor[0].equals(PERMISSION) ? permissions : approvals);
+        if (!cursorMatchesFilters) {
+            throw new IllegalArgumentException("Statement cursor does not match the type and effect filters");
+        }
+        List<StatementSummary> page = new ArrayList<>(limit);
+
+        if (permissions && (cursor == null || cursor[0].equals(PERMISSION))) {
+            List<PermissionStatement> found = permissionRepository.findPageByProfileId(
+                profileId, query.effect(), cursor == null ? null : cursor[1], limit + 1);
+            for (int i = 0; i < Math.min(found.size(), limit); i++) {
+                page.add(summarize(found.get(i)));
+            }
+            if (found.size() > limit) {
+                return new StatementPage(page, encodeCursor(PERMISSION, found.get(limit - 1).statementId()));
+            }
+            cursor = null;
+        }
 
-        // Add permission statements
-        List<PermissionStatement> permissions = permissionRepository.findByProfileId(profileId);
-        for (PermissionStatement p : permissions) {
-            summaries.add(new StatementSummary(
-                p.statementId(),
-                "PERMISSION",
-                p.subject(),
-                p.action(),
-                p.resource(),
-                p.effect(),
-                null,
-                null
-            ));
+        if (approvals) {
+            // When permissions filled this page exactly this reads one row, only to learn whether
+            // approvals need a next page
+            int remaining = limit - page.size();
+            List<ApprovalStatement> found = approvalRepository.findPageByProfileId(
+                profileId, cursor == null || cursor[1].isEmpty() ? null : cursor[1], remaining + 1);
+            for (int i = 0; i < Math.min(found.size(), remaining); i++) {
+                page.add(summarize(found.get(i)));
+            }
+            if (found.size() > remaining) {
+                String last = remaining == 0 ? "" : found.get(remaining - 1).statementId();
+                return new StatementPage(page, encodeCursor(APPROVAL, last));
+            }
         }
 
-        // Add approval statements
-        List<ApprovalStatement> approvals = approvalRepository.findByProfileId(profileId);
-        for (ApprovalStatement a : approvals) {
-            summaries.add(new StatementSummary(
-                a.statementId(),
-                "APPROVAL",
-                a.subject(),
-                a.action(),
-                a.resource(),
-                null,
-                a.approverCount(),
-                a.amountThreshold()
-            ));
+        return new StatementPage(page, null);
+    }
+
+    @Override
+    public void streamStatements(StatementPageQuery query, Consumer<StatementSummary> sink) {
+        String cursor = query.cursor();
+        do {
+            StatementPage page = getStatementsPage(new StatementPageQuery(
+                query.profileUrn(), query.type(), query.effect(), cursor, MAX_PAGE_SIZE));
+            page.statements().forEach(sink);
+            cursor = page.nextCursor();
+        } while (cursor != null);
+    }
+
+    private static String encodeCursor(String type, String lastStatementId) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((type + ":" + lastStatementId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor into {type, lastStatementId}, or null for the first page.
+     */
+    private static String[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 2);
+            if (parts.length == 2 && (parts[0].equals(PERMISSION) || parts[0].equals(APPROVAL))) {
+                return parts;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not base64; reported below
         }
+        throw new IllegalArgumentException("Invalid statement cursor: " + cursor);
+    }
 
-        return summaries;
+    private static StatementSummary summarize(PermissionStatement p) {
+        return new StatementSummary(
+            p.statementId(),
+            PERMISSION,
+            p.subject(),
+            p.action(),
+            p.resource(),
+            p.effect(),
+            null,
+            null,
+            p.conditions().format()
+        );
     }
 
-    private ProfileId parseProfileId(String urn) {
-        if (urn.contains(":servicing:")) {
-            return ServicingProfileId.fromUrn(urn);
-        } else if (urn.contains(":online:")) {
-            return OnlineProfileId.fromUrn(urn);
-        } else if (urn.contains(":indirect:")) {
-            return IndirectProfileId.fromUrn(urn);
-        } else {
-            throw new IllegalArgumentException("Unknown profile URN format: " + urn);
+    private static StatementSummary summarize(ApprovalStatement a) {
+        return new StatementSummary(
+            a.statementId(),
+            APPROVAL,
+            a.subject(),
+            a.action(),
+            a.resource(),
+            null,
+            a.approverCount(),
+            a.amountThreshold(),
+            a.conditions().format()
+        );
+    }
+
+    /**
+     * Refuse a statement targeting groups when no membership events reach this service: it would
+     * be stored but match nobody.
+     */
+    private void checkGroupSubject(PermissionStatement statement) {
+        if (statement.targetsGroups() && !groupMemberships.acceptsGroupSubjects()) {
+            throw new IllegalArgumentException("Group subjects need a group membership feed, "
+                + "which this service does not have: " + statement.subject());
         }
     }
+
+    /**
+     * Group subjects the subject belongs to, looked up only when the profile has statements
+     * targeting groups.
+     */
+    private Set<String> groupSubjects(PermissionPolicyIndex index, String subject) {
+        return index.hasGroupSubjects() ? groupMemberships.groupSubjectsOf(subject) : Set.of();
+    }
+
+    /**
+     * Condition attributes of a permission check; the time defaults to now.
+     */
+    private static ConditionContext conditionContext(RequestContext context) {
+        return conditionContext(context, context == null ? null : context.amount());
+    }
+
+    /**
+     * Condition attributes with the given amount, which for approvals comes from the query itself.
+     */
+    private static ConditionContext conditionContext(RequestContext context, BigDecimal amount) {
+        if (context == null) {
+            return new ConditionContext(amount, null, null, Instant.now());
+        }
+        return new ConditionContext(amount, context.currency(), context.account(),
+            context.at() == null ? Instant.now() : context.at());
+    }
+
+    private void logPermission(String profileUrn, String subject, String action, String resource,
+                               PolicyEvaluatorService.PermissionEvaluation eval) {
+        DecisionOutcome outcome = eval.allowed() ? DecisionOutcome.ALLOW
+            : eval.statementId() != null ? DecisionOutcome.DENY
+            : DecisionOutcome.DEFAULT_DENY;
+        decisionLog.record(profileUrn, subject, action, resource, outcome, eval.statementId());
+    }
+
+    private ProfileId parseProfileId(String urn) {
+        return ProfileUrns.parse(urn);
+    }
 }
@@ -0,0 +1,27 @@
+package com.knight.contexts.users.policy.app.service;
+
+import com.knight.platform.sharedkernel.IndirectProfileId;
+import com.knight.platform.sharedkernel.OnlineProfileId;
+import com.knight.platform.sharedkernel.ProfileId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+
+/**
+ * Parses profile URNs of any profile type.
+ */
+public final class ProfileUrns {
+
+    private ProfileUrns() {
+    }
+
+    public static ProfileId parse(String urn) {
+        if (urn.startsWith("servicing:")) {
+            return ServicingProfileId.fromUrn(urn);
+        } else if (urn.startsWith("online:")) {
+            return OnlineProfileId.fromUrn(urn);
+        } else if (urn.startsWith("indirect:")) {
+            return IndirectProfileId.fromUrn(urn);
+        } else {
+            throw new IllegalArgumentException("Unknown profile URN format: " + urn);
+        }
+    }
+}
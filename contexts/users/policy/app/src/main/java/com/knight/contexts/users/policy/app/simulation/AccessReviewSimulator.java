@@ -0,0 +1,237 @@
+package com.knight.contexts.users.policy.app.simulation;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.CreateApprovalStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.CreatePermissionStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.UpdateApprovalStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.UpdatePermissionStatementCmd;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.ApprovalDecision;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.CatalogueEntry;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.DecisionChange;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.PermissionDecision;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.StatementChanges;
+import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.condition.ConditionContext;
+import com.knight.contexts.users.policy.domain.condition.Conditions;
+import com.knight.contexts.users.policy.domain.index.ApprovalPolicyIndex;
+import com.knight.contexts.users.policy.domain.index.PermissionPolicyIndex;
+import com.knight.platform.sharedkernel.ProfileId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Runs what-if access reviews on a dedicated fork-join pool.
+ *
+ * The current and the candidate statement sets are compiled into indexes once; the
+ * subjects × catalogue cross-product is then split into chunks of subjects that are evaluated
+ * in parallel with the allocation-free decide path. Only differing decisions are kept, and
+ * chunks are handed to the sink in subject order from the calling thread. At most two chunks
+ * per worker are in flight, so a slow sink holds back evaluation instead of buffering it.
+ */
+@Component
+public class AccessReviewSimulator implements AutoCloseable {
+
+    // Decisions per task: large enough to amortize scheduling, small enough to balance
+    private static final int DECISIONS_PER_TASK = 16_384;
+
+    private final ForkJoinPool pool;
+
+    public AccessReviewSimulator(@Value("${knight.policy.simulation.parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public void simulate(
+        ProfileId profileId,
+        List<PermissionStatement> permissions,
+        List<ApprovalStatement> approvals,
+        List<String> subjects,
+        List<CatalogueEntry> catalogue,
+        StatementChanges changes,
+        Consumer<DecisionChange> sink
+    ) {
+        if (catalogue == null || catalogue.isEmpty()) {
+            throw new IllegalArgumentException("catalogue cannot be empty");
+        }
+        StatementChanges candidate = changes != null ? changes
+            : new StatementChanges(null, null, null, null, null, null);
+
+        List<PermissionStatement> candidatePermissions = applyPermissionChanges(profileId, permissions, candidate);
+        List<ApprovalStatement> candidateApprovals = applyApprovalChanges(profileId, approvals, candidate);
+
+        Snapshot before = new Snapshot(PermissionPolicyIndex.compile(permissions), ApprovalPolicyIndex.compile(approvals));
+        Snapshot after = new Snapshot(
+            PermissionPolicyIndex.compile(candidatePermissions), ApprovalPolicyIndex.compile(candidateApprovals));
+
+        List<String> reviewed = subjects != null && !subjects.isEmpty()
+            ? subjects
+            : concreteSubjects(permissions, approvals, candidatePermissions, candidateApprovals);
+        CatalogueEntry[] entries = catalogue.toArray(CatalogueEntry[]::new);
+        int chunk = Math.max(1, DECISIONS_PER_TASK / entries.length);
+
+        // A window of chunks in flight: enough to keep every worker busy while the calling thread
+        // drains the oldest into the sink, without holding the changes of the whole review at once
+        int window = 2 * pool.getParallelism();
+        Deque<ForkJoinTask<List<DecisionChange>>> inFlight = new ArrayDeque<>(window);
+        int next = 0;
+        try {
+            while (next < reviewed.size() || !inFlight.isEmpty()) {
+                while (next < reviewed.size() && inFlight.size() < window) {
+                    List<String> slice = reviewed.subList(next, Math.min(next + chunk, reviewed.size()));
+                    inFlight.addLast(pool.submit(() -> diff(slice, entries, before, after)));
+                    next += slice.size();
+                }
+                inFlight.removeFirst().join().forEach(sink);
+            }
+        } finally {
+            // Stop remaining work when the sink fails, e.g. a client disconnects mid-stream
+            inFlight.forEach(task -> task.cancel(false));
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private static List<DecisionChange> diff(List<String> subjects, CatalogueEntry[] entries,
+                                             Snapshot before, Snapshot after) {
+        // Conditions see the entry's amount and the time of the review
+        Instant now = Instant.now();
+        ConditionContext[] contexts = new ConditionContext[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            contexts[i] = new ConditionContext(entries[i].amount(), null, null, now);
+        }
+
+        List<DecisionChange> changes = new ArrayList<>();
+        for (String subject : subjects) {
+            for (int i = 0; i < entries.length; i++) {
+                CatalogueEntry entry = entries[i];
+                ConditionContext context = contexts[i];
+                PermissionDecision permissionBefore =
+                    before.permissions.decide(subject, entry.action(), entry.resource(), context);
+                PermissionDecision permissionAfter =
+                    after.permissions.decide(subject, entry.action(), entry.resource(), context);
+                ApprovalDecision approvalBefore =
+                    before.approvals.decide(subject, entry.action(), entry.resource(), context);
+                ApprovalDecision approvalAfter =
+                    after.approvals.decide(subject, entry.action(), entry.resource(), context);
+
+                boolean permissionChanged = !permissionBefore.equals(permissionAfter);
+                boolean approvalChanged = !approvalBefore.equals(approvalAfter);
+                if (permissionChanged || approvalChanged) {
+                    changes.add(new DecisionChange(
+                        subject,
+                        entry.action(),
+                        entry.resource(),
+                        entry.amount(),
+                        permissionChanged ? permissionBefore : null,
+                        permissionChanged ? permissionAfter : null,
+                        approvalChanged ? approvalBefore : null,
+                        approvalChanged ? approvalAfter : null
+                    ));
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Apply the candidate changes to copies, leaving the stored statements untouched.
+     */
+    private static List<PermissionStatement> applyPermissionChanges(
+        ProfileId profileId, List<PermissionStatement> statements, StatementChanges changes
+    ) {
+        Map<String, PermissionStatement> result = new LinkedHashMap<>();
+        for (PermissionStatement s : statements) {
+            result.put(s.statementId(), s);
+        }
+        for (String statementId : orEmpty(changes.deletePermissions())) {
+            requirePresent(result, statementId, "PermissionStatement");
+            result.remove(statementId);
+        }
+        for (UpdatePermissionStatementCmd cmd : orEmpty(changes.updatePermissions())) {
+            PermissionStatement current = requirePresent(result, cmd.statementId(), "PermissionStatement");
+            result.put(cmd.statementId(), PermissionStatement.reconstruct(
+                current.statementId(), profileId, current.subject(), cmd.action(), cmd.resource(), cmd.effect(),
+                Conditions.parse(cmd.conditions()), current.createdAt(), current.updatedAt()));
+        }
+        for (CreatePermissionStatementCmd cmd : orEmpty(changes.createPermissions())) {
+            PermissionStatement created = PermissionStatement.create(
+                profileId, cmd.subject(), cmd.action(), cmd.resource(), cmd.effect(),
+                Conditions.parse(cmd.conditions()));
+            result.put(created.statementId(), created);
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    private static List<ApprovalStatement> applyApprovalChanges(
+        ProfileId profileId, List<ApprovalStatement> statements, StatementChanges changes
+    ) {
+        Map<String, ApprovalStatement> result = new LinkedHashMap<>();
+        for (ApprovalStatement s : statements) {
+            result.put(s.statementId(), s);
+        }
+        for (String statementId : orEmpty(changes.deleteApprovals())) {
+            requirePresent(result, statementId, "ApprovalStatement");
+            result.remove(statementId);
+        }
+        for (UpdateApprovalStatementCmd cmd : orEmpty(changes.updateApprovals())) {
+            ApprovalStatement current = requirePresent(result, cmd.statementId(), "ApprovalStatement");
+            result.put(cmd.statementId(), ApprovalStatement.reconstruct(
+                current.statementId(), profileId, current.subject(), current.action(), current.resource(),
+                cmd.approverCount(), cmd.approvers(), cmd.amountThreshold(), Conditions.parse(cmd.conditions()),
+                current.createdAt(), current.updatedAt()));
+        }
+        for (CreateApprovalStatementCmd cmd : orEmpty(changes.createApprovals())) {
+            ApprovalStatement created = ApprovalStatement.create(
+                profileId, cmd.subject(), cmd.action(), cmd.resource(),
+                cmd.approverCount(), cmd.approvers(), cmd.amountThreshold(), Conditions.parse(cmd.conditions()));
+            result.put(created.statementId(), created);
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * Subjects named without a wildcard by any current or candidate statement.
+     */
+    private static List<String> concreteSubjects(List<PermissionStatement> permissions,
+                                                 List<ApprovalStatement> approvals,
+                                                 List<PermissionStatement> candidatePermissions,
+                                                 List<ApprovalStatement> candidateApprovals) {
+        Set<String> subjects = new LinkedHashSet<>();
+        for (List<PermissionStatement> list : List.of(permissions, candidatePermissions)) {
+            list.stream().map(PermissionStatement::subject).filter(s -> !s.endsWith("*")).forEach(subjects::add);
+        }
+        for (List<ApprovalStatement> list : List.of(approvals, candidateApprovals)) {
+            list.stream().map(ApprovalStatement::subject).filter(s -> !s.endsWith("*")).forEach(subjects::add);
+        }
+        return new ArrayList<>(subjects);
+    }
+
+    private static <T> T requirePresent(Map<String, T> statements, String statementId, String type) {
+        T statement = statements.get(statementId);
+        if (statement == null) {
+            throw new IllegalArgumentException(type + " not found: " + statementId);
+        }
+        return statement;
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list != null ? list : List.of();
+    }
+
+    private record Snapshot(PermissionPolicyIndex permissions, ApprovalPolicyIndex approvals) {}
+}
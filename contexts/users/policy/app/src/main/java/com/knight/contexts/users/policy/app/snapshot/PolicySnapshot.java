@@ -0,0 +1,15 @@
+package com.knight.contexts.users.policy.app.snapshot;
+
+import com.knight.contexts.users.policy.domain.index.ApprovalPolicyIndex;
+import com.knight.contexts.users.policy.domain.index.PermissionPolicyIndex;
+
+/**
+ * Immutable, compiled view of one profile's statements at a given version.
+ * Readers evaluate against the snapshot they obtained, however many writes follow.
+ */
+public record PolicySnapshot(
+    String profileUrn,
+    long version,
+    PermissionPolicyIndex permissions,
+    ApprovalPolicyIndex approvals
+) {}
@@ -0,0 +1,217 @@
+package com.knight.contexts.users.policy.app.snapshot;
+
+import com.knight.contexts.users.policy.api.events.*;
+import com.knight.contexts.users.policy.app.repository.ApprovalStatementRepository;
+import com.knight.contexts.users.policy.app.repository.PermissionStatementRepository;
+import com.knight.contexts.users.policy.app.service.ProfileUrns;
+import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.index.ApprovalPolicyIndex;
+import com.knight.contexts.users.policy.domain.index.PermissionPolicyIndex;
+import com.knight.platform.sharedkernel.ProfileId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-copy-update holder of the published policy snapshot of each profile.
+ *
+ * Readers take the current snapshot with one lookup in a lock-striped LRU segment: the lock only
+ * covers that lookup, and no snapshot is ever copied. Writers never touch a published snapshot;
+ * after a statement change commits they load the profile, compile a new snapshot and swap it in.
+ *
+ * At most knight.policy.snapshot.max-profiles snapshots are kept; an evicted profile is rebuilt
+ * on its next use. Profiles without statements are never kept, so looking up unknown profiles
+ * cannot grow the heap.
+ *
+ * Versions come from one sequence shared by all profiles, so a rebuilt or re-created snapshot
+ * always has a higher version than anything cached for its profile before. Every change takes the
+ * next version before loading, so a snapshot with a higher version has seen at least every change
+ * with a lower one, and a snapshot is only swapped in over an older version. A build that raced a
+ * change whose snapshot has since been evicted serves its own reader but is not kept.
+ *
+ * Snapshots follow the statement events of this instance only. Several instances on one shared
+ * statement store do not see each other's changes, and would keep serving their own snapshots, so
+ * the policy service must run as a single instance.
+ */
+@Component
+public class PolicySnapshots {
+
+    private static final int SEGMENTS = 16;
+
+    private final PermissionStatementRepository permissionRepository;
+    private final ApprovalStatementRepository approvalRepository;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final AtomicLong sequence = new AtomicLong();
+    // Highest version of any snapshot dropped by eviction or because its profile became empty
+    private final AtomicLong retired = new AtomicLong();
+
+    public PolicySnapshots(
+        PermissionStatementRepository permissionRepository,
+        ApprovalStatementRepository approvalRepository,
+        @Value("${knight.policy.snapshot.max-profiles:10000}") int maxProfiles
+    ) {
+        if (maxProfiles <= 0) {
+            throw new IllegalArgumentException("maxProfiles must be > 0");
+        }
+        this.permissionRepository = permissionRepository;
+        this.approvalRepository = approvalRepository;
+        int perSegment = Math.max(1, maxProfiles / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * The published snapshot of a profile, built on a miss.
+     */
+    public PolicySnapshot current(String profileUrn) {
+        Segment segment = segmentFor(profileUrn);
+        synchronized (segment) {
+            PolicySnapshot snapshot = segment.get(profileUrn);
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        // No change has taken a version above the current one without committing first, so the
+        // build sees every change up to it
+        PolicySnapshot built = build(profileUrn, sequence.get());
+        if (isEmpty(built)) {
+            return built;
+        }
+        synchronized (segment) {
+            PolicySnapshot snapshot = segment.get(profileUrn);
+            if (snapshot != null) {
+                // Whatever won the race is now published; every reader of this version sees the same snapshot
+                return snapshot;
+            }
+            if (built.version() >= retired.get()) {
+                segment.put(profileUrn, built);
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Rebuild and publish a profile's snapshot after its statements changed.
+     */
+    public void refresh(String profileUrn) {
+        PolicySnapshot built = build(profileUrn, sequence.incrementAndGet());
+        Segment segment = segmentFor(profileUrn);
+        synchronized (segment) {
+            PolicySnapshot current = segment.get(profileUrn);
+            if (current != null && current.version() > built.version()) {
+                return;
+            }
+            if (isEmpty(built)) {
+                segment.remove(profileUrn);
+                retire(built.version());
+            } else {
+                segment.put(profileUrn, built);
+            }
+        }
+    }
+
+    /**
+     * Publish a snapshot compiled from statements loaded elsewhere, such as a warm-start file that
+     * was checked against the repository. It only fills a profile that has no snapshot yet, at the
+     * current version, so the refresh of any change made meanwhile still wins.
+     */
+    public void install(String profileUrn, List<PermissionStatement> permissions, List<ApprovalStatement> approvals) {
+        if (permissions.isEmpty() && approvals.isEmpty()) {
+            return;
+        }
+        PolicySnapshot installed = new PolicySnapshot(
+            profileUrn,
+            sequence.get(),
+            PermissionPolicyIndex.compile(permissions),
+            ApprovalPolicyIndex.compile(approvals)
+        );
+        Segment segment = segmentFor(profileUrn);
+        synchronized (segment) {
+            segment.putIfAbsent(profileUrn, installed);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(PermissionStatementCreated event) {
+        refresh(event.profileUrn());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(PermissionStatementUpdated event) {
+        refresh(event.profileUrn());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(PermissionStatementDeleted event) {
+        refresh(event.profileUrn());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(ApprovalStatementCreated event) {
+        refresh(event.profileUrn());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(ApprovalStatementUpdated event) {
+        refresh(event.profileUrn());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(ApprovalStatementDeleted event) {
+        refresh(event.profileUrn());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(PolicyStatementsImported event) {
+        refresh(event.profileUrn());
+    }
+
+    private PolicySnapshot build(String profileUrn, long version) {
+        ProfileId profileId = ProfileUrns.parse(profileUrn);
+        return new PolicySnapshot(
+            profileUrn,
+            version,
+            PermissionPolicyIndex.compile(permissionRepository.findByProfileId(profileId)),
+            ApprovalPolicyIndex.compile(approvalRepository.findByProfileId(profileId))
+        );
+    }
+
+    private static boolean isEmpty(PolicySnapshot snapshot) {
+        return snapshot.permissions().size() == 0 && snapshot.approvals().size() == 0;
+    }
+
+    private void retire(long version) {
+        retired.accumulateAndGet(version, Math::max);
+    }
+
+    private Segment segmentFor(String profileUrn) {
+        int h = profileUrn.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private final class Segment extends LinkedHashMap<String, PolicySnapshot> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PolicySnapshot> eldest) {
+            if (size() > capacity) {
+                retire(eldest.getValue().version());
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.knight.contexts.users.policy.app.cache;
+
+import com.knight.contexts.users.policy.app.cache.PolicyDecisionCache.CacheStats;
+import com.knight.contexts.users.policy.domain.service.PolicyEvaluatorService.ApprovalEvaluation;
+import com.knight.contexts.users.policy.domain.service.PolicyEvaluatorService.PermissionEvaluation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies hit, miss and eviction accounting, LRU eviction at the entry limit, and that an entry
+ * is only ever served to readers of the snapshot version it was computed from.
+ */
+class PolicyDecisionCacheTest {
+
+    private static final String PROFILE = "urn:knight:profile:1";
+    private static final PermissionEvaluation ALLOW = new PermissionEvaluation(true, "s1", "allowed");
+    private static final PermissionEvaluation DENY = new PermissionEvaluation(false, "s2", "denied");
+
+    @Test
+    void countsHitsAndMisses() {
+        PolicyDecisionCache cache = new PolicyDecisionCache(100);
+
+        assertThat(cache.getPermission(1, PROFILE, "user:alice", "view", "*")).isNull();
+        cache.putPermission(1, PROFILE, "user:alice", "view", "*", ALLOW);
+        assertThat(cache.getPermission(1, PROFILE, "user:alice", "view", "*")).isEqualTo(ALLOW);
+        assertThat(cache.getPermission(1, PROFILE, "user:alice", "view", "*")).isEqualTo(ALLOW);
+        assertThat(cache.getPermission(1, PROFILE, "user:bob", "view", "*")).isNull();
+
+        assertThat(cache.stats()).isEqualTo(new CacheStats(2, 2, 0, 1));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesAtMaxEntries() {
+        int maxEntries = 160;
+        PolicyDecisionCache cache = new PolicyDecisionCache(maxEntries);
+        cache.putPermission(1, PROFILE, "user:hot", "view", "*", ALLOW);
+        cache.putPermission(1, PROFILE, "user:cold", "view", "*", ALLOW);
+
+        int others = 2_000;
+        for (int i = 0; i < others; i++) {
+            cache.putPermission(1, PROFILE, "user:u" + i, "view", "*", DENY);
+            // Touched after every put, so it is never the eldest entry of its segment
+            assertThat(cache.getPermission(1, PROFILE, "user:hot", "view", "*")).isEqualTo(ALLOW);
+        }
+
+        assertThat(cache.getPermission(1, PROFILE, "user:cold", "view", "*")).isNull();
+        CacheStats stats = cache.stats();
+        assertThat(stats.size()).isLessThanOrEqualTo(maxEntries);
+        assertThat(stats.evictions()).isEqualTo(others + 2 - stats.size());
+        assertThat(stats.hits()).isEqualTo(others);
+    }
+
+    @Test
+    void neverServesAnEntryFromAnotherSnapshotVersion() {
+        PolicyDecisionCache cache = new PolicyDecisionCache(100);
+        cache.putPermission(1, PROFILE, "user:alice", "view", "*", ALLOW);
+
+        // A reader of the next snapshot misses, and the superseded entry is dropped
+        assertThat(cache.getPermission(2, PROFILE, "user:alice", "view", "*")).isNull();
+        assertThat(cache.stats().size()).isZero();
+
+        cache.putPermission(2, PROFILE, "user:alice", "view", "*", DENY);
+        // A reader still holding the old snapshot neither sees nor overwrites the newer entry
+        assertThat(cache.getPermission(1, PROFILE, "user:alice", "view", "*")).isNull();
+        cache.putPermission(1, PROFILE, "user:alice", "view", "*", ALLOW);
+        assertThat(cache.getPermission(2, PROFILE, "user:alice", "view", "*")).isEqualTo(DENY);
+    }
+
+    @Test
+    void keysApprovalsByAmountBand() {
+        PolicyDecisionCache cache = new PolicyDecisionCache(100);
+        ApprovalEvaluation single = new ApprovalEvaluation(true, 1, List.of("user:carol"), "a1", "single");
+        cache.putApproval(1, PROFILE, "user:alice", "pay", "*", 0, single);
+
+        assertThat(cache.getApproval(1, PROFILE, "user:alice", "pay", "*", 0)).isEqualTo(single);
+        assertThat(cache.getApproval(1, PROFILE, "user:alice", "pay", "*", 1)).isNull();
+        assertThat(cache.getPermission(1, PROFILE, "user:alice", "pay", "*")).isNull();
+    }
+}
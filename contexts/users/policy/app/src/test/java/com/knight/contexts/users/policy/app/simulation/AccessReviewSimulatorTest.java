@@ -0,0 +1,127 @@
+package com.knight.contexts.users.policy.app.simulation;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.CreatePermissionStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.UpdateApprovalStatementCmd;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.CatalogueEntry;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.Decision;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.DecisionChange;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.StatementChanges;
+import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ProfileId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Verifies the what-if review reports exactly the changed decisions, and measures a full-size review.
+ */
+class AccessReviewSimulatorTest {
+
+    private static final ProfileId PROFILE = ServicingProfileId.of(ClientId.srf("12345"));
+
+    private final AccessReviewSimulator simulator = new AccessReviewSimulator(0);
+
+    @AfterEach
+    void close() {
+        simulator.close();
+    }
+
+    @Test
+    void reportsOnlyChangedDecisionsInSubjectOrder() {
+        List<PermissionStatement> permissions = List.of(
+            PermissionStatement.create(PROFILE, "user:*", "receivables:*", "*", Effect.ALLOW)
+        );
+        ApprovalStatement approval = ApprovalStatement.create(
+            PROFILE, "*", "payments:create", "*", 1, List.of("user:carol"), null);
+
+        StatementChanges changes = new StatementChanges(
+            List.of(new CreatePermissionStatementCmd(
+                PROFILE.urn(), "user:bob", "receivables:approve", "*", Effect.DENY)),
+            null,
+            null,
+            null,
+            List.of(new UpdateApprovalStatementCmd(
+                approval.statementId(), 2, List.of("user:carol", "user:dave"), new BigDecimal("1000"))),
+            null
+        );
+
+        List<DecisionChange> changed = new ArrayList<>();
+        simulator.simulate(
+            PROFILE,
+            permissions,
+            List.of(approval),
+            List.of("user:alice", "user:bob"),
+            List.of(
+                new CatalogueEntry("receivables:view", "urn:knight:receivable:1", null),
+                new CatalogueEntry("receivables:approve", "urn:knight:receivable:1", null),
+                new CatalogueEntry("payments:create", "urn:knight:payment:1", new BigDecimal("500")),
+                new CatalogueEntry("payments:create", "urn:knight:payment:2", new BigDecimal("5000"))
+            ),
+            changes,
+            changed::add
+        );
+
+        // Both users: the approval at 500 now needs two approvers, at 5000 none (above the new threshold)
+        // Bob only: approving receivables is now denied
+        assertThat(changed).extracting(DecisionChange::subject, DecisionChange::action, DecisionChange::amount)
+            .containsExactly(
+                tuple("user:alice", "payments:create", new BigDecimal("500")),
+                tuple("user:alice", "payments:create", new BigDecimal("5000")),
+                tuple("user:bob", "receivables:approve", null),
+                tuple("user:bob", "payments:create", new BigDecimal("500")),
+                tuple("user:bob", "payments:create", new BigDecimal("5000"))
+            );
+
+        DecisionChange denied = changed.get(2);
+        assertThat(denied.permissionBefore().decision()).isEqualTo(Decision.ALLOW);
+        assertThat(denied.permissionAfter().decision()).isEqualTo(Decision.DENY);
+        assertThat(denied.approvalBefore()).isNull();
+
+        DecisionChange approverCount = changed.get(0);
+        assertThat(approverCount.permissionBefore()).isNull();
+        assertThat(approverCount.approvalBefore().approverCount()).isEqualTo(1);
+        assertThat(approverCount.approvalAfter().approverCount()).isEqualTo(2);
+        assertThat(changed.get(1).approvalAfter().approvalRequired()).isFalse();
+    }
+
+    @Test
+    void reviewsTenThousandUsersByFiveHundredActions() {
+        List<PermissionStatement> permissions = new ArrayList<>();
+        for (int team = 0; team < 100; team++) {
+            permissions.add(PermissionStatement.create(
+                PROFILE, "user:t" + team + "-*", "action:" + (team % 50) + "*", "*", Effect.ALLOW));
+        }
+        List<String> users = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            users.add("user:t" + (i % 100) + "-u" + i);
+        }
+        List<CatalogueEntry> catalogue = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            catalogue.add(new CatalogueEntry("action:" + i, "urn:knight:resource:" + i, null));
+        }
+        // Deny team 7 everything under action:7, which it was allowed through action:7*
+        StatementChanges changes = new StatementChanges(
+            List.of(new CreatePermissionStatementCmd(PROFILE.urn(), "user:t7-*", "action:7*", "*", Effect.DENY)),
+            null, null, null, null, null);
+
+        AtomicLong changed = new AtomicLong();
+        long start = System.nanoTime();
+        simulator.simulate(PROFILE, permissions, List.of(), users, catalogue, changes, c -> changed.incrementAndGet());
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        // 100 team-7 users x the 11 actions matching action:7* (action:7 and action:70..79)
+        assertThat(changed.get()).isEqualTo(100 * 11);
+        assertThat(millis).isLessThan(60_000);
+    }
+}
@@ -1,5 +1,7 @@
 package com.knight.contexts.users.policy.domain.aggregate;
 
+import com.knight.contexts.users.policy.domain.condition.ConditionContext;
+import com.knight.contexts.users.policy.domain.condition.Conditions;
 import com.knight.platform.sharedkernel.ProfileId;
 
 import java.math.BigDecimal;
@@ -18,6 +20,7 @@ import java.util.UUID;
  * - approverCount must be > 0
  * - approvers list size must be >= approverCount
  * - amountThreshold can be null (means applies to any amount)
+ * - a statement only applies when all of its conditions hold (none by default)
  */
 public class ApprovalStatement {
 
@@ -29,12 +32,14 @@ public class ApprovalStatement {
     private int approverCount;
     private List<String> approvers;
     private BigDecimal amountThreshold;
+    private Conditions conditions;
     private final Instant createdAt;
     private Instant updatedAt;
 
     private ApprovalStatement(String statementId, ProfileId profileId, String subject,
                              String action, String resource, int approverCount,
-                             List<String> approvers, BigDecimal amountThreshold) {
+                             List<String> approvers, BigDecimal amountThreshold, Conditions conditions,
+                             Instant createdAt, Instant updatedAt) {
         if (statementId == null || statementId.isBlank()) {
             throw new IllegalArgumentException("statementId cannot be null or blank");
         }
@@ -68,8 +73,9 @@ public class ApprovalStatement {
         this.approverCount = approverCount;
         this.approvers = new ArrayList<>(approvers);
         this.amountThreshold = amountThreshold;
-        this.createdAt = Instant.now();
-        this.updatedAt = this.createdAt;
+        this.conditions = conditions == null ? Conditions.NONE : conditions;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
     }
 
     /**
@@ -79,9 +85,45 @@ public class ApprovalStatement {
                                           String action, String resource,
                                           int approverCount, List<String> approvers,
                                           BigDecimal amountThreshold) {
+        return create(profileId, subject, action, resource, approverCount, approvers, amountThreshold,
+                      Conditions.NONE);
+    }
+
+    /**
+     * Factory method to create a new approval statement that only applies under its conditions.
+     */
+    public static ApprovalStatement create(ProfileId profileId, String subject,
+                                          String action, String resource,
+                                          int approverCount, List<String> approvers,
+                                          BigDecimal amountThreshold, Conditions conditions) {
         String statementId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
         return new ApprovalStatement(statementId, profileId, subject, action, resource,
-                                    approverCount, approvers, amountThreshold);
+                                    approverCount, approvers, amountThreshold, conditions, now, now);
+    }
+
+    /**
+     * Reconstruct from persistence (with existing ID).
+     */
+    public static ApprovalStatement reconstruct(String statementId, ProfileId profileId, String subject,
+                                               String action, String resource,
+                                               int approverCount, List<String> approvers,
+                                               BigDecimal amountThreshold,
+                                               Instant createdAt, Instant updatedAt) {
+        return reconstruct(statementId, profileId, subject, action, resource, approverCount, approvers,
+                           amountThreshold, Conditions.NONE, createdAt, updatedAt);
+    }
+
+    /**
+     * Reconstruct a statement with conditions from persistence (with existing ID).
+     */
+    public static ApprovalStatement reconstruct(String statementId, ProfileId profileId, String subject,
+                                               String action, String resource,
+                                               int approverCount, List<String> approvers,
+                                               BigDecimal amountThreshold, Conditions conditions,
+                                               Instant createdAt, Instant updatedAt) {
+        return new ApprovalStatement(statementId, profileId, subject, action, resource,
+                                    approverCount, approvers, amountThreshold, conditions, createdAt, updatedAt);
     }
 
     /**
@@ -111,6 +153,21 @@ public class ApprovalStatement {
         this.updatedAt = Instant.now();
     }
 
+    /**
+     * Replace the conditions; null or {@link Conditions#NONE} makes the statement unconditional.
+     */
+    public void updateConditions(Conditions newConditions) {
+        this.conditions = newConditions == null ? Conditions.NONE : newConditions;
+        this.updatedAt = Instant.now();
+    }
+
+    /**
+     * Check if this statement's conditions hold for the request (interpreted).
+     */
+    public boolean meetsConditions(ConditionContext context) {
+        return conditions.matches(context);
+    }
+
     /**
      * Check if this statement matches the given subject, action, resource.
      */
@@ -153,6 +210,7 @@ public class ApprovalStatement {
     public int approverCount() { return approverCount; }
     public List<String> approvers() { return List.copyOf(approvers); }
     public BigDecimal amountThreshold() { return amountThreshold; }
+    public Conditions conditions() { return conditions; }
     public Instant createdAt() { return createdAt; }
     public Instant updatedAt() { return updatedAt; }
 }
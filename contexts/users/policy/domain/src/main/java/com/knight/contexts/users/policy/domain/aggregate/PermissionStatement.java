@@ -1,9 +1,12 @@
 package com.knight.contexts.users.policy.domain.aggregate;
 
 import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.domain.condition.ConditionContext;
+import com.knight.contexts.users.policy.domain.condition.Conditions;
 import com.knight.platform.sharedkernel.ProfileId;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.UUID;
 
 /**
@@ -15,20 +18,26 @@ import java.util.UUID;
  * - profileId cannot change after creation
  * - subject, action, resource cannot be null or blank
  * - DENY takes precedence over ALLOW in evaluation
+ * - a statement only applies when all of its conditions hold (none by default)
+ * - a group:{groupId} subject applies to every member of that user group
  */
 public class PermissionStatement {
 
+    public static final String GROUP_SUBJECT_PREFIX = "group:";
+
     private final String statementId;
     private final ProfileId profileId;
     private final String subject;
     private String action;
     private String resource;
     private Effect effect;
+    private Conditions conditions;
     private final Instant createdAt;
     private Instant updatedAt;
 
     private PermissionStatement(String statementId, ProfileId profileId, String subject,
-                               String action, String resource, Effect effect) {
+                               String action, String resource, Effect effect, Conditions conditions,
+                               Instant createdAt, Instant updatedAt) {
         if (statementId == null || statementId.isBlank()) {
             throw new IllegalArgumentException("statementId cannot be null or blank");
         }
@@ -54,8 +63,9 @@ public class PermissionStatement {
         this.action = action;
         this.resource = resource;
         this.effect = effect;
-        this.createdAt = Instant.now();
-        this.updatedAt = this.createdAt;
+        this.conditions = conditions == null ? Conditions.NONE : conditions;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
     }
 
     /**
@@ -63,8 +73,19 @@ public class PermissionStatement {
      */
     public static PermissionStatement create(ProfileId profileId, String subject,
                                             String action, String resource, Effect effect) {
+        return create(profileId, subject, action, resource, effect, Conditions.NONE);
+    }
+
+    /**
+     * Factory method to create a new permission statement that only applies under its conditions.
+     */
+    public static PermissionStatement create(ProfileId profileId, String subject,
+                                            String action, String resource, Effect effect,
+                                            Conditions conditions) {
         String statementId = UUID.randomUUID().toString();
-        return new PermissionStatement(statementId, profileId, subject, action, resource, effect);
+        Instant now = Instant.now();
+        return new PermissionStatement(statementId, profileId, subject, action, resource, effect, conditions,
+                                       now, now);
     }
 
     /**
@@ -73,9 +94,18 @@ public class PermissionStatement {
     public static PermissionStatement reconstruct(String statementId, ProfileId profileId, String subject,
                                                  String action, String resource, Effect effect,
                                                  Instant createdAt, Instant updatedAt) {
-        PermissionStatement statement = new PermissionStatement(statementId, profileId, subject, action, resource, effect);
-        // Would need to use reflection or builder to set createdAt/updatedAt in real implementation
-        return statement;
+        return reconstruct(statementId, profileId, subject, action, resource, effect, Conditions.NONE,
+                           createdAt, updatedAt);
+    }
+
+    /**
+     * Reconstruct a statement with conditions from persistence (with existing ID).
+     */
+    public static PermissionStatement reconstruct(String statementId, ProfileId profileId, String subject,
+                                                 String action, String resource, Effect effect,
+                                                 Conditions conditions, Instant createdAt, Instant updatedAt) {
+        return new PermissionStatement(statementId, profileId, subject, action, resource, effect, conditions,
+                                       createdAt, updatedAt);
     }
 
     /**
@@ -111,6 +141,14 @@ public class PermissionStatement {
         this.updatedAt = Instant.now();
     }
 
+    /**
+     * Replace the conditions; null or {@link Conditions#NONE} makes the statement unconditional.
+     */
+    public void updateConditions(Conditions newConditions) {
+        this.conditions = newConditions == null ? Conditions.NONE : newConditions;
+        this.updatedAt = Instant.now();
+    }
+
     /**
      * Check if this statement matches the given subject, action, resource.
      * Uses simple string matching (could be enhanced with wildcards/patterns).
@@ -121,6 +159,55 @@ public class PermissionStatement {
             && matchesPattern(this.resource, checkResource);
     }
 
+    /**
+     * Check if this statement matches and its conditions hold for the request.
+     * Conditions are interpreted here; compiled indexes evaluate them as precompiled predicates.
+     */
+    public boolean matches(String checkSubject, String checkAction, String checkResource,
+                           ConditionContext context) {
+        return matches(checkSubject, checkAction, checkResource) && conditions.matches(context);
+    }
+
+    /**
+     * Check if this statement matches the subject, or one of the group subjects it belongs to,
+     * and its conditions hold for the request.
+     */
+    public boolean matches(String checkSubject, Collection<String> groupSubjects, String checkAction,
+                           String checkResource, ConditionContext context) {
+        if (!matchesPattern(this.action, checkAction) || !matchesPattern(this.resource, checkResource)
+            || !conditions.matches(context)) {
+            return false;
+        }
+        if (matchesPattern(this.subject, checkSubject)) {
+            return true;
+        }
+        for (String groupSubject : groupSubjects) {
+            if (matchesPattern(this.subject, groupSubject)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True if the subject pattern can match group subjects without matching every subject,
+     * so the decision depends on group memberships.
+     */
+    public boolean targetsGroups() {
+        if (subject.startsWith(GROUP_SUBJECT_PREFIX)) {
+            return true;
+        }
+        return subject.length() > 1 && subject.endsWith("*")
+            && GROUP_SUBJECT_PREFIX.startsWith(subject.substring(0, subject.length() - 1));
+    }
+
+    /**
+     * Check if this statement applies to the given subject, regardless of action and resource.
+     */
+    public boolean appliesTo(String checkSubject) {
+        return matchesPattern(this.subject, checkSubject);
+    }
+
     private boolean matchesPattern(String pattern, String value) {
         if (pattern.equals("*")) {
             return true;
@@ -139,6 +226,7 @@ public class PermissionStatement {
     public String action() { return action; }
     public String resource() { return resource; }
     public Effect effect() { return effect; }
+    public Conditions conditions() { return conditions; }
     public Instant createdAt() { return createdAt; }
     public Instant updatedAt() { return updatedAt; }
 }
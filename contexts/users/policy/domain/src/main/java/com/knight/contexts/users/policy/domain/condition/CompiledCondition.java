@@ -0,0 +1,13 @@
+package com.knight.contexts.users.policy.domain.condition;
+
+/**
+ * Conditions compiled into a predicate, built once when a policy index is compiled.
+ * Implementations are immutable and safe for concurrent use.
+ */
+@FunctionalInterface
+public interface CompiledCondition {
+
+    CompiledCondition ALWAYS = context -> true;
+
+    boolean test(ConditionContext context);
+}
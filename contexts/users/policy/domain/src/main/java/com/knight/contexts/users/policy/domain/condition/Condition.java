@@ -0,0 +1,125 @@
+package com.knight.contexts.users.policy.domain.condition;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * One clause of a statement's conditions.
+ *
+ * {@link #test} is the straightforward interpreted evaluation; the evaluation paths use the
+ * specialized predicates built by {@link ConditionCompiler} instead, which must agree with it.
+ */
+public sealed interface Condition {
+
+    boolean test(ConditionContext context);
+
+    /**
+     * Canonical text of the clause, as accepted by {@link Conditions#parse}.
+     */
+    String format();
+
+    /**
+     * Amount between min and max, both inclusive; a null bound is open.
+     */
+    record AmountRange(BigDecimal min, BigDecimal max) implements Condition {
+        public AmountRange {
+            if (min == null && max == null) {
+                throw new IllegalArgumentException("amount range needs at least one bound");
+            }
+            if (min != null && max != null && min.compareTo(max) > 0) {
+                throw new IllegalArgumentException("amount range min is above max: " + min + ".." + max);
+            }
+        }
+
+        @Override
+        public boolean test(ConditionContext context) {
+            BigDecimal amount = context.amount();
+            return amount != null
+                && (min == null || amount.compareTo(min) >= 0)
+                && (max == null || amount.compareTo(max) <= 0);
+        }
+
+        @Override
+        public String format() {
+            return "amount " + (min == null ? "" : min.toPlainString()) + ".."
+                + (max == null ? "" : max.toPlainString());
+        }
+    }
+
+    /**
+     * Request time on one of the days, from inclusive to exclusive, in the given zone.
+     */
+    record TimeWindow(Set<DayOfWeek> days, LocalTime from, LocalTime to, ZoneId zone) implements Condition {
+        public TimeWindow {
+            if (days.isEmpty()) {
+                throw new IllegalArgumentException("time window needs at least one day");
+            }
+            if (!from.isBefore(to)) {
+                throw new IllegalArgumentException("time window must end after it starts: " + from + "-" + to);
+            }
+            days = Set.copyOf(EnumSet.copyOf(days));
+        }
+
+        @Override
+        public boolean test(ConditionContext context) {
+            if (context.at() == null) {
+                return false;
+            }
+            ZonedDateTime local = context.at().atZone(zone);
+            LocalTime time = local.toLocalTime();
+            return days.contains(local.getDayOfWeek()) && !time.isBefore(from) && time.isBefore(to);
+        }
+
+        @Override
+        public String format() {
+            return "hours " + EnumSet.copyOf(days).stream()
+                .map(day -> day.name().substring(0, 3))
+                .collect(Collectors.joining(","))
+                + " " + from + "-" + to + " " + zone.getId();
+        }
+    }
+
+    /**
+     * Currency code among the listed ones.
+     */
+    record CurrencyIn(Set<String> currencies) implements Condition {
+        public CurrencyIn {
+            currencies = Set.copyOf(currencies);
+        }
+
+        @Override
+        public boolean test(ConditionContext context) {
+            return context.currency() != null && currencies.contains(context.currency());
+        }
+
+        @Override
+        public String format() {
+            return "currency " + String.join(",", currencies.stream().sorted().toList());
+        }
+    }
+
+    /**
+     * Account among the listed ones.
+     */
+    record AccountIn(Set<String> accounts) implements Condition {
+        public AccountIn {
+            accounts = Set.copyOf(accounts);
+        }
+
+        @Override
+        public boolean test(ConditionContext context) {
+            return context.account() != null && accounts.contains(context.account());
+        }
+
+        @Override
+        public String format() {
+            return "account " + String.join(",", accounts.stream().sorted().toList());
+        }
+    }
+}
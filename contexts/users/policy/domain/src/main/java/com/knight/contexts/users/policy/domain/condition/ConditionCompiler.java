@@ -0,0 +1,250 @@
+package com.knight.contexts.users.policy.domain.condition;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns condition clauses into specialized predicate objects.
+ *
+ * Every decision the interpreted {@link Condition#test} makes per call is taken here once:
+ * which amount bounds exist, how a value set is best searched, the time window as day bits
+ * and nano-of-day bounds, and the order clauses are checked in (cheapest first). Each shape
+ * gets its own small final class so the evaluation call sites stay monomorphic.
+ */
+final class ConditionCompiler {
+
+    private static final int SMALL_SET = 4;
+
+    private static final Comparator<Condition> CHEAPEST_FIRST = Comparator.comparingInt(ConditionCompiler::cost);
+
+    private ConditionCompiler() {
+    }
+
+    static CompiledCondition compile(List<Condition> clauses) {
+        CompiledCondition[] compiled = clauses.stream()
+            .sorted(CHEAPEST_FIRST)
+            .map(ConditionCompiler::compile)
+            .toArray(CompiledCondition[]::new);
+        return switch (compiled.length) {
+            case 0 -> CompiledCondition.ALWAYS;
+            case 1 -> compiled[0];
+            case 2 -> new Both(compiled[0], compiled[1]);
+            default -> new All(compiled);
+        };
+    }
+
+    private static CompiledCondition compile(Condition clause) {
+        if (clause instanceof Condition.AmountRange range) {
+            return compileAmount(range.min(), range.max());
+        }
+        if (clause instanceof Condition.CurrencyIn currencies) {
+            return compileMembership(currencies.currencies(), true);
+        }
+        if (clause instanceof Condition.AccountIn accounts) {
+            return compileMembership(accounts.accounts(), false);
+        }
+        return new InWindow((Condition.TimeWindow) clause);
+    }
+
+    private static int cost(Condition clause) {
+        if (clause instanceof Condition.CurrencyIn) {
+            return 0;
+        }
+        if (clause instanceof Condition.AccountIn) {
+            return 1;
+        }
+        return clause instanceof Condition.AmountRange ? 2 : 3;
+    }
+
+    private static CompiledCondition compileAmount(BigDecimal min, BigDecimal max) {
+        if (min == null) {
+            return new AmountAtMost(max);
+        }
+        if (max == null) {
+            return new AmountAtLeast(min);
+        }
+        return new AmountBetween(min, max);
+    }
+
+    private static CompiledCondition compileMembership(Set<String> values, boolean currency) {
+        String[] array = values.stream().sorted().toArray(String[]::new);
+        if (array.length == 1) {
+            return currency ? new CurrencyIs(array[0]) : new AccountIs(array[0]);
+        }
+        if (array.length <= SMALL_SET) {
+            return currency ? new CurrencyAmong(array) : new AccountAmong(array);
+        }
+        return currency ? new CurrencyInSet(new HashSet<>(values)) : new AccountInSet(new HashSet<>(values));
+    }
+
+    private static boolean among(String[] values, String value) {
+        if (value == null) {
+            return false;
+        }
+        for (String candidate : values) {
+            if (candidate.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Both(CompiledCondition first, CompiledCondition second) implements CompiledCondition {
+        @Override
+        public boolean test(ConditionContext context) {
+            return first.test(context) && second.test(context);
+        }
+    }
+
+    private record All(CompiledCondition[] clauses) implements CompiledCondition {
+        @Override
+        public boolean test(ConditionContext context) {
+            for (CompiledCondition clause : clauses) {
+                if (!clause.test(context)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private record AmountAtLeast(BigDecimal min) implements CompiledCondition {
+        @Override
+        public boolean test(ConditionContext context) {
+            BigDecimal amount = context.amount();
+            return amount != null && amount.compareTo(min) >= 0;
+        }
+    }
+
+    private record AmountAtMost(BigDecimal max) implements CompiledCondition {
+        @Override
+        public boolean test(ConditionContext context) {
+            BigDecimal amount = context.amount();
+            return amount != null && amount.compareTo(max) <= 0;
+        }
+    }
+
+    private record AmountBetween(BigDecimal min, BigDecimal max) implements CompiledCondition {
+        @Override
+        public boolean test(ConditionContext context) {
+            BigDecimal amount = context.amount();
+            return amount != null && amount.compareTo(min) >= 0 && amount.compareTo(max) <= 0;
+        }
+    }
+
+    private record CurrencyIs(String currency) implements CompiledCondition {
+        @Override
+        public boolean test(ConditionContext context) {
+            return currency.equals(context.currency());
+        }
+    }
+
+    private record CurrencyAmong(String[] currencies) implements CompiledCondition {
+        @Override
+        public boolean test(ConditionContext context) {
+            return among(currencies, context.currency());
+        }
+    }
+
+    private record CurrencyInSet(Set<String> currencies) implements CompiledCondition {
+        @Override
+        public boolean test(ConditionContext context) {
+            return context.currency() != null && currencies.contains(context.currency());
+        }
+    }
+
+    private record AccountIs(String account) implements CompiledCondition {
+        @Override
+        public boolean test(ConditionContext context) {
+            return account.equals(context.account());
+        }
+    }
+
+    private record AccountAmong(String[] accounts) implements CompiledCondition {
+        @Override
+        public boolean test(ConditionContext context) {
+            return among(accounts, context.account());
+        }
+    }
+
+    private record AccountInSet(Set<String> accounts) implements CompiledCondition {
+        @Override
+        public boolean test(ConditionContext context) {
+            return context.account() != null && accounts.contains(context.account());
+        }
+    }
+
+    /**
+     * Time window evaluated on epoch arithmetic rather than through ZonedDateTime. The zone offset
+     * is cached together with the span of instants it is valid for, so region zones only consult
+     * their rules again after crossing a transition.
+     */
+    private static final class InWindow implements CompiledCondition {
+
+        private static final long SECONDS_PER_DAY = 86_400L;
+        private static final long NANOS_PER_SECOND = 1_000_000_000L;
+        // 1970-01-01 was a Thursday; with Monday as day 0 that is day 3
+        private static final int EPOCH_DAY_OF_WEEK = 3;
+
+        private final int dayBits;
+        private final long fromNanoOfDay;
+        private final long toNanoOfDay;
+        private final ZoneRules rules;
+        private volatile OffsetSpan span;
+
+        InWindow(Condition.TimeWindow window) {
+            int bits = 0;
+            for (DayOfWeek day : window.days()) {
+                bits |= 1 << day.ordinal();
+            }
+            this.dayBits = bits;
+            this.fromNanoOfDay = window.from().toNanoOfDay();
+            this.toNanoOfDay = window.to().toNanoOfDay();
+            this.rules = window.zone().getRules();
+            this.span = rules.isFixedOffset()
+                ? new OffsetSpan(Long.MIN_VALUE, Long.MAX_VALUE, rules.getOffset(Instant.EPOCH).getTotalSeconds())
+                : new OffsetSpan(0L, 0L, 0);
+        }
+
+        @Override
+        public boolean test(ConditionContext context) {
+            Instant at = context.at();
+            if (at == null) {
+                return false;
+            }
+            long epochSecond = at.getEpochSecond();
+            OffsetSpan current = span;
+            if (epochSecond < current.from() || epochSecond >= current.until()) {
+                current = spanAt(at);
+                span = current;
+            }
+            long local = epochSecond + current.offsetSeconds();
+            int dayOfWeek = (int) Math.floorMod(Math.floorDiv(local, SECONDS_PER_DAY) + EPOCH_DAY_OF_WEEK, 7L);
+            if ((dayBits & (1 << dayOfWeek)) == 0) {
+                return false;
+            }
+            long nanoOfDay = Math.floorMod(local, SECONDS_PER_DAY) * NANOS_PER_SECOND + at.getNano();
+            return nanoOfDay >= fromNanoOfDay && nanoOfDay < toNanoOfDay;
+        }
+
+        private OffsetSpan spanAt(Instant at) {
+            ZoneOffset offset = rules.getOffset(at);
+            ZoneOffsetTransition previous = rules.previousTransition(at.plusSeconds(1));
+            ZoneOffsetTransition next = rules.nextTransition(at);
+            return new OffsetSpan(
+                previous == null ? Long.MIN_VALUE : previous.toEpochSecond(),
+                next == null ? Long.MAX_VALUE : next.toEpochSecond(),
+                offset.getTotalSeconds());
+        }
+
+        private record OffsetSpan(long from, long until, int offsetSeconds) {}
+    }
+}
@@ -0,0 +1,17 @@
+package com.knight.contexts.users.policy.domain.condition;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Request attributes statement conditions are evaluated against. Any attribute may be null;
+ * a condition on a missing attribute is not met.
+ */
+public record ConditionContext(
+    BigDecimal amount,
+    String currency,
+    String account,
+    Instant at
+) {
+    public static final ConditionContext EMPTY = new ConditionContext(null, null, null, null);
+}
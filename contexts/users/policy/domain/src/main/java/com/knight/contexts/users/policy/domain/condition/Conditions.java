@@ -0,0 +1,184 @@
+package com.knight.contexts.users.policy.domain.condition;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Conditions of a statement: clauses that must all hold for the statement to apply.
+ *
+ * Written as clauses separated by ';', for example
+ * "amount 100..5000; hours MON-FRI 09:00-17:00 Europe/London; currency USD,CAD; account 1001,1002":
+ * - amount MIN..MAX, either bound may be left out
+ * - hours DAYS FROM-TO [ZONE], days as a list of MON..SUN names and ranges, UTC by default
+ * - currency CODE,... and account ID,...
+ *
+ * Value object; {@link #compile()} turns it into a predicate to keep in a compiled index.
+ */
+public final class Conditions {
+
+    public static final Conditions NONE = new Conditions(List.of());
+
+    private final List<Condition> clauses;
+
+    private Conditions(List<Condition> clauses) {
+        this.clauses = clauses;
+    }
+
+    public static Conditions of(Condition... clauses) {
+        return clauses.length == 0 ? NONE : new Conditions(List.of(clauses));
+    }
+
+    /**
+     * Parse the textual form; null or blank means no conditions.
+     */
+    public static Conditions parse(String text) {
+        if (text == null || text.isBlank()) {
+            return NONE;
+        }
+        Condition[] clauses = Arrays.stream(text.split(";"))
+            .map(String::trim)
+            .filter(clause -> !clause.isEmpty())
+            .map(Conditions::parseClause)
+            .toArray(Condition[]::new);
+        return of(clauses);
+    }
+
+    public List<Condition> clauses() {
+        return clauses;
+    }
+
+    public boolean isEmpty() {
+        return clauses.isEmpty();
+    }
+
+    /**
+     * Interpreted evaluation, walking the clauses on every call.
+     */
+    public boolean matches(ConditionContext context) {
+        for (Condition clause : clauses) {
+            if (!clause.test(context)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public CompiledCondition compile() {
+        return ConditionCompiler.compile(clauses);
+    }
+
+    /**
+     * Canonical text, or null when there are no conditions.
+     */
+    public String format() {
+        return clauses.isEmpty() ? null : clauses.stream().map(Condition::format).collect(Collectors.joining("; "));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Conditions that && clauses.equals(that.clauses);
+    }
+
+    @Override
+    public int hashCode() {
+        return clauses.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return clauses.isEmpty() ? "" : format();
+    }
+
+    private static Condition parseClause(String clause) {
+        String[] parts = clause.split("\\s+", 2);
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("condition has no value: " + clause);
+        }
+        try {
+            return switch (parts[0]) {
+                case "amount" -> parseAmount(parts[1]);
+                case "hours" -> parseHours(parts[1]);
+                case "currency" -> new Condition.CurrencyIn(parseList(parts[1]));
+                case "account" -> new Condition.AccountIn(parseList(parts[1]));
+                default -> throw new IllegalArgumentException("unknown condition: " + parts[0]);
+            };
+        } catch (NumberFormatException | DateTimeException e) {
+            throw new IllegalArgumentException("invalid condition '" + clause + "': " + e.getMessage());
+        }
+    }
+
+    private static Condition parseAmount(String range) {
+        int dots = range.indexOf("..");
+        if (dots < 0) {
+            throw new IllegalArgumentException("amount condition must be MIN..MAX: " + range);
+        }
+        String min = range.substring(0, dots).trim();
+        String max = range.substring(dots + 2).trim();
+        return new Condition.AmountRange(
+            min.isEmpty() ? null : new BigDecimal(min),
+            max.isEmpty() ? null : new BigDecimal(max));
+    }
+
+    private static Condition parseHours(String window) {
+        String[] parts = window.trim().split("\\s+");
+        if (parts.length < 2 || parts.length > 3) {
+            throw new IllegalArgumentException("hours condition must be DAYS FROM-TO [ZONE]: " + window);
+        }
+        String[] times = parts[1].split("-");
+        if (times.length != 2) {
+            throw new IllegalArgumentException("hours condition must be DAYS FROM-TO [ZONE]: " + window);
+        }
+        ZoneId zone = parts.length == 3 ? ZoneId.of(parts[2]) : ZoneOffset.UTC;
+        return new Condition.TimeWindow(parseDays(parts[0]), LocalTime.parse(times[0]), LocalTime.parse(times[1]), zone);
+    }
+
+    private static Set<DayOfWeek> parseDays(String days) {
+        Set<DayOfWeek> result = EnumSet.noneOf(DayOfWeek.class);
+        for (String part : days.split(",")) {
+            String[] range = part.split("-");
+            DayOfWeek first = day(range[0]);
+            DayOfWeek last = range.length > 1 ? day(range[1]) : first;
+            // Ranges may wrap around the week, e.g. FRI-MON
+            DayOfWeek day = first;
+            result.add(day);
+            while (day != last) {
+                day = day.plus(1);
+                result.add(day);
+            }
+        }
+        return result;
+    }
+
+    private static DayOfWeek day(String name) {
+        String prefix = name.trim().toUpperCase();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (prefix.length() >= 3 && day.name().startsWith(prefix)) {
+                return day;
+            }
+        }
+        throw new IllegalArgumentException("unknown day: " + name);
+    }
+
+    private static Set<String> parseList(String values) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String value : values.split(",")) {
+            if (!value.isBlank()) {
+                result.add(value.trim());
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("condition list is empty: " + values);
+        }
+        return result;
+    }
+}
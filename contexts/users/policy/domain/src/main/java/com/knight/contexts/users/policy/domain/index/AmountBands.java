@@ -0,0 +1,66 @@
+package com.knight.contexts.users.policy.domain.index;
+
+import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Partition of amounts by the distinct approval thresholds of a profile.
+ *
+ * Band k holds the amounts greater than exactly k thresholds. Since a statement applies
+ * when amount <= threshold, every amount in the same band meets the same statements and
+ * therefore yields the same approval decision.
+ */
+public final class AmountBands {
+
+    /** Band of a null amount, which only meets statements without a threshold. */
+    public static final int NO_AMOUNT = -1;
+
+    private final BigDecimal[] thresholds;
+
+    private AmountBands(BigDecimal[] thresholds) {
+        this.thresholds = thresholds;
+    }
+
+    public static AmountBands of(List<ApprovalStatement> statements) {
+        BigDecimal[] thresholds = statements.stream()
+            .map(ApprovalStatement::amountThreshold)
+            .filter(Objects::nonNull)
+            .sorted()
+            .toArray(BigDecimal[]::new);
+        return new AmountBands(distinct(thresholds));
+    }
+
+    /**
+     * Return the band of the amount: the number of thresholds strictly below it.
+     */
+    public int bandOf(BigDecimal amount) {
+        if (amount == null) {
+            return NO_AMOUNT;
+        }
+        int low = 0;
+        int high = thresholds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (thresholds[mid].compareTo(amount) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static BigDecimal[] distinct(BigDecimal[] sorted) {
+        int count = 0;
+        for (BigDecimal threshold : sorted) {
+            if (count == 0 || sorted[count - 1].compareTo(threshold) != 0) {
+                sorted[count++] = threshold;
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+}
@@ -0,0 +1,196 @@
+package com.knight.contexts.users.policy.domain.index;
+
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.ApprovalDecision;
+import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
+import com.knight.contexts.users.policy.domain.condition.CompiledCondition;
+import com.knight.contexts.users.policy.domain.condition.ConditionContext;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Compiled, read-only form of a profile's approval statements.
+ *
+ * Statements are grouped by their (subject, action, resource) patterns; each group keeps its
+ * thresholds in a navigable map so the applicable statement for an amount is found with a
+ * single ceiling lookup. When several statements apply, the most specific one wins:
+ * - exact patterns over prefix patterns, longer prefixes over shorter ones
+ *   (compared on subject, then action, then resource)
+ * - then the tightest threshold, with unbounded statements last
+ * - then the lowest statementId, so the result never depends on load order
+ *
+ * Statements with conditions are kept out of the threshold maps: each group lists them with
+ * their conditions compiled once, and they are checked one by one against the request. The
+ * variants taking only an amount evaluate conditions against that amount alone.
+ *
+ * Decisions are built once per statement at compile time, so {@link #decide} allocates nothing
+ * for profiles without conditional statements.
+ */
+public final class ApprovalPolicyIndex {
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    public static final ApprovalDecision NOT_REQUIRED = new ApprovalDecision(false, 0, null, null);
+
+    private static final Comparator<ApprovalStatement> MOST_SPECIFIC_FIRST = Comparator
+        .comparingInt((ApprovalStatement s) -> specificity(s.subject())).reversed()
+        .thenComparing(Comparator.comparingInt((ApprovalStatement s) -> specificity(s.action())).reversed())
+        .thenComparing(Comparator.comparingInt((ApprovalStatement s) -> specificity(s.resource())).reversed())
+        .thenComparing(ApprovalStatement::amountThreshold, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(ApprovalStatement::statementId);
+
+    private static final TriplePatternIndex.Folder<Group, BigDecimal> MOST_SPECIFIC_MATCH =
+        (group, amount, best) -> Math.min(best, group.rankFor(amount));
+
+    private static final TriplePatternIndex.Folder<Group, ConditionContext> MOST_SPECIFIC_CONDITIONAL_MATCH =
+        (group, context, best) -> Math.min(best, group.rankFor(context));
+
+    private final TriplePatternIndex<Group> groups = new TriplePatternIndex<>();
+    private final ApprovalStatement[] ranked;
+    private final ApprovalDecision[] decisions;
+    private final CompiledCondition[] conditions; // null entry: unconditional
+    private final boolean conditional;
+    private final AmountBands bands;
+
+    private ApprovalPolicyIndex(List<ApprovalStatement> statements) {
+        this.ranked = statements.stream().sorted(MOST_SPECIFIC_FIRST).toArray(ApprovalStatement[]::new);
+        this.decisions = new ApprovalDecision[ranked.length];
+        this.conditions = new CompiledCondition[ranked.length];
+        this.bands = AmountBands.of(statements);
+
+        boolean anyConditions = false;
+        for (int rank = 0; rank < ranked.length; rank++) {
+            ApprovalStatement statement = ranked[rank];
+            decisions[rank] = new ApprovalDecision(true, statement.approverCount(), statement.statementId(), null);
+            Group group = groups.computeIfAbsent(
+                statement.subject(), statement.action(), statement.resource(), Group::new);
+            if (statement.conditions().isEmpty()) {
+                group.add(statement.amountThreshold(), rank);
+            } else {
+                conditions[rank] = statement.conditions().compile();
+                group.addConditional(rank);
+                anyConditions = true;
+            }
+        }
+        this.conditional = anyConditions;
+    }
+
+    public static ApprovalPolicyIndex compile(List<ApprovalStatement> statements) {
+        return new ApprovalPolicyIndex(statements);
+    }
+
+    /**
+     * Return the most specific statement applying to the operation and amount, or null if none.
+     */
+    public ApprovalStatement matching(String subject, String action, String resource, BigDecimal amount) {
+        int rank = rankOf(subject, action, resource, amount);
+        return rank == NO_MATCH ? null : ranked[rank];
+    }
+
+    /**
+     * Return the most specific statement applying to the request, or null if none.
+     */
+    public ApprovalStatement matching(String subject, String action, String resource, ConditionContext context) {
+        int rank = groups.fold(subject, action, resource, context, NO_MATCH, MOST_SPECIFIC_CONDITIONAL_MATCH);
+        return rank == NO_MATCH ? null : ranked[rank];
+    }
+
+    /**
+     * Decide whether approval is required, returning a precomputed decision without reason.
+     */
+    public ApprovalDecision decide(String subject, String action, String resource, BigDecimal amount) {
+        int rank = rankOf(subject, action, resource, amount);
+        return rank == NO_MATCH ? NOT_REQUIRED : decisions[rank];
+    }
+
+    /**
+     * Decide for a request with attributes, skipping statements whose conditions do not hold.
+     */
+    public ApprovalDecision decide(String subject, String action, String resource, ConditionContext context) {
+        int rank = groups.fold(subject, action, resource, context, NO_MATCH, MOST_SPECIFIC_CONDITIONAL_MATCH);
+        return rank == NO_MATCH ? NOT_REQUIRED : decisions[rank];
+    }
+
+    /**
+     * Amount bands of this profile's thresholds.
+     */
+    public AmountBands bands() {
+        return bands;
+    }
+
+    public int size() {
+        return ranked.length;
+    }
+
+    /**
+     * True if any statement carries conditions, so decisions depend on more than the amount.
+     */
+    public boolean hasConditions() {
+        return conditional;
+    }
+
+    private int rankOf(String subject, String action, String resource, BigDecimal amount) {
+        if (conditional) {
+            return groups.fold(subject, action, resource, new ConditionContext(amount, null, null, null), NO_MATCH,
+                MOST_SPECIFIC_CONDITIONAL_MATCH);
+        }
+        return groups.fold(subject, action, resource, amount, NO_MATCH, MOST_SPECIFIC_MATCH);
+    }
+
+    private static int specificity(String pattern) {
+        return pattern.endsWith("*") ? pattern.length() - 1 : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Statements sharing one pattern triple, ordered by threshold, plus the conditional ones by rank.
+     */
+    private final class Group {
+        private final NavigableMap<BigDecimal, Integer> bounded = new TreeMap<>();
+        private int unbounded = NO_MATCH;
+        private int[] conditionalRanks = new int[0];
+
+        void add(BigDecimal threshold, int rank) {
+            if (threshold == null) {
+                unbounded = Math.min(unbounded, rank);
+            } else {
+                bounded.merge(threshold, rank, Math::min);
+            }
+        }
+
+        int rankFor(BigDecimal amount) {
+            if (amount != null) {
+                // Smallest threshold still >= amount is the tightest applicable one.
+                // ceilingKey + get rather than ceilingEntry, which allocates an entry copy.
+                BigDecimal tightest = bounded.ceilingKey(amount);
+                if (tightest != null) {
+                    return Math.min(bounded.get(tightest), unbounded);
+                }
+            }
+            return unbounded;
+        }
+
+        void addConditional(int rank) {
+            // Ranks arrive in increasing order, so the array stays sorted
+            conditionalRanks = Arrays.copyOf(conditionalRanks, conditionalRanks.length + 1);
+            conditionalRanks[conditionalRanks.length - 1] = rank;
+        }
+
+        int rankFor(ConditionContext context) {
+            int best = rankFor(context.amount());
+            for (int rank : conditionalRanks) {
+                if (rank >= best) {
+                    break;
+                }
+                ApprovalStatement statement = ranked[rank];
+                if (statement.meetsThreshold(context.amount()) && conditions[rank].test(context)) {
+                    return rank;
+                }
+            }
+            return best;
+        }
+    }
+}
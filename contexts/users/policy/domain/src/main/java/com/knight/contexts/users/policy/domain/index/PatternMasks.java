@@ -0,0 +1,168 @@
+package com.knight.contexts.users.policy.domain.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * One dimension (subject, action or resource) of a bitset policy index.
+ *
+ * Every statement owns one bit. Exact values are interned to dense ids, and each id maps to the
+ * bitset of statements matching that value, wildcard statements included, so an interned value
+ * costs one hash lookup. Values never named exactly by a statement take the fallback path: the
+ * value is walked through a trie of wildcard prefixes and the masks on the way are OR-ed together.
+ *
+ * Built single-threaded, then safe for concurrent reads.
+ */
+final class PatternMasks {
+
+    private final int words;
+    private final Vocabulary exactValues = new Vocabulary();
+    private final long[][] exactMasks;
+    private final Node wildcards = new Node();
+    private final boolean hasWildcards;
+
+    /**
+     * Build from the pattern of each statement, indexed by statement bit.
+     */
+    PatternMasks(String[] patterns) {
+        this.words = wordsFor(patterns.length);
+
+        List<long[]> exact = new ArrayList<>();
+        boolean anyWildcard = false;
+        for (int bit = 0; bit < patterns.length; bit++) {
+            String pattern = patterns[bit];
+            if (pattern.endsWith("*")) {
+                Node node = wildcards;
+                for (int i = 0; i < pattern.length() - 1; i++) {
+                    node = node.childOrCreate(pattern.charAt(i));
+                }
+                if (node.mask == null) {
+                    node.mask = new long[words];
+                }
+                set(node.mask, bit);
+                anyWildcard = true;
+            } else {
+                int id = exactValues.intern(pattern);
+                if (id == exact.size()) {
+                    exact.add(new long[words]);
+                }
+                set(exact.get(id), bit);
+            }
+        }
+        this.hasWildcards = anyWildcard;
+
+        // Fold the wildcard statements matching each exact value into its mask
+        this.exactMasks = exact.toArray(new long[0][]);
+        for (int id = 0; id < exactMasks.length; id++) {
+            orWildcards(exactValues.value(id), exactMasks[id]);
+        }
+    }
+
+    static int wordsFor(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Bitset of statements matching the value. Returns the precomputed mask of an interned value,
+     * otherwise fills and returns scratch, or null when nothing can match. Scratch may be longer
+     * than this dimension's words; only those are written.
+     */
+    long[] match(String value, long[] scratch) {
+        int id = exactValues.idOf(value);
+        if (id != Vocabulary.UNKNOWN) {
+            return exactMasks[id];
+        }
+        if (!hasWildcards) {
+            return null;
+        }
+        Arrays.fill(scratch, 0, words, 0L);
+        orWildcards(value, scratch);
+        return scratch;
+    }
+
+    /**
+     * Bitset of statements matching the value or any of the others, OR-ed into union, or null
+     * when nothing can match. Falls back to {@link #match} when there are no others.
+     */
+    long[] matchAny(String value, Collection<String> others, long[] union, long[] scratch) {
+        if (others.isEmpty()) {
+            return match(value, scratch);
+        }
+        Arrays.fill(union, 0, words, 0L);
+        boolean any = or(match(value, scratch), union);
+        for (String other : others) {
+            any |= or(match(other, scratch), union);
+        }
+        return any ? union : null;
+    }
+
+    int words() {
+        return words;
+    }
+
+    private void orWildcards(String value, long[] into) {
+        Node node = wildcards;
+        int i = 0;
+        while (node != null) {
+            if (node.mask != null) {
+                for (int w = 0; w < words; w++) {
+                    into[w] |= node.mask[w];
+                }
+            }
+            if (i == value.length()) {
+                break;
+            }
+            node = node.child(value.charAt(i++));
+        }
+    }
+
+    private boolean or(long[] mask, long[] into) {
+        if (mask == null) {
+            return false;
+        }
+        for (int w = 0; w < words; w++) {
+            into[w] |= mask[w];
+        }
+        return true;
+    }
+
+    private static void set(long[] mask, int bit) {
+        mask[bit >>> 6] |= 1L << bit;
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private long[] mask;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -(i + 1);
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            Node created = new Node();
+            newKeys[at] = c;
+            newChildren[at] = created;
+            keys = newKeys;
+            children = newChildren;
+            return created;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.knight.contexts.users.policy.domain.index;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.Decision;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.PermissionDecision;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.condition.CompiledCondition;
+import com.knight.contexts.users.policy.domain.condition.ConditionContext;
+import com.knight.contexts.users.policy.domain.service.PermissionStatementAnalyzer;
+import com.knight.contexts.users.policy.domain.service.PermissionStatementAnalyzer.RedundantStatement;
+import com.knight.contexts.users.policy.domain.service.PolicyEvaluatorService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiled, read-only form of a profile's permission statements, evaluated with bitsets.
+ *
+ * Each statement owns one bit: DENY statements first, then ALLOW statements, each group in
+ * source list order. Subjects, actions and resources are interned per dimension into masks of
+ * the statements they match (see {@link PatternMasks}); a check ANDs the three masks and the
+ * lowest set bit is the deciding statement. DENY overrides ALLOW because DENY bits come first,
+ * and within an effect the statement that appears first in the source list wins, which keeps
+ * results identical to a sequential scan of the same list.
+ *
+ * Statement conditions are compiled once per bit; a matching bit whose conditions do not hold
+ * for the request is skipped and the search continues with the next set bit. The variants
+ * without a {@link ConditionContext} evaluate against {@link ConditionContext#EMPTY}, under
+ * which no condition holds.
+ *
+ * A subject may be given together with the group subjects it belongs to; their subject masks
+ * are OR-ed before the AND, so a group statement competes with the subject's own statements
+ * under the same precedence.
+ *
+ * Statements that can never decide a request are left out at compile time (see
+ * {@link PermissionStatementAnalyzer}) and reported by {@link #redundant()}.
+ *
+ * Decisions are built once per statement at compile time, so {@link #decide} allocates nothing.
+ */
+public final class PermissionPolicyIndex {
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    public static final PermissionDecision DEFAULT_DENY = new PermissionDecision(Decision.DEFAULT_DENY, null, null);
+
+    private final String[] statementIds;
+    private final String[] actionPatterns;
+    private final PermissionDecision[] decisions;
+    private final CompiledCondition[] conditions; // null entry: unconditional
+    private final boolean conditional;
+    private final boolean groupTargeted;
+    private final int denyCount;
+    private final int words;
+    private final PatternMasks subjects;
+    private final PatternMasks actions;
+    private final PatternMasks resources;
+    private final List<RedundantStatement> redundant;
+
+    // Per-thread buffers for masks of values that take the wildcard fallback path, shared by
+    // every index and grown to the widest one a thread has evaluated
+    private static final ThreadLocal<long[][]> SCRATCH = ThreadLocal.withInitial(() -> new long[4][0]);
+
+    private PermissionPolicyIndex(PermissionStatementAnalyzer.Analysis analysis) {
+        List<PermissionStatement> statements = analysis.minimized();
+        this.redundant = analysis.redundant();
+        List<PermissionStatement> ordered = new ArrayList<>(statements.size());
+        for (PermissionStatement statement : statements) {
+            if (statement.effect() == Effect.DENY) {
+                ordered.add(statement);
+            }
+        }
+        this.denyCount = ordered.size();
+        for (PermissionStatement statement : statements) {
+            if (statement.effect() != Effect.DENY) {
+                ordered.add(statement);
+            }
+        }
+
+        int size = ordered.size();
+        this.statementIds = new String[size];
+        this.decisions = new PermissionDecision[size];
+        this.conditions = new CompiledCondition[size];
+        boolean anyConditions = false;
+        boolean anyGroups = false;
+        String[] subjectPatterns = new String[size];
+        this.actionPatterns = new String[size];
+        String[] resourcePatterns = new String[size];
+        for (int bit = 0; bit < size; bit++) {
+            PermissionStatement statement = ordered.get(bit);
+            statementIds[bit] = statement.statementId();
+            decisions[bit] = new PermissionDecision(
+                bit < denyCount ? Decision.DENY : Decision.ALLOW,
+                statement.statementId(),
+                null
+            );
+            if (!statement.conditions().isEmpty()) {
+                conditions[bit] = statement.conditions().compile();
+                anyConditions = true;
+            }
+            anyGroups |= statement.targetsGroups();
+            subjectPatterns[bit] = statement.subject();
+            actionPatterns[bit] = statement.action();
+            resourcePatterns[bit] = statement.resource();
+        }
+
+        this.conditional = anyConditions;
+        this.groupTargeted = anyGroups;
+        this.subjects = new PatternMasks(subjectPatterns);
+        this.actions = new PatternMasks(actionPatterns);
+        this.resources = new PatternMasks(resourcePatterns);
+        this.words = PatternMasks.wordsFor(size);
+    }
+
+    /**
+     * Compile statements into an index. Statement order defines precedence between matches.
+     */
+    public static PermissionPolicyIndex compile(List<PermissionStatement> statements) {
+        return new PermissionPolicyIndex(PermissionStatementAnalyzer.analyze(statements));
+    }
+
+    /**
+     * Return the id of the first matching DENY statement, or null if none matches.
+     */
+    public String matchingDeny(String subject, String action, String resource) {
+        return matchingDeny(subject, action, resource, ConditionContext.EMPTY);
+    }
+
+    /**
+     * Return the id of the first matching DENY statement whose conditions hold, or null.
+     */
+    public String matchingDeny(String subject, String action, String resource, ConditionContext context) {
+        return matchingDeny(subject, List.of(), action, resource, context);
+    }
+
+    /**
+     * Return the id of the first DENY statement matching the subject or one of its group
+     * subjects whose conditions hold, or null.
+     */
+    public String matchingDeny(String subject, Collection<String> groupSubjects, String action, String resource,
+                               ConditionContext context) {
+        int bit = firstMatch(subject, groupSubjects, action, resource, 0, context);
+        return bit < denyCount ? statementIds[bit] : null;
+    }
+
+    /**
+     * Return the id of the first matching ALLOW statement, or null if none matches.
+     */
+    public String matchingAllow(String subject, String action, String resource) {
+        return matchingAllow(subject, action, resource, ConditionContext.EMPTY);
+    }
+
+    /**
+     * Return the id of the first matching ALLOW statement whose conditions hold, or null.
+     */
+    public String matchingAllow(String subject, String action, String resource, ConditionContext context) {
+        return matchingAllow(subject, List.of(), action, resource, context);
+    }
+
+    /**
+     * Return the id of the first ALLOW statement matching the subject or one of its group
+     * subjects whose conditions hold, or null.
+     */
+    public String matchingAllow(String subject, Collection<String> groupSubjects, String action, String resource,
+                                ConditionContext context) {
+        int bit = firstMatch(subject, groupSubjects, action, resource, denyCount, context);
+        return bit == NO_MATCH ? null : statementIds[bit];
+    }
+
+    /**
+     * Decide with DENY-overrides-ALLOW semantics, returning a precomputed decision without reason.
+     */
+    public PermissionDecision decide(String subject, String action, String resource) {
+        return decide(subject, action, resource, ConditionContext.EMPTY);
+    }
+
+    /**
+     * Decide for a request with attributes, skipping statements whose conditions do not hold.
+     */
+    public PermissionDecision decide(String subject, String action, String resource, ConditionContext context) {
+        return decide(subject, List.of(), action, resource, context);
+    }
+
+    /**
+     * Decide for a subject that also holds the statements of its group subjects.
+     */
+    public PermissionDecision decide(String subject, Collection<String> groupSubjects, String action, String resource,
+                                     ConditionContext context) {
+        int bit = firstMatch(subject, groupSubjects, action, resource, 0, context);
+        return bit == NO_MATCH ? DEFAULT_DENY : decisions[bit];
+    }
+
+    /**
+     * Action patterns a subject may and may not perform on a resource, in one pass over the
+     * statements matching both. Allowed patterns fully covered by an unconditional DENY are
+     * dropped; the DENY patterns are returned too, as they carve exceptions out of any wider
+     * allowed pattern. Conditional statements are listed as if their conditions held.
+     */
+    public ActionPatterns actionsFor(String subject, String resource) {
+        return actionsFor(subject, List.of(), resource);
+    }
+
+    /**
+     * Action patterns for a subject together with its group subjects.
+     */
+    public ActionPatterns actionsFor(String subject, Collection<String> groupSubjects, String resource) {
+        if (statementIds.length == 0) {
+            return ActionPatterns.NONE;
+        }
+        long[][] buffers = scratch();
+        long[] subjectMask = subjects.matchAny(subject, groupSubjects, buffers[3], buffers[0]);
+        long[] resourceMask = subjectMask == null ? null : resources.match(resource, buffers[2]);
+        if (resourceMask == null) {
+            return ActionPatterns.NONE;
+        }
+
+        // DENY bits come first, so every deny is known before the first allow is considered
+        Set<String> denied = new LinkedHashSet<>();
+        Set<String> alwaysDenied = new LinkedHashSet<>();
+        Set<String> allowed = new LinkedHashSet<>();
+        for (int w = 0; w < words; w++) {
+            long bits = subjectMask[w] & resourceMask[w];
+            while (bits != 0L) {
+                int bit = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                String action = actionPatterns[bit];
+                if (bit < denyCount) {
+                    denied.add(action);
+                    if (conditions[bit] == null) {
+                        alwaysDenied.add(action);
+                    }
+                } else if (!coveredByAny(alwaysDenied, action)) {
+                    allowed.add(action);
+                }
+            }
+        }
+        return new ActionPatterns(List.copyOf(allowed), List.copyOf(denied));
+    }
+
+    /**
+     * Number of statements evaluated, after redundant ones were left out.
+     */
+    public int size() {
+        return statementIds.length;
+    }
+
+    /**
+     * Statements left out at compile time because another statement always decides first.
+     */
+    public List<RedundantStatement> redundant() {
+        return redundant;
+    }
+
+    /**
+     * True if any statement carries conditions, so decisions depend on request attributes.
+     */
+    public boolean hasConditions() {
+        return conditional;
+    }
+
+    /**
+     * True if any statement targets group subjects, so decisions depend on group memberships.
+     */
+    public boolean hasGroupSubjects() {
+        return groupTargeted;
+    }
+
+    /**
+     * Lowest statement bit at or above from that matches all three values and whose conditions
+     * hold, or NO_MATCH.
+     */
+    private int firstMatch(String subject, Collection<String> groupSubjects, String action, String resource, int from,
+                           ConditionContext context) {
+        if (from >= statementIds.length) {
+            return NO_MATCH;
+        }
+        long[][] buffers = scratch();
+        long[] subjectMask = subjects.matchAny(subject, groupSubjects, buffers[3], buffers[0]);
+        if (subjectMask == null) {
+            return NO_MATCH;
+        }
+        long[] actionMask = actions.match(action, buffers[1]);
+        if (actionMask == null) {
+            return NO_MATCH;
+        }
+        long[] resourceMask = resources.match(resource, buffers[2]);
+        if (resourceMask == null) {
+            return NO_MATCH;
+        }
+
+        int w = from >>> 6;
+        long bits = subjectMask[w] & actionMask[w] & resourceMask[w] & (-1L << from);
+        while (true) {
+            while (bits == 0L) {
+                if (++w == words) {
+                    return NO_MATCH;
+                }
+                bits = subjectMask[w] & actionMask[w] & resourceMask[w];
+            }
+            int bit = (w << 6) + Long.numberOfTrailingZeros(bits);
+            CompiledCondition condition = conditions[bit];
+            if (condition == null || condition.test(context)) {
+                return bit;
+            }
+            bits &= bits - 1;
+        }
+    }
+
+    /**
+     * This thread's scratch buffers, at least words long; only the first words of each are used.
+     */
+    private long[][] scratch() {
+        long[][] buffers = SCRATCH.get();
+        if (buffers[0].length < words) {
+            buffers = new long[4][words];
+            SCRATCH.set(buffers);
+        }
+        return buffers;
+    }
+
+    private static boolean coveredByAny(Set<String> patterns, String action) {
+        for (String pattern : patterns) {
+            if (PolicyEvaluatorService.covers(pattern, action)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Allowed and denied action patterns, each in precedence order without duplicates.
+     */
+    public record ActionPatterns(List<String> allowed, List<String> denied) {
+        static final ActionPatterns NONE = new ActionPatterns(List.of(), List.of());
+    }
+}
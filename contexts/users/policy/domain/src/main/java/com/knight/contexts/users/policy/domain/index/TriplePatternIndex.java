@@ -0,0 +1,136 @@
+package com.knight.contexts.users.policy.domain.index;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Index over (subject, action, resource) patterns using the statement wildcard rules:
+ * "*" matches anything, "foo*" matches values starting with "foo", anything else is exact.
+ *
+ * Each level keeps exact patterns in a hash table and prefix patterns in a character trie,
+ * so a lookup only visits entries whose patterns match and its cost depends on the key
+ * length rather than on the number of indexed statements.
+ *
+ * Built single-threaded, then safe for concurrent reads as long as it is no longer mutated.
+ */
+public final class TriplePatternIndex<L> {
+
+    private static final int DEPTH = 3;
+
+    private final Level root = new Level();
+
+    /**
+     * Return the leaf stored for the exact pattern triple, creating it if needed.
+     */
+    @SuppressWarnings("unchecked")
+    public L computeIfAbsent(String subjectPattern, String actionPattern, String resourcePattern,
+                             Supplier<L> factory) {
+        Level subjects = root;
+        Level actions = (Level) subjects.slot(subjectPattern, Level::new);
+        Level resources = (Level) actions.slot(actionPattern, Level::new);
+        return (L) resources.slot(resourcePattern, factory);
+    }
+
+    /**
+     * Fold every leaf whose pattern triple matches the given values.
+     * Allocation-free as long as the folder does not allocate.
+     */
+    public <C> int fold(String subject, String action, String resource, C context, int acc,
+                        Folder<L, C> folder) {
+        return fold(root, 0, subject, action, resource, context, acc, folder);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <C> int fold(Object slot, int depth, String subject, String action, String resource,
+                         C context, int acc, Folder<L, C> folder) {
+        if (depth == DEPTH) {
+            return folder.apply((L) slot, context, acc);
+        }
+
+        Level level = (Level) slot;
+        String key = depth == 0 ? subject : depth == 1 ? action : resource;
+
+        Object exact = level.exact.get(key);
+        if (exact != null) {
+            acc = fold(exact, depth + 1, subject, action, resource, context, acc, folder);
+        }
+
+        // Walk the trie along the key; every node carrying a value is a matching prefix
+        Node node = level.prefixes;
+        int i = 0;
+        while (node != null) {
+            if (node.value != null) {
+                acc = fold(node.value, depth + 1, subject, action, resource, context, acc, folder);
+            }
+            if (i == key.length()) {
+                break;
+            }
+            node = node.child(key.charAt(i++));
+        }
+        return acc;
+    }
+
+    /**
+     * Folds a matching leaf into an int accumulator.
+     */
+    @FunctionalInterface
+    public interface Folder<L, C> {
+        int apply(L leaf, C context, int acc);
+    }
+
+    private static final class Level {
+        private final Map<String, Object> exact = new HashMap<>();
+        private final Node prefixes = new Node();
+
+        Object slot(String pattern, Supplier<?> factory) {
+            if (pattern.endsWith("*")) {
+                Node node = prefixes;
+                for (int i = 0; i < pattern.length() - 1; i++) {
+                    node = node.childOrCreate(pattern.charAt(i));
+                }
+                if (node.value == null) {
+                    node.value = factory.get();
+                }
+                return node.value;
+            }
+            return exact.computeIfAbsent(pattern, p -> factory.get());
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // Sorted parallel arrays keep lookups allocation-free (no Character boxing)
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private Object value;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -(i + 1);
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            Node created = new Node();
+            newKeys[at] = c;
+            newChildren[at] = created;
+            keys = newKeys;
+            children = newChildren;
+            return created;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.knight.contexts.users.policy.domain.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns strings to dense int ids, assigned in first-seen order from 0.
+ *
+ * Built single-threaded, then safe for concurrent reads as long as it is no longer mutated.
+ */
+public final class Vocabulary {
+
+    public static final int UNKNOWN = -1;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * Return the id of the value, assigning the next free id if it is new.
+     */
+    public int intern(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        int next = values.size();
+        ids.put(value, next);
+        values.add(value);
+        return next;
+    }
+
+    /**
+     * Return the id of the value, or {@link #UNKNOWN} if it was never interned.
+     */
+    public int idOf(String value) {
+        Integer id = ids.get(value);
+        return id == null ? UNKNOWN : id;
+    }
+
+    public String value(int id) {
+        return values.get(id);
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
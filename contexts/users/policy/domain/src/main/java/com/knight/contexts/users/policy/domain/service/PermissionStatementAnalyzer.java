@@ -0,0 +1,163 @@
+package com.knight.contexts.users.policy.domain.service;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.condition.Conditions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds permission statements that can never decide a request and drops them from the set
+ * that is evaluated.
+ *
+ * Evaluation takes the first matching DENY, else the first matching ALLOW, in list order.
+ * A statement never decides when a statement ahead of it matches every request it matches,
+ * under conditions that hold whenever its own do (none, or the same ones):
+ * - SHADOWED: an ALLOW covered by a DENY
+ * - DUPLICATE: same effect, patterns and conditions as an earlier statement
+ * - SUBSUMED: same effect as an earlier statement whose patterns are wider
+ *
+ * Because only such statements are removed, the minimized set gives exactly the decisions of
+ * the full set, deciding statement included. A narrow ALLOW listed before a wider one still
+ * decides first, so it is kept.
+ */
+public final class PermissionStatementAnalyzer {
+
+    private PermissionStatementAnalyzer() {
+    }
+
+    public enum Redundancy {
+        SHADOWED,
+        DUPLICATE,
+        SUBSUMED
+    }
+
+    public record RedundantStatement(String statementId, Redundancy redundancy, String coveredBy) {}
+
+    public record Analysis(List<PermissionStatement> minimized, List<RedundantStatement> redundant) {
+        public int eliminated() {
+            return redundant.size();
+        }
+    }
+
+    /**
+     * Split statements into the minimized evaluation set, in source order, and the redundant ones.
+     *
+     * Exact duplicates are found by hashing; only statements with a wildcard pattern can
+     * otherwise cover another, so each statement is checked against those alone.
+     */
+    public static Analysis analyze(List<PermissionStatement> statements) {
+        // Any DENY can shadow an ALLOW, so all of them are collected up front
+        Map<Key, PermissionStatement> denies = new HashMap<>();
+        List<PermissionStatement> wideDenies = new ArrayList<>();
+        for (PermissionStatement statement : statements) {
+            if (statement.effect() == Effect.DENY) {
+                denies.putIfAbsent(Key.of(statement), statement);
+                if (isWide(statement)) {
+                    wideDenies.add(statement);
+                }
+            }
+        }
+
+        // Within an effect only earlier statements decide first, so these grow with the scan
+        Map<Key, PermissionStatement> seenDenies = new HashMap<>();
+        Map<Key, PermissionStatement> seenAllows = new HashMap<>();
+        List<PermissionStatement> seenWideDenies = new ArrayList<>();
+        List<PermissionStatement> seenWideAllows = new ArrayList<>();
+
+        List<PermissionStatement> minimized = new ArrayList<>(statements.size());
+        List<RedundantStatement> redundant = new ArrayList<>();
+        for (PermissionStatement statement : statements) {
+            boolean deny = statement.effect() == Effect.DENY;
+            RedundantStatement finding = null;
+            if (!deny) {
+                PermissionStatement shadowing = shadowingDeny(statement, denies, wideDenies);
+                if (shadowing != null) {
+                    finding = new RedundantStatement(statement.statementId(), Redundancy.SHADOWED, shadowing.statementId());
+                }
+            }
+            if (finding == null) {
+                finding = coveredByEarlier(statement,
+                    deny ? seenDenies : seenAllows, deny ? seenWideDenies : seenWideAllows);
+            }
+
+            if (finding == null) {
+                minimized.add(statement);
+            } else {
+                redundant.add(finding);
+            }
+            (deny ? seenDenies : seenAllows).putIfAbsent(Key.of(statement), statement);
+            if (isWide(statement)) {
+                (deny ? seenWideDenies : seenWideAllows).add(statement);
+            }
+        }
+        return new Analysis(minimized, List.copyOf(redundant));
+    }
+
+    private static RedundantStatement coveredByEarlier(PermissionStatement statement,
+                                                       Map<Key, PermissionStatement> earlier,
+                                                       List<PermissionStatement> earlierWide) {
+        PermissionStatement duplicate = earlier.get(Key.of(statement));
+        if (duplicate != null) {
+            return new RedundantStatement(statement.statementId(), Redundancy.DUPLICATE, duplicate.statementId());
+        }
+        PermissionStatement unconditional = statement.conditions().isEmpty()
+            ? null
+            : earlier.get(Key.of(statement).withConditions(Conditions.NONE));
+        if (unconditional != null) {
+            return new RedundantStatement(statement.statementId(), Redundancy.SUBSUMED, unconditional.statementId());
+        }
+        for (PermissionStatement wider : earlierWide) {
+            if (appliesWhenever(wider, statement) && covers(wider, statement)) {
+                return new RedundantStatement(statement.statementId(), Redundancy.SUBSUMED, wider.statementId());
+            }
+        }
+        return null;
+    }
+
+    private static PermissionStatement shadowingDeny(PermissionStatement allow,
+                                                     Map<Key, PermissionStatement> denies,
+                                                     List<PermissionStatement> wideDenies) {
+        PermissionStatement exact = denies.get(Key.of(allow).withConditions(Conditions.NONE));
+        if (exact == null) {
+            exact = denies.get(Key.of(allow));
+        }
+        if (exact != null) {
+            return exact;
+        }
+        for (PermissionStatement deny : wideDenies) {
+            if (appliesWhenever(deny, allow) && covers(deny, allow)) {
+                return deny;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isWide(PermissionStatement statement) {
+        return statement.subject().endsWith("*") || statement.action().endsWith("*")
+            || statement.resource().endsWith("*");
+    }
+
+    private static boolean appliesWhenever(PermissionStatement ahead, PermissionStatement statement) {
+        return ahead.conditions().isEmpty() || ahead.conditions().equals(statement.conditions());
+    }
+
+    private static boolean covers(PermissionStatement wider, PermissionStatement statement) {
+        return PolicyEvaluatorService.covers(wider.subject(), statement.subject())
+            && PolicyEvaluatorService.covers(wider.action(), statement.action())
+            && PolicyEvaluatorService.covers(wider.resource(), statement.resource());
+    }
+
+    private record Key(String subject, String action, String resource, Conditions conditions) {
+        static Key of(PermissionStatement statement) {
+            return new Key(statement.subject(), statement.action(), statement.resource(), statement.conditions());
+        }
+
+        Key withConditions(Conditions other) {
+            return new Key(subject, action, resource, other);
+        }
+    }
+}
@@ -1,10 +1,20 @@
 package com.knight.contexts.users.policy.domain.service;
 
 import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.ApprovalDecision;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.EffectivePermissions;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.Grant;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.PermissionDecision;
 import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
 import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.condition.ConditionContext;
+import com.knight.contexts.users.policy.domain.index.ApprovalPolicyIndex;
+import com.knight.contexts.users.policy.domain.index.PermissionPolicyIndex;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -18,18 +28,51 @@ public class PolicyEvaluatorService {
      * Logic: If any DENY matches, permission is denied.
      *        If any ALLOW matches, permission is allowed.
      *        Otherwise, permission is denied (default deny).
+     * Conditional statements never apply, as no request attributes are given.
      */
     public static PermissionEvaluation evaluatePermission(
         List<PermissionStatement> statements,
         String subject,
         String action,
         String resource
+    ) {
+        return evaluatePermission(statements, subject, action, resource, ConditionContext.EMPTY);
+    }
+
+    /**
+     * Evaluate permission for a request with attributes, interpreting statement conditions.
+     * A statement only takes part when its conditions hold for the request.
+     */
+    public static PermissionEvaluation evaluatePermission(
+        List<PermissionStatement> statements,
+        String subject,
+        String action,
+        String resource,
+        ConditionContext context
+    ) {
+        return evaluatePermission(statements, subject, List.of(), action, resource, context);
+    }
+
+    /**
+     * Evaluate permission for a subject that also holds the statements of its groups.
+     * A statement applies when it matches the subject or any of the group subjects; precedence
+     * is unchanged, so the first matching DENY, else the first matching ALLOW, decides.
+     */
+    public static PermissionEvaluation evaluatePermission(
+        List<PermissionStatement> statements,
+        String subject,
+        Collection<String> groupSubjects,
+        String action,
+        String resource,
+        ConditionContext context
     ) {
         // Check for DENY first
         for (PermissionStatement statement : statements) {
-            if (statement.matches(subject, action, resource) && statement.effect() == Effect.DENY) {
+            if (statement.effect() == Effect.DENY
+                && statement.matches(subject, groupSubjects, action, resource, context)) {
                 return new PermissionEvaluation(
                     false,
+                    statement.statementId(),
                     "Permission denied by explicit DENY statement: " + statement.statementId()
                 );
             }
@@ -37,16 +80,119 @@ public class PolicyEvaluatorService {
 
         // Check for ALLOW
         for (PermissionStatement statement : statements) {
-            if (statement.matches(subject, action, resource) && statement.effect() == Effect.ALLOW) {
+            if (statement.effect() == Effect.ALLOW
+                && statement.matches(subject, groupSubjects, action, resource, context)) {
                 return new PermissionEvaluation(
                     true,
+                    statement.statementId(),
                     "Permission allowed by statement: " + statement.statementId()
                 );
             }
         }
 
         // Default deny
-        return new PermissionEvaluation(false, "No matching ALLOW statement (default deny)");
+        return new PermissionEvaluation(false, null, "No matching ALLOW statement (default deny)");
+    }
+
+    /**
+     * Evaluate permission against a compiled index.
+     * Same DENY-overrides-ALLOW logic as the list variant, without scanning every statement.
+     */
+    public static PermissionEvaluation evaluatePermission(
+        PermissionPolicyIndex index,
+        String subject,
+        String action,
+        String resource
+    ) {
+        return evaluatePermission(index, subject, action, resource, ConditionContext.EMPTY);
+    }
+
+    /**
+     * Evaluate permission for a request with attributes against a compiled index, whose
+     * statement conditions were compiled with it.
+     */
+    public static PermissionEvaluation evaluatePermission(
+        PermissionPolicyIndex index,
+        String subject,
+        String action,
+        String resource,
+        ConditionContext context
+    ) {
+        return evaluatePermission(index, subject, List.of(), action, resource, context);
+    }
+
+    /**
+     * Evaluate permission for a subject and its group subjects against a compiled index.
+     */
+    public static PermissionEvaluation evaluatePermission(
+        PermissionPolicyIndex index,
+        String subject,
+        Collection<String> groupSubjects,
+        String action,
+        String resource,
+        ConditionContext context
+    ) {
+        String denyId = index.matchingDeny(subject, groupSubjects, action, resource, context);
+        if (denyId != null) {
+            return new PermissionEvaluation(
+                false,
+                denyId,
+                "Permission denied by explicit DENY statement: " + denyId
+            );
+        }
+
+        String allowId = index.matchingAllow(subject, groupSubjects, action, resource, context);
+        if (allowId != null) {
+            return new PermissionEvaluation(
+                true,
+                allowId,
+                "Permission allowed by statement: " + allowId
+            );
+        }
+
+        return new PermissionEvaluation(false, null, "No matching ALLOW statement (default deny)");
+    }
+
+    /**
+     * Resolve the effective permissions of a subject from a profile's statements.
+     * DENY overrides ALLOW: an allowed action/resource pair is dropped when an unconditional DENY
+     * covers it entirely; conditional denies and denies that only partly overlap it are reported
+     * alongside. Conditional allows are listed as if their conditions held.
+     */
+    public static EffectivePermissions resolveEffectivePermissions(
+        String profileUrn,
+        String subject,
+        Collection<PermissionStatement> statements
+    ) {
+        List<Grant> allows = new ArrayList<>();
+        List<Grant> denies = new ArrayList<>();
+        List<Grant> alwaysDenies = new ArrayList<>();
+        for (PermissionStatement statement : statements) {
+            if (statement.appliesTo(subject)) {
+                Grant grant = new Grant(statement.action(), statement.resource(), statement.statementId());
+                (statement.effect() == Effect.DENY ? denies : allows).add(grant);
+                if (statement.effect() == Effect.DENY && statement.conditions().isEmpty()) {
+                    alwaysDenies.add(grant);
+                }
+            }
+        }
+        denies = distinct(denies);
+
+        List<Grant> allowed = new ArrayList<>();
+        for (Grant allow : distinct(allows)) {
+            boolean overridden = false;
+            for (Grant deny : alwaysDenies) {
+                if (covers(deny.action(), allow.action()) && covers(deny.resource(), allow.resource())) {
+                    overridden = true;
+                    break;
+                }
+            }
+            if (!overridden) {
+                allowed.add(allow);
+            }
+        }
+
+        return new EffectivePermissions(profileUrn, subject, List.copyOf(allowed), List.copyOf(denies));
     }
 
     /**
@@ -60,34 +206,114 @@ public class PolicyEvaluatorService {
         String resource,
         BigDecimal amount
     ) {
-        // Find all matching statements
-        List<ApprovalStatement> matching = statements.stream()
-            .filter(s -> s.matches(subject, action, resource))
-            .filter(s -> s.meetsThreshold(amount))
-            .toList();
+        return evaluateApprovalRequirement(
+            ApprovalPolicyIndex.compile(statements), subject, action, resource, amount);
+    }
+
+    /**
+     * Evaluate approval requirement against a compiled index.
+     * The applicable statement is resolved by a threshold lookup instead of a full scan.
+     */
+    public static ApprovalEvaluation evaluateApprovalRequirement(
+        ApprovalPolicyIndex index,
+        String subject,
+        String action,
+        String resource,
+        BigDecimal amount
+    ) {
+        return toEvaluation(index.matching(subject, action, resource, amount));
+    }
+
+    /**
+     * Evaluate approval requirement for a request with attributes against a compiled index.
+     */
+    public static ApprovalEvaluation evaluateApprovalRequirement(
+        ApprovalPolicyIndex index,
+        String subject,
+        String action,
+        String resource,
+        ConditionContext context
+    ) {
+        return toEvaluation(index.matching(subject, action, resource, context));
+    }
 
-        if (matching.isEmpty()) {
+    private static ApprovalEvaluation toEvaluation(ApprovalStatement statement) {
+        if (statement == null) {
             return new ApprovalEvaluation(
                 false,
                 0,
                 List.of(),
+                null,
                 "No approval requirement for this operation"
             );
         }
 
-        // Take the first matching statement (in real impl, could prioritize by specificity)
-        ApprovalStatement statement = matching.get(0);
-
         return new ApprovalEvaluation(
             true,
             statement.approverCount(),
             statement.approvers(),
+            statement.statementId(),
             "Approval required by statement: " + statement.statementId()
         );
     }
 
+    /**
+     * Attach the human-readable reason to a decision-only result.
+     * Only called when the caller asked for an explanation.
+     */
+    public static PermissionDecision explain(PermissionDecision decision) {
+        String reason = switch (decision.decision()) {
+            case DENY -> "Permission denied by explicit DENY statement: " + decision.statementId();
+            case ALLOW -> "Permission allowed by statement: " + decision.statementId();
+            case DEFAULT_DENY -> "No matching ALLOW statement (default deny)";
+        };
+        return new PermissionDecision(decision.decision(), decision.statementId(), reason);
+    }
+
+    /**
+     * Attach the human-readable reason to a decision-only approval result.
+     */
+    public static ApprovalDecision explain(ApprovalDecision decision) {
+        String reason = decision.approvalRequired()
+            ? "Approval required by statement: " + decision.statementId()
+            : "No approval requirement for this operation";
+        return new ApprovalDecision(
+            decision.approvalRequired(), decision.approverCount(), decision.statementId(), reason);
+    }
+
+    private static final Comparator<Grant> GRANT_ORDER = Comparator
+        .comparing(Grant::action)
+        .thenComparing(Grant::resource)
+        .thenComparing(Grant::statementId);
+
+    /**
+     * Sort grants and keep one per action/resource pair (the lowest statementId).
+     */
+    private static List<Grant> distinct(List<Grant> grants) {
+        grants.sort(GRANT_ORDER);
+        List<Grant> result = new ArrayList<>(grants.size());
+        for (Grant grant : grants) {
+            Grant last = result.isEmpty() ? null : result.get(result.size() - 1);
+            if (last == null || !last.action().equals(grant.action()) || !last.resource().equals(grant.resource())) {
+                result.add(grant);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * True if every value matched by the pattern other is also matched by pattern.
+     */
+    public static boolean covers(String pattern, String other) {
+        if (pattern.equals("*") || pattern.equals(other)) {
+            return true;
+        }
+        return pattern.endsWith("*") && other.startsWith(pattern.substring(0, pattern.length() - 1));
+    }
+
     public record PermissionEvaluation(
         boolean allowed,
+        String statementId,
         String reason
     ) {}
 
@@ -95,6 +321,7 @@ public class PolicyEvaluatorService {
         boolean approvalRequired,
         int approverCount,
         List<String> approvers,
+        String statementId,
         String reason
     ) {}
 }
@@ -0,0 +1,163 @@
+package com.knight.contexts.users.policy.domain.condition;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.index.PermissionPolicyIndex;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ProfileId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput benchmarks of compiled condition predicates against interpreting the clauses, on
+ * a typical payments condition mixing amount, business hours, currency and account, and of
+ * indexed permission checks on a profile whose statements carry conditions against the same
+ * profile without them. Tagged benchmark, so they run only with -Pbenchmark.
+ */
+@Tag("benchmark")
+class ConditionEvaluationBenchmarkTest {
+
+    private static final ProfileId PROFILE = ServicingProfileId.of(ClientId.srf("12345"));
+    private static final String CONDITION =
+        "amount 100..250000; hours MON-FRI 08:00-18:00 America/Toronto; currency USD,CAD,EUR; "
+            + "account 1001,1002,1003,1004,1005,1006,1007,1008";
+    private static final int REQUESTS = 4_096;
+    private static final int ROUNDS = 400;
+
+    @Test
+    void compiledConditionsOutperformInterpretation() {
+        Conditions conditions = Conditions.parse(CONDITION);
+        CompiledCondition compiled = conditions.compile();
+        ConditionContext[] requests = requests(new Random(5));
+
+        // Both paths must agree before their speed is compared
+        for (ConditionContext request : requests) {
+            assertThat(compiled.test(request)).isEqualTo(conditions.matches(request));
+        }
+
+        int sink = 0;
+        for (int warmUp = 0; warmUp < 3; warmUp++) {
+            sink += interpreted(conditions, requests, ROUNDS / 4) + compiled(compiled, requests, ROUNDS);
+        }
+
+        long begin = System.nanoTime();
+        sink += interpreted(conditions, requests, ROUNDS / 4);
+        double interpretedNanos = (double) (System.nanoTime() - begin) / ((long) REQUESTS * (ROUNDS / 4));
+
+        begin = System.nanoTime();
+        sink += compiled(compiled, requests, ROUNDS);
+        double compiledNanos = (double) (System.nanoTime() - begin) / ((long) REQUESTS * ROUNDS);
+
+        System.out.printf("interpreted conditions: %.1f ns/request, compiled: %.1f ns/request (%d)%n",
+            interpretedNanos, compiledNanos, sink);
+        assertThat(compiledNanos).isLessThan(interpretedNanos);
+    }
+
+    @Test
+    void conditionsAddLittleToIndexedPermissionChecks() {
+        Random random = new Random(7);
+        Conditions conditions = Conditions.parse(CONDITION);
+        List<PermissionStatement> plain = new ArrayList<>();
+        List<PermissionStatement> conditional = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String subject = i % 10 == 0 ? "user:*" : "user:u" + random.nextInt(50);
+            String action = "payments:action" + random.nextInt(40);
+            String resource = i % 3 == 0 ? "urn:knight:account:*" : "urn:knight:account:" + random.nextInt(100);
+            Effect effect = i % 9 == 0 ? Effect.DENY : Effect.ALLOW;
+            plain.add(PermissionStatement.create(PROFILE, subject, action, resource, effect));
+            conditional.add(PermissionStatement.create(PROFILE, subject, action, resource, effect, conditions));
+        }
+        PermissionPolicyIndex plainIndex = PermissionPolicyIndex.compile(plain);
+        PermissionPolicyIndex conditionalIndex = PermissionPolicyIndex.compile(conditional);
+
+        ConditionContext[] contexts = requests(random);
+        String[][] checks = new String[REQUESTS][];
+        for (int i = 0; i < REQUESTS; i++) {
+            checks[i] = new String[]{
+                "user:u" + random.nextInt(60),
+                "payments:action" + random.nextInt(40),
+                "urn:knight:account:" + random.nextInt(150)
+            };
+        }
+
+        int sink = 0;
+        for (int warmUp = 0; warmUp < 3; warmUp++) {
+            sink += decide(plainIndex, checks, null, ROUNDS) + decide(conditionalIndex, checks, contexts, ROUNDS);
+        }
+
+        long begin = System.nanoTime();
+        sink += decide(plainIndex, checks, null, ROUNDS);
+        double plainNanos = (double) (System.nanoTime() - begin) / ((long) REQUESTS * ROUNDS);
+
+        begin = System.nanoTime();
+        sink += decide(conditionalIndex, checks, contexts, ROUNDS);
+        double conditionalNanos = (double) (System.nanoTime() - begin) / ((long) REQUESTS * ROUNDS);
+
+        System.out.printf("indexed checks without conditions: %.1f ns/check, with conditions: %.1f ns/check (%d)%n",
+            plainNanos, conditionalNanos, sink);
+        assertThat(conditionalNanos).isLessThan(plainNanos * 2);
+    }
+
+    private static ConditionContext[] requests(Random random) {
+        Instant start = Instant.parse("2026-03-02T00:00:00Z");
+        String[] currencies = {"USD", "CAD", "EUR", "GBP"};
+        ConditionContext[] requests = new ConditionContext[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            requests[i] = new ConditionContext(
+                BigDecimal.valueOf(random.nextInt(30_000_000), 2),
+                currencies[random.nextInt(currencies.length)],
+                String.valueOf(1001 + random.nextInt(10)),
+                start.plusSeconds(random.nextInt(14 * 86_400)));
+        }
+        return requests;
+    }
+
+    private static int decide(PermissionPolicyIndex index, String[][] checks, ConditionContext[] contexts, int rounds) {
+        int allowed = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < checks.length; i++) {
+                String[] check = checks[i];
+                boolean allow = contexts == null
+                    ? index.decide(check[0], check[1], check[2]).allowed()
+                    : index.decide(check[0], check[1], check[2], contexts[i]).allowed();
+                if (allow) {
+                    allowed++;
+                }
+            }
+        }
+        return allowed;
+    }
+
+    private static int interpreted(Conditions conditions, ConditionContext[] requests, int rounds) {
+        int matched = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (ConditionContext request : requests) {
+                if (conditions.matches(request)) {
+                    matched++;
+                }
+            }
+        }
+        return matched;
+    }
+
+    private static int compiled(CompiledCondition condition, ConditionContext[] requests, int rounds) {
+        int matched = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (ConditionContext request : requests) {
+                if (condition.test(request)) {
+                    matched++;
+                }
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,94 @@
+package com.knight.contexts.users.policy.domain.condition;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Parsing of the condition text and agreement between compiled and interpreted evaluation.
+ */
+class ConditionsTest {
+
+    private static final List<String> CURRENCIES = List.of("USD", "CAD", "EUR", "GBP", "JPY", "CHF", "AUD");
+
+    @Test
+    void parsesAndFormatsCanonically() {
+        Conditions conditions = Conditions.parse(
+            "amount 100..5000.50 ; hours fri-mon 09:00-17:30 Europe/London; currency USD,CAD; account 1002,1001");
+
+        assertThat(conditions.clauses()).hasSize(4);
+        assertThat(conditions.clauses().get(1)).isInstanceOfSatisfying(Condition.TimeWindow.class,
+            window -> assertThat(window.days()).containsExactlyInAnyOrder(
+                DayOfWeek.FRIDAY, DayOfWeek.SATURDAY, DayOfWeek.SUNDAY, DayOfWeek.MONDAY));
+        assertThat(conditions.format()).isEqualTo(
+            "amount 100..5000.50; hours MON,FRI,SAT,SUN 09:00-17:30 Europe/London; currency CAD,USD; account 1001,1002");
+        assertThat(Conditions.parse(conditions.format())).isEqualTo(conditions);
+        assertThat(Conditions.parse("amount ..10")).isEqualTo(
+            Conditions.of(new Condition.AmountRange(null, BigDecimal.TEN)));
+        assertThat(Conditions.parse("  ")).isSameAs(Conditions.NONE);
+        assertThat(Conditions.NONE.format()).isNull();
+    }
+
+    @Test
+    void rejectsInvalidConditions() {
+        assertThatThrownBy(() -> Conditions.parse("amount 10")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Conditions.parse("amount 10..1")).hasMessageContaining("min is above max");
+        assertThatThrownBy(() -> Conditions.parse("amount x..")).hasMessageContaining("invalid condition");
+        assertThatThrownBy(() -> Conditions.parse("hours MON-FRI 17:00-09:00")).hasMessageContaining("end after");
+        assertThatThrownBy(() -> Conditions.parse("hours MON-FRI 09:00-17:00 Mars/Base")).hasMessageContaining("invalid");
+        assertThatThrownBy(() -> Conditions.parse("region EU")).hasMessageContaining("unknown condition");
+    }
+
+    @Test
+    void missingAttributesFailTheirConditions() {
+        Conditions conditions = Conditions.parse("amount 1..; currency USD");
+
+        assertThat(conditions.matches(ConditionContext.EMPTY)).isFalse();
+        assertThat(conditions.compile().test(ConditionContext.EMPTY)).isFalse();
+        assertThat(conditions.compile().test(new ConditionContext(BigDecimal.TEN, "USD", null, null))).isTrue();
+        assertThat(Conditions.NONE.compile().test(ConditionContext.EMPTY)).isTrue();
+    }
+
+    @Test
+    void compiledAgreesWithInterpretedOnRandomRequests() {
+        Random random = new Random(17);
+        List<Conditions> conditions = List.of(
+            Conditions.parse("amount 100..5000"),
+            Conditions.parse("amount ..250.75; currency USD"),
+            Conditions.parse("currency " + String.join(",", CURRENCIES.subList(0, 3))),
+            Conditions.parse("account " + String.join(",", List.of("a1", "a2", "a3", "a4", "a5", "a6"))),
+            // Spans DST changes: compiled evaluation caches the offset between transitions
+            Conditions.parse("hours MON-FRI 09:00-17:30 Europe/London; amount 10..; currency USD,CAD"),
+            Conditions.parse("hours SAT,SUN 00:00-06:00 America/New_York"),
+            Conditions.parse("hours TUE 08:15:30-08:45 +05:30")
+        );
+
+        Instant start = ZonedDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC")).toInstant();
+        for (Conditions condition : conditions) {
+            CompiledCondition compiled = condition.compile();
+            Instant at = start;
+            for (int i = 0; i < 20_000; i++) {
+                // Mostly moves forward in time, sometimes jumps back across a transition
+                at = random.nextInt(20) == 0
+                    ? start.plusSeconds(random.nextInt(365 * 86_400))
+                    : at.plusSeconds(random.nextInt(4 * 3_600)).plusNanos(random.nextInt(1_000_000_000));
+                ConditionContext context = new ConditionContext(
+                    random.nextInt(10) == 0 ? null : BigDecimal.valueOf(random.nextInt(600_000), 2),
+                    random.nextInt(10) == 0 ? null : CURRENCIES.get(random.nextInt(CURRENCIES.size())),
+                    "a" + random.nextInt(8),
+                    at);
+                assertThat(compiled.test(context)).as("%s at %s", condition, context)
+                    .isEqualTo(condition.matches(context));
+            }
+        }
+    }
+}
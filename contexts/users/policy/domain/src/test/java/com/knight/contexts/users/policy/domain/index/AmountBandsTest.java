@@ -0,0 +1,62 @@
+package com.knight.contexts.users.policy.domain.index;
+
+import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ProfileId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies amounts in one band always meet the same approval statements.
+ */
+class AmountBandsTest {
+
+    private static final ProfileId PROFILE = ServicingProfileId.of(ClientId.srf("12345"));
+
+    @Test
+    void bandIsTheNumberOfDistinctThresholdsBelowTheAmount() {
+        AmountBands bands = AmountBands.of(List.of(
+            statement("5000"), statement("1000"), statement("1000.00"), statement(null)));
+
+        assertThat(bands.bandOf(null)).isEqualTo(AmountBands.NO_AMOUNT);
+        assertThat(bands.bandOf(new BigDecimal("-1"))).isZero();
+        assertThat(bands.bandOf(new BigDecimal("1000"))).isZero();
+        assertThat(bands.bandOf(new BigDecimal("1000.01"))).isEqualTo(1);
+        assertThat(bands.bandOf(new BigDecimal("5000.0"))).isEqualTo(1);
+        assertThat(bands.bandOf(new BigDecimal("5000.01"))).isEqualTo(2);
+    }
+
+    @Test
+    void amountsInOneBandMeetTheSameStatements() {
+        Random random = new Random(3);
+        List<ApprovalStatement> statements = random.ints(12, 0, 50)
+            .mapToObj(t -> statement(String.valueOf(t * 100)))
+            .toList();
+        AmountBands bands = AmountBands.of(statements);
+
+        for (int i = 0; i < 2_000; i++) {
+            BigDecimal a = BigDecimal.valueOf(random.nextInt(600_000), 2);
+            BigDecimal b = BigDecimal.valueOf(random.nextInt(600_000), 2);
+            if (bands.bandOf(a) == bands.bandOf(b)) {
+                assertThat(met(statements, a)).as("%s and %s", a, b).isEqualTo(met(statements, b));
+            }
+        }
+    }
+
+    private static List<ApprovalStatement> met(List<ApprovalStatement> statements, BigDecimal amount) {
+        return statements.stream()
+            .filter(s -> s.amountThreshold() == null || amount.compareTo(s.amountThreshold()) <= 0)
+            .toList();
+    }
+
+    private static ApprovalStatement statement(String threshold) {
+        return ApprovalStatement.create(PROFILE, "*", "payments:approve", "*", 1, List.of("user:carol"),
+            threshold == null ? null : new BigDecimal(threshold));
+    }
+}
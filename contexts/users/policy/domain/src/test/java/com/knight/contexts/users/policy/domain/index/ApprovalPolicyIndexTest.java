@@ -0,0 +1,87 @@
+package com.knight.contexts.users.policy.domain.index;
+
+import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
+import com.knight.contexts.users.policy.domain.condition.ConditionContext;
+import com.knight.contexts.users.policy.domain.condition.Conditions;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ProfileId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies threshold resolution and most-specific selection of the compiled approval index.
+ */
+class ApprovalPolicyIndexTest {
+
+    private static final ProfileId PROFILE = ServicingProfileId.of(ClientId.srf("12345"));
+
+    private final ApprovalStatement upTo1k = statement("*", "payments:approve", "*", "1000");
+    private final ApprovalStatement upTo10k = statement("*", "payments:approve", "*", "10000");
+    private final ApprovalStatement anyAmount = statement("*", "payments:approve", "*", null);
+    private final ApprovalStatement aliceUpTo10k = statement("user:alice", "payments:approve", "*", "10000");
+
+    @Test
+    void resolvesTightestApplicableThreshold() {
+        ApprovalPolicyIndex index = ApprovalPolicyIndex.compile(List.of(anyAmount, upTo10k, upTo1k));
+
+        assertThat(index.matching("user:bob", "payments:approve", "urn:p:1", new BigDecimal("500"))).isSameAs(upTo1k);
+        assertThat(index.matching("user:bob", "payments:approve", "urn:p:1", new BigDecimal("1000.00"))).isSameAs(upTo1k);
+        assertThat(index.matching("user:bob", "payments:approve", "urn:p:1", new BigDecimal("1000.01"))).isSameAs(upTo10k);
+        assertThat(index.matching("user:bob", "payments:approve", "urn:p:1", new BigDecimal("50000"))).isSameAs(anyAmount);
+        assertThat(index.matching("user:bob", "payments:approve", "urn:p:1", (BigDecimal) null)).isSameAs(anyAmount);
+        assertThat(index.matching("user:bob", "payments:view", "urn:p:1", BigDecimal.ONE)).isNull();
+    }
+
+    @Test
+    void prefersMostSpecificPatternsRegardlessOfOrder() {
+        List<ApprovalStatement> statements = new ArrayList<>(List.of(anyAmount, upTo10k, upTo1k, aliceUpTo10k));
+        for (int i = 0; i < 10; i++) {
+            Collections.shuffle(statements);
+            ApprovalPolicyIndex index = ApprovalPolicyIndex.compile(statements);
+
+            assertThat(index.matching("user:alice", "payments:approve", "urn:p:1", new BigDecimal("500")))
+                .isSameAs(aliceUpTo10k);
+            assertThat(index.matching("user:bob", "payments:approve", "urn:p:1", new BigDecimal("500")))
+                .isSameAs(upTo1k);
+        }
+    }
+
+    @Test
+    void bandsSeparateAmountsWithDifferentOutcomes() {
+        AmountBands bands = ApprovalPolicyIndex.compile(List.of(upTo1k, upTo10k, anyAmount)).bands();
+
+        assertThat(bands.bandOf(new BigDecimal("10"))).isEqualTo(bands.bandOf(new BigDecimal("1000")));
+        assertThat(bands.bandOf(new BigDecimal("1000"))).isNotEqualTo(bands.bandOf(new BigDecimal("1001")));
+        assertThat(bands.bandOf(null)).isEqualTo(AmountBands.NO_AMOUNT);
+    }
+
+    @Test
+    void conditionalStatementsCompeteOnlyWhenTheirConditionsHold() {
+        ApprovalStatement foreignCurrency = ApprovalStatement.create(PROFILE, "*", "payments:approve", "*", 2,
+            List.of("user:carol", "user:dave"), new BigDecimal("1000"), Conditions.parse("currency EUR,GBP"));
+        ApprovalPolicyIndex index = ApprovalPolicyIndex.compile(List.of(anyAmount, upTo10k, foreignCurrency));
+
+        assertThat(index.hasConditions()).isTrue();
+        assertThat(index.matching("user:bob", "payments:approve", "urn:p:1",
+            new ConditionContext(new BigDecimal("500"), "EUR", null, null))).isSameAs(foreignCurrency);
+        assertThat(index.matching("user:bob", "payments:approve", "urn:p:1",
+            new ConditionContext(new BigDecimal("500"), "USD", null, null))).isSameAs(upTo10k);
+        // Over its threshold the conditional statement no longer applies either
+        assertThat(index.matching("user:bob", "payments:approve", "urn:p:1",
+            new ConditionContext(new BigDecimal("5000"), "EUR", null, null))).isSameAs(upTo10k);
+        // The amount-only lookup has no currency, so the condition does not hold
+        assertThat(index.matching("user:bob", "payments:approve", "urn:p:1", new BigDecimal("500"))).isSameAs(upTo10k);
+    }
+
+    private static ApprovalStatement statement(String subject, String action, String resource, String threshold) {
+        return ApprovalStatement.create(PROFILE, subject, action, resource, 1, List.of("user:carol"),
+            threshold == null ? null : new BigDecimal(threshold));
+    }
+}
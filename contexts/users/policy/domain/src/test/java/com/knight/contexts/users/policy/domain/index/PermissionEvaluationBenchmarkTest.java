@@ -0,0 +1,101 @@
+package com.knight.contexts.users.policy.domain.index;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.Decision;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.service.PolicyEvaluatorService;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ProfileId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput benchmark of the interned bitset index against the sequential matchesPattern scan,
+ * on a profile with a few hundred actions and a mix of exact and wildcard statements. Tagged
+ * benchmark, so it runs only with -Pbenchmark.
+ */
+@Tag("benchmark")
+class PermissionEvaluationBenchmarkTest {
+
+    private static final ProfileId PROFILE = ServicingProfileId.of(ClientId.srf("12345"));
+    private static final int ACTIONS = 300;
+    private static final int CHECKS = 4_096;
+    private static final int ROUNDS = 200;
+
+    @Test
+    void bitsetIndexOutperformsSequentialScan() {
+        Random random = new Random(11);
+        List<PermissionStatement> statements = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String subject = i % 10 == 0 ? "user:*" : "user:u" + random.nextInt(50);
+            String action = i % 7 == 0 ? "module" + (i % 5) + ":*" : "module" + (i % 5) + ":action" + random.nextInt(ACTIONS);
+            String resource = i % 3 == 0 ? "urn:knight:account:*" : "urn:knight:account:" + random.nextInt(100);
+            statements.add(PermissionStatement.create(
+                PROFILE, subject, action, resource, i % 9 == 0 ? Effect.DENY : Effect.ALLOW));
+        }
+        PermissionPolicyIndex index = PermissionPolicyIndex.compile(statements);
+
+        String[][] checks = new String[CHECKS][];
+        for (int i = 0; i < CHECKS; i++) {
+            checks[i] = new String[]{
+                "user:u" + random.nextInt(60),
+                "module" + random.nextInt(5) + ":action" + random.nextInt(ACTIONS),
+                "urn:knight:account:" + random.nextInt(150)
+            };
+        }
+
+        // Both paths must agree before their speed is compared
+        for (String[] check : checks) {
+            assertThat(index.decide(check[0], check[1], check[2]).allowed())
+                .isEqualTo(PolicyEvaluatorService.evaluatePermission(statements, check[0], check[1], check[2]).allowed());
+        }
+
+        int sink = 0;
+        for (int warmUp = 0; warmUp < 3; warmUp++) {
+            sink += scan(statements, checks, ROUNDS / 4) + bitset(index, checks, ROUNDS);
+        }
+
+        long start = System.nanoTime();
+        sink += scan(statements, checks, ROUNDS / 4);
+        double scanNanos = (double) (System.nanoTime() - start) / ((long) CHECKS * (ROUNDS / 4));
+
+        start = System.nanoTime();
+        sink += bitset(index, checks, ROUNDS);
+        double bitsetNanos = (double) (System.nanoTime() - start) / ((long) CHECKS * ROUNDS);
+
+        System.out.printf("matchesPattern scan: %.1f ns/check, bitset index: %.1f ns/check (%d)%n",
+            scanNanos, bitsetNanos, sink);
+        assertThat(bitsetNanos).isLessThan(scanNanos);
+    }
+
+    private static int scan(List<PermissionStatement> statements, String[][] checks, int rounds) {
+        int allowed = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (String[] check : checks) {
+                if (PolicyEvaluatorService.evaluatePermission(statements, check[0], check[1], check[2]).allowed()) {
+                    allowed++;
+                }
+            }
+        }
+        return allowed;
+    }
+
+    private static int bitset(PermissionPolicyIndex index, String[][] checks, int rounds) {
+        int allowed = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (String[] check : checks) {
+                if (index.decide(check[0], check[1], check[2]).decision() == Decision.ALLOW) {
+                    allowed++;
+                }
+            }
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,212 @@
+package com.knight.contexts.users.policy.domain.index;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.condition.ConditionContext;
+import com.knight.contexts.users.policy.domain.condition.Conditions;
+import com.knight.contexts.users.policy.domain.service.PolicyEvaluatorService;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ProfileId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the compiled permission index gives the same decisions as the sequential scan.
+ */
+class PermissionPolicyIndexTest {
+
+    private static final ProfileId PROFILE = ServicingProfileId.of(ClientId.srf("12345"));
+
+    private static final String[] SUBJECTS = {"user:alice", "user:bob", "user:*", "*", "user:al*"};
+    private static final String[] ACTIONS = {"receivables:view", "receivables:approve", "receivables:*", "payments:create", "*"};
+    private static final String[] RESOURCES = {"urn:knight:receivable:1", "urn:knight:receivable:*", "urn:knight:*", "urn:knight:payment:7", "*"};
+
+    @Test
+    void denyOverridesAllow() {
+        List<PermissionStatement> statements = List.of(
+            PermissionStatement.create(PROFILE, "user:alice", "receivables:*", "*", Effect.ALLOW),
+            PermissionStatement.create(PROFILE, "user:alice", "receivables:approve", "urn:knight:receivable:*", Effect.DENY)
+        );
+        PermissionPolicyIndex index = PermissionPolicyIndex.compile(statements);
+
+        assertThat(index.matchingDeny("user:alice", "receivables:approve", "urn:knight:receivable:1"))
+            .isEqualTo(statements.get(1).statementId());
+        assertThat(index.matchingDeny("user:alice", "receivables:view", "urn:knight:receivable:1")).isNull();
+        assertThat(index.matchingAllow("user:alice", "receivables:view", "urn:knight:receivable:1"))
+            .isEqualTo(statements.get(0).statementId());
+        assertThat(index.matchingAllow("user:bob", "receivables:view", "urn:knight:receivable:1")).isNull();
+    }
+
+    @Test
+    void matchesSequentialScanOnRandomPolicies() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            // Wide and narrow indexes alternate, sharing this thread's scratch buffers
+            int size = round % 2 == 0 ? 150 : 10;
+            List<PermissionStatement> statements = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                statements.add(PermissionStatement.create(
+                    PROFILE,
+                    pick(random, SUBJECTS),
+                    pick(random, ACTIONS),
+                    pick(random, RESOURCES),
+                    random.nextBoolean() ? Effect.ALLOW : Effect.DENY
+                ));
+            }
+            PermissionPolicyIndex index = PermissionPolicyIndex.compile(statements);
+
+            for (String subject : List.of("user:alice", "user:bob", "user:carol", "service:batch")) {
+                for (String action : List.of("receivables:view", "receivables:approve", "payments:create", "payments:view")) {
+                    for (String resource : List.of("urn:knight:receivable:1", "urn:knight:payment:7", "urn:other:1")) {
+                        assertThat(PolicyEvaluatorService.evaluatePermission(index, subject, action, resource))
+                            .isEqualTo(PolicyEvaluatorService.evaluatePermission(statements, subject, action, resource));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void groupSubjectsCompeteUnderTheSamePrecedence() {
+        String[] subjects = {"user:alice", "user:*", "group:ops", "group:audit", "group:*", "*"};
+        Random random = new Random(23);
+        for (int round = 0; round < 50; round++) {
+            List<PermissionStatement> statements = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                statements.add(PermissionStatement.create(
+                    PROFILE, pick(random, subjects), pick(random, ACTIONS), pick(random, RESOURCES),
+                    random.nextBoolean() ? Effect.ALLOW : Effect.DENY));
+            }
+            PermissionPolicyIndex index = PermissionPolicyIndex.compile(statements);
+
+            for (List<String> groups : List.of(List.<String>of(), List.of("group:ops"), List.of("group:ops", "group:audit"),
+                List.of("group:finance"))) {
+                for (String subject : List.of("user:alice", "user:bob", "service:batch")) {
+                    for (String action : List.of("receivables:view", "payments:create")) {
+                        for (String resource : List.of("urn:knight:receivable:1", "urn:other:1")) {
+                            assertThat(PolicyEvaluatorService.evaluatePermission(
+                                index, subject, groups, action, resource, ConditionContext.EMPTY))
+                                .isEqualTo(PolicyEvaluatorService.evaluatePermission(
+                                    statements, subject, groups, action, resource, ConditionContext.EMPTY));
+                        }
+                    }
+                }
+            }
+        }
+
+        assertThat(PermissionPolicyIndex.compile(List.of(
+            PermissionStatement.create(PROFILE, "*", "payments:create", "*", Effect.ALLOW))).hasGroupSubjects()).isFalse();
+        assertThat(PermissionPolicyIndex.compile(List.of(
+            PermissionStatement.create(PROFILE, "gr*", "payments:create", "*", Effect.ALLOW))).hasGroupSubjects()).isTrue();
+    }
+
+    @Test
+    void allowedActionsCarveDeniesOutOfWildcards() {
+        List<PermissionStatement> statements = List.of(
+            PermissionStatement.create(PROFILE, "user:*", "receivables:*", "urn:knight:receivable:*", Effect.ALLOW),
+            PermissionStatement.create(PROFILE, "user:alice", "receivables:approve", "*", Effect.DENY),
+            PermissionStatement.create(PROFILE, "user:alice", "receivables:approve", "*", Effect.ALLOW),
+            PermissionStatement.create(PROFILE, "*", "payments:view", "*", Effect.ALLOW),
+            PermissionStatement.create(PROFILE, "user:alice", "payments:create", "urn:knight:payment:*", Effect.ALLOW)
+        );
+        PermissionPolicyIndex index = PermissionPolicyIndex.compile(statements);
+
+        PermissionPolicyIndex.ActionPatterns actions = index.actionsFor("user:alice", "urn:knight:receivable:1");
+
+        assertThat(actions.allowed()).containsExactly("receivables:*", "payments:view");
+        assertThat(actions.denied()).containsExactly("receivables:approve");
+        assertThat(index.actionsFor("service:batch", "urn:other:1").allowed()).containsExactly("payments:view");
+    }
+
+    @Test
+    void allowedActionsAgreeWithPerActionDecisions() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            List<PermissionStatement> statements = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                statements.add(PermissionStatement.create(
+                    PROFILE, pick(random, SUBJECTS), pick(random, ACTIONS), pick(random, RESOURCES),
+                    random.nextBoolean() ? Effect.ALLOW : Effect.DENY));
+            }
+            PermissionPolicyIndex index = PermissionPolicyIndex.compile(statements);
+
+            for (String subject : List.of("user:alice", "user:bob", "service:batch")) {
+                for (String resource : List.of("urn:knight:receivable:1", "urn:knight:payment:7", "urn:other:1")) {
+                    PermissionPolicyIndex.ActionPatterns actions = index.actionsFor(subject, resource);
+                    for (String action : List.of("receivables:view", "receivables:approve", "payments:create", "payments:view")) {
+                        boolean allowed = actions.allowed().stream().anyMatch(p -> PolicyEvaluatorService.covers(p, action))
+                            && actions.denied().stream().noneMatch(p -> PolicyEvaluatorService.covers(p, action));
+                        assertThat(allowed).isEqualTo(index.decide(subject, action, resource).allowed());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void conditionalStatementsApplyOnlyWhenTheirConditionsHold() {
+        List<PermissionStatement> statements = List.of(
+            PermissionStatement.create(PROFILE, "user:alice", "payments:create", "*", Effect.DENY,
+                Conditions.parse("hours SAT,SUN 00:00-23:59")),
+            PermissionStatement.create(PROFILE, "user:alice", "payments:create", "*", Effect.ALLOW,
+                Conditions.parse("amount ..10000; currency USD,CAD")),
+            PermissionStatement.create(PROFILE, "user:*", "payments:*", "*", Effect.ALLOW,
+                Conditions.parse("amount ..100"))
+        );
+        PermissionPolicyIndex index = PermissionPolicyIndex.compile(statements);
+        Instant monday = Instant.parse("2026-03-02T10:00:00Z");
+        Instant saturday = Instant.parse("2026-03-07T10:00:00Z");
+
+        assertThat(index.hasConditions()).isTrue();
+        assertThat(index.decide("user:alice", "payments:create", "urn:p:1", context("5000", "USD", monday)).statementId())
+            .isEqualTo(statements.get(1).statementId());
+        assertThat(index.decide("user:alice", "payments:create", "urn:p:1", context("5000", "USD", saturday)).statementId())
+            .isEqualTo(statements.get(0).statementId());
+        assertThat(index.decide("user:alice", "payments:create", "urn:p:1", context("50", "GBP", monday)).statementId())
+            .isEqualTo(statements.get(2).statementId());
+        assertThat(index.decide("user:alice", "payments:create", "urn:p:1", context("5000", "GBP", monday)))
+            .isSameAs(PermissionPolicyIndex.DEFAULT_DENY);
+        // Without request attributes no condition holds
+        assertThat(index.decide("user:alice", "payments:create", "urn:p:1")).isSameAs(PermissionPolicyIndex.DEFAULT_DENY);
+        // A conditional deny does not hide the allowed pattern
+        assertThat(index.actionsFor("user:alice", "urn:p:1").allowed()).contains("payments:create");
+
+        Random random = new Random(3);
+        String[] conditions = {null, "amount ..500", "currency USD", "hours MON-FRI 09:00-17:00", "amount 100..; currency CAD"};
+        for (int round = 0; round < 50; round++) {
+            List<PermissionStatement> randomStatements = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                randomStatements.add(PermissionStatement.create(
+                    PROFILE, pick(random, SUBJECTS), pick(random, ACTIONS), pick(random, RESOURCES),
+                    random.nextBoolean() ? Effect.ALLOW : Effect.DENY, Conditions.parse(pick(random, conditions))));
+            }
+            PermissionPolicyIndex randomIndex = PermissionPolicyIndex.compile(randomStatements);
+            for (int i = 0; i < 200; i++) {
+                String subject = pick(random, SUBJECTS);
+                String action = pick(random, ACTIONS);
+                String resource = pick(random, RESOURCES);
+                ConditionContext context = context(String.valueOf(random.nextInt(1000)),
+                    random.nextBoolean() ? "USD" : "CAD", random.nextBoolean() ? monday : saturday);
+                assertThat(randomIndex.decide(subject, action, resource, context).statementId()).isEqualTo(
+                    PolicyEvaluatorService.evaluatePermission(randomStatements, subject, action, resource, context)
+                        .statementId());
+            }
+        }
+    }
+
+    private static ConditionContext context(String amount, String currency, Instant at) {
+        return new ConditionContext(new BigDecimal(amount), currency, null, at);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
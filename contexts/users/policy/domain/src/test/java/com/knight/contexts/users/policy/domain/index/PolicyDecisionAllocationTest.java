@@ -0,0 +1,93 @@
+package com.knight.contexts.users.policy.domain.index;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.Decision;
+import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ProfileId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Allocation benchmark for the decision-only path: after warm-up, deciding a permission or an
+ * approval must not allocate. Measured with the per-thread allocation counter of the JVM,
+ * the same counter the JMH GC profiler reads.
+ */
+class PolicyDecisionAllocationTest {
+
+    private static final ProfileId PROFILE = ServicingProfileId.of(ClientId.srf("12345"));
+    private static final int WARM_UP = 200_000;
+    private static final int MEASURED = 100_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final String[] SUBJECTS = {"user:u1", "user:u42", "user:u999", "user:nobody"};
+    private static final String[] ACTIONS = {"receivables:1", "receivables:2", "receivables:approve"};
+    private static final String[] RESOURCES = {"urn:knight:receivable:1", "urn:knight:receivable:42x", "urn:other"};
+
+    @Test
+    void permissionDecisionsDoNotAllocate() {
+        List<PermissionStatement> statements = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            statements.add(PermissionStatement.create(
+                PROFILE, "user:u" + i, "receivables:" + (i % 20), "urn:knight:receivable:" + i + "*", Effect.ALLOW));
+        }
+        statements.add(PermissionStatement.create(PROFILE, "user:*", "receivables:approve", "*", Effect.DENY));
+        PermissionPolicyIndex index = PermissionPolicyIndex.compile(statements);
+
+        int allowed = 0;
+        for (int i = 0; i < WARM_UP; i++) {
+            allowed += decidePermission(index, i);
+        }
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED; i++) {
+            allowed += decidePermission(index, i);
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(allowed).isPositive();
+        assertThat(allocated).isLessThan(MEASURED / 100);
+    }
+
+    @Test
+    void approvalDecisionsDoNotAllocate() {
+        List<ApprovalStatement> statements = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            statements.add(ApprovalStatement.create(
+                PROFILE, "*", "payments:approve", "*", 1 + i % 2, List.of("user:a", "user:b"),
+                BigDecimal.valueOf(1_000L * (i + 1))));
+        }
+        ApprovalPolicyIndex index = ApprovalPolicyIndex.compile(statements);
+        BigDecimal[] amounts = new BigDecimal[64];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = BigDecimal.valueOf(17_000L * i);
+        }
+
+        int required = 0;
+        for (int i = 0; i < WARM_UP; i++) {
+            required += index.decide("user:alice", "payments:approve", "urn:p:1", amounts[i & 63]).approverCount();
+        }
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED; i++) {
+            required += index.decide("user:alice", "payments:approve", "urn:p:1", amounts[i & 63]).approverCount();
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(required).isPositive();
+        assertThat(allocated).isLessThan(MEASURED / 100);
+    }
+
+    private static int decidePermission(PermissionPolicyIndex index, int i) {
+        return index.decide(SUBJECTS[i & 3], ACTIONS[i % 3], RESOURCES[(i >> 2) % 3]).decision() == Decision.ALLOW
+            ? 1 : 0;
+    }
+}
@@ -0,0 +1,93 @@
+package com.knight.contexts.users.policy.domain.service;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.EffectivePermissions;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.Grant;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ProfileId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the resolved effective permission sets agree with per-request evaluation.
+ */
+class EffectivePermissionsTest {
+
+    private static final ProfileId PROFILE = ServicingProfileId.of(ClientId.srf("12345"));
+
+    private static final String[] SUBJECTS = {"user:alice", "user:bob", "user:*", "*", "user:al*"};
+    private static final String[] ACTIONS = {"receivables:view", "receivables:approve", "receivables:*", "payments:create", "*"};
+    private static final String[] RESOURCES = {"urn:knight:receivable:1", "urn:knight:receivable:*", "urn:knight:*", "urn:knight:payment:7", "*"};
+
+    @Test
+    void coveredAllowIsDroppedAndPartialDenyIsKept() {
+        PermissionStatement allowView = PermissionStatement.create(PROFILE, "user:*", "receivables:view", "urn:knight:receivable:1", Effect.ALLOW);
+        PermissionStatement allowAll = PermissionStatement.create(PROFILE, "user:alice", "receivables:*", "*", Effect.ALLOW);
+        PermissionStatement denyReceivables = PermissionStatement.create(PROFILE, "*", "receivables:view", "urn:knight:receivable:*", Effect.DENY);
+        PermissionStatement otherUser = PermissionStatement.create(PROFILE, "user:bob", "payments:create", "*", Effect.ALLOW);
+
+        EffectivePermissions permissions = PolicyEvaluatorService.resolveEffectivePermissions(
+            PROFILE.urn(), "user:alice", List.of(allowView, allowAll, denyReceivables, otherUser));
+
+        assertThat(permissions.allowed())
+            .containsExactly(new Grant("receivables:*", "*", allowAll.statementId()));
+        assertThat(permissions.denied())
+            .containsExactly(new Grant("receivables:view", "urn:knight:receivable:*", denyReceivables.statementId()));
+    }
+
+    @Test
+    void agreesWithEvaluationOnRandomPolicies() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            List<PermissionStatement> statements = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                statements.add(PermissionStatement.create(
+                    PROFILE,
+                    pick(random, SUBJECTS),
+                    pick(random, ACTIONS),
+                    pick(random, RESOURCES),
+                    random.nextBoolean() ? Effect.ALLOW : Effect.DENY
+                ));
+            }
+
+            for (String subject : List.of("user:alice", "user:bob", "service:batch")) {
+                EffectivePermissions permissions =
+                    PolicyEvaluatorService.resolveEffectivePermissions(PROFILE.urn(), subject, statements);
+
+                for (String action : List.of("receivables:view", "receivables:approve", "payments:create")) {
+                    for (String resource : List.of("urn:knight:receivable:1", "urn:knight:payment:7", "urn:other:1")) {
+                        boolean allowed = matchesAny(permissions.allowed(), action, resource)
+                            && !matchesAny(permissions.denied(), action, resource);
+
+                        assertThat(allowed).isEqualTo(
+                            PolicyEvaluatorService.evaluatePermission(statements, subject, action, resource).allowed());
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean matchesAny(List<Grant> grants, String action, String resource) {
+        for (Grant grant : grants) {
+            if (matches(grant.action(), action) && matches(grant.resource(), resource)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String pattern, String value) {
+        return pattern.endsWith("*") ? value.startsWith(pattern.substring(0, pattern.length() - 1)) : pattern.equals(value);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,104 @@
+package com.knight.contexts.users.policy.domain.service;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.condition.ConditionContext;
+import com.knight.contexts.users.policy.domain.condition.Conditions;
+import com.knight.contexts.users.policy.domain.index.PermissionPolicyIndex;
+import com.knight.contexts.users.policy.domain.service.PermissionStatementAnalyzer.Analysis;
+import com.knight.contexts.users.policy.domain.service.PermissionStatementAnalyzer.Redundancy;
+import com.knight.contexts.users.policy.domain.service.PermissionStatementAnalyzer.RedundantStatement;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ProfileId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies which statements are found redundant and that leaving them out changes no decision.
+ */
+class PermissionStatementAnalyzerTest {
+
+    private static final ProfileId PROFILE = ServicingProfileId.of(ClientId.srf("12345"));
+
+    private static final String[] SUBJECTS = {"user:alice", "user:bob", "user:*", "*", "user:al*"};
+    private static final String[] ACTIONS = {"receivables:view", "receivables:approve", "receivables:*", "payments:create", "*"};
+    private static final String[] RESOURCES = {"urn:knight:receivable:1", "urn:knight:receivable:*", "urn:knight:*", "*"};
+    private static final Conditions[] CONDITIONS = {
+        Conditions.NONE, Conditions.NONE, Conditions.NONE, Conditions.parse("amount ..1000"), Conditions.parse("currency USD")
+    };
+
+    @Test
+    void classifiesShadowedDuplicateAndSubsumedStatements() {
+        List<PermissionStatement> statements = List.of(
+            statement("user:*", "receivables:*", "*", Effect.ALLOW, Conditions.NONE),
+            statement("user:alice", "receivables:view", "urn:knight:receivable:1", Effect.ALLOW, Conditions.NONE),
+            statement("user:*", "receivables:*", "*", Effect.ALLOW, Conditions.NONE),
+            statement("user:bob", "payments:*", "*", Effect.DENY, Conditions.NONE),
+            statement("user:bob", "payments:create", "urn:knight:payment:7", Effect.ALLOW, Conditions.NONE),
+            // Narrower but listed first: decides with its own id, so it stays
+            statement("user:carol", "payments:view", "*", Effect.ALLOW, Conditions.NONE),
+            statement("user:*", "payments:*", "*", Effect.ALLOW, Conditions.NONE),
+            // Only holds some of the time, so it cannot hide the unconditional DENY below it
+            statement("user:dave", "*", "*", Effect.DENY, Conditions.parse("amount 100..")),
+            statement("user:dave", "payments:view", "*", Effect.DENY, Conditions.NONE)
+        );
+
+        Analysis analysis = PermissionStatementAnalyzer.analyze(statements);
+
+        assertThat(analysis.redundant()).containsExactly(
+            new RedundantStatement(statements.get(1).statementId(), Redundancy.SUBSUMED, statements.get(0).statementId()),
+            new RedundantStatement(statements.get(2).statementId(), Redundancy.DUPLICATE, statements.get(0).statementId()),
+            new RedundantStatement(statements.get(4).statementId(), Redundancy.SHADOWED, statements.get(3).statementId())
+        );
+        assertThat(analysis.minimized()).containsExactly(
+            statements.get(0), statements.get(3), statements.get(5), statements.get(6), statements.get(7), statements.get(8));
+    }
+
+    @Test
+    void minimizedIndexDecidesLikeTheFullList() {
+        Random random = new Random(11);
+        int eliminated = 0;
+        for (int round = 0; round < 50; round++) {
+            List<PermissionStatement> statements = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                statements.add(statement(
+                    pick(random, SUBJECTS), pick(random, ACTIONS), pick(random, RESOURCES),
+                    random.nextInt(3) == 0 ? Effect.DENY : Effect.ALLOW, pick(random, CONDITIONS)));
+            }
+            PermissionPolicyIndex index = PermissionPolicyIndex.compile(statements);
+            eliminated += index.redundant().size();
+            assertThat(index.size() + index.redundant().size()).isEqualTo(statements.size());
+
+            for (ConditionContext context : List.of(
+                ConditionContext.EMPTY,
+                new ConditionContext(BigDecimal.TEN, "USD", null, null),
+                new ConditionContext(BigDecimal.valueOf(5000), "CAD", null, null))) {
+                for (String subject : List.of("user:alice", "user:bob", "service:batch")) {
+                    for (String action : List.of("receivables:view", "receivables:approve", "payments:create")) {
+                        for (String resource : List.of("urn:knight:receivable:1", "urn:other:1")) {
+                            assertThat(PolicyEvaluatorService.evaluatePermission(index, subject, action, resource, context))
+                                .isEqualTo(PolicyEvaluatorService.evaluatePermission(statements, subject, action, resource, context));
+                        }
+                    }
+                }
+            }
+        }
+        assertThat(eliminated).isPositive();
+    }
+
+    private static PermissionStatement statement(String subject, String action, String resource, Effect effect,
+                                                 Conditions conditions) {
+        return PermissionStatement.create(PROFILE, subject, action, resource, effect, conditions);
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,37 @@
+package com.knight.contexts.users.policy.infra.decisionlog;
+
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Wires the policy decision log from knight.policy.decision-log.* properties.
+ */
+@Configuration
+public class DecisionLogConfiguration {
+
+    @Bean
+    public PolicyDecisionLog policyDecisionLog(
+        @Value("${knight.policy.decision-log.enabled:false}") boolean enabled,
+        @Value("${knight.policy.decision-log.directory:logs/policy-decisions}") Path directory,
+        @Value("${knight.policy.decision-log.capacity:65536}") int capacity,
+        @Value("${knight.policy.decision-log.full-policy:DROP}") RingBufferPolicyDecisionLog.FullPolicy fullPolicy,
+        @Value("${knight.policy.decision-log.max-file-size:64MB}") DataSize maxFileSize,
+        @Value("${knight.policy.decision-log.flush-interval:1s}") Duration flushInterval
+    ) {
+        if (!enabled) {
+            return PolicyDecisionLog.DISABLED;
+        }
+        return new RingBufferPolicyDecisionLog(
+            capacity,
+            fullPolicy,
+            new RollingDecisionFile(directory, maxFileSize.toBytes()),
+            flushInterval
+        );
+    }
+}
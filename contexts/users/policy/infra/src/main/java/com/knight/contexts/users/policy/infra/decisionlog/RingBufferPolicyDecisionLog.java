@@ -0,0 +1,218 @@
+package com.knight.contexts.users.policy.infra.decisionlog;
+
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * PolicyDecisionLog backed by a pre-allocated, multi-producer / single-consumer ring buffer.
+ *
+ * Request threads claim a slot with a CAS on the claim sequence, fill its fields in place and
+ * publish it with a volatile write of the slot sequence; nothing is allocated and no lock is
+ * taken. A single background writer drains published slots in batches into a rolling,
+ * gzip-compressed, append-only file, and flushes it once FLUSH_BYTES of entries are pending or
+ * flushInterval has passed since the last flush, whichever comes first.
+ *
+ * When the buffer is full the configured {@link FullPolicy} applies: DROP discards the entry,
+ * BLOCK parks the caller until the writer frees a slot. Both cases are counted in the stats.
+ */
+public class RingBufferPolicyDecisionLog implements PolicyDecisionLog, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RingBufferPolicyDecisionLog.class);
+
+    private static final int MAX_BATCH = 1024;
+    private static final long PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long WRITER_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // Uncompressed bytes written since the last flush that force the next one
+    private static final long FLUSH_BYTES = 256 * 1024;
+
+    public enum FullPolicy {
+        DROP,
+        BLOCK
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final FullPolicy fullPolicy;
+    private final RollingDecisionFile file;
+    private final long flushIntervalNanos;
+    private final Thread writer;
+
+    // Next sequence to hand out to a producer
+    private final AtomicLong claimed = new AtomicLong();
+    // Next sequence the writer will read; slots below it may be reused
+    private volatile long consumed;
+    private volatile boolean running = true;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder backpressured = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public RingBufferPolicyDecisionLog(int capacity, FullPolicy fullPolicy, RollingDecisionFile file,
+                                       Duration flushInterval) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a positive power of two. Got: " + capacity);
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("flushInterval must be positive. Got: " + flushInterval);
+        }
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+        this.fullPolicy = fullPolicy;
+        this.file = file;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.writer = new Thread(this::drain, "policy-decision-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void record(String profileUrn, String subject, String action, String resource,
+                       DecisionOutcome outcome, String statementId) {
+        long sequence;
+        boolean waited = false;
+        while (true) {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                if (fullPolicy == FullPolicy.DROP || !running) {
+                    dropped.increment();
+                    return;
+                }
+                if (!waited) {
+                    backpressured.increment();
+                    waited = true;
+                }
+                LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+                continue;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+
+        Slot slot = slots[(int) sequence & mask];
+        slot.profileUrn = profileUrn;
+        slot.subject = subject;
+        slot.action = action;
+        slot.resource = resource;
+        slot.outcome = outcome;
+        slot.statementId = statementId;
+        slot.nanoTime = System.nanoTime();
+        slot.sequence = sequence;
+        recorded.increment();
+    }
+
+    @Override
+    public DecisionLogStats stats() {
+        return new DecisionLogStats(recorded.sum(), dropped.sum(), backpressured.sum(), written.sum(), failed.sum());
+    }
+
+    /**
+     * Stop accepting entries, flush everything already recorded and close the current file.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        long lastFlush = System.nanoTime();
+        try {
+            while (running || consumed < claimed.get()) {
+                long next = consumed;
+                int batch = 0;
+                int failures = 0;
+                IOException firstFailure = null;
+                Slot slot = slots[(int) next & mask];
+                while (batch < MAX_BATCH && slot.sequence == next) {
+                    try {
+                        write(slot);
+                    } catch (IOException e) {
+                        failures++;
+                        firstFailure = firstFailure == null ? e : firstFailure;
+                    }
+                    next++;
+                    batch++;
+                    slot = slots[(int) next & mask];
+                }
+                if (batch > 0) {
+                    consumed = next;
+                    written.add(batch - failures);
+                    failed.add(failures);
+                }
+                if (firstFailure != null) {
+                    log.error("Failed to write {} of {} policy decision log entries", failures, batch, firstFailure);
+                }
+
+                long now = System.nanoTime();
+                long pending = file.unflushedBytes();
+                if (pending >= FLUSH_BYTES || (pending > 0 && now - lastFlush >= flushIntervalNanos)) {
+                    flush();
+                    lastFlush = now;
+                }
+                if (batch == 0) {
+                    LockSupport.parkNanos(WRITER_IDLE_PARK_NANOS);
+                }
+            }
+        } finally {
+            try {
+                file.close();
+            } catch (IOException e) {
+                log.error("Failed to close policy decision log file", e);
+            }
+        }
+    }
+
+    private void write(Slot slot) throws IOException {
+        try {
+            file.append(slot.nanoTime, slot.profileUrn, slot.subject, slot.action, slot.resource,
+                slot.outcome, slot.statementId);
+        } finally {
+            // Release references so the slot does not keep request strings alive
+            slot.profileUrn = null;
+            slot.subject = null;
+            slot.action = null;
+            slot.resource = null;
+            slot.statementId = null;
+        }
+    }
+
+    private void flush() {
+        try {
+            file.flush();
+        } catch (IOException e) {
+            log.error("Failed to flush policy decision log", e);
+        }
+    }
+
+    /**
+     * Fixed-size entry. Fields are plain and made visible by the volatile sequence write.
+     */
+    private static final class Slot {
+        private volatile long sequence = -1;
+        private String profileUrn;
+        private String subject;
+        private String action;
+        private String resource;
+        private DecisionOutcome outcome;
+        private String statementId;
+        private long nanoTime;
+    }
+}
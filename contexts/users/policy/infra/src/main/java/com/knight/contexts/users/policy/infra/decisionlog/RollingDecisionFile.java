@@ -0,0 +1,112 @@
+package com.knight.contexts.users.policy.infra.decisionlog;
+
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog.DecisionOutcome;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only, gzip-compressed decision log files, rolled once a file holds maxBytesPerFile
+ * of uncompressed entries. One tab-separated line per decision:
+ * nanoTime, profileUrn, subject, action, resource, outcome, statementId.
+ *
+ * Each file starts with a header pairing wall-clock time with nanoTime, so entry times can be
+ * converted back to instants. Only used from the decision log writer thread.
+ */
+public class RollingDecisionFile implements Closeable {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSS").withZone(ZoneOffset.UTC);
+
+    private final Path directory;
+    private final long maxBytesPerFile;
+    private final StringBuilder line = new StringBuilder(256);
+
+    private Writer out;
+    private long bytesInFile;
+    private long unflushed;
+    private int fileIndex;
+
+    public RollingDecisionFile(Path directory, long maxBytesPerFile) {
+        if (maxBytesPerFile <= 0) {
+            throw new IllegalArgumentException("maxBytesPerFile must be > 0");
+        }
+        this.directory = directory;
+        this.maxBytesPerFile = maxBytesPerFile;
+    }
+
+    public void append(long nanoTime, String profileUrn, String subject, String action, String resource,
+                       DecisionOutcome outcome, String statementId) throws IOException {
+        if (out == null || bytesInFile >= maxBytesPerFile) {
+            roll();
+        }
+        line.setLength(0);
+        line.append(nanoTime).append('\t')
+            .append(profileUrn).append('\t')
+            .append(subject).append('\t')
+            .append(action).append('\t')
+            .append(resource).append('\t')
+            .append(outcome).append('\t')
+            .append(statementId == null ? "-" : statementId).append('\n');
+        out.append(line);
+        bytesInFile += line.length();
+        unflushed += line.length();
+    }
+
+    /**
+     * Uncompressed bytes appended since the last flush.
+     */
+    public long unflushedBytes() {
+        return unflushed;
+    }
+
+    /**
+     * Push buffered entries through the compressor to the file.
+     */
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+        unflushed = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+        unflushed = 0;
+    }
+
+    private void roll() throws IOException {
+        close();
+        Files.createDirectories(directory);
+
+        Instant now = Instant.now();
+        Path path = directory.resolve(
+            "policy-decisions-" + FILE_TIMESTAMP.format(now) + "-" + (fileIndex++) + ".log.gz");
+        out = new BufferedWriter(new OutputStreamWriter(
+            // syncFlush so everything up to the last flush is readable even if the process dies afterwards
+            new GZIPOutputStream(
+                Files.newOutputStream(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+                64 * 1024,
+                true
+            ),
+            StandardCharsets.UTF_8
+        ));
+        out.write("# epochMillis=" + now.toEpochMilli() + " nanoTime=" + System.nanoTime() + "\n");
+        bytesInFile = 0;
+    }
+}
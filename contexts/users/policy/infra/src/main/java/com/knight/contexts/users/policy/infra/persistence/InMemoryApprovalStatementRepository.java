@@ -1,40 +1,158 @@
 package com.knight.contexts.users.policy.infra.persistence;
 
 import com.knight.contexts.users.policy.app.repository.ApprovalStatementRepository;
+import com.knight.contexts.users.policy.app.repository.StatementWatermark;
+import com.knight.contexts.users.policy.app.service.ProfileUrns;
 import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
 import com.knight.platform.sharedkernel.ProfileId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 /**
  * In-memory implementation of ApprovalStatementRepository for development/testing.
+ * Holds detached copies, so callers mutating a loaded aggregate never change stored state before save.
+ * Active unless knight.policy.persistence selects another store.
  */
 @Repository
+@ConditionalOnProperty(name = "knight.policy.persistence", havingValue = "memory", matchIfMissing = true)
 public class InMemoryApprovalStatementRepository implements ApprovalStatementRepository {
 
     private final Map<String, ApprovalStatement> store = new ConcurrentHashMap<>();
 
+    // Secondary index: profile URN -> statement ids in id order, kept in step with the store under its per-key lock
+    private final Map<String, NavigableSet<String>> idsByProfile = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(ApprovalStatement aggregate) {
+        ApprovalStatement statement = copy(aggregate);
+        store.compute(statement.statementId(), (id, previous) -> {
+            if (previous != null && !previous.profileId().urn().equals(statement.profileId().urn())) {
+                unindex(previous);
+            }
+            index(statement);
+            return statement;
+        });
+    }
+
     @Override
-    public void save(ApprovalStatement statement) {
-        store.put(statement.statementId(), statement);
+    public void saveAll(Collection<ApprovalStatement> statements) {
+        statements.forEach(this::save);
     }
 
     @Override
     public Optional<ApprovalStatement> findById(String statementId) {
-        return Optional.ofNullable(store.get(statementId));
+        return Optional.ofNullable(store.get(statementId)).map(this::copy);
     }
 
     @Override
     public List<ApprovalStatement> findByProfileId(ProfileId profileId) {
-        return store.values().stream()
-            .filter(s -> s.profileId().urn().equals(profileId.urn()))
-            .toList();
+        Set<String> ids = idsByProfile.get(profileId.urn());
+        if (ids == null) {
+            return List.of();
+        }
+        List<ApprovalStatement> statements = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            ApprovalStatement statement = store.get(id);
+            if (statement != null) {
+                statements.add(copy(statement));
+            }
+        }
+        return statements;
+    }
+
+    @Override
+    public List<ApprovalStatement> findPageByProfileId(ProfileId profileId, String afterStatementId, int limit) {
+        NavigableSet<String> ids = idsByProfile.get(profileId.urn());
+        if (ids == null) {
+            return List.of();
+        }
+        List<ApprovalStatement> page = new ArrayList<>(Math.min(limit, ids.size()));
+        for (String id : afterStatementId == null ? ids : ids.tailSet(afterStatementId, false)) {
+            ApprovalStatement statement = store.get(id);
+            if (statement != null) {
+                page.add(copy(statement));
+                if (page.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public Map<String, List<ApprovalStatement>> findAllByProfile() {
+        Map<String, List<ApprovalStatement>> statements = new HashMap<>();
+        for (String profileUrn : idsByProfile.keySet()) {
+            List<ApprovalStatement> profile = findByProfileId(ProfileUrns.parse(profileUrn));
+            if (!profile.isEmpty()) {
+                statements.put(profileUrn, profile);
+            }
+        }
+        return statements;
+    }
+
+    @Override
+    public Map<String, StatementWatermark> findWatermarks() {
+        Map<String, StatementWatermark> watermarks = new HashMap<>();
+        for (ApprovalStatement statement : store.values()) {
+            watermarks.merge(
+                statement.profileId().urn(),
+                new StatementWatermark(1, statement.updatedAt()),
+                (a, b) -> new StatementWatermark(
+                    a.count() + b.count(),
+                    a.lastUpdatedAt().isAfter(b.lastUpdatedAt()) ? a.lastUpdatedAt() : b.lastUpdatedAt())
+            );
+        }
+        return watermarks;
     }
 
     @Override
     public void delete(String statementId) {
-        store.remove(statementId);
+        store.computeIfPresent(statementId, (id, existing) -> {
+            unindex(existing);
+            return null;
+        });
+    }
+
+    @Override
+    public int deleteByProfileId(ProfileId profileId) {
+        Set<String> ids = idsByProfile.get(profileId.urn());
+        if (ids == null) {
+            return 0;
+        }
+        int[] deleted = new int[1];
+        for (String id : List.copyOf(ids)) {
+            store.computeIfPresent(id, (key, existing) -> {
+                unindex(existing);
+                deleted[0]++;
+                return null;
+            });
+        }
+        return deleted[0];
+    }
+
+    private void index(ApprovalStatement statement) {
+        idsByProfile.compute(statement.profileId().urn(), (urn, ids) -> {
+            NavigableSet<String> target = ids != null ? ids : new ConcurrentSkipListSet<>();
+            target.add(statement.statementId());
+            return target;
+        });
+    }
+
+    private void unindex(ApprovalStatement statement) {
+        idsByProfile.computeIfPresent(statement.profileId().urn(), (urn, ids) -> {
+            ids.remove(statement.statementId());
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private ApprovalStatement copy(ApprovalStatement s) {
+        return ApprovalStatement.reconstruct(s.statementId(), s.profileId(), s.subject(), s.action(),
+            s.resource(), s.approverCount(), s.approvers(), s.amountThreshold(), s.conditions(), s.createdAt(),
+            s.updatedAt());
     }
 }
@@ -0,0 +1,45 @@
+package com.knight.contexts.users.policy.infra.persistence;
+
+import com.knight.contexts.users.policy.app.repository.GroupMembershipRepository;
+import com.knight.platform.sharedkernel.UserGroupId;
+import com.knight.platform.sharedkernel.UserId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory implementation of GroupMembershipRepository for development/testing.
+ * Active unless knight.policy.persistence selects another store.
+ */
+@Repository
+@ConditionalOnProperty(name = "knight.policy.persistence", havingValue = "memory", matchIfMissing = true)
+public class InMemoryGroupMembershipRepository implements GroupMembershipRepository {
+
+    private final Map<UserId, Set<UserGroupId>> groupsByUser = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(UserId userId, UserGroupId groupId) {
+        groupsByUser.compute(userId, (user, groups) -> {
+            Set<UserGroupId> updated = groups == null ? ConcurrentHashMap.newKeySet() : groups;
+            updated.add(groupId);
+            return updated;
+        });
+    }
+
+    @Override
+    public void remove(UserId userId, UserGroupId groupId) {
+        groupsByUser.computeIfPresent(userId, (user, groups) -> {
+            groups.remove(groupId);
+            return groups.isEmpty() ? null : groups;
+        });
+    }
+
+    @Override
+    public Set<UserGroupId> findGroupsOf(UserId userId) {
+        Set<UserGroupId> groups = groupsByUser.get(userId);
+        return groups == null ? Set.of() : Set.copyOf(groups);
+    }
+}
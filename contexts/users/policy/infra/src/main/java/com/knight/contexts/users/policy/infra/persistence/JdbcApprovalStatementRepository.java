@@ -0,0 +1,252 @@
+package com.knight.contexts.users.policy.infra.persistence;
+
+import com.knight.contexts.users.policy.app.repository.ApprovalStatementRepository;
+import com.knight.contexts.users.policy.app.repository.StatementWatermark;
+import com.knight.contexts.users.policy.app.service.ProfileUrns;
+import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
+import com.knight.contexts.users.policy.domain.condition.Conditions;
+import com.knight.platform.sharedkernel.ProfileId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JDBC implementation of ApprovalStatementRepository on the policy schema.
+ * Approvers live in a child table; statements and their approvers are read with a single join.
+ */
+@Repository
+@ConditionalOnProperty(name = "knight.policy.persistence", havingValue = "jdbc")
+public class JdbcApprovalStatementRepository implements ApprovalStatementRepository {
+
+    private static final String SELECT_COLUMNS =
+        "SELECT s.statement_id, s.profile_urn, s.subject, s.action, s.resource, s.approver_count, "
+            + "s.amount_threshold, s.conditions, s.created_at, s.updated_at, a.approver ";
+
+    private static final String APPROVER_JOIN =
+        "LEFT JOIN policy.approval_statement_approver a ON a.statement_id = s.statement_id ";
+
+    private static final String SELECT = SELECT_COLUMNS + "FROM policy.approval_statement s " + APPROVER_JOIN;
+
+    // The limit applies to statements, not to joined approver rows
+    private static final String SELECT_PAGE = SELECT_COLUMNS
+        + "FROM (SELECT * FROM policy.approval_statement WHERE profile_urn = ? AND statement_id > ? "
+        + "ORDER BY statement_id LIMIT ?) s " + APPROVER_JOIN
+        + "ORDER BY s.statement_id, a.ordinal";
+
+    private static final String INSERT =
+        "INSERT INTO policy.approval_statement (statement_id, profile_urn, subject, action, resource, "
+            + "approver_count, amount_threshold, conditions, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Subject, action, resource and profile never change after creation
+    private static final String UPDATE =
+        "UPDATE policy.approval_statement SET approver_count = ?, amount_threshold = ?, conditions = ?, updated_at = ? "
+            + "WHERE statement_id = ?";
+
+    private static final String DELETE_APPROVERS =
+        "DELETE FROM policy.approval_statement_approver WHERE statement_id = ?";
+
+    private static final String INSERT_APPROVER =
+        "INSERT INTO policy.approval_statement_approver (statement_id, ordinal, approver) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcApprovalStatementRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void save(ApprovalStatement statement) {
+        saveAll(List.of(statement));
+    }
+
+    /**
+     * Batch-update existing statements, batch-insert new ones, then rewrite all their approvers
+     * in one delete batch and one insert batch.
+     */
+    @Override
+    public void saveAll(Collection<ApprovalStatement> statements) {
+        if (statements.isEmpty()) {
+            return;
+        }
+        List<ApprovalStatement> ordered = new ArrayList<>(statements);
+
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE, ordered, ordered.size(), (ps, s) -> {
+            ps.setInt(1, s.approverCount());
+            setThreshold(ps, 2, s.amountThreshold());
+            ps.setString(3, s.conditions().format());
+            ps.setTimestamp(4, Timestamp.from(s.updatedAt()));
+            ps.setString(5, s.statementId());
+        })[0];
+
+        List<ApprovalStatement> inserts = new ArrayList<>();
+        List<ApprovalStatement> existing = new ArrayList<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            (updated[i] == 0 ? inserts : existing).add(ordered.get(i));
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, inserts, inserts.size(), (ps, s) -> {
+                ps.setString(1, s.statementId());
+                ps.setString(2, s.profileId().urn());
+                ps.setString(3, s.subject());
+                ps.setString(4, s.action());
+                ps.setString(5, s.resource());
+                ps.setInt(6, s.approverCount());
+                setThreshold(ps, 7, s.amountThreshold());
+                ps.setString(8, s.conditions().format());
+                ps.setTimestamp(9, Timestamp.from(s.createdAt()));
+                ps.setTimestamp(10, Timestamp.from(s.updatedAt()));
+            });
+        }
+        if (!existing.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_APPROVERS, existing, existing.size(),
+                (ps, s) -> ps.setString(1, s.statementId()));
+        }
+
+        List<Object[]> approvers = new ArrayList<>();
+        for (ApprovalStatement s : ordered) {
+            List<String> list = s.approvers();
+            for (int i = 0; i < list.size(); i++) {
+                approvers.add(new Object[]{s.statementId(), i, list.get(i)});
+            }
+        }
+        if (!approvers.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_APPROVER, approvers);
+        }
+    }
+
+    @Override
+    public Optional<ApprovalStatement> findById(String statementId) {
+        return query(SELECT + "WHERE s.statement_id = ? ORDER BY a.ordinal", statementId).stream().findFirst();
+    }
+
+    @Override
+    public List<ApprovalStatement> findByProfileId(ProfileId profileId) {
+        return query(SELECT + "WHERE s.profile_urn = ? ORDER BY s.statement_id, a.ordinal", profileId.urn());
+    }
+
+    @Override
+    public Map<String, List<ApprovalStatement>> findAllByProfile() {
+        Map<String, List<ApprovalStatement>> statements = new HashMap<>();
+        for (ApprovalStatement statement : query(SELECT + "ORDER BY s.profile_urn, s.statement_id, a.ordinal")) {
+            statements.computeIfAbsent(statement.profileId().urn(), urn -> new ArrayList<>()).add(statement);
+        }
+        return statements;
+    }
+
+    @Override
+    public List<ApprovalStatement> findPageByProfileId(ProfileId profileId, String afterStatementId, int limit) {
+        return query(SELECT_PAGE, profileId.urn(), afterStatementId == null ? "" : afterStatementId, limit);
+    }
+
+    @Override
+    public Map<String, StatementWatermark> findWatermarks() {
+        Map<String, StatementWatermark> watermarks = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT profile_urn, COUNT(*) AS statements, MAX(updated_at) AS last_updated_at "
+                + "FROM policy.approval_statement GROUP BY profile_urn",
+            rs -> {
+                watermarks.put(rs.getString("profile_urn"), new StatementWatermark(
+                    rs.getLong("statements"), rs.getTimestamp("last_updated_at").toInstant()));
+            }
+        );
+        return watermarks;
+    }
+
+    @Override
+    public void delete(String statementId) {
+        // Approvers are removed by the ON DELETE CASCADE foreign key
+        jdbcTemplate.update("DELETE FROM policy.approval_statement WHERE statement_id = ?", statementId);
+    }
+
+    @Override
+    public int deleteByProfileId(ProfileId profileId) {
+        return jdbcTemplate.update("DELETE FROM policy.approval_statement WHERE profile_urn = ?", profileId.urn());
+    }
+
+    /**
+     * Fold the joined rows, ordered by statement, into one aggregate per statement.
+     */
+    private List<ApprovalStatement> query(String sql, Object... parameters) {
+        Map<String, Row> rows = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            String statementId = rs.getString("statement_id");
+            Row row = rows.get(statementId);
+            if (row == null) {
+                row = Row.of(rs);
+                rows.put(statementId, row);
+            }
+            String approver = rs.getString("approver");
+            if (approver != null) {
+                row.approvers.add(approver);
+            }
+        }, parameters);
+
+        List<ApprovalStatement> statements = new ArrayList<>(rows.size());
+        for (Row row : rows.values()) {
+            statements.add(row.toStatement());
+        }
+        return statements;
+    }
+
+    private static void setThreshold(PreparedStatement ps, int index, BigDecimal threshold)
+        throws SQLException {
+        if (threshold == null) {
+            ps.setNull(index, Types.NUMERIC);
+        } else {
+            ps.setBigDecimal(index, threshold);
+        }
+    }
+
+    private record Row(
+        String statementId,
+        String profileUrn,
+        String subject,
+        String action,
+        String resource,
+        int approverCount,
+        BigDecimal amountThreshold,
+        String conditions,
+        Instant createdAt,
+        Instant updatedAt,
+        List<String> approvers
+    ) {
+        static Row of(ResultSet rs) throws SQLException {
+            return new Row(
+                rs.getString("statement_id"),
+                rs.getString("profile_urn"),
+                rs.getString("subject"),
+                rs.getString("action"),
+                rs.getString("resource"),
+                rs.getInt("approver_count"),
+                rs.getBigDecimal("amount_threshold"),
+                rs.getString("conditions"),
+                rs.getTimestamp("created_at").toInstant(),
+                rs.getTimestamp("updated_at").toInstant(),
+                new ArrayList<>()
+            );
+        }
+
+        ApprovalStatement toStatement() {
+            return ApprovalStatement.reconstruct(
+                statementId, ProfileUrns.parse(profileUrn), subject, action, resource,
+                approverCount, approvers, amountThreshold, Conditions.parse(conditions), createdAt, updatedAt);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.knight.contexts.users.policy.infra.persistence;
+
+import com.knight.contexts.users.policy.app.repository.GroupMembershipRepository;
+import com.knight.platform.sharedkernel.UserGroupId;
+import com.knight.platform.sharedkernel.UserId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * JDBC implementation of GroupMembershipRepository on the policy schema.
+ * A user's groups are read through the primary key, which leads with the user.
+ */
+@Repository
+@ConditionalOnProperty(name = "knight.policy.persistence", havingValue = "jdbc")
+public class JdbcGroupMembershipRepository implements GroupMembershipRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcGroupMembershipRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void add(UserId userId, UserGroupId groupId) {
+        try {
+            jdbcTemplate.update(
+                "INSERT INTO policy.group_membership (user_urn, group_urn) VALUES (?, ?)",
+                userId.urn(), groupId.urn());
+        } catch (DuplicateKeyException alreadyMember) {
+            // Redelivered event: the membership is already recorded
+        }
+    }
+
+    @Override
+    public void remove(UserId userId, UserGroupId groupId) {
+        jdbcTemplate.update(
+            "DELETE FROM policy.group_membership WHERE user_urn = ? AND group_urn = ?",
+            userId.urn(), groupId.urn());
+    }
+
+    @Override
+    public Set<UserGroupId> findGroupsOf(UserId userId) {
+        return new HashSet<>(jdbcTemplate.query(
+            "SELECT group_urn FROM policy.group_membership WHERE user_urn = ?",
+            (rs, rowNum) -> UserGroupId.fromUrn(rs.getString("group_urn")),
+            userId.urn()));
+    }
+}
@@ -0,0 +1,185 @@
+package com.knight.contexts.users.policy.infra.persistence;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.app.repository.PermissionStatementRepository;
+import com.knight.contexts.users.policy.app.repository.StatementWatermark;
+import com.knight.contexts.users.policy.app.service.ProfileUrns;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.condition.Conditions;
+import com.knight.platform.sharedkernel.ProfileId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JDBC implementation of PermissionStatementRepository on the policy schema.
+ * A profile is loaded with one indexed query; multi-statement writes go out as JDBC batches.
+ */
+@Repository
+@ConditionalOnProperty(name = "knight.policy.persistence", havingValue = "jdbc")
+public class JdbcPermissionStatementRepository implements PermissionStatementRepository {
+
+    private static final String COLUMNS =
+        "statement_id, profile_urn, subject, action, resource, effect, conditions, created_at, updated_at";
+
+    private static final String INSERT =
+        "INSERT INTO policy.permission_statement (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Subject and profile never change after creation
+    private static final String UPDATE =
+        "UPDATE policy.permission_statement SET action = ?, resource = ?, effect = ?, conditions = ?, updated_at = ? "
+            + "WHERE statement_id = ?";
+
+    private static final RowMapper<PermissionStatement> ROW_MAPPER = (rs, rowNum) -> PermissionStatement.reconstruct(
+        rs.getString("statement_id"),
+        ProfileUrns.parse(rs.getString("profile_urn")),
+        rs.getString("subject"),
+        rs.getString("action"),
+        rs.getString("resource"),
+        Effect.valueOf(rs.getString("effect")),
+        Conditions.parse(rs.getString("conditions")),
+        rs.getTimestamp("created_at").toInstant(),
+        rs.getTimestamp("updated_at").toInstant()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcPermissionStatementRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void save(PermissionStatement statement) {
+        saveAll(List.of(statement));
+    }
+
+    /**
+     * Batch-update the statements, then batch-insert those that did not exist yet.
+     */
+    @Override
+    public void saveAll(Collection<PermissionStatement> statements) {
+        if (statements.isEmpty()) {
+            return;
+        }
+        List<PermissionStatement> ordered = new ArrayList<>(statements);
+
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE, ordered, ordered.size(), (ps, s) -> {
+            ps.setString(1, s.action());
+            ps.setString(2, s.resource());
+            ps.setString(3, s.effect().name());
+            ps.setString(4, s.conditions().format());
+            ps.setTimestamp(5, Timestamp.from(s.updatedAt()));
+            ps.setString(6, s.statementId());
+        })[0];
+
+        List<PermissionStatement> inserts = new ArrayList<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            if (updated[i] == 0) {
+                inserts.add(ordered.get(i));
+            }
+        }
+        if (inserts.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, inserts, inserts.size(), (ps, s) -> {
+            ps.setString(1, s.statementId());
+            ps.setString(2, s.profileId().urn());
+            ps.setString(3, s.subject());
+            ps.setString(4, s.action());
+            ps.setString(5, s.resource());
+            ps.setString(6, s.effect().name());
+            ps.setString(7, s.conditions().format());
+            ps.setTimestamp(8, Timestamp.from(s.createdAt()));
+            ps.setTimestamp(9, Timestamp.from(s.updatedAt()));
+        });
+    }
+
+    @Override
+    public Optional<PermissionStatement> findById(String statementId) {
+        return jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM policy.permission_statement WHERE statement_id = ?",
+            ROW_MAPPER,
+            statementId
+        ).stream().findFirst();
+    }
+
+    @Override
+    public List<PermissionStatement> findByProfileId(ProfileId profileId) {
+        return jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM policy.permission_statement WHERE profile_urn = ? ORDER BY statement_id",
+            ROW_MAPPER,
+            profileId.urn()
+        );
+    }
+
+    @Override
+    public Map<String, List<PermissionStatement>> findAllByProfile() {
+        Map<String, List<PermissionStatement>> statements = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM policy.permission_statement ORDER BY profile_urn, statement_id",
+            rs -> {
+                PermissionStatement statement = ROW_MAPPER.mapRow(rs, 0);
+                statements.computeIfAbsent(rs.getString("profile_urn"), urn -> new ArrayList<>()).add(statement);
+            }
+        );
+        return statements;
+    }
+
+    @Override
+    public List<PermissionStatement> findPageByProfileId(
+        ProfileId profileId,
+        Effect effect,
+        String afterStatementId,
+        int limit
+    ) {
+        // An empty string sorts before every id, so the first page needs no separate query shape
+        String after = afterStatementId == null ? "" : afterStatementId;
+        if (effect == null) {
+            return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM policy.permission_statement WHERE profile_urn = ? AND statement_id > ? "
+                    + "ORDER BY statement_id LIMIT ?",
+                ROW_MAPPER,
+                profileId.urn(), after, limit
+            );
+        }
+        return jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM policy.permission_statement WHERE profile_urn = ? AND effect = ? "
+                + "AND statement_id > ? ORDER BY statement_id LIMIT ?",
+            ROW_MAPPER,
+            profileId.urn(), effect.name(), after, limit
+        );
+    }
+
+    @Override
+    public Map<String, StatementWatermark> findWatermarks() {
+        Map<String, StatementWatermark> watermarks = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT profile_urn, COUNT(*) AS statements, MAX(updated_at) AS last_updated_at "
+                + "FROM policy.permission_statement GROUP BY profile_urn",
+            rs -> {
+                watermarks.put(rs.getString("profile_urn"), new StatementWatermark(
+                    rs.getLong("statements"), rs.getTimestamp("last_updated_at").toInstant()));
+            }
+        );
+        return watermarks;
+    }
+
+    @Override
+    public void delete(String statementId) {
+        jdbcTemplate.update("DELETE FROM policy.permission_statement WHERE statement_id = ?", statementId);
+    }
+
+    @Override
+    public int deleteByProfileId(ProfileId profileId) {
+        return jdbcTemplate.update("DELETE FROM policy.permission_statement WHERE profile_urn = ?", profileId.urn());
+    }
+}
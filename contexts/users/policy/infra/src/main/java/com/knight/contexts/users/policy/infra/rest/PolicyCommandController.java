@@ -1,9 +1,14 @@
 package com.knight.contexts.users.policy.infra.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.knight.contexts.users.policy.api.commands.PolicyCommands;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -15,9 +20,11 @@ import java.util.List;
 public class PolicyCommandController {
 
     private final PolicyCommands commands;
+    private final StatementImportReader importReader;
 
-    public PolicyCommandController(PolicyCommands commands) {
+    public PolicyCommandController(PolicyCommands commands, ObjectMapper objectMapper) {
         this.commands = commands;
+        this.importReader = new StatementImportReader(objectMapper);
     }
 
     @PostMapping("/permission-statements")
@@ -29,7 +36,8 @@ public class PolicyCommandController {
             request.subject(),
             request.action(),
             request.resource(),
-            request.effect()
+            request.effect(),
+            request.conditions()
         );
 
         String statementId = commands.createPermissionStatement(cmd);
@@ -46,7 +54,8 @@ public class PolicyCommandController {
             statementId,
             request.action(),
             request.resource(),
-            request.effect()
+            request.effect(),
+            request.conditions()
         );
 
         commands.updatePermissionStatement(cmd);
@@ -74,7 +83,8 @@ public class PolicyCommandController {
             request.resource(),
             request.approverCount(),
             request.approvers(),
-            request.amountThreshold()
+            request.amountThreshold(),
+            request.conditions()
         );
 
         String statementId = commands.createApprovalStatement(cmd);
@@ -91,7 +101,8 @@ public class PolicyCommandController {
             statementId,
             request.approverCount(),
             request.approvers(),
-            request.amountThreshold()
+            request.amountThreshold(),
+            request.conditions()
         );
 
         commands.updateApprovalStatement(cmd);
@@ -108,18 +119,58 @@ public class PolicyCommandController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Bulk-create statements for a profile from a streamed NDJSON or CSV body.
+     */
+    @PostMapping(
+        value = "/profiles/{profileUrn}/statements",
+        consumes = {StatementImportReader.NDJSON, StatementImportReader.CSV}
+    )
+    public ResponseEntity<PolicyCommands.BulkImportResult> bulkCreateStatements(
+        @PathVariable String profileUrn,
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        InputStream body
+    ) throws IOException {
+        PolicyCommands.BulkStatementsCmd cmd = importReader.read(profileUrn, body, isCsv(contentType));
+
+        return ResponseEntity.ok(commands.bulkCreateStatements(cmd));
+    }
+
+    /**
+     * Replace all statements of a profile with a streamed NDJSON or CSV body.
+     */
+    @PutMapping(
+        value = "/profiles/{profileUrn}/statements",
+        consumes = {StatementImportReader.NDJSON, StatementImportReader.CSV}
+    )
+    public ResponseEntity<PolicyCommands.BulkImportResult> replaceStatements(
+        @PathVariable String profileUrn,
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        InputStream body
+    ) throws IOException {
+        PolicyCommands.BulkStatementsCmd cmd = importReader.read(profileUrn, body, isCsv(contentType));
+
+        return ResponseEntity.ok(commands.replaceStatements(cmd));
+    }
+
+    private static boolean isCsv(MediaType contentType) {
+        return contentType.isCompatibleWith(MediaType.parseMediaType(StatementImportReader.CSV));
+    }
+
     record CreatePermissionRequest(
         String profileUrn,
         String subject,
         String action,
         String resource,
-        PolicyCommands.Effect effect
+        PolicyCommands.Effect effect,
+        String conditions
     ) {}
 
     record UpdatePermissionRequest(
         String action,
         String resource,
-        PolicyCommands.Effect effect
+        PolicyCommands.Effect effect,
+        String conditions
     ) {}
 
     record CreateApprovalRequest(
@@ -129,13 +180,15 @@ public class PolicyCommandController {
         String resource,
         int approverCount,
         List<String> approvers,
-        BigDecimal amountThreshold
+        BigDecimal amountThreshold,
+        String conditions
     ) {}
 
     record UpdateApprovalRequest(
         int approverCount,
         List<String> approvers,
-        BigDecimal amountThreshold
+        BigDecimal amountThreshold,
+        String conditions
     ) {}
 
     record CreateStatementResult(String statementId) {}
@@ -1,9 +1,20 @@
 package com.knight.contexts.users.policy.infra.rest;
 
+import com.knight.contexts.users.policy.api.commands.PolicyCommands;
 import com.knight.contexts.users.policy.api.queries.PolicyQueries;
+import com.knight.contexts.users.policy.app.cache.PolicyDecisionCache;
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -15,9 +26,20 @@ import java.util.List;
 public class PolicyQueryController {
 
     private final PolicyQueries queries;
+    private final PolicyDecisionCache decisionCache;
+    private final PolicyDecisionLog decisionLog;
+    private final ObjectMapper objectMapper;
 
-    public PolicyQueryController(PolicyQueries queries) {
+    public PolicyQueryController(
+        PolicyQueries queries,
+        PolicyDecisionCache decisionCache,
+        PolicyDecisionLog decisionLog,
+        ObjectMapper objectMapper
+    ) {
         this.queries = queries;
+        this.decisionCache = decisionCache;
+        this.decisionLog = decisionLog;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/evaluate-permission")
@@ -28,7 +50,8 @@ public class PolicyQueryController {
             request.profileUrn(),
             request.subject(),
             request.action(),
-            request.resource()
+            request.resource(),
+            request.context()
         );
 
         PolicyQueries.PermissionResult result = queries.evaluatePermission(query);
@@ -36,6 +59,42 @@ public class PolicyQueryController {
         return ResponseEntity.ok(result);
     }
 
+    @PostMapping("/decide-permission")
+    public ResponseEntity<PolicyQueries.PermissionDecision> decidePermission(
+        @RequestBody EvaluatePermissionRequest request,
+        @RequestParam(defaultValue = "false") boolean explain
+    ) {
+        PolicyQueries.EvaluatePermissionQuery query = new PolicyQueries.EvaluatePermissionQuery(
+            request.profileUrn(),
+            request.subject(),
+            request.action(),
+            request.resource(),
+            request.context()
+        );
+
+        PolicyQueries.PermissionDecision decision = queries.decidePermission(query, explain);
+
+        return ResponseEntity.ok(decision);
+    }
+
+    @PostMapping("/evaluate-permissions")
+    public ResponseEntity<List<PolicyQueries.PermissionResult>> evaluatePermissions(
+        @RequestBody EvaluatePermissionsRequest request
+    ) {
+        PolicyQueries.EvaluatePermissionsQuery query = new PolicyQueries.EvaluatePermissionsQuery(
+            request.profileUrn(),
+            request.checks(),
+            request.context()
+        );
+
+        try {
+            return ResponseEntity.ok(queries.evaluatePermissions(query));
+        } catch (IllegalArgumentException e) {
+            // An oversized batch or a malformed profile URN is a client error
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     @PostMapping("/evaluate-approval")
     public ResponseEntity<PolicyQueries.ApprovalRequirement> evaluateApproval(
         @RequestBody EvaluateApprovalRequest request
@@ -45,7 +104,8 @@ public class PolicyQueryController {
             request.subject(),
             request.action(),
             request.resource(),
-            request.amount()
+            request.amount(),
+            request.context()
         );
 
         PolicyQueries.ApprovalRequirement result = queries.evaluateApprovalRequirement(query);
@@ -53,6 +113,25 @@ public class PolicyQueryController {
         return ResponseEntity.ok(result);
     }
 
+    @PostMapping("/decide-approval")
+    public ResponseEntity<PolicyQueries.ApprovalDecision> decideApproval(
+        @RequestBody EvaluateApprovalRequest request,
+        @RequestParam(defaultValue = "false") boolean explain
+    ) {
+        PolicyQueries.EvaluateApprovalQuery query = new PolicyQueries.EvaluateApprovalQuery(
+            request.profileUrn(),
+            request.subject(),
+            request.action(),
+            request.resource(),
+            request.amount(),
+            request.context()
+        );
+
+        PolicyQueries.ApprovalDecision decision = queries.decideApproval(query, explain);
+
+        return ResponseEntity.ok(decision);
+    }
+
     @GetMapping("/profiles/{profileUrn}/statements")
     public ResponseEntity<List<PolicyQueries.StatementSummary>> getStatementsForProfile(
         @PathVariable String profileUrn
@@ -62,11 +141,111 @@ public class PolicyQueryController {
         return ResponseEntity.ok(statements);
     }
 
+    @GetMapping("/profiles/{profileUrn}/statements/page")
+    public ResponseEntity<PolicyQueries.StatementPage> getStatementsPage(
+        @PathVariable String profileUrn,
+        @RequestParam(required = false) String type,
+        @RequestParam(required = false) PolicyCommands.Effect effect,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "0") int limit
+    ) {
+        try {
+            return ResponseEntity.ok(queries.getStatementsPage(
+                new PolicyQueries.StatementPageQuery(profileUrn, type, effect, cursor, limit)));
+        } catch (IllegalArgumentException e) {
+            // An unknown type, a malformed cursor or one issued under other filters is a client error
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * All statements of a profile as NDJSON, written page by page as they are read.
+     */
+    @GetMapping(value = "/profiles/{profileUrn}/statements", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamStatements(
+        @PathVariable String profileUrn,
+        @RequestParam(required = false) String type,
+        @RequestParam(required = false) PolicyCommands.Effect effect
+    ) {
+        PolicyQueries.StatementPageQuery query = new PolicyQueries.StatementPageQuery(profileUrn, type, effect, null, 0);
+        StreamingResponseBody body = out -> queries.streamStatements(query, statement -> writeLine(out, statement));
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+
+    @GetMapping("/profiles/{profileUrn}/effective-permissions")
+    public ResponseEntity<PolicyQueries.EffectivePermissions> getEffectivePermissions(
+        @PathVariable String profileUrn,
+        @RequestParam String subject
+    ) {
+        PolicyQueries.EffectivePermissions permissions = queries.getEffectivePermissions(profileUrn, subject);
+
+        return ResponseEntity.ok(permissions);
+    }
+
+    @GetMapping("/profiles/{profileUrn}/allowed-actions")
+    public ResponseEntity<PolicyQueries.AllowedActions> getAllowedActions(
+        @PathVariable String profileUrn,
+        @RequestParam String subject,
+        @RequestParam String resource
+    ) {
+        PolicyQueries.AllowedActions actions = queries.allowedActions(profileUrn, subject, resource);
+
+        return ResponseEntity.ok(actions);
+    }
+
+    @GetMapping("/profiles/{profileUrn}/statements/redundant")
+    public ResponseEntity<PolicyQueries.StatementCompaction> getStatementCompaction(@PathVariable String profileUrn) {
+        PolicyQueries.StatementCompaction compaction = queries.getStatementCompaction(profileUrn);
+
+        return ResponseEntity.ok(compaction);
+    }
+
+    /**
+     * Streams the changed decisions as newline-delimited JSON while the review runs.
+     */
+    @PostMapping(value = "/simulate", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> simulate(@RequestBody PolicyQueries.SimulationQuery query) {
+        StreamingResponseBody body = out -> queries.simulate(query, change -> writeLine(out, change));
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+
+    @GetMapping("/decision-cache/stats")
+    public ResponseEntity<PolicyDecisionCache.CacheStats> getDecisionCacheStats() {
+        return ResponseEntity.ok(decisionCache.stats());
+    }
+
+    @GetMapping("/decision-log/stats")
+    public ResponseEntity<PolicyDecisionLog.DecisionLogStats> getDecisionLogStats() {
+        return ResponseEntity.ok(decisionLog.stats());
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     record EvaluatePermissionRequest(
         String profileUrn,
         String subject,
         String action,
-        String resource
+        String resource,
+        PolicyQueries.RequestContext context
+    ) {}
+
+    record EvaluatePermissionsRequest(
+        String profileUrn,
+        List<PolicyQueries.PermissionCheck> checks,
+        PolicyQueries.RequestContext context
     ) {}
 
     record EvaluateApprovalRequest(
@@ -74,6 +253,7 @@ public class PolicyQueryController {
         String subject,
         String action,
         String resource,
-        BigDecimal amount
+        BigDecimal amount,
+        PolicyQueries.RequestContext context
     ) {}
 }
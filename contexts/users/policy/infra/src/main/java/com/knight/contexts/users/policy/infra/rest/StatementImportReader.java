@@ -0,0 +1,172 @@
+package com.knight.contexts.users.policy.infra.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a bulk statement upload line by line, so a large file is never held as one JSON document.
+ *
+ * NDJSON: one object per line with a "type" of PERMISSION or APPROVAL and the statement fields.
+ * CSV: a header line naming the columns type, subject, action, resource, effect, approverCount,
+ * approvers, amountThreshold and conditions (any order); approvers are separated by '|'.
+ * Fields may be double-quoted. Blank lines are skipped in both formats.
+ */
+class StatementImportReader {
+
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
+
+    private final ObjectMapper objectMapper;
+
+    StatementImportReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    PolicyCommands.BulkStatementsCmd read(String profileUrn, InputStream body, boolean csv) throws IOException {
+        List<PolicyCommands.CreatePermissionStatementCmd> permissions = new ArrayList<>();
+        List<PolicyCommands.CreateApprovalStatementCmd> approvals = new ArrayList<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = null;
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                if (!csv) {
+                    add(profileUrn, objectMapper.readValue(line, ImportRow.class), permissions, approvals);
+                } else if (columns == null) {
+                    columns = header(splitCsv(line));
+                } else {
+                    add(profileUrn, csvRow(columns, splitCsv(line)), permissions, approvals);
+                }
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("line " + lineNumber + ": " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return new PolicyCommands.BulkStatementsCmd(profileUrn, permissions, approvals);
+    }
+
+    private static void add(
+        String profileUrn,
+        ImportRow row,
+        List<PolicyCommands.CreatePermissionStatementCmd> permissions,
+        List<PolicyCommands.CreateApprovalStatementCmd> approvals
+    ) {
+        if ("PERMISSION".equalsIgnoreCase(row.type())) {
+            permissions.add(new PolicyCommands.CreatePermissionStatementCmd(
+                profileUrn, row.subject(), row.action(), row.resource(), row.effect(), row.conditions()));
+        } else if ("APPROVAL".equalsIgnoreCase(row.type())) {
+            approvals.add(new PolicyCommands.CreateApprovalStatementCmd(
+                profileUrn, row.subject(), row.action(), row.resource(),
+                row.approverCount() == null ? 0 : row.approverCount(),
+                row.approvers() == null ? List.of() : row.approvers(),
+                row.amountThreshold(),
+                row.conditions()));
+        } else {
+            throw new IllegalArgumentException("type must be PERMISSION or APPROVAL, got: " + row.type());
+        }
+    }
+
+    private static Map<String, Integer> header(List<String> names) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        if (!columns.containsKey("type")) {
+            throw new IllegalArgumentException("CSV header must name a type column");
+        }
+        return columns;
+    }
+
+    private static ImportRow csvRow(Map<String, Integer> columns, List<String> fields) {
+        String effect = field(columns, fields, "effect");
+        String approverCount = field(columns, fields, "approverCount");
+        String approvers = field(columns, fields, "approvers");
+        String amountThreshold = field(columns, fields, "amountThreshold");
+        return new ImportRow(
+            field(columns, fields, "type"),
+            field(columns, fields, "subject"),
+            field(columns, fields, "action"),
+            field(columns, fields, "resource"),
+            effect == null ? null : PolicyCommands.Effect.valueOf(effect),
+            approverCount == null ? null : Integer.valueOf(approverCount),
+            approvers == null ? null : Arrays.asList(approvers.split("\\|")),
+            amountThreshold == null ? null : new BigDecimal(amountThreshold),
+            field(columns, fields, "conditions")
+        );
+    }
+
+    private static String field(Map<String, Integer> columns, List<String> fields, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Split one CSV record; quoted fields may contain commas and doubled quotes.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    record ImportRow(
+        String type,
+        String subject,
+        String action,
+        String resource,
+        PolicyCommands.Effect effect,
+        Integer approverCount,
+        List<String> approvers,
+        BigDecimal amountThreshold,
+        String conditions
+    ) {}
+}
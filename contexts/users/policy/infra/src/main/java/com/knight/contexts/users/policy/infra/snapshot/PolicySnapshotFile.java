@@ -0,0 +1,278 @@
+package com.knight.contexts.users.policy.infra.snapshot;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.app.repository.StatementWatermark;
+import com.knight.contexts.users.policy.app.service.ProfileUrns;
+import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.condition.Conditions;
+import com.knight.platform.sharedkernel.ProfileId;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Versioned binary file holding the statements of many profiles, in the order their compiled
+ * indexes were built from, for a warm start without a full repository load.
+ *
+ * Layout (big-endian): magic, format version, string table (every distinct id, URN, pattern
+ * and condition text once), then per profile its URN, the permission and approval watermarks it was exported at and
+ * its statements with strings as table indexes. A CRC32C of everything before it ends the file.
+ *
+ * Files are written to a sibling temp file and moved into place, so a crash never leaves a torn
+ * file behind. Reads map the file and verify the checksum before decoding anything.
+ */
+public final class PolicySnapshotFile {
+
+    private static final int MAGIC = 0x4B504F4C; // "KPOL"
+    // 2: statement conditions
+    private static final short FORMAT_VERSION = 2;
+    private static final int TRAILER_BYTES = Long.BYTES;
+
+    private PolicySnapshotFile() {
+    }
+
+    public record ProfileEntry(
+        String profileUrn,
+        StatementWatermark permissionWatermark,
+        StatementWatermark approvalWatermark,
+        List<PermissionStatement> permissions,
+        List<ApprovalStatement> approvals
+    ) {}
+
+    public static void write(Path file, List<ProfileEntry> profiles) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (ProfileEntry profile : profiles) {
+            intern(strings, profile.profileUrn());
+            for (PermissionStatement s : profile.permissions()) {
+                intern(strings, s.statementId(), s.subject(), s.action(), s.resource(), conditionText(s.conditions()));
+            }
+            for (ApprovalStatement s : profile.approvals()) {
+                intern(strings, s.statementId(), s.subject(), s.action(), s.resource(), conditionText(s.conditions()));
+                s.approvers().forEach(approver -> intern(strings, approver));
+            }
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            CRC32C crc = new CRC32C();
+            try (OutputStream raw = Files.newOutputStream(temp)) {
+                DataOutputStream out = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(raw, 1 << 16), crc));
+                out.writeInt(MAGIC);
+                out.writeShort(FORMAT_VERSION);
+
+                out.writeInt(strings.size());
+                for (String value : strings.keySet()) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+
+                out.writeInt(profiles.size());
+                for (ProfileEntry profile : profiles) {
+                    out.writeInt(strings.get(profile.profileUrn()));
+                    writeWatermark(out, profile.permissionWatermark());
+                    writeWatermark(out, profile.approvalWatermark());
+
+                    out.writeInt(profile.permissions().size());
+                    for (PermissionStatement s : profile.permissions()) {
+                        writeCommon(out, strings, s.statementId(), s.subject(), s.action(), s.resource());
+                        out.writeByte(s.effect().ordinal());
+                        out.writeInt(strings.get(conditionText(s.conditions())));
+                        writeInstant(out, s.createdAt());
+                        writeInstant(out, s.updatedAt());
+                    }
+
+                    out.writeInt(profile.approvals().size());
+                    for (ApprovalStatement s : profile.approvals()) {
+                        writeCommon(out, strings, s.statementId(), s.subject(), s.action(), s.resource());
+                        out.writeInt(s.approverCount());
+                        out.writeInt(s.approvers().size());
+                        for (String approver : s.approvers()) {
+                            out.writeInt(strings.get(approver));
+                        }
+                        writeThreshold(out, s.amountThreshold());
+                        out.writeInt(strings.get(conditionText(s.conditions())));
+                        writeInstant(out, s.createdAt());
+                        writeInstant(out, s.updatedAt());
+                    }
+                }
+                out.flush();
+                // The trailer is not part of the checksummed bytes
+                new DataOutputStream(raw).writeLong(crc.getValue());
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Map and decode a snapshot file. Throws if the file is truncated, fails its checksum or
+     * was written in another format version.
+     */
+    public static List<ProfileEntry> read(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Integer.BYTES + Short.BYTES + TRAILER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Policy snapshot has an unsupported size: " + size + " bytes");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        int payload = buffer.capacity() - TRAILER_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(payload));
+        if (crc.getValue() != buffer.getLong(payload)) {
+            throw new IOException("Policy snapshot checksum mismatch: " + file);
+        }
+
+        ByteBuffer in = buffer.duplicate().limit(payload);
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a policy snapshot: " + file);
+        }
+        short version = in.getShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported policy snapshot format " + version + ", expected " + FORMAT_VERSION);
+        }
+
+        String[] strings = new String[in.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Effect[] effects = Effect.values();
+        int profileCount = in.getInt();
+        List<ProfileEntry> profiles = new ArrayList<>(profileCount);
+        for (int p = 0; p < profileCount; p++) {
+            String profileUrn = strings[in.getInt()];
+            ProfileId profileId = ProfileUrns.parse(profileUrn);
+            StatementWatermark permissionWatermark = readWatermark(in);
+            StatementWatermark approvalWatermark = readWatermark(in);
+
+            int permissionCount = in.getInt();
+            List<PermissionStatement> permissions = new ArrayList<>(permissionCount);
+            for (int i = 0; i < permissionCount; i++) {
+                String statementId = strings[in.getInt()];
+                String subject = strings[in.getInt()];
+                String action = strings[in.getInt()];
+                String resource = strings[in.getInt()];
+                Effect effect = effects[in.get()];
+                Conditions conditions = Conditions.parse(strings[in.getInt()]);
+                Instant createdAt = readInstant(in);
+                permissions.add(PermissionStatement.reconstruct(
+                    statementId, profileId, subject, action, resource, effect, conditions, createdAt,
+                    readInstant(in)));
+            }
+
+            int approvalCount = in.getInt();
+            List<ApprovalStatement> approvals = new ArrayList<>(approvalCount);
+            for (int i = 0; i < approvalCount; i++) {
+                String statementId = strings[in.getInt()];
+                String subject = strings[in.getInt()];
+                String action = strings[in.getInt()];
+                String resource = strings[in.getInt()];
+                int approverCount = in.getInt();
+                String[] approvers = new String[in.getInt()];
+                for (int a = 0; a < approvers.length; a++) {
+                    approvers[a] = strings[in.getInt()];
+                }
+                BigDecimal threshold = readThreshold(in);
+                Conditions conditions = Conditions.parse(strings[in.getInt()]);
+                Instant createdAt = readInstant(in);
+                approvals.add(ApprovalStatement.reconstruct(
+                    statementId, profileId, subject, action, resource, approverCount, List.of(approvers), threshold,
+                    conditions, createdAt, readInstant(in)));
+            }
+
+            profiles.add(new ProfileEntry(profileUrn, permissionWatermark, approvalWatermark, permissions, approvals));
+        }
+        return profiles;
+    }
+
+    private static void intern(Map<String, Integer> strings, String... values) {
+        for (String value : values) {
+            strings.putIfAbsent(value, strings.size());
+        }
+    }
+
+    private static String conditionText(Conditions conditions) {
+        return conditions.isEmpty() ? "" : conditions.format();
+    }
+
+    private static void writeCommon(DataOutputStream out, Map<String, Integer> strings, String statementId,
+                                    String subject, String action, String resource) throws IOException {
+        out.writeInt(strings.get(statementId));
+        out.writeInt(strings.get(subject));
+        out.writeInt(strings.get(action));
+        out.writeInt(strings.get(resource));
+    }
+
+    private static void writeWatermark(DataOutputStream out, StatementWatermark watermark) throws IOException {
+        out.writeLong(watermark.count());
+        writeInstant(out, watermark.lastUpdatedAt());
+    }
+
+    private static StatementWatermark readWatermark(ByteBuffer in) {
+        return new StatementWatermark(in.getLong(), readInstant(in));
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static Instant readInstant(ByteBuffer in) {
+        return Instant.ofEpochSecond(in.getLong(), in.getInt());
+    }
+
+    private static void writeThreshold(DataOutputStream out, BigDecimal threshold) throws IOException {
+        if (threshold == null) {
+            out.writeByte(0);
+            return;
+        }
+        byte[] unscaled = threshold.unscaledValue().toByteArray();
+        out.writeByte(1);
+        out.writeInt(threshold.scale());
+        out.writeInt(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readThreshold(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        int scale = in.getInt();
+        byte[] unscaled = new byte[in.getInt()];
+        in.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
@@ -0,0 +1,143 @@
+package com.knight.contexts.users.policy.infra.snapshot;
+
+import com.knight.contexts.users.policy.app.repository.ApprovalStatementRepository;
+import com.knight.contexts.users.policy.app.repository.PermissionStatementRepository;
+import com.knight.contexts.users.policy.app.repository.StatementWatermark;
+import com.knight.contexts.users.policy.app.snapshot.PolicySnapshots;
+import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.infra.snapshot.PolicySnapshotFile.ProfileEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warm start of the policy snapshots from a {@link PolicySnapshotFile}.
+ *
+ * Once all beans exist, and before the web server takes traffic, every profile in the file whose
+ * watermarks still match the repository is compiled and published, in parallel across profiles.
+ * Profiles that changed since the export, and any profile when the file is missing or corrupt,
+ * are built from the repository on first use as before. On shutdown the repository is exported
+ * for the next start.
+ */
+@Component
+@ConditionalOnProperty(name = "knight.policy.snapshot.enabled", havingValue = "true")
+public class PolicySnapshotWarmStart implements SmartInitializingSingleton, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PolicySnapshotWarmStart.class);
+
+    private final PermissionStatementRepository permissionRepository;
+    private final ApprovalStatementRepository approvalRepository;
+    private final PolicySnapshots snapshots;
+    private final Path file;
+
+    public PolicySnapshotWarmStart(
+        PermissionStatementRepository permissionRepository,
+        ApprovalStatementRepository approvalRepository,
+        PolicySnapshots snapshots,
+        @Value("${knight.policy.snapshot.file:data/policy-snapshot.bin}") Path file
+    ) {
+        this.permissionRepository = permissionRepository;
+        this.approvalRepository = approvalRepository;
+        this.snapshots = snapshots;
+        this.file = file;
+    }
+
+    public record LoadResult(int installed, int stale) {}
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    @Override
+    public void close() {
+        try {
+            int profiles = export();
+            log.info("Exported {} policy profiles to {}", profiles, file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Policy snapshot export to {} failed", file, e);
+        }
+    }
+
+    /**
+     * Install every profile of the file that is still current. Never throws: an unusable file
+     * only means profiles are built from the repository instead.
+     */
+    public LoadResult load() {
+        if (!Files.exists(file)) {
+            log.info("No policy snapshot at {}; profiles build on first use", file);
+            return new LoadResult(0, 0);
+        }
+        long start = System.nanoTime();
+        List<ProfileEntry> entries;
+        try {
+            entries = PolicySnapshotFile.read(file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring policy snapshot {}: {}", file, e.getMessage());
+            return new LoadResult(0, 0);
+        }
+
+        Map<String, StatementWatermark> permissionWatermarks = permissionRepository.findWatermarks();
+        Map<String, StatementWatermark> approvalWatermarks = approvalRepository.findWatermarks();
+        AtomicInteger installed = new AtomicInteger();
+        AtomicInteger stale = new AtomicInteger();
+        entries.parallelStream().forEach(entry -> {
+            String urn = entry.profileUrn();
+            if (entry.permissionWatermark().equals(permissionWatermarks.getOrDefault(urn, StatementWatermark.NONE))
+                && entry.approvalWatermark().equals(approvalWatermarks.getOrDefault(urn, StatementWatermark.NONE))) {
+                snapshots.install(urn, entry.permissions(), entry.approvals());
+                installed.incrementAndGet();
+            } else {
+                stale.incrementAndGet();
+            }
+        });
+
+        log.info("Policy warm start from {}: {} profiles installed, {} stale, in {} ms", file, installed.get(),
+            stale.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return new LoadResult(installed.get(), stale.get());
+    }
+
+    /**
+     * Write every profile that has statements to the snapshot file, returning the profile count.
+     * Each table is read in a single ordered pass, so the export costs two queries however many
+     * profiles the store holds.
+     */
+    public int export() throws IOException {
+        // Watermarks are read before the statements: a change landing mid-export makes its profile
+        // look stale on the next start rather than current
+        Map<String, StatementWatermark> permissionWatermarks = permissionRepository.findWatermarks();
+        Map<String, StatementWatermark> approvalWatermarks = approvalRepository.findWatermarks();
+        Map<String, List<PermissionStatement>> permissions = permissionRepository.findAllByProfile();
+        Map<String, List<ApprovalStatement>> approvals = approvalRepository.findAllByProfile();
+        Set<String> profileUrns = new TreeSet<>(permissionWatermarks.keySet());
+        profileUrns.addAll(approvalWatermarks.keySet());
+
+        List<ProfileEntry> entries = new ArrayList<>(profileUrns.size());
+        for (String urn : profileUrns) {
+            entries.add(new ProfileEntry(
+                urn,
+                permissionWatermarks.getOrDefault(urn, StatementWatermark.NONE),
+                approvalWatermarks.getOrDefault(urn, StatementWatermark.NONE),
+                permissions.getOrDefault(urn, List.of()),
+                approvals.getOrDefault(urn, List.of())
+            ));
+        }
+        PolicySnapshotFile.write(file, entries);
+        return entries.size();
+    }
+}
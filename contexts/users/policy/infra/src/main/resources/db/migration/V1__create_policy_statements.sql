@@ -0,0 +1,36 @@
+-- Policy statements, applied in the policy schema
+
+CREATE TABLE permission_statement (
+    statement_id  VARCHAR(64)              PRIMARY KEY,
+    profile_urn   VARCHAR(255)             NOT NULL,
+    subject       VARCHAR(255)             NOT NULL,
+    action        VARCHAR(255)             NOT NULL,
+    resource      VARCHAR(512)             NOT NULL,
+    effect        VARCHAR(16)              NOT NULL,
+    created_at    TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at    TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Serves findByProfileId and effect-filtered profile scans
+CREATE INDEX idx_permission_statement_profile_effect ON permission_statement (profile_urn, effect);
+
+CREATE TABLE approval_statement (
+    statement_id      VARCHAR(64)              PRIMARY KEY,
+    profile_urn       VARCHAR(255)             NOT NULL,
+    subject           VARCHAR(255)             NOT NULL,
+    action            VARCHAR(255)             NOT NULL,
+    resource          VARCHAR(512)             NOT NULL,
+    approver_count    INTEGER                  NOT NULL,
+    amount_threshold  NUMERIC,
+    created_at        TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at        TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_approval_statement_profile ON approval_statement (profile_urn);
+
+CREATE TABLE approval_statement_approver (
+    statement_id  VARCHAR(64)  NOT NULL REFERENCES approval_statement (statement_id) ON DELETE CASCADE,
+    ordinal       INTEGER      NOT NULL,
+    approver      VARCHAR(255) NOT NULL,
+    PRIMARY KEY (statement_id, ordinal)
+);
@@ -0,0 +1,5 @@
+-- Keyset pagination walks a profile's statements in statement_id order
+
+CREATE INDEX idx_permission_statement_profile_id ON permission_statement (profile_urn, statement_id);
+
+CREATE INDEX idx_approval_statement_profile_id ON approval_statement (profile_urn, statement_id);
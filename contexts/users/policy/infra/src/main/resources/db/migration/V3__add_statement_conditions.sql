@@ -0,0 +1,5 @@
+-- Optional statement conditions in their canonical text form; NULL when unconditional
+
+ALTER TABLE permission_statement ADD COLUMN conditions VARCHAR(1000);
+
+ALTER TABLE approval_statement ADD COLUMN conditions VARCHAR(1000);
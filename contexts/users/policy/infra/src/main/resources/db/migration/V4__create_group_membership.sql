@@ -0,0 +1,7 @@
+-- Local copy of user group memberships, fed by the users context's membership events
+
+CREATE TABLE group_membership (
+    user_urn   VARCHAR(255) NOT NULL,
+    group_urn  VARCHAR(255) NOT NULL,
+    PRIMARY KEY (user_urn, group_urn)
+);
@@ -0,0 +1,147 @@
+package com.knight.contexts.users.policy.infra;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.CreatePermissionStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.DeleteStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.UpdatePermissionStatementCmd;
+import com.knight.contexts.users.policy.api.events.PermissionStatementCreated;
+import com.knight.contexts.users.policy.api.events.PermissionStatementDeleted;
+import com.knight.contexts.users.policy.api.events.PermissionStatementUpdated;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.EffectivePermissions;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.Grant;
+import com.knight.contexts.users.policy.app.cache.PolicyDecisionCache;
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog;
+import com.knight.contexts.users.policy.app.projection.EffectivePermissionProjection;
+import com.knight.contexts.users.policy.app.projection.GroupMembershipProjection;
+import com.knight.contexts.users.policy.app.service.PolicyApplicationService;
+import com.knight.contexts.users.policy.app.simulation.AccessReviewSimulator;
+import com.knight.contexts.users.policy.app.snapshot.PolicySnapshots;
+import com.knight.contexts.users.policy.domain.service.PolicyEvaluatorService;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryApprovalStatementRepository;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryGroupMembershipRepository;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryPermissionStatementRepository;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies materialized subjects follow statement events, and that the projection stays within
+ * its profile and subject limits.
+ */
+class EffectivePermissionProjectionTest {
+
+    private static final int MAX_PROFILES = 16;
+    private static final int MAX_SUBJECTS = 16;
+
+    private final InMemoryPermissionStatementRepository permissions = new InMemoryPermissionStatementRepository();
+    private final InMemoryApprovalStatementRepository approvals = new InMemoryApprovalStatementRepository();
+    private final EffectivePermissionProjection projection =
+        new EffectivePermissionProjection(permissions, MAX_PROFILES, MAX_SUBJECTS);
+    private final AccessReviewSimulator simulator = new AccessReviewSimulator(1);
+    private final PolicyApplicationService service = new PolicyApplicationService(
+        permissions,
+        approvals,
+        this::deliver,
+        new PolicySnapshots(permissions, approvals, 100),
+        new PolicyDecisionCache(100),
+        PolicyDecisionLog.DISABLED,
+        projection,
+        simulator,
+        new GroupMembershipProjection(new InMemoryGroupMembershipRepository(), 100, false)
+    );
+
+    @AfterEach
+    void close() {
+        simulator.close();
+    }
+
+    @Test
+    void materializedSubjectsAreRefreshedByStatementEvents() {
+        String profile = profile(0);
+        String shared = service.createPermissionStatement(new CreatePermissionStatementCmd(
+            profile, "user:*", "receivables:view", "*", Effect.ALLOW));
+        assertThat(projection.get(profile, "user:alice").allowed()).hasSize(1);
+        EffectivePermissions bob = projection.get(profile, "user:bob");
+
+        // Created: only the subject it applies to changes
+        String alice = service.createPermissionStatement(new CreatePermissionStatementCmd(
+            profile, "user:alice", "payments:create", "*", Effect.ALLOW));
+        assertThat(projection.get(profile, "user:alice").allowed())
+            .extracting(Grant::statementId).containsExactlyInAnyOrder(shared, alice);
+        assertThat(projection.get(profile, "user:bob")).isSameAs(bob);
+
+        // Updated
+        service.updatePermissionStatement(new UpdatePermissionStatementCmd(alice, "payments:create", "*", Effect.DENY));
+        assertThat(projection.get(profile, "user:alice").denied())
+            .containsExactly(new Grant("payments:create", "*", alice));
+
+        // Deleted
+        service.deletePermissionStatement(new DeleteStatementCmd(shared));
+        assertThat(projection.get(profile, "user:bob").allowed()).isEmpty();
+        assertThat(projection.get(profile, "user:alice").allowed()).isEmpty();
+
+        for (String subject : new String[] {"user:alice", "user:bob", "user:carol"}) {
+            assertThat(projection.get(profile, subject)).isEqualTo(PolicyEvaluatorService.resolveEffectivePermissions(
+                profile, subject, permissions.findByProfileId(ServicingProfileId.of(ClientId.srf("P0")))));
+        }
+    }
+
+    @Test
+    void profilesWithoutStatementsGetNoView() {
+        String profile = profile(0);
+        assertThat(projection.get(profile, "user:alice").allowed()).isEmpty();
+        assertThat(projection.stats().profiles()).isZero();
+
+        String statement = service.createPermissionStatement(new CreatePermissionStatementCmd(
+            profile, "user:alice", "receivables:view", "*", Effect.ALLOW));
+        assertThat(projection.get(profile, "user:alice").allowed()).hasSize(1);
+        assertThat(projection.stats().profiles()).isEqualTo(1);
+
+        // Emptied by deletes: the view is dropped
+        service.deletePermissionStatement(new DeleteStatementCmd(statement));
+        assertThat(projection.stats().profiles()).isZero();
+        assertThat(projection.get(profile, "user:alice").allowed()).isEmpty();
+    }
+
+    @Test
+    void staysWithinItsLimits() {
+        for (int p = 0; p < 5 * MAX_PROFILES; p++) {
+            service.createPermissionStatement(new CreatePermissionStatementCmd(
+                profile(p), "user:*", "receivables:view", "*", Effect.ALLOW));
+        }
+        String hot = profile(0);
+        for (int p = 0; p < 5 * MAX_PROFILES; p++) {
+            for (int u = 0; u < 5 * MAX_SUBJECTS; u++) {
+                assertThat(projection.get(profile(p), "user:u" + u).allowed()).hasSize(1);
+                // One profile and subject stay hot while the others cycle through
+                assertThat(projection.get(hot, "user:hot").allowed()).hasSize(1);
+            }
+            assertThat(projection.stats().profiles()).isLessThanOrEqualTo(MAX_PROFILES);
+            assertThat(projection.stats().subjects()).isLessThanOrEqualTo((long) MAX_PROFILES * MAX_SUBJECTS);
+        }
+
+        // An evicted profile still follows its statements: it is reloaded on the next lookup
+        String evicted = profile(1);
+        String deny = service.createPermissionStatement(new CreatePermissionStatementCmd(
+            evicted, "user:u0", "receivables:view", "*", Effect.DENY));
+        assertThat(projection.get(evicted, "user:u0").denied()).containsExactly(new Grant("receivables:view", "*", deny));
+        assertThat(projection.get(evicted, "user:u0").allowed()).isEmpty();
+    }
+
+    private static String profile(int n) {
+        return ServicingProfileId.of(ClientId.srf("P" + n)).urn();
+    }
+
+    private void deliver(Object event) {
+        if (event instanceof PermissionStatementCreated e) {
+            projection.on(e);
+        } else if (event instanceof PermissionStatementUpdated e) {
+            projection.on(e);
+        } else if (event instanceof PermissionStatementDeleted e) {
+            projection.on(e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.knight.contexts.users.policy.infra;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.BulkStatementsCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.CreatePermissionStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.api.events.PermissionStatementCreated;
+import com.knight.contexts.users.policy.api.events.PolicyStatementsImported;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.EvaluatePermissionQuery;
+import com.knight.contexts.users.policy.app.cache.PolicyDecisionCache;
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog;
+import com.knight.contexts.users.policy.app.projection.EffectivePermissionProjection;
+import com.knight.contexts.users.policy.app.projection.GroupMembershipProjection;
+import com.knight.contexts.users.policy.app.service.PolicyApplicationService;
+import com.knight.contexts.users.policy.app.simulation.AccessReviewSimulator;
+import com.knight.contexts.users.policy.app.snapshot.PolicySnapshots;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryApprovalStatementRepository;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryGroupMembershipRepository;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryPermissionStatementRepository;
+import com.knight.contexts.users.users.api.events.UserAddedToGroup;
+import com.knight.contexts.users.users.api.events.UserRemovedFromGroup;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import com.knight.platform.sharedkernel.UserGroupId;
+import com.knight.platform.sharedkernel.UserId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies group subjects follow membership events through the cache, and that statements
+ * targeting groups are refused where no membership events arrive.
+ */
+class GroupMembershipProjectionTest {
+
+    private static final String PROFILE = ServicingProfileId.of(ClientId.srf("12345")).urn();
+    private static final int MAX_CACHED_USERS = 32;
+
+    private final InMemoryPermissionStatementRepository permissions = new InMemoryPermissionStatementRepository();
+    private final InMemoryApprovalStatementRepository approvals = new InMemoryApprovalStatementRepository();
+    private final PolicySnapshots snapshots = new PolicySnapshots(permissions, approvals, 100);
+    private final AccessReviewSimulator simulator = new AccessReviewSimulator(1);
+    private final GroupMembershipProjection memberships =
+        new GroupMembershipProjection(new InMemoryGroupMembershipRepository(), MAX_CACHED_USERS, true);
+
+    @AfterEach
+    void close() {
+        simulator.close();
+    }
+
+    @Test
+    void groupSubjectsFollowMembershipEvents() {
+        UserId alice = UserId.of("alice");
+        UserGroupId treasury = UserGroupId.of("treasury");
+        UserGroupId audit = UserGroupId.of("audit");
+        assertThat(memberships.groupSubjectsOf("user:alice")).isEmpty();
+
+        // The cached empty set is dropped by the event
+        memberships.on(new UserAddedToGroup(treasury, alice, Instant.now()));
+        assertThat(memberships.groupSubjectsOf("user:alice")).containsExactly("group:treasury");
+        memberships.on(new UserAddedToGroup(audit, alice, Instant.now()));
+        assertThat(memberships.groupSubjectsOf("user:alice")).containsExactlyInAnyOrder("group:treasury", "group:audit");
+
+        memberships.on(new UserRemovedFromGroup(treasury, alice, Instant.now()));
+        assertThat(memberships.groupSubjectsOf("user:alice")).containsExactly("group:audit");
+        assertThat(memberships.groupSubjectsOf("user:bob")).isEmpty();
+    }
+
+    @Test
+    void evictedUsersAreReloadedFromTheRepository() {
+        UserGroupId treasury = UserGroupId.of("treasury");
+        for (int u = 0; u < 4 * MAX_CACHED_USERS; u++) {
+            memberships.on(new UserAddedToGroup(treasury, UserId.of("u" + u), Instant.now()));
+        }
+        for (int round = 0; round < 2; round++) {
+            for (int u = 0; u < 4 * MAX_CACHED_USERS; u++) {
+                assertThat(memberships.groupSubjectsOf("user:u" + u)).containsExactly("group:treasury");
+            }
+        }
+    }
+
+    @Test
+    void subjectsThatAreNotUsersHaveNoGroups() {
+        assertThat(memberships.groupSubjectsOf("user:")).isEmpty();
+        assertThat(memberships.groupSubjectsOf("user:  ")).isEmpty();
+        assertThat(memberships.groupSubjectsOf("service:batch")).isEmpty();
+        assertThat(memberships.groupSubjectsOf("group:treasury")).isEmpty();
+        assertThat(memberships.groupSubjectsOf("*")).isEmpty();
+    }
+
+    @Test
+    void groupStatementsAllowMembersOnly() {
+        PolicyApplicationService service = service(memberships);
+        service.createPermissionStatement(new CreatePermissionStatementCmd(
+            PROFILE, "group:treasury", "payments:create", "*", Effect.ALLOW));
+        assertThat(canPay(service, "user:alice")).isFalse();
+
+        memberships.on(new UserAddedToGroup(UserGroupId.of("treasury"), UserId.of("alice"), Instant.now()));
+        assertThat(canPay(service, "user:alice")).isTrue();
+        assertThat(canPay(service, "user:bob")).isFalse();
+        assertThat(canPay(service, "user:")).isFalse();
+    }
+
+    @Test
+    void groupStatementsAreRefusedWithoutAMembershipFeed() {
+        PolicyApplicationService service = service(
+            new GroupMembershipProjection(new InMemoryGroupMembershipRepository(), MAX_CACHED_USERS, false));
+
+        assertThatThrownBy(() -> service.createPermissionStatement(new CreatePermissionStatementCmd(
+            PROFILE, "group:treasury", "payments:create", "*", Effect.ALLOW)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("group:treasury");
+        assertThatThrownBy(() -> service.bulkCreateStatements(new BulkStatementsCmd(PROFILE, List.of(
+            new CreatePermissionStatementCmd(null, "user:alice", "payments:create", "*", Effect.ALLOW),
+            new CreatePermissionStatementCmd(null, "gr*", "payments:create", "*", Effect.ALLOW)), List.of())))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("permissions[1]");
+        assertThat(permissions.findByProfileId(ServicingProfileId.of(ClientId.srf("12345")))).isEmpty();
+
+        // Statements that do not depend on memberships are still accepted
+        service.createPermissionStatement(new CreatePermissionStatementCmd(
+            PROFILE, "*", "payments:create", "*", Effect.ALLOW));
+        assertThat(canPay(service, "user:alice")).isTrue();
+    }
+
+    private PolicyApplicationService service(GroupMembershipProjection groupMemberships) {
+        return new PolicyApplicationService(
+            permissions,
+            approvals,
+            event -> {
+                if (event instanceof PermissionStatementCreated e) {
+                    snapshots.on(e);
+                } else if (event instanceof PolicyStatementsImported e) {
+                    snapshots.on(e);
+                }
+            },
+            snapshots,
+            new PolicyDecisionCache(100),
+            PolicyDecisionLog.DISABLED,
+            new EffectivePermissionProjection(permissions, 100, 100),
+            simulator,
+            groupMemberships
+        );
+    }
+
+    private static boolean canPay(PolicyApplicationService service, String subject) {
+        return service.evaluatePermission(new EvaluatePermissionQuery(
+            PROFILE, subject, "payments:create", "urn:knight:payment:1")).allowed();
+    }
+}
@@ -0,0 +1,180 @@
+package com.knight.contexts.users.policy.infra;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.CreateApprovalStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.CreatePermissionStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.DeleteStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.UpdateApprovalStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.UpdatePermissionStatementCmd;
+import com.knight.contexts.users.policy.api.events.*;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.EvaluateApprovalQuery;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.EvaluatePermissionQuery;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.EvaluatePermissionsQuery;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.PermissionCheck;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.PermissionResult;
+import com.knight.contexts.users.policy.app.cache.PolicyDecisionCache;
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog;
+import com.knight.contexts.users.policy.app.projection.EffectivePermissionProjection;
+import com.knight.contexts.users.policy.app.projection.GroupMembershipProjection;
+import com.knight.contexts.users.policy.app.service.PolicyApplicationService;
+import com.knight.contexts.users.policy.app.simulation.AccessReviewSimulator;
+import com.knight.contexts.users.policy.app.snapshot.PolicySnapshot;
+import com.knight.contexts.users.policy.app.snapshot.PolicySnapshots;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryApprovalStatementRepository;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryGroupMembershipRepository;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryPermissionStatementRepository;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.nCopies;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Evaluation through the application service, with statement events delivered to the snapshot
+ * listeners as they are after commit.
+ */
+class PolicyApplicationServiceTest {
+
+    private static final String PROFILE = ServicingProfileId.of(ClientId.srf("12345")).urn();
+
+    private final InMemoryPermissionStatementRepository permissions = new InMemoryPermissionStatementRepository();
+    private final InMemoryApprovalStatementRepository approvals = new InMemoryApprovalStatementRepository();
+    private final AtomicInteger snapshotReads = new AtomicInteger();
+    private final PolicySnapshots snapshots = new PolicySnapshots(permissions, approvals, 100) {
+        @Override
+        public PolicySnapshot current(String profileUrn) {
+            snapshotReads.incrementAndGet();
+            return super.current(profileUrn);
+        }
+    };
+    private final PolicyDecisionCache cache = new PolicyDecisionCache(1_000);
+    private final AccessReviewSimulator simulator = new AccessReviewSimulator(1);
+    private final PolicyApplicationService service = new PolicyApplicationService(
+        permissions,
+        approvals,
+        this::deliver,
+        snapshots,
+        cache,
+        PolicyDecisionLog.DISABLED,
+        new EffectivePermissionProjection(permissions, 100, 100),
+        simulator,
+        new GroupMembershipProjection(new InMemoryGroupMembershipRepository(), 100, false)
+    );
+
+    @AfterEach
+    void close() {
+        simulator.close();
+    }
+
+    @Test
+    void cachedPermissionDecisionsNeverOutliveAStatementChange() {
+        String alice = service.createPermissionStatement(new CreatePermissionStatementCmd(
+            PROFILE, "user:alice", "receivables:view", "*", Effect.ALLOW));
+        assertThat(canView("user:alice")).isTrue();
+        assertThat(canView("user:alice")).isTrue();
+        assertThat(canView("user:bob")).isFalse();
+        assertThat(cache.stats().hits()).isEqualTo(1);
+
+        // Updated
+        service.updatePermissionStatement(new UpdatePermissionStatementCmd(alice, "receivables:view", "*", Effect.DENY));
+        assertThat(canView("user:alice")).isFalse();
+
+        // Created
+        String bob = service.createPermissionStatement(new CreatePermissionStatementCmd(
+            PROFILE, "user:bob", "receivables:view", "*", Effect.ALLOW));
+        assertThat(canView("user:bob")).isTrue();
+
+        // Deleted
+        service.deletePermissionStatement(new DeleteStatementCmd(bob));
+        assertThat(canView("user:bob")).isFalse();
+        service.deletePermissionStatement(new DeleteStatementCmd(alice));
+        assertThat(canView("user:alice")).isFalse();
+
+        // Every decision after a change was a miss
+        assertThat(cache.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void cachedApprovalDecisionsNeverOutliveAStatementChange() {
+        EvaluateApprovalQuery payment = new EvaluateApprovalQuery(
+            PROFILE, "user:alice", "payments:create", "urn:knight:payment:1", new BigDecimal("500"));
+        assertThat(service.evaluateApprovalRequirement(payment).approvalRequired()).isFalse();
+
+        String statement = service.createApprovalStatement(new CreateApprovalStatementCmd(
+            PROFILE, "*", "payments:create", "*", 1, List.of("user:carol"), new BigDecimal("1000")));
+        assertThat(service.evaluateApprovalRequirement(payment).approvalRequired()).isTrue();
+        assertThat(service.evaluateApprovalRequirement(payment).approverCount()).isEqualTo(1);
+
+        service.updateApprovalStatement(new UpdateApprovalStatementCmd(
+            statement, 2, List.of("user:carol", "user:dave"), new BigDecimal("1000")));
+        assertThat(service.evaluateApprovalRequirement(payment).approverCount()).isEqualTo(2);
+
+        service.deleteApprovalStatement(new DeleteStatementCmd(statement));
+        assertThat(service.evaluateApprovalRequirement(payment).approvalRequired()).isFalse();
+    }
+
+    @Test
+    void batchResultsFollowCheckOrderFromOneSnapshot() {
+        service.createPermissionStatement(new CreatePermissionStatementCmd(
+            PROFILE, "user:*", "receivables:*", "*", Effect.ALLOW));
+        service.createPermissionStatement(new CreatePermissionStatementCmd(
+            PROFILE, "user:bob", "receivables:approve", "*", Effect.DENY));
+        List<PermissionCheck> checks = List.of(
+            new PermissionCheck("user:alice", "receivables:view", "urn:knight:receivable:1"),
+            new PermissionCheck("user:bob", "receivables:approve", "urn:knight:receivable:1"),
+            new PermissionCheck("user:bob", "receivables:view", "urn:knight:receivable:1"),
+            new PermissionCheck("service:batch", "receivables:view", "urn:knight:receivable:1"),
+            new PermissionCheck("user:alice", "payments:create", "urn:knight:payment:1")
+        );
+
+        snapshotReads.set(0);
+        List<PermissionResult> results = service.evaluatePermissions(new EvaluatePermissionsQuery(PROFILE, checks));
+        assertThat(snapshotReads.get()).isEqualTo(1);
+
+        assertThat(results).extracting(PermissionResult::allowed).containsExactly(true, false, true, false, false);
+        for (int i = 0; i < checks.size(); i++) {
+            PermissionCheck check = checks.get(i);
+            assertThat(results.get(i)).isEqualTo(service.evaluatePermission(new EvaluatePermissionQuery(
+                PROFILE, check.subject(), check.action(), check.resource())));
+        }
+    }
+
+    @Test
+    void batchesOverTheLimitAreRejected() {
+        PermissionCheck check = new PermissionCheck("user:alice", "receivables:view", "urn:knight:receivable:1");
+
+        assertThat(service.evaluatePermissions(new EvaluatePermissionsQuery(PROFILE, nCopies(1_000, check))))
+            .hasSize(1_000);
+        assertThatThrownBy(() -> service.evaluatePermissions(new EvaluatePermissionsQuery(PROFILE, nCopies(1_001, check))))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("A batch holds at most 1000 checks, got 1001");
+    }
+
+    private boolean canView(String subject) {
+        return service.evaluatePermission(new EvaluatePermissionQuery(
+            PROFILE, subject, "receivables:view", "urn:knight:receivable:1")).allowed();
+    }
+
+    private void deliver(Object event) {
+        if (event instanceof PermissionStatementCreated e) {
+            snapshots.on(e);
+        } else if (event instanceof PermissionStatementUpdated e) {
+            snapshots.on(e);
+        } else if (event instanceof PermissionStatementDeleted e) {
+            snapshots.on(e);
+        } else if (event instanceof ApprovalStatementCreated e) {
+            snapshots.on(e);
+        } else if (event instanceof ApprovalStatementUpdated e) {
+            snapshots.on(e);
+        } else if (event instanceof ApprovalStatementDeleted e) {
+            snapshots.on(e);
+        }
+    }
+}
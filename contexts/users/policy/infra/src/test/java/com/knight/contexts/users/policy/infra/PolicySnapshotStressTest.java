@@ -0,0 +1,155 @@
+package com.knight.contexts.users.policy.infra;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.CreatePermissionStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.DeleteStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.UpdatePermissionStatementCmd;
+import com.knight.contexts.users.policy.api.events.*;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.Decision;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.EvaluatePermissionQuery;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.EvaluatePermissionsQuery;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.PermissionCheck;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.PermissionResult;
+import com.knight.contexts.users.policy.app.cache.PolicyDecisionCache;
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog;
+import com.knight.contexts.users.policy.app.projection.EffectivePermissionProjection;
+import com.knight.contexts.users.policy.app.projection.GroupMembershipProjection;
+import com.knight.contexts.users.policy.app.service.PolicyApplicationService;
+import com.knight.contexts.users.policy.app.simulation.AccessReviewSimulator;
+import com.knight.contexts.users.policy.app.snapshot.PolicySnapshots;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryApprovalStatementRepository;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryGroupMembershipRepository;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryPermissionStatementRepository;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers evaluation while statements change underneath, and checks every reader always sees
+ * a consistent snapshot: an update of action and resource is never observed half-applied, and
+ * the snapshot version a reader sees never goes backwards.
+ */
+class PolicySnapshotStressTest {
+
+    private static final String PROFILE = ServicingProfileId.of(ClientId.srf("12345")).urn();
+    private static final int READERS = 6;
+    private static final long DURATION_MILLIS = 2_000;
+
+    private static final List<PermissionCheck> PAIR = List.of(
+        new PermissionCheck("user:alice", "receivables:view", "urn:knight:receivable:1"),
+        new PermissionCheck("user:alice", "payments:view", "urn:knight:payment:1")
+    );
+
+    @Test
+    void readersNeverObserveTornOrOlderSnapshots() throws InterruptedException {
+        InMemoryPermissionStatementRepository permissions = new InMemoryPermissionStatementRepository();
+        InMemoryApprovalStatementRepository approvals = new InMemoryApprovalStatementRepository();
+        PolicySnapshots snapshots = new PolicySnapshots(permissions, approvals, 100);
+        AccessReviewSimulator simulator = new AccessReviewSimulator(1);
+        PolicyApplicationService service = new PolicyApplicationService(
+            permissions,
+            approvals,
+            event -> snapshots.refresh(profileUrnOf(event)),
+            snapshots,
+            new PolicyDecisionCache(10_000),
+            PolicyDecisionLog.DISABLED,
+            new EffectivePermissionProjection(permissions, 100, 100),
+            simulator,
+            new GroupMembershipProjection(new InMemoryGroupMembershipRepository(), 100, false)
+        );
+
+        String moving = service.createPermissionStatement(new CreatePermissionStatementCmd(
+            PROFILE, "user:alice", "receivables:view", "urn:knight:receivable:1", Effect.ALLOW));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong evaluations = new AtomicLong();
+        AtomicLong writes = new AtomicLong();
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int r = 0; r < READERS; r++) {
+            threads.add(new Thread(() -> {
+                long lastVersion = -1;
+                while (running.get()) {
+                    long version = snapshots.current(PROFILE).version();
+                    if (version < lastVersion) {
+                        failures.add("version went back from " + lastVersion + " to " + version);
+                    }
+                    lastVersion = version;
+
+                    // Exactly one of the two positions is allowed in any single snapshot
+                    List<PermissionResult> pair = service.evaluatePermissions(new EvaluatePermissionsQuery(PROFILE, PAIR));
+                    if (pair.get(0).allowed() == pair.get(1).allowed()) {
+                        failures.add("inconsistent pair " + pair);
+                    }
+                    // Mixed action/resource combinations only exist in a torn view
+                    if (service.decidePermission(new EvaluatePermissionQuery(
+                        PROFILE, "user:alice", "receivables:view", "urn:knight:payment:1"), false).decision() != Decision.DEFAULT_DENY
+                        || service.evaluatePermission(new EvaluatePermissionQuery(
+                        PROFILE, "user:alice", "payments:view", "urn:knight:receivable:1")).allowed()) {
+                        failures.add("torn statement observed");
+                    }
+                    evaluations.addAndGet(4);
+                }
+            }, "reader-" + r));
+        }
+
+        for (int w = 0; w < 2; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                boolean toPayments = writer == 0;
+                while (running.get()) {
+                    PermissionCheck target = PAIR.get(toPayments ? 1 : 0);
+                    service.updatePermissionStatement(new UpdatePermissionStatementCmd(
+                        moving, target.action(), target.resource(), Effect.ALLOW));
+                    toPayments = !toPayments;
+
+                    // Unrelated churn on the same profile
+                    String churn = service.createPermissionStatement(new CreatePermissionStatementCmd(
+                        PROFILE, "user:bob" + writer, "receivables:*", "*", Effect.DENY));
+                    service.deletePermissionStatement(new DeleteStatementCmd(churn));
+                    writes.addAndGet(3);
+                }
+            }, "writer-" + w));
+        }
+
+        threads.forEach(Thread::start);
+        TimeUnit.MILLISECONDS.sleep(DURATION_MILLIS);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        simulator.close();
+
+        assertThat(failures).isEmpty();
+        assertThat(writes.get()).isPositive();
+        assertThat(evaluations.get()).isGreaterThan(writes.get());
+    }
+
+    private static String profileUrnOf(Object event) {
+        if (event instanceof PermissionStatementCreated e) {
+            return e.profileUrn();
+        } else if (event instanceof PermissionStatementUpdated e) {
+            return e.profileUrn();
+        } else if (event instanceof PermissionStatementDeleted e) {
+            return e.profileUrn();
+        } else if (event instanceof ApprovalStatementCreated e) {
+            return e.profileUrn();
+        } else if (event instanceof ApprovalStatementUpdated e) {
+            return e.profileUrn();
+        } else if (event instanceof ApprovalStatementDeleted e) {
+            return e.profileUrn();
+        }
+        throw new IllegalArgumentException("Unexpected event: " + event);
+    }
+}
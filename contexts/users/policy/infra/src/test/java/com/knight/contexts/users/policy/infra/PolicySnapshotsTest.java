@@ -0,0 +1,91 @@
+package com.knight.contexts.users.policy.infra;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.app.snapshot.PolicySnapshot;
+import com.knight.contexts.users.policy.app.snapshot.PolicySnapshots;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryApprovalStatementRepository;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryPermissionStatementRepository;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ProfileId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bounds of the snapshot holder: evicted profiles are rebuilt at a newer version and profiles
+ * without statements are never kept.
+ */
+class PolicySnapshotsTest {
+
+    private static final int MAX_PROFILES = 32;
+
+    private final InMemoryPermissionStatementRepository permissions = new InMemoryPermissionStatementRepository();
+    private final InMemoryApprovalStatementRepository approvals = new InMemoryApprovalStatementRepository();
+    private final PolicySnapshots snapshots = new PolicySnapshots(permissions, approvals, MAX_PROFILES);
+
+    @Test
+    void publishedSnapshotsAreReusedUntilAChange() {
+        allow(profile(0), "user:alice");
+        PolicySnapshot first = snapshots.current(profile(0).urn());
+        assertThat(snapshots.current(profile(0).urn())).isSameAs(first);
+
+        allow(profile(0), "user:bob");
+        snapshots.refresh(profile(0).urn());
+        PolicySnapshot second = snapshots.current(profile(0).urn());
+        assertThat(second.version()).isGreaterThan(first.version());
+        assertThat(second.permissions().size()).isEqualTo(2);
+        assertThat(snapshots.current(profile(0).urn())).isSameAs(second);
+    }
+
+    @Test
+    void evictedProfilesAreRebuiltAtANewerVersion() {
+        for (int p = 0; p < 4 * MAX_PROFILES; p++) {
+            allow(profile(p), "user:alice");
+        }
+        allow(profile(0), "user:bob");
+        snapshots.refresh(profile(0).urn());
+        PolicySnapshot before = snapshots.current(profile(0).urn());
+
+        for (int p = 1; p < 4 * MAX_PROFILES; p++) {
+            snapshots.current(profile(p).urn());
+        }
+
+        PolicySnapshot after = snapshots.current(profile(0).urn());
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.version()).isGreaterThanOrEqualTo(before.version());
+        assertThat(after.permissions().size()).isEqualTo(2);
+    }
+
+    @Test
+    void profilesWithoutStatementsAreNotKept() {
+        PolicySnapshot unknown = snapshots.current(profile(0).urn());
+        assertThat(unknown.permissions().size()).isZero();
+        assertThat(snapshots.current(profile(0).urn())).isNotSameAs(unknown);
+
+        PermissionStatement statement = allow(profile(1), "user:alice");
+        snapshots.refresh(profile(1).urn());
+        PolicySnapshot populated = snapshots.current(profile(1).urn());
+        assertThat(snapshots.current(profile(1).urn())).isSameAs(populated);
+
+        // Emptying a profile drops its snapshot, and the empty one carries a newer version
+        permissions.delete(statement.statementId());
+        snapshots.refresh(profile(1).urn());
+        PolicySnapshot emptied = snapshots.current(profile(1).urn());
+        assertThat(emptied.permissions().size()).isZero();
+        assertThat(emptied.version()).isGreaterThan(populated.version());
+        assertThat(snapshots.current(profile(1).urn())).isNotSameAs(emptied);
+    }
+
+    private PermissionStatement allow(ProfileId profileId, String subject) {
+        PermissionStatement statement = PermissionStatement.create(
+            profileId, subject, "payments:create", "*", Effect.ALLOW);
+        permissions.save(statement);
+        return statement;
+    }
+
+    private static ProfileId profile(int index) {
+        return ServicingProfileId.of(ClientId.srf("P" + index));
+    }
+}
@@ -0,0 +1,125 @@
+package com.knight.contexts.users.policy.infra.decisionlog;
+
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog.DecisionLogStats;
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog.DecisionOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that concurrent producers reach the rolling compressed files intact, and that entries
+ * that fail to write are counted as failed rather than written.
+ */
+class RingBufferPolicyDecisionLogTest {
+
+    private static final int PRODUCERS = 8;
+    private static final int PER_PRODUCER = 20_000;
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(100);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void blockingLogWritesEveryEntryAcrossRolledFiles() throws Exception {
+        RingBufferPolicyDecisionLog log = new RingBufferPolicyDecisionLog(
+            64, RingBufferPolicyDecisionLog.FullPolicy.BLOCK, new RollingDecisionFile(directory, 256 * 1024), FLUSH_INTERVAL);
+
+        runProducers(log);
+        log.close();
+
+        DecisionLogStats stats = log.stats();
+        List<String> lines = readEntries();
+
+        assertThat(stats.recorded()).isEqualTo(PRODUCERS * PER_PRODUCER);
+        assertThat(stats.dropped()).isZero();
+        assertThat(stats.written()).isEqualTo(stats.recorded());
+        assertThat(lines).hasSize(PRODUCERS * PER_PRODUCER);
+        assertThat(lines).allSatisfy(line -> assertThat(line.split("\t")).hasSize(7));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+    }
+
+    @Test
+    void droppingLogNeverLosesAcceptedEntries() throws Exception {
+        RingBufferPolicyDecisionLog log = new RingBufferPolicyDecisionLog(
+            8, RingBufferPolicyDecisionLog.FullPolicy.DROP, new RollingDecisionFile(directory, 64 * 1024 * 1024), FLUSH_INTERVAL);
+
+        runProducers(log);
+        log.close();
+
+        DecisionLogStats stats = log.stats();
+
+        assertThat(stats.recorded() + stats.dropped()).isEqualTo(PRODUCERS * PER_PRODUCER);
+        assertThat(stats.written()).isEqualTo(stats.recorded());
+        assertThat(readEntries()).hasSize((int) stats.recorded());
+    }
+
+    @Test
+    void failedWritesAreNotCountedAsWritten() throws Exception {
+        RollingDecisionFile failingSome = new RollingDecisionFile(directory, 64 * 1024 * 1024) {
+            @Override
+            public void append(long nanoTime, String profileUrn, String subject, String action, String resource,
+                               DecisionOutcome outcome, String statementId) throws IOException {
+                if (resource.endsWith("999")) {
+                    throw new IOException("disk full");
+                }
+                super.append(nanoTime, profileUrn, subject, action, resource, outcome, statementId);
+            }
+        };
+        RingBufferPolicyDecisionLog log = new RingBufferPolicyDecisionLog(
+            64, RingBufferPolicyDecisionLog.FullPolicy.BLOCK, failingSome, FLUSH_INTERVAL);
+
+        runProducers(log);
+        log.close();
+
+        DecisionLogStats stats = log.stats();
+        assertThat(stats.failed()).isEqualTo(PRODUCERS * (PER_PRODUCER / 1_000));
+        assertThat(stats.written()).isEqualTo(stats.recorded() - stats.failed());
+        assertThat(readEntries()).hasSize((int) stats.written());
+    }
+
+    private static void runProducers(RingBufferPolicyDecisionLog log) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            String subject = "user:u" + p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < PER_PRODUCER; i++) {
+                    log.record("servicing:srf:12345", subject, "receivables:view", "urn:knight:receivable:" + i,
+                        DecisionOutcome.ALLOW, "statement-1");
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private List<String> readEntries() throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                    reader.lines().filter(line -> !line.startsWith("#")).forEach(lines::add);
+                }
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,149 @@
+package com.knight.contexts.users.policy.infra.persistence;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ProfileId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Consistency of the profile index in the in-memory repositories, plus a lookup benchmark,
+ * tagged benchmark and run only with -Pbenchmark, showing that one profile's lookup time does
+ * not grow with the number of other tenants.
+ */
+class InMemoryStatementRepositoryProfileIndexTest {
+
+    private static final ProfileId PROFILE = profile(0);
+    private static final int STATEMENTS_PER_PROFILE = 20;
+
+    @Test
+    void indexFollowsSaveUpdateAndDelete() {
+        InMemoryPermissionStatementRepository repository = new InMemoryPermissionStatementRepository();
+        PermissionStatement statement = PermissionStatement.create(
+            PROFILE, "user:alice", "receivables:view", "*", Effect.ALLOW);
+        repository.save(statement);
+        repository.save(PermissionStatement.create(profile(1), "user:bob", "receivables:view", "*", Effect.ALLOW));
+
+        statement.updateEffect(Effect.DENY);
+        repository.save(statement);
+
+        assertThat(repository.findByProfileId(PROFILE))
+            .extracting(PermissionStatement::statementId, PermissionStatement::effect)
+            .containsExactly(tuple(statement.statementId(), Effect.DENY));
+
+        repository.delete(statement.statementId());
+
+        assertThat(repository.findByProfileId(PROFILE)).isEmpty();
+        assertThat(repository.findByProfileId(profile(1))).hasSize(1);
+    }
+
+    @Test
+    void approvalIndexFollowsSaveAndDelete() {
+        InMemoryApprovalStatementRepository repository = new InMemoryApprovalStatementRepository();
+        ApprovalStatement statement = ApprovalStatement.create(
+            PROFILE, "user:alice", "payments:approve", "*", 1, List.of("user:carol"), BigDecimal.TEN);
+        repository.save(statement);
+
+        statement.updateThreshold(BigDecimal.ONE);
+        repository.save(statement);
+
+        assertThat(repository.findByProfileId(PROFILE))
+            .extracting(ApprovalStatement::statementId, ApprovalStatement::amountThreshold)
+            .containsExactly(tuple(statement.statementId(), BigDecimal.ONE));
+
+        repository.delete(statement.statementId());
+
+        assertThat(repository.findByProfileId(PROFILE)).isEmpty();
+    }
+
+    @Test
+    void loadedStatementsAreDetachedUntilSaved() {
+        InMemoryPermissionStatementRepository repository = new InMemoryPermissionStatementRepository();
+        PermissionStatement statement = PermissionStatement.create(
+            PROFILE, "user:alice", "receivables:view", "*", Effect.ALLOW);
+        repository.save(statement);
+
+        repository.findById(statement.statementId()).orElseThrow().updateEffect(Effect.DENY);
+        statement.updateAction("receivables:export");
+
+        assertThat(repository.findById(statement.statementId())).hasValueSatisfying(found -> {
+            assertThat(found.effect()).isEqualTo(Effect.ALLOW);
+            assertThat(found.action()).isEqualTo("receivables:view");
+        });
+    }
+
+    @Test
+    void lookupReturnsOnlyTheProfilesStatementsAmongManyTenants() {
+        InMemoryPermissionStatementRepository repository = new InMemoryPermissionStatementRepository();
+        for (int i = 0; i < STATEMENTS_PER_PROFILE; i++) {
+            repository.save(PermissionStatement.create(
+                PROFILE, "user:u" + i, "receivables:view", "*", Effect.ALLOW));
+        }
+        fill(repository, 1, 50_000);
+
+        assertThat(repository.findByProfileId(PROFILE)).hasSize(STATEMENTS_PER_PROFILE)
+            .allSatisfy(statement -> assertThat(statement.profileId()).isEqualTo(PROFILE));
+        assertThat(repository.findByProfileId(profile(49_999))).hasSize(2);
+        assertThat(repository.findByProfileId(profile(50_000))).isEmpty();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void lookupTimeStaysFlatAsTenantsGrow() {
+        InMemoryPermissionStatementRepository repository = new InMemoryPermissionStatementRepository();
+        for (int i = 0; i < STATEMENTS_PER_PROFILE; i++) {
+            repository.save(PermissionStatement.create(
+                PROFILE, "user:u" + i, "receivables:view", "*", Effect.ALLOW));
+        }
+        fill(repository, 1, 1_000);
+        long fewTenants = medianLookupNanos(repository);
+
+        fill(repository, 1_000, 50_000);
+        long manyTenants = medianLookupNanos(repository);
+
+        System.out.printf("findByProfileId median: %,d ns with 1k tenants, %,d ns with 50k tenants%n",
+            fewTenants, manyTenants);
+
+        assertThat(repository.findByProfileId(PROFILE)).hasSize(STATEMENTS_PER_PROFILE);
+        // A full scan would be ~50x slower here; allow generous headroom for timer noise
+        assertThat(manyTenants).isLessThan(fewTenants * 5 + 10_000);
+    }
+
+    private static void fill(InMemoryPermissionStatementRepository repository, int from, int to) {
+        for (int tenant = from; tenant < to; tenant++) {
+            ProfileId profileId = profile(tenant);
+            for (int i = 0; i < 2; i++) {
+                repository.save(PermissionStatement.create(
+                    profileId, "user:u" + i, "receivables:view", "*", Effect.ALLOW));
+            }
+        }
+    }
+
+    private static long medianLookupNanos(InMemoryPermissionStatementRepository repository) {
+        int rounds = 2_000;
+        long[] samples = new long[rounds];
+        long sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            sink += repository.findByProfileId(PROFILE).size();
+            samples[i] = System.nanoTime() - start;
+        }
+        assertThat(sink).isPositive();
+        Arrays.sort(samples);
+        return samples[rounds / 2];
+    }
+
+    private static ProfileId profile(int tenant) {
+        return ServicingProfileId.of(ClientId.srf("T" + tenant));
+    }
+}
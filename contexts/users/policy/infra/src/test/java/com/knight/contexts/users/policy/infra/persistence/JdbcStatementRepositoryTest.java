@@ -0,0 +1,333 @@
+package com.knight.contexts.users.policy.infra.persistence;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.condition.Conditions;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ProfileId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import com.knight.platform.sharedkernel.UserGroupId;
+import com.knight.platform.sharedkernel.UserId;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.StatementPage;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.StatementPageQuery;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.StatementSummary;
+import com.knight.contexts.users.policy.app.cache.PolicyDecisionCache;
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog;
+import com.knight.contexts.users.policy.app.projection.EffectivePermissionProjection;
+import com.knight.contexts.users.policy.app.projection.GroupMembershipProjection;
+import com.knight.contexts.users.policy.app.service.PolicyApplicationService;
+import com.knight.contexts.users.policy.app.simulation.AccessReviewSimulator;
+import com.knight.contexts.users.policy.app.snapshot.PolicySnapshots;
+import com.knight.contexts.users.users.api.events.UserAddedToGroup;
+import com.knight.contexts.users.users.api.events.UserRemovedFromGroup;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.Collections.nCopies;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the Flyway migrations and the JDBC repositories against H2 in PostgreSQL mode.
+ */
+class JdbcStatementRepositoryTest {
+
+    private static final ProfileId PROFILE = ServicingProfileId.of(ClientId.srf("12345"));
+    private static final ProfileId OTHER_PROFILE = ServicingProfileId.of(ClientId.srf("67890"));
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcPermissionStatementRepository permissions;
+    private JdbcApprovalStatementRepository approvals;
+
+    @BeforeEach
+    void migrate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "sa",
+            ""
+        );
+        Flyway.configure().dataSource(dataSource).schemas("policy").load().migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        permissions = new JdbcPermissionStatementRepository(jdbcTemplate);
+        approvals = new JdbcApprovalStatementRepository(jdbcTemplate);
+    }
+
+    @Test
+    void permissionStatementsRoundTripAndBatchSave() {
+        List<PermissionStatement> batch = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            batch.add(PermissionStatement.create(
+                i % 2 == 0 ? PROFILE : OTHER_PROFILE, "user:u" + i, "receivables:view", "*", Effect.ALLOW));
+        }
+        permissions.saveAll(batch);
+
+        PermissionStatement statement = batch.get(0);
+        statement.updateEffect(Effect.DENY);
+        statement.updateResource("urn:knight:receivable:*");
+        statement.updateConditions(Conditions.parse("amount ..5000; hours MON-FRI 09:00-17:00 America/Toronto"));
+        permissions.save(statement);
+
+        assertThat(permissions.findByProfileId(PROFILE)).hasSize(250)
+            .extracting(PermissionStatement::statementId).isSorted();
+        assertThat(permissions.findById(statement.statementId())).hasValueSatisfying(found -> {
+            assertThat(found.profileId()).isEqualTo(PROFILE);
+            assertThat(found.subject()).isEqualTo("user:u0");
+            assertThat(found.effect()).isEqualTo(Effect.DENY);
+            assertThat(found.resource()).isEqualTo("urn:knight:receivable:*");
+            assertThat(found.conditions()).isEqualTo(statement.conditions());
+        });
+        assertThat(permissions.findById(batch.get(2).statementId()).orElseThrow().conditions())
+            .isSameAs(Conditions.NONE);
+
+        permissions.delete(statement.statementId());
+        assertThat(permissions.findById(statement.statementId())).isEmpty();
+        assertThat(permissions.findByProfileId(PROFILE)).hasSize(249);
+    }
+
+    @Test
+    void approvalStatementsKeepApproverOrderAcrossUpdates() {
+        ApprovalStatement bounded = ApprovalStatement.create(
+            PROFILE, "*", "payments:create", "*", 2, List.of("user:carol", "user:alice", "user:bob"),
+            new BigDecimal("10000.50"), Conditions.parse("currency USD,CAD"));
+        ApprovalStatement unbounded = ApprovalStatement.create(
+            PROFILE, "user:*", "payments:*", "*", 1, List.of("user:dave"), null);
+        approvals.saveAll(List.of(bounded, unbounded));
+
+        bounded.updateApprovers(1, List.of("user:erin", "user:carol"));
+        approvals.save(bounded);
+
+        List<ApprovalStatement> loaded = approvals.findByProfileId(PROFILE);
+        assertThat(loaded).hasSize(2);
+
+        ApprovalStatement found = approvals.findById(bounded.statementId()).orElseThrow();
+        assertThat(found.approverCount()).isEqualTo(1);
+        assertThat(found.approvers()).containsExactly("user:erin", "user:carol");
+        assertThat(found.amountThreshold()).isEqualByComparingTo("10000.50");
+        assertThat(found.conditions().format()).isEqualTo("currency CAD,USD");
+        assertThat(approvals.findById(unbounded.statementId()).orElseThrow().amountThreshold()).isNull();
+
+        approvals.delete(bounded.statementId());
+        assertThat(approvals.findByProfileId(PROFILE)).extracting(ApprovalStatement::statementId)
+            .containsExactly(unbounded.statementId());
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM policy.approval_statement_approver", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void keysetPagesCoverProfileOnceInOrder() {
+        List<PermissionStatement> batch = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            batch.add(PermissionStatement.create(
+                i % 5 == 0 ? OTHER_PROFILE : PROFILE, "user:u" + i, "receivables:view", "*",
+                i % 3 == 0 ? Effect.DENY : Effect.ALLOW));
+        }
+        permissions.saveAll(batch);
+        List<String> expected = batch.stream()
+            .filter(s -> s.profileId().equals(PROFILE) && s.effect() == Effect.DENY)
+            .map(PermissionStatement::statementId)
+            .sorted()
+            .toList();
+
+        List<String> paged = new ArrayList<>();
+        String after = null;
+        List<PermissionStatement> page;
+        do {
+            page = permissions.findPageByProfileId(PROFILE, Effect.DENY, after, 17);
+            page.forEach(s -> paged.add(s.statementId()));
+            after = page.isEmpty() ? after : page.get(page.size() - 1).statementId();
+        } while (page.size() == 17);
+
+        assertThat(paged).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void wholeStoreReadsGroupStatementsByProfile() {
+        List<PermissionStatement> batch = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            batch.add(PermissionStatement.create(
+                i % 4 == 0 ? OTHER_PROFILE : PROFILE, "user:u" + i, "receivables:view", "*", Effect.ALLOW));
+        }
+        permissions.saveAll(batch);
+        approvals.saveAll(List.of(
+            ApprovalStatement.create(PROFILE, "*", "payments:create", "*", 2,
+                List.of("user:carol", "user:alice", "user:bob"), null),
+            ApprovalStatement.create(PROFILE, "user:*", "payments:*", "*", 1, List.of("user:dave"), null)));
+
+        var allPermissions = permissions.findAllByProfile();
+        assertThat(allPermissions).containsOnlyKeys(PROFILE.urn(), OTHER_PROFILE.urn());
+        assertThat(allPermissions.get(PROFILE.urn())).extracting(PermissionStatement::statementId)
+            .containsExactlyElementsOf(permissions.findByProfileId(PROFILE).stream()
+                .map(PermissionStatement::statementId).toList());
+        assertThat(allPermissions.get(OTHER_PROFILE.urn())).hasSize(10);
+
+        var allApprovals = approvals.findAllByProfile();
+        assertThat(allApprovals).containsOnlyKeys(PROFILE.urn());
+        assertThat(allApprovals.get(PROFILE.urn())).extracting(ApprovalStatement::approvers)
+            .containsExactlyElementsOf(approvals.findByProfileId(PROFILE).stream()
+                .map(ApprovalStatement::approvers).toList());
+    }
+
+    @Test
+    void servicePagesAndStreamsPermissionsThenApprovals() {
+        List<PermissionStatement> permissionBatch = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            permissionBatch.add(PermissionStatement.create(
+                PROFILE, "user:u" + i, "receivables:view", "*", i % 2 == 0 ? Effect.ALLOW : Effect.DENY));
+        }
+        permissions.saveAll(permissionBatch);
+        List<ApprovalStatement> approvalBatch = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            approvalBatch.add(ApprovalStatement.create(
+                PROFILE, "user:u" + i, "payments:create", "*", 2, List.of("user:a", "user:b", "user:c"), null));
+        }
+        approvals.saveAll(approvalBatch);
+        try (AccessReviewSimulator simulator = new AccessReviewSimulator(1)) {
+            assertPagingAndStreaming(service(simulator));
+        }
+    }
+
+    @Test
+    void fullPagesOnlyCarryACursorWhenMoreStatementsFollow() {
+        List<PermissionStatement> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(PermissionStatement.create(PROFILE, "user:u" + i, "receivables:view", "*", Effect.ALLOW));
+        }
+        permissions.saveAll(batch);
+        try (AccessReviewSimulator simulator = new AccessReviewSimulator(1)) {
+            PolicyQueries queries = service(simulator);
+
+            // Permissions fill the page exactly and there are no approvals to continue with
+            StatementPage page = queries.getStatementsPage(new StatementPageQuery(PROFILE.urn(), null, null, null, 5));
+            page = queries.getStatementsPage(new StatementPageQuery(PROFILE.urn(), null, null, page.nextCursor(), 5));
+            assertThat(page.statements()).hasSize(5);
+            assertThat(page.nextCursor()).isNull();
+
+            // Once approvals exist the same full page hands over to them
+            approvals.save(ApprovalStatement.create(PROFILE, "*", "payments:create", "*", 1, List.of("user:a"), null));
+            page = queries.getStatementsPage(new StatementPageQuery(PROFILE.urn(), null, null, null, 10));
+            assertThat(page.statements()).hasSize(10);
+            page = queries.getStatementsPage(new StatementPageQuery(PROFILE.urn(), null, null, page.nextCursor(), 10));
+            assertThat(page.statements()).extracting(StatementSummary::type).containsExactly("APPROVAL");
+            assertThat(page.nextCursor()).isNull();
+
+            // A cursor is only valid under the filters that issued it
+            String permissionCursor = queries.getStatementsPage(
+                new StatementPageQuery(PROFILE.urn(), "PERMISSION", null, null, 3)).nextCursor();
+            String approvalCursor = queries.getStatementsPage(
+                new StatementPageQuery(PROFILE.urn(), null, null, null, 10)).nextCursor();
+            assertThatThrownBy(() -> queries.getStatementsPage(
+                new StatementPageQuery(PROFILE.urn(), "APPROVAL", null, permissionCursor, 3)))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> queries.getStatementsPage(
+                new StatementPageQuery(PROFILE.urn(), "PERMISSION", null, approvalCursor, 3)))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> queries.getStatementsPage(
+                new StatementPageQuery(PROFILE.urn(), null, Effect.ALLOW, approvalCursor, 3)))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private static void assertPagingAndStreaming(PolicyQueries queries) {
+        List<StatementSummary> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            StatementPage page = queries.getStatementsPage(new StatementPageQuery(PROFILE.urn(), null, null, cursor, 5));
+            assertThat(page.statements()).hasSizeLessThanOrEqualTo(5);
+            paged.addAll(page.statements());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(paged).extracting(StatementSummary::type)
+            .containsExactlyElementsOf(concat(nCopies(23, "PERMISSION"), nCopies(12, "APPROVAL")));
+        assertThat(paged).extracting(StatementSummary::statementId).doesNotHaveDuplicates();
+
+        List<StatementSummary> streamed = new ArrayList<>();
+        queries.streamStatements(new StatementPageQuery(PROFILE.urn(), null, null, null, 0), streamed::add);
+        assertThat(streamed).containsExactlyElementsOf(paged);
+
+        List<StatementSummary> allowed = new ArrayList<>();
+        queries.streamStatements(new StatementPageQuery(PROFILE.urn(), null, Effect.ALLOW, null, 0), allowed::add);
+        assertThat(allowed).hasSize(12).allMatch(s -> s.effect() == Effect.ALLOW);
+    }
+
+    @Test
+    void groupMembershipEventsDriveGroupSubjects() {
+        UserId alice = UserId.of("alice");
+        UserGroupId treasury = UserGroupId.of("treasury");
+        PermissionStatement allow = PermissionStatement.create(
+            PROFILE, "group:treasury", "payments:create", "*", Effect.ALLOW);
+        permissions.save(allow);
+        permissions.save(PermissionStatement.create(PROFILE, "user:bob", "payments:create", "*", Effect.DENY));
+        GroupMembershipProjection memberships = new GroupMembershipProjection(
+            new JdbcGroupMembershipRepository(jdbcTemplate), 100, true);
+
+        try (AccessReviewSimulator simulator = new AccessReviewSimulator(1)) {
+            PolicyQueries service = service(simulator, memberships);
+            assertThat(canPay(service, "user:alice")).isFalse();
+
+            // Redelivered events must not fail on the existing row
+            memberships.on(new UserAddedToGroup(treasury, alice, Instant.now()));
+            memberships.on(new UserAddedToGroup(treasury, alice, Instant.now()));
+            assertThat(canPay(service, "user:alice")).isTrue();
+            assertThat(new GroupMembershipProjection(new JdbcGroupMembershipRepository(jdbcTemplate), 100, true)
+                .groupSubjectsOf("user:alice")).containsExactly("group:treasury");
+
+            memberships.on(new UserRemovedFromGroup(treasury, alice, Instant.now()));
+            assertThat(canPay(service, "user:alice")).isFalse();
+        }
+    }
+
+    @Test
+    void profileLookupUsesCompositeIndex() {
+        String plan = jdbcTemplate.queryForObject(
+            "EXPLAIN SELECT statement_id FROM policy.permission_statement WHERE profile_urn = 'x'", String.class);
+        String keysetPlan = jdbcTemplate.queryForObject(
+            "EXPLAIN SELECT statement_id FROM policy.approval_statement WHERE profile_urn = 'x' AND statement_id > 'y' "
+                + "ORDER BY statement_id LIMIT 10", String.class);
+
+        // Either profile-leading index serves the lookup; keyset pages need the id-ordered one
+        assertThat(plan).contains("idx_permission_statement_profile_");
+        assertThat(keysetPlan).contains("idx_approval_statement_profile_id");
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    private PolicyQueries service(AccessReviewSimulator simulator) {
+        return service(simulator, new GroupMembershipProjection(new InMemoryGroupMembershipRepository(), 100, false));
+    }
+
+    private PolicyQueries service(AccessReviewSimulator simulator, GroupMembershipProjection memberships) {
+        return new PolicyApplicationService(
+            permissions,
+            approvals,
+            event -> { },
+            new PolicySnapshots(permissions, approvals, 100),
+            new PolicyDecisionCache(100),
+            PolicyDecisionLog.DISABLED,
+            new EffectivePermissionProjection(permissions, 100, 100),
+            simulator,
+            memberships
+        );
+    }
+
+    private static boolean canPay(PolicyQueries service, String subject) {
+        return service.evaluatePermission(new PolicyQueries.EvaluatePermissionQuery(
+            PROFILE.urn(), subject, "payments:create", "urn:knight:payment:1")).allowed();
+    }
+}
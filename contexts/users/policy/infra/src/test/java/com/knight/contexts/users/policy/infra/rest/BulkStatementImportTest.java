@@ -0,0 +1,161 @@
+package com.knight.contexts.users.policy.infra.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.BulkImportResult;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.BulkStatementsCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.api.events.PolicyStatementsImported;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.EvaluateApprovalQuery;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.EvaluatePermissionQuery;
+import com.knight.contexts.users.policy.app.cache.PolicyDecisionCache;
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog;
+import com.knight.contexts.users.policy.app.projection.EffectivePermissionProjection;
+import com.knight.contexts.users.policy.app.projection.GroupMembershipProjection;
+import com.knight.contexts.users.policy.app.service.PolicyApplicationService;
+import com.knight.contexts.users.policy.app.simulation.AccessReviewSimulator;
+import com.knight.contexts.users.policy.app.snapshot.PolicySnapshots;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryApprovalStatementRepository;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryGroupMembershipRepository;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryPermissionStatementRepository;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Streamed NDJSON/CSV parsing and the all-or-nothing bulk create/replace commands.
+ */
+class BulkStatementImportTest {
+
+    private static final String PROFILE = ServicingProfileId.of(ClientId.srf("12345")).urn();
+
+    private final StatementImportReader reader = new StatementImportReader(new ObjectMapper());
+    private final List<Object> events = new ArrayList<>();
+
+    private InMemoryPermissionStatementRepository permissions;
+    private PolicySnapshots snapshots;
+    private AccessReviewSimulator simulator;
+    private PolicyApplicationService service;
+
+    @BeforeEach
+    void setUp() {
+        permissions = new InMemoryPermissionStatementRepository();
+        InMemoryApprovalStatementRepository approvals = new InMemoryApprovalStatementRepository();
+        snapshots = new PolicySnapshots(permissions, approvals, 100);
+        simulator = new AccessReviewSimulator(1);
+        service = new PolicyApplicationService(
+            permissions,
+            approvals,
+            event -> {
+                events.add(event);
+                if (event instanceof PolicyStatementsImported imported) {
+                    snapshots.on(imported);
+                }
+            },
+            snapshots,
+            new PolicyDecisionCache(1_000),
+            PolicyDecisionLog.DISABLED,
+            new EffectivePermissionProjection(permissions, 100, 100),
+            simulator,
+            new GroupMembershipProjection(new InMemoryGroupMembershipRepository(), 100, false)
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    void readsNdjsonAndCsv() throws IOException {
+        BulkStatementsCmd ndjson = read(false, """
+            {"type":"PERMISSION","subject":"user:alice","action":"receivables:*","resource":"*","effect":"ALLOW","conditions":"currency USD; amount ..500"}
+
+            {"type":"APPROVAL","subject":"*","action":"payments:create","resource":"*","approverCount":2,"approvers":["user:carol","user:dave"],"amountThreshold":10000}
+            """);
+        BulkStatementsCmd csv = read(true, """
+            type,subject,action,resource,effect,approverCount,approvers,amountThreshold,conditions
+            PERMISSION,user:alice,receivables:*,*,ALLOW,,,,currency USD; amount ..500
+            APPROVAL,*,payments:create,*,,2,"user:carol|user:dave",10000,
+            """);
+
+        for (BulkStatementsCmd cmd : List.of(ndjson, csv)) {
+            assertThat(cmd.permissions()).singleElement().satisfies(p -> {
+                assertThat(p.subject()).isEqualTo("user:alice");
+                assertThat(p.effect()).isEqualTo(Effect.ALLOW);
+                assertThat(p.conditions()).isEqualTo("currency USD; amount ..500");
+            });
+            assertThat(cmd.approvals()).singleElement().satisfies(a -> {
+                assertThat(a.approvers()).containsExactly("user:carol", "user:dave");
+                assertThat(a.amountThreshold()).isEqualByComparingTo("10000");
+            });
+        }
+        assertThat(StatementImportReader.splitCsv("a,\"b,\"\"c\"\"\",")).containsExactly("a", "b,\"c\"", "");
+        assertThatThrownBy(() -> read(false, "{\"type\":\"PERMISSION\"}\n{\"type\":\"OTHER\"}\n"))
+            .hasMessageStartingWith("line 2:");
+    }
+
+    @Test
+    void invalidEntryRejectsWholeBatch() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            body.append("{\"type\":\"PERMISSION\",\"subject\":\"user:u").append(i)
+                .append("\",\"action\":\"receivables:view\",\"resource\":\"*\",\"effect\":\"ALLOW\"}\n");
+        }
+        body.append("{\"type\":\"PERMISSION\",\"subject\":\"user:x\",\"action\":\"\",\"resource\":\"*\",\"effect\":\"ALLOW\"}\n");
+        BulkStatementsCmd cmd = read(false, body.toString());
+
+        assertThatThrownBy(() -> service.bulkCreateStatements(cmd))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("permissions[1000]");
+        assertThat(permissions.findByProfileId(ServicingProfileId.of(ClientId.srf("12345")))).isEmpty();
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void bulkCreateAndReplacePublishOneEventEach() throws IOException {
+        StringBuilder body = new StringBuilder("type,subject,action,resource,effect\n");
+        for (int i = 0; i < 10_000; i++) {
+            body.append("PERMISSION,user:u").append(i).append(",receivables:view,*,ALLOW\n");
+        }
+        BulkImportResult created = service.bulkCreateStatements(read(true, body.toString()));
+
+        assertThat(created.permissionsCreated()).isEqualTo(10_000);
+        assertThat(events).hasSize(1);
+        assertThat(allowed("user:u42")).isTrue();
+
+        BulkImportResult replaced = service.replaceStatements(read(true, """
+            type,subject,action,resource,effect,approverCount,approvers,amountThreshold
+            PERMISSION,user:alice,receivables:view,*,ALLOW,,,
+            APPROVAL,user:alice,payments:create,*,,1,user:carol,
+            """));
+
+        assertThat(replaced).isEqualTo(new BulkImportResult(PROFILE, 1, 1, 10_000, 0));
+        assertThat(events).hasSize(2).last().isInstanceOfSatisfying(PolicyStatementsImported.class,
+            event -> assertThat(event.replaced()).isTrue());
+        assertThat(allowed("user:u42")).isFalse();
+        assertThat(allowed("user:alice")).isTrue();
+        assertThat(service.evaluateApprovalRequirement(new EvaluateApprovalQuery(
+            PROFILE, "user:alice", "payments:create", "x", BigDecimal.ONE)).approvalRequired()).isTrue();
+    }
+
+    private boolean allowed(String subject) {
+        return service.evaluatePermission(
+            new EvaluatePermissionQuery(PROFILE, subject, "receivables:view", "urn:knight:receivable:1")).allowed();
+    }
+
+    private BulkStatementsCmd read(boolean csv, String body) throws IOException {
+        return reader.read(PROFILE, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), csv);
+    }
+}
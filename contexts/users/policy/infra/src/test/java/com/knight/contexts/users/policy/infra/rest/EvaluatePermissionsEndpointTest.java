@@ -0,0 +1,103 @@
+package com.knight.contexts.users.policy.infra.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.CreatePermissionStatementCmd;
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.api.events.PermissionStatementCreated;
+import com.knight.contexts.users.policy.api.queries.PolicyQueries.PermissionCheck;
+import com.knight.contexts.users.policy.app.cache.PolicyDecisionCache;
+import com.knight.contexts.users.policy.app.decisionlog.PolicyDecisionLog;
+import com.knight.contexts.users.policy.app.projection.EffectivePermissionProjection;
+import com.knight.contexts.users.policy.app.projection.GroupMembershipProjection;
+import com.knight.contexts.users.policy.app.service.PolicyApplicationService;
+import com.knight.contexts.users.policy.app.simulation.AccessReviewSimulator;
+import com.knight.contexts.users.policy.app.snapshot.PolicySnapshots;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryApprovalStatementRepository;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryGroupMembershipRepository;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryPermissionStatementRepository;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static java.util.Collections.nCopies;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /evaluate-permissions: results in request order, and oversized batches refused.
+ */
+class EvaluatePermissionsEndpointTest {
+
+    private static final String PROFILE = ServicingProfileId.of(ClientId.srf("12345")).urn();
+    private static final String URL = "/queries/users/policy/evaluate-permissions";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private AccessReviewSimulator simulator;
+    private PolicyApplicationService service;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryPermissionStatementRepository permissions = new InMemoryPermissionStatementRepository();
+        InMemoryApprovalStatementRepository approvals = new InMemoryApprovalStatementRepository();
+        PolicySnapshots snapshots = new PolicySnapshots(permissions, approvals, 100);
+        PolicyDecisionCache cache = new PolicyDecisionCache(1_000);
+        simulator = new AccessReviewSimulator(1);
+        service = new PolicyApplicationService(
+            permissions,
+            approvals,
+            event -> snapshots.on((PermissionStatementCreated) event),
+            snapshots,
+            cache,
+            PolicyDecisionLog.DISABLED,
+            new EffectivePermissionProjection(permissions, 100, 100),
+            simulator,
+            new GroupMembershipProjection(new InMemoryGroupMembershipRepository(), 100, false)
+        );
+        mvc = MockMvcBuilders.standaloneSetup(
+            new PolicyQueryController(service, cache, PolicyDecisionLog.DISABLED, objectMapper)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    void returnsResultsInRequestOrder() throws Exception {
+        service.createPermissionStatement(new CreatePermissionStatementCmd(
+            PROFILE, "user:alice", "receivables:*", "*", Effect.ALLOW));
+
+        mvc.perform(post(URL).contentType(MediaType.APPLICATION_JSON).content(body(List.of(
+                new PermissionCheck("user:bob", "receivables:view", "urn:knight:receivable:1"),
+                new PermissionCheck("user:alice", "receivables:view", "urn:knight:receivable:1"),
+                new PermissionCheck("user:alice", "payments:create", "urn:knight:payment:1")))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(3))
+            .andExpect(jsonPath("$[0].allowed").value(false))
+            .andExpect(jsonPath("$[1].allowed").value(true))
+            .andExpect(jsonPath("$[2].allowed").value(false));
+    }
+
+    @Test
+    void rejectsBatchesOverTheLimit() throws Exception {
+        PermissionCheck check = new PermissionCheck("user:alice", "receivables:view", "urn:knight:receivable:1");
+
+        mvc.perform(post(URL).contentType(MediaType.APPLICATION_JSON).content(body(nCopies(1_001, check))))
+            .andExpect(status().isBadRequest())
+            .andExpect(status().reason("A batch holds at most 1000 checks, got 1001"));
+    }
+
+    private String body(List<PermissionCheck> checks) throws Exception {
+        return objectMapper.writeValueAsString(new PolicyQueryController.EvaluatePermissionsRequest(PROFILE, checks, null));
+    }
+}
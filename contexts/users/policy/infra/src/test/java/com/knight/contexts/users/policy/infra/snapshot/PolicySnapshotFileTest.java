@@ -0,0 +1,132 @@
+package com.knight.contexts.users.policy.infra.snapshot;
+
+import com.knight.contexts.users.policy.api.commands.PolicyCommands.Effect;
+import com.knight.contexts.users.policy.app.snapshot.PolicySnapshots;
+import com.knight.contexts.users.policy.domain.aggregate.ApprovalStatement;
+import com.knight.contexts.users.policy.domain.aggregate.PermissionStatement;
+import com.knight.contexts.users.policy.domain.condition.Conditions;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryApprovalStatementRepository;
+import com.knight.contexts.users.policy.infra.persistence.InMemoryPermissionStatementRepository;
+import com.knight.platform.sharedkernel.ClientId;
+import com.knight.platform.sharedkernel.ProfileId;
+import com.knight.platform.sharedkernel.ServicingProfileId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Export, checksum and staleness checks of the binary warm-start file.
+ */
+class PolicySnapshotFileTest {
+
+    private static final int PROFILES = 500;
+    private static final int PERMISSIONS_PER_PROFILE = 200;
+
+    @TempDir
+    Path directory;
+
+    private InMemoryPermissionStatementRepository permissions;
+    private InMemoryApprovalStatementRepository approvals;
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        permissions = new InMemoryPermissionStatementRepository();
+        approvals = new InMemoryApprovalStatementRepository();
+        file = directory.resolve("policy-snapshot.bin");
+        for (int p = 0; p < PROFILES; p++) {
+            ProfileId profileId = profile(p);
+            for (int i = 0; i < PERMISSIONS_PER_PROFILE; i++) {
+                permissions.save(PermissionStatement.create(
+                    profileId, "user:u" + (i % 40), "module" + (i % 7) + ":action" + i,
+                    i % 5 == 0 ? "*" : "urn:knight:account:" + i, i % 11 == 0 ? Effect.DENY : Effect.ALLOW));
+            }
+            approvals.save(ApprovalStatement.create(
+                profileId, "user:*", "payments:create", "*", 2, List.of("user:carol", "user:alice", "user:bob"),
+                new BigDecimal("25000.75"), Conditions.parse("currency USD; hours MON-FRI 08:00-18:00")));
+        }
+    }
+
+    @Test
+    void warmStartInstallsCurrentProfilesAndSkipsChangedOnes() throws IOException {
+        assertThat(warmStart(new PolicySnapshots(permissions, approvals, 100)).export()).isEqualTo(PROFILES);
+
+        // One profile updated and one emptied after the export
+        PermissionStatement changed = permissions.findByProfileId(profile(1)).get(0);
+        changed.updateEffect(changed.effect() == Effect.ALLOW ? Effect.DENY : Effect.ALLOW);
+        permissions.save(changed);
+        permissions.deleteByProfileId(profile(2));
+        approvals.deleteByProfileId(profile(2));
+
+        PolicySnapshots restarted = new PolicySnapshots(permissions, approvals, 100);
+        PolicySnapshotWarmStart.LoadResult result = warmStart(restarted).load();
+        assertThat(result).isEqualTo(new PolicySnapshotWarmStart.LoadResult(PROFILES - 2, 2));
+
+        // Installed and rebuilt profiles decide exactly like a cold build
+        PolicySnapshots cold = new PolicySnapshots(permissions, approvals, 100);
+        for (int p = 0; p < 5; p++) {
+            String urn = profile(p).urn();
+            assertThat(restarted.current(urn).permissions().size()).isEqualTo(cold.current(urn).permissions().size());
+            for (int i = 0; i < PERMISSIONS_PER_PROFILE; i += 13) {
+                String action = "module" + (i % 7) + ":action" + i;
+                String resource = "urn:knight:account:" + i;
+                assertThat(restarted.current(urn).permissions().decide("user:u" + (i % 40), action, resource))
+                    .isEqualTo(cold.current(urn).permissions().decide("user:u" + (i % 40), action, resource));
+            }
+            BigDecimal amount = new BigDecimal("30000");
+            assertThat(restarted.current(urn).approvals().decide("user:u1", "payments:create", "*", amount))
+                .isEqualTo(cold.current(urn).approvals().decide("user:u1", "payments:create", "*", amount));
+        }
+    }
+
+    @Test
+    void roundTripKeepsApprovalDetailsAndConditions() throws IOException {
+        warmStart(new PolicySnapshots(permissions, approvals, 100)).export();
+
+        List<PolicySnapshotFile.ProfileEntry> entries = PolicySnapshotFile.read(file);
+
+        assertThat(entries).hasSize(PROFILES);
+        ApprovalStatement approval = entries.get(0).approvals().get(0);
+        assertThat(approval.approvers()).containsExactly("user:carol", "user:alice", "user:bob");
+        assertThat(approval.amountThreshold()).isEqualByComparingTo("25000.75");
+        assertThat(approval.conditions()).isEqualTo(Conditions.parse("currency USD; hours MON-FRI 08:00-18:00"));
+        assertThat(entries.get(0).permissions()).hasSize(PERMISSIONS_PER_PROFILE);
+    }
+
+    @Test
+    void corruptFileIsRejected() throws IOException {
+        warmStart(new PolicySnapshots(permissions, approvals, 100)).export();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, channel.size() / 2);
+            one.put(0, (byte) (one.get(0) ^ 0x5A));
+            one.rewind();
+            channel.write(one, channel.size() / 2);
+        }
+
+        assertThatThrownBy(() -> PolicySnapshotFile.read(file))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("checksum");
+        assertThat(warmStart(new PolicySnapshots(permissions, approvals, 100)).load())
+            .isEqualTo(new PolicySnapshotWarmStart.LoadResult(0, 0));
+    }
+
+    private PolicySnapshotWarmStart warmStart(PolicySnapshots snapshots) {
+        return new PolicySnapshotWarmStart(permissions, approvals, snapshots, file);
+    }
+
+    private static ProfileId profile(int index) {
+        return ServicingProfileId.of(ClientId.srf("P" + index));
+    }
+}